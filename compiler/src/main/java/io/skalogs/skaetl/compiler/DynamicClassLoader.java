@@ -1,5 +1,8 @@
 package io.skalogs.skaetl.compiler;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,6 +19,25 @@ public class DynamicClassLoader extends ClassLoader {
     }
 
 
+    // byte code compiled earlier, by another class loader or another run
+    public void registerByteCode(String className, byte[] byteCode) {
+        MemoryByteCode memoryByteCode = new MemoryByteCode(className);
+        try (OutputStream outputStream = memoryByteCode.openOutputStream()) {
+            outputStream.write(byteCode);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registerCompiledSource(memoryByteCode);
+    }
+
+    public Map<String, byte[]> getByteCodes() {
+        Map<String, byte[]> classes = new HashMap<>();
+        for (MemoryByteCode byteCode : byteCodes.values()) {
+            classes.put(byteCode.getClassName(), byteCode.getByteCode());
+        }
+        return classes;
+    }
+
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
         MemoryByteCode byteCode = byteCodes.get(name);
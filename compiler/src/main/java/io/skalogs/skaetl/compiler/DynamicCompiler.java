@@ -110,6 +110,10 @@ public class DynamicCompiler {
         return diagnosticToString(warnings);
     }
 
+    public Map<String, byte[]> getByteCodes() {
+        return dynamicClassLoader.getByteCodes();
+    }
+
     public ClassLoader getClassLoader() {
         return dynamicClassLoader;
     }
@@ -1,6 +1,7 @@
 package io.skalogs.skaetl.admin;
 
 import io.skalogs.skaetl.config.ZookeeperConfiguration;
+import io.skalogs.skaetl.domain.StreamSettings;
 import io.skalogs.skaetl.domain.TopicInfo;
 import kafka.admin.AdminUtils;
 import kafka.admin.RackAwareMode;
@@ -11,6 +12,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.errors.TopicExistsException;
 import org.springframework.stereotype.Component;
+import scala.Option;
 
 import java.util.List;
 import java.util.Properties;
@@ -49,19 +51,38 @@ public class KafkaAdminService {
     }
 
     public void buildTopic(String... topicList) {
+        buildTopic(zookeeperConfiguration.getTopicDefaultPartition(), topicList);
+    }
+
+    public void buildTopic(StreamSettings streamSettings, String... topicList) {
+        buildTopic(partitions(streamSettings), topicList);
+    }
+
+    public void buildTopic(int partitions, String... topicList) {
         createTopics(Stream.of(topicList)
                 .filter(e -> StringUtils.isNotBlank(e))
-                .map(e -> createTopic(e))
+                .map(e -> createTopic(e, partitions))
                 .collect(toList()));
     }
 
-    private TopicInfo createTopic(String item) {
+    public int partitions(StreamSettings streamSettings) {
+        int defaultPartitions = zookeeperConfiguration.getTopicDefaultPartition();
+        if (streamSettings == null) {
+            return defaultPartitions;
+        }
+        if (streamSettings.getPartitions() != null) {
+            return streamSettings.getPartitions();
+        }
+        return streamSettings.getNumStreamThreads() != null ? Math.max(defaultPartitions, streamSettings.getNumStreamThreads()) : defaultPartitions;
+    }
+
+    private TopicInfo createTopic(String item, int partitions) {
         return TopicInfo.builder()
                 .name(item)
                 .secure(zookeeperConfiguration.isTopicSecured())
                 .retentionHours(zookeeperConfiguration.getTopicDefaultRetentionHours())
                 .replica(zookeeperConfiguration.getTopicDefaultReplica())
-                .partition(zookeeperConfiguration.getTopicDefaultPartition())
+                .partition(partitions)
                 .build();
     }
 
@@ -78,10 +99,18 @@ public class KafkaAdminService {
             log.info("Creation topic at startup ok {}", topicInfo);
         } catch (TopicExistsException e) {
             log.info("Topic {} already exist !", topicInfo.getName());
+            checkPartitions(zkUtils, topicInfo);
         } catch (RuntimeException e) {
             log.error("Error for create {} msg {}", topicInfo, e);
         } finally {
             zkUtils.close();
         }
     }
-}
\ No newline at end of file
+
+    private void checkPartitions(ZkUtils zkUtils, TopicInfo topicInfo) {
+        Option<Object> partitionCount = zkUtils.getTopicPartitionCount(topicInfo.getName());
+        if (partitionCount.isDefined() && (Integer) partitionCount.get() < topicInfo.getPartition()) {
+            log.warn("Topic {} has {} partitions, less than the {} requested: extra stream threads will stay idle", topicInfo.getName(), partitionCount.get(), topicInfo.getPartition());
+        }
+    }
+}
@@ -18,6 +18,8 @@ public class ESBufferConfiguration {
     public Integer maxElements;
     public Integer maxSizeInBytes;
     public Integer maxTime;
+    // bulk requests sent to elasticsearch while the next one is being filled
+    public Integer maxInFlightRequests = 2;
     public final TimeUnit maxTimeUnit = SECONDS;
 
 }
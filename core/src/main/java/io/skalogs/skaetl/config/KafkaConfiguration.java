@@ -1,6 +1,7 @@
 package io.skalogs.skaetl.config;
 
 import io.skalogs.skaetl.utils.AutoOffsetReset;
+import io.skalogs.skaetl.utils.ProducerProfile;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -19,4 +20,43 @@ public class KafkaConfiguration {
     private Integer pollingTime;
     private String pollRecord;
     private AutoOffsetReset autoOffsetReset = AutoOffsetReset.earliest;
+    private ProducerSettings latencyProducer = ProducerSettings.builder()
+            .batchSize(16384)
+            .lingerMs(0)
+            .compressionType("none")
+            .acks("1")
+            .retries(3)
+            .idempotence(false)
+            .maxInFlightRequestsPerConnection(5)
+            .build();
+    private ProducerSettings throughputProducer = ProducerSettings.builder()
+            .batchSize(262144)
+            .lingerMs(20)
+            .compressionType("lz4")
+            .acks("1")
+            .retries(3)
+            .idempotence(false)
+            .maxInFlightRequestsPerConnection(5)
+            .build();
+    private ProducerSettings durableProducer = ProducerSettings.builder()
+            .batchSize(65536)
+            .lingerMs(5)
+            .compressionType("lz4")
+            .acks("all")
+            .retries(Integer.MAX_VALUE)
+            .idempotence(true)
+            .maxInFlightRequestsPerConnection(5)
+            .build();
+
+    public ProducerSettings producerSettings(ProducerProfile producerProfile) {
+        switch (producerProfile) {
+            case throughput:
+                return throughputProducer;
+            case durable:
+                return durableProducer;
+            case latency:
+            default:
+                return latencyProducer;
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package io.skalogs.skaetl.config;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@ToString
+public class ProducerSettings {
+    private Integer batchSize;
+    private Integer lingerMs;
+    // none, gzip, snappy, lz4 (zstd needs kafka-clients 2.1+)
+    private String compressionType;
+    private String acks;
+    private Integer retries;
+    private Boolean idempotence;
+    private Integer maxInFlightRequestsPerConnection;
+}
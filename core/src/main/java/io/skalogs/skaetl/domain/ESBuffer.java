@@ -1,9 +1,13 @@
 package io.skalogs.skaetl.domain;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.hash.HashFunction;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
 import io.skalogs.skaetl.config.ESBufferConfiguration;
 import io.skalogs.skaetl.config.ESConfiguration;
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
@@ -11,55 +15,111 @@ import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.slf4j.MDC;
 
-import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Stopwatch.createUnstarted;
 import static com.google.common.hash.Hashing.murmur3_128;
-import static java.nio.charset.Charset.defaultCharset;
 
 @Slf4j
 public class ESBuffer {
+
+    private static final Gauge esBulkInFlight = Gauge.build()
+            .name("nb_es_bulk_in_flight")
+            .help("nb bulk requests sent to ES and not acknowledged yet.")
+            .register();
+    private static final Counter esBulkBackpressure = Counter.build()
+            .name("nb_es_bulk_backpressure")
+            .help("nb times a flush waited for an in-flight bulk request to complete.")
+            .register();
+
+    private static final HashFunction MURMUR3_128 = murmur3_128();
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
+
     private final RestHighLevelClient elasticsearchClient;
     private final ESBufferConfiguration esBufferConfiguration;
     private final ESConfiguration esConfiguration;
+    private final int maxInFlightRequests;
+    private final Semaphore inFlightRequests;
     private BulkRequest bulk;
     private long sizeInBytes;
     private Stopwatch stopwatch = createUnstarted();
-    private final List<String> values = new ArrayList<>();
+    private List<String> values = new ArrayList<>();
+    // only touched by the stream thread calling add
+    private final Map<String, Map<String, IndexTarget[]>> indexTargets = new HashMap<>();
+    private long currentDayStart = Long.MIN_VALUE;
+    private long currentDayEnd = Long.MIN_VALUE;
+    private String currentDay;
 
 
     public ESBuffer(RestHighLevelClient elasticsearchClient, ESBufferConfiguration esBufferConfiguration, ESConfiguration esConfiguration) {
         this.elasticsearchClient = elasticsearchClient;
         this.esBufferConfiguration = esBufferConfiguration;
         this.esConfiguration = esConfiguration;
+        this.maxInFlightRequests = esBufferConfiguration.maxInFlightRequests != null && esBufferConfiguration.maxInFlightRequests > 0 ? esBufferConfiguration.maxInFlightRequests : 1;
+        this.inFlightRequests = new Semaphore(maxInFlightRequests);
         reset();
     }
 
     public void add(Date timestamp, String project, String type, RetentionLevel retentionLevel, String value) {
-        sizeInBytes += value.length();
-
-        String pattern = "yyyy-MM-dd";
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(pattern);
-        String index = esConfiguration.getCustomIndexPrefix() + "-" + project + "-" + type + "-" + String.format("%04d", retentionLevel.nbDays) + "-" + simpleDateFormat.format(timestamp);
+        byte[] source = value.getBytes(StandardCharsets.UTF_8);
+        sizeInBytes += source.length;
+        IndexTarget indexTarget = indexTarget(timestamp.getTime(), project, type, retentionLevel);
         values.add(value);
         log.debug("value add to bulk queue{}", value);
         bulk.add(
-                new IndexRequest(index.toLowerCase())
-                        .type(project + "-" + type)
-                        .id(generateId(value))
-                        .source(value, XContentType.JSON));
+                new IndexRequest(indexTarget.index)
+                        .type(indexTarget.type)
+                        .id(generateId(source))
+                        .source(source, XContentType.JSON));
+    }
+
+    private String generateId(byte[] source) {
+        return MURMUR3_128.hashBytes(source).toString();
+    }
+
+    /**
+     * Index names of the current day are cached per project, type and retention and dropped at midnight.
+     * Events of any other day (late or ahead) get their index name computed on the fly.
+     */
+    private IndexTarget indexTarget(long timestamp, String project, String type, RetentionLevel retentionLevel) {
+        if (timestamp < currentDayStart || timestamp >= currentDayEnd) {
+            long now = System.currentTimeMillis();
+            if (now >= currentDayEnd) {
+                rollDay(now);
+            }
+            if (timestamp < currentDayStart || timestamp >= currentDayEnd) {
+                return new IndexTarget(esConfiguration.getCustomIndexPrefix(), project, type, retentionLevel, DAY_FORMATTER.format(Instant.ofEpochMilli(timestamp)));
+            }
+        }
+        IndexTarget[] byRetention = indexTargets
+                .computeIfAbsent(project, key -> new HashMap<>())
+                .computeIfAbsent(type, key -> new IndexTarget[RetentionLevel.values().length]);
+        IndexTarget indexTarget = byRetention[retentionLevel.ordinal()];
+        if (indexTarget == null) {
+            indexTarget = new IndexTarget(esConfiguration.getCustomIndexPrefix(), project, type, retentionLevel, currentDay);
+            byRetention[retentionLevel.ordinal()] = indexTarget;
+        }
+        return indexTarget;
     }
 
-    private String generateId(String value) {
-        return murmur3_128()
-                .newHasher()
-                .putString(value, defaultCharset())
-                .hash()
-                .toString();
+    private void rollDay(long now) {
+        ZoneId zone = DAY_FORMATTER.getZone();
+        LocalDate today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+        currentDayStart = today.atStartOfDay(zone).toInstant().toEpochMilli();
+        currentDayEnd = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        currentDay = DAY_FORMATTER.format(today);
+        indexTargets.clear();
     }
 
     public boolean needFlush() {
@@ -67,14 +127,74 @@ public class ESBuffer {
         return maxItemsReached() || maxBytesReached() || maxTimeReached();
     }
 
-    public BulkResponse flush() throws IOException {
-        MDC.put("flush_es_long", String.valueOf(values.size()));
-        log.info("EsFlush {}", values.size());
+    /**
+     * Hands the current bulk over to the client and starts filling a new one right away. Blocks the caller
+     * while maxInFlightRequests bulks are still waiting for their response, which stops the consumption
+     * of the stream thread until elasticsearch catches up.
+     */
+    public void flushAsync(FlushListener listener) throws InterruptedException {
+        if (values.isEmpty()) {
+            reset();
+            return;
+        }
+        BulkRequest bulkToSend = bulk;
+        List<String> valuesToSend = values;
+        MDC.put("flush_es_long", String.valueOf(valuesToSend.size()));
+        log.info("EsFlush {}", valuesToSend.size());
         MDC.remove("flush_es_long");
-        if (values.size() > 0) {
-            return elasticsearchClient.bulk(bulk);
+        if (!inFlightRequests.tryAcquire()) {
+            esBulkBackpressure.inc();
+            inFlightRequests.acquire();
+        }
+        esBulkInFlight.inc();
+        reset();
+        try {
+            bulkAsync(bulkToSend, new ActionListener<BulkResponse>() {
+                @Override
+                public void onResponse(BulkResponse bulkResponse) {
+                    try {
+                        listener.onResponse(bulkResponse, valuesToSend);
+                    } finally {
+                        release();
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    try {
+                        listener.onFailure(e, valuesToSend);
+                    } finally {
+                        release();
+                    }
+                }
+            });
+        } catch (Exception e) {
+            try {
+                listener.onFailure(e, valuesToSend);
+            } finally {
+                release();
+            }
+        }
+    }
+
+    protected void bulkAsync(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+        elasticsearchClient.bulkAsync(bulkRequest, listener);
+    }
+
+    private void release() {
+        esBulkInFlight.dec();
+        inFlightRequests.release();
+    }
+
+    /**
+     * Waits until every bulk sent by flushAsync got its response.
+     */
+    public boolean awaitInFlight(long timeout, TimeUnit timeUnit) throws InterruptedException {
+        if (inFlightRequests.tryAcquire(maxInFlightRequests, timeout, timeUnit)) {
+            inFlightRequests.release(maxInFlightRequests);
+            return true;
         }
-        return null;
+        return false;
     }
 
     private boolean maxTimeReached() {
@@ -94,7 +214,8 @@ public class ESBuffer {
         this.sizeInBytes = 0;
         this.stopwatch.reset();
         this.stopwatch.start();
-        this.values.clear();
+        // a new list: the previous one may still be referenced by a bulk in flight
+        this.values = new ArrayList<>();
     }
 
     public List<String> values() {
@@ -104,4 +225,21 @@ public class ESBuffer {
     public String getItem(int id) {
         return values.get(id);
     }
+
+    private static final class IndexTarget {
+        private final String index;
+        private final String type;
+
+        private IndexTarget(String customIndexPrefix, String project, String type, RetentionLevel retentionLevel, String day) {
+            this.index = (customIndexPrefix + "-" + project + "-" + type + "-" + String.format("%04d", retentionLevel.nbDays) + "-" + day).toLowerCase();
+            this.type = project + "-" + type;
+        }
+    }
+
+    public interface FlushListener {
+
+        void onResponse(BulkResponse bulkResponse, List<String> values);
+
+        void onFailure(Exception e, List<String> values);
+    }
 }
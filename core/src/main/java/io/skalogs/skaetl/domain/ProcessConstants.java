@@ -9,6 +9,7 @@ public class ProcessConstants {
     public static final String INPUT_PROCESS = "inputprocess";
     public static final String SIMULATE_PROCESS = "simulateprocess";
     public static final String VALIDATE_PROCESS = "validateprocess";
+    public static final String FUSED_PROCESS = "fusedprocess";
     public static final String KAFKA_PROCESS = "kafkaprocess";
     public static final String SYSOUT_PROCESS = "sysoutprocess";
     public static final String EMAIL_PROCESS = "emailprocess";
@@ -44,6 +44,9 @@ public class ProcessMetric extends ProcessDefinition {
 
     private Date timestamp;
 
+    @Builder.Default
+    private StreamSettings streamSettings = new StreamSettings();
+
     public String getFromTopic(){
         return "metric-" +  idProcess + "-src-a";
     }
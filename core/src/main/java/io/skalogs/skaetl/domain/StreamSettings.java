@@ -0,0 +1,23 @@
+package io.skalogs.skaetl.domain;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class StreamSettings {
+    private Integer numStreamThreads = 1;
+    // partitions of the topics created for the process, at least numStreamThreads when not set
+    private Integer partitions;
+    private Long commitIntervalMs = 1000L;
+    // record cache in front of the state stores, lets windowed aggregations absorb updates before forwarding them
+    private Long cacheMaxBytesBuffering = 10 * 1024 * 1024L;
+    // at_least_once or exactly_once
+    private String processingGuarantee = "at_least_once";
+    // RocksDB tuning, left to kafka-streams defaults when null
+    private Long rocksDBBlockCacheSize;
+    private Long rocksDBWriteBufferSize;
+    private Integer rocksDBMaxWriteBuffers;
+}
@@ -6,6 +6,7 @@ import io.skalogs.skaetl.config.KafkaConfiguration;
 import io.skalogs.skaetl.serdes.JsonNodeSerialializer;
 import io.skalogs.skaetl.utils.JSONUtils;
 import io.skalogs.skaetl.utils.KafkaUtils;
+import io.skalogs.skaetl.utils.ProducerProfile;
 import lombok.Getter;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
@@ -38,7 +39,7 @@ public abstract class AbstractKafkaRepository<V> {
     public AbstractKafkaRepository(String name, Serde<V> valueSerde, Function<V,String> keyFunction, KafkaAdminService kafkaAdminService, KafkaConfiguration kafkaConfiguration) {
         this.repositoryName = name + "-db";
         this.keyFunction = keyFunction;
-        this.producer = KafkaUtils.kafkaProducer(kafkaConfiguration.getBootstrapServers(), StringSerializer.class, JsonNodeSerialializer.class);
+        this.producer = KafkaUtils.kafkaProducer(kafkaConfiguration, ProducerProfile.durable, StringSerializer.class, JsonNodeSerialializer.class);
         kafkaAdminService.buildTopic(repositoryName);
 
         Properties props = KafkaUtils.createKStreamProperties(repositoryName + "-stream"+ UUID.randomUUID().toString(), kafkaConfiguration.getBootstrapServers());
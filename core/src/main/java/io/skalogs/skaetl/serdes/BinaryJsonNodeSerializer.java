@@ -0,0 +1,56 @@
+package io.skalogs.skaetl.serdes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+import static io.skalogs.skaetl.serdes.SerdeMetrics.SERIALIZE;
+
+/**
+ * Writes JsonNode as Smile for the internal topics. Smile back-references repeated field names and short values
+ * inside a record, and its header lets {@link JsonNodeDeserializer} tell it apart from JSON text.
+ */
+public class BinaryJsonNodeSerializer implements Serializer<JsonNode> {
+
+    static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory()
+            .enable(SmileGenerator.Feature.WRITE_HEADER)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES));
+
+    private static final String NAME = BinaryJsonNodeSerializer.class.getSimpleName();
+
+    private final ObjectWriter objectWriter = SMILE_MAPPER.writerFor(JsonNode.class);
+
+    @Override
+    public void configure(Map<String, ?> map, boolean b) {
+
+    }
+
+    @Override
+    public byte[] serialize(String s, JsonNode jsonNode) {
+        if (jsonNode == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] retVal = objectWriter.writeValueAsBytes(jsonNode);
+            SerdeMetrics.success(NAME, SERIALIZE, retVal.length, start);
+            return retVal;
+        } catch (Exception e) {
+            SerdeMetrics.failure(NAME, SERIALIZE, s, e);
+            // a null value would be written as a tombstone
+            throw new SerializationException("Error serializing JsonNode for topic " + s, e);
+        }
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
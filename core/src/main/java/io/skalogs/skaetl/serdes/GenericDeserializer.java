@@ -1,17 +1,20 @@
 package io.skalogs.skaetl.serdes;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.apache.kafka.common.serialization.Deserializer;
 
 import java.util.Map;
 
+import static io.skalogs.skaetl.serdes.SerdeMetrics.DESERIALIZE;
+
 public class GenericDeserializer<T> implements Deserializer<T> {
 
-    private final Class<T> clazz;
+    private final ObjectReader objectReader;
+    private final String name;
 
     public GenericDeserializer(Class<T> clazz) {
-        this.clazz = clazz;
+        this.objectReader = SerdeMetrics.OBJECT_MAPPER.readerFor(clazz);
+        this.name = getClass() == GenericDeserializer.class ? clazz.getSimpleName() + "Deserializer" : getClass().getSimpleName();
     }
 
     public void configure(Map<String, ?> map, boolean b) {
@@ -22,14 +25,15 @@ public class GenericDeserializer<T> implements Deserializer<T> {
         if (bytes == null) {
             return null;
         }
-        ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        T objToReturn = null;
+        long start = System.nanoTime();
         try {
-            objToReturn = mapper.readValue(bytes, clazz);
+            T objToReturn = objectReader.readValue(bytes);
+            SerdeMetrics.success(name, DESERIALIZE, bytes.length, start);
+            return objToReturn;
         } catch (Exception e) {
-            e.printStackTrace();
+            SerdeMetrics.failure(name, DESERIALIZE, s, e);
+            return null;
         }
-        return objToReturn;
     }
 
     public void close() {
@@ -7,7 +7,12 @@ import org.apache.kafka.common.serialization.Serdes;
 public class GenericSerdes {
 
     public static Serde<JsonNode> jsonNodeSerde() {
-        return Serdes.serdeFrom(new GenericSerializer<JsonNode>(), new GenericDeserializer(JsonNode.class));
+        return Serdes.serdeFrom(new GenericSerializer<JsonNode>(), new JsonNodeDeserializer());
+    }
+
+    // for topics only read by workers (treat, merge, referential): binary on write, JSON or binary on read
+    public static Serde<JsonNode> internalJsonNodeSerde() {
+        return Serdes.serdeFrom(new BinaryJsonNodeSerializer(), new JsonNodeDeserializer());
     }
 
 }
@@ -1,12 +1,18 @@
 package io.skalogs.skaetl.serdes;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.serialization.Serializer;
 
 import java.util.Map;
 
+import static io.skalogs.skaetl.serdes.SerdeMetrics.SERIALIZE;
+
 public class GenericSerializer<T> implements Serializer<T> {
 
+    private final ObjectWriter objectWriter = SerdeMetrics.OBJECT_MAPPER.writer();
+    private final String name = getClass().getSimpleName();
+
     @Override
     public void configure(Map<String, ?> map, boolean b) {
 
@@ -14,14 +20,19 @@ public class GenericSerializer<T> implements Serializer<T> {
 
     @Override
     public byte[] serialize(String s, T objToSerialize) {
-        byte[] retVal = null;
-        ObjectMapper objectMapper = new ObjectMapper();
+        if (objToSerialize == null) {
+            return null;
+        }
+        long start = System.nanoTime();
         try {
-            retVal = objectMapper.writeValueAsString(objToSerialize).getBytes();
+            byte[] retVal = objectWriter.writeValueAsBytes(objToSerialize);
+            SerdeMetrics.success(name, SERIALIZE, retVal.length, start);
+            return retVal;
         } catch (Exception e) {
-            e.printStackTrace();
+            SerdeMetrics.failure(name, SERIALIZE, s, e);
+            // a null value would be written as a tombstone
+            throw new SerializationException("Error serializing " + name + " for topic " + s, e);
         }
-        return retVal;
     }
 
     @Override
@@ -0,0 +1,45 @@
+package io.skalogs.skaetl.serdes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+import static io.skalogs.skaetl.serdes.SerdeMetrics.DESERIALIZE;
+
+/**
+ * Reads both JSON text and Smile records, so that topics written by old and new workers stay readable
+ * during a rolling upgrade.
+ */
+public class JsonNodeDeserializer implements Deserializer<JsonNode> {
+
+    private static final String NAME = JsonNodeDeserializer.class.getSimpleName();
+
+    public void configure(Map<String, ?> map, boolean b) {
+
+    }
+
+    public JsonNode deserialize(String s, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            JsonNode jsonNode = isSmile(bytes) ? BinaryJsonNodeSerializer.SMILE_MAPPER.readTree(bytes) : SerdeMetrics.OBJECT_MAPPER.readTree(bytes);
+            SerdeMetrics.success(NAME, DESERIALIZE, bytes.length, start);
+            return jsonNode;
+        } catch (Exception e) {
+            SerdeMetrics.failure(NAME, DESERIALIZE, s, e);
+            return null;
+        }
+    }
+
+    // Smile header ':)\n', never a valid start for JSON text
+    private static boolean isSmile(byte[] bytes) {
+        return bytes.length >= 3 && bytes[0] == ':' && bytes[1] == ')' && bytes[2] == '\n';
+    }
+
+    public void close() {
+
+    }
+}
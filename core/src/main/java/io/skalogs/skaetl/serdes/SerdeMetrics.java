@@ -0,0 +1,53 @@
+package io.skalogs.skaetl.serdes;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared state of the serdes: one thread-safe ObjectMapper to derive readers and writers from, and the
+ * bytes / time / failures metrics.
+ */
+@Slf4j
+public final class SerdeMetrics {
+
+    public static final String SERIALIZE = "serialize";
+    public static final String DESERIALIZE = "deserialize";
+
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final Counter serdeBytes = Counter.build()
+            .name("nb_serde_bytes")
+            .labelNames("serde", "operation")
+            .help("nb bytes serialized or deserialized.")
+            .register();
+
+    private static final Counter serdeFailures = Counter.build()
+            .name("nb_serde_failures")
+            .labelNames("serde", "operation")
+            .help("nb records failing serialization or deserialization.")
+            .register();
+
+    private static final Histogram serdeTime = Histogram.build()
+            .name("serde_time_seconds")
+            .labelNames("serde", "operation")
+            .help("time spent serializing or deserializing one record.")
+            .exponentialBuckets(0.000001, 4, 10)
+            .register();
+
+    private SerdeMetrics() {
+    }
+
+    public static void success(String serde, String operation, int nbBytes, long startNanos) {
+        serdeBytes.labels(serde, operation).inc(nbBytes);
+        serdeTime.labels(serde, operation).observe((System.nanoTime() - startNanos) / 1e9);
+    }
+
+    public static void failure(String serde, String operation, String topic, Exception e) {
+        serdeFailures.labels(serde, operation).inc();
+        log.error("{} {} failed on topic {}", serde, operation, topic, e);
+    }
+}
@@ -10,6 +10,7 @@ import io.skalogs.skaetl.serdes.ErrorDataSerializer;
 import io.skalogs.skaetl.serdes.JsonNodeSerialializer;
 import io.skalogs.skaetl.utils.JSONUtils;
 import io.skalogs.skaetl.utils.KafkaUtils;
+import io.skalogs.skaetl.utils.ProducerProfile;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -36,8 +37,8 @@ public class ESErrorRetryWriter {
 
     public ESErrorRetryWriter(KafkaConfiguration kafkaConfiguration) {
         this.kafkaConfiguration = kafkaConfiguration;
-        this.errorProducer = KafkaUtils.kafkaProducer(kafkaConfiguration.getBootstrapServers(), StringSerializer.class, ErrorDataSerializer.class);
-        this.retryProducer = KafkaUtils.kafkaProducer(kafkaConfiguration.getBootstrapServers(), StringSerializer.class, JsonNodeSerialializer.class);
+        this.errorProducer = KafkaUtils.kafkaProducer(kafkaConfiguration, ProducerProfile.throughput, StringSerializer.class, ErrorDataSerializer.class);
+        this.retryProducer = KafkaUtils.kafkaProducer(kafkaConfiguration, ProducerProfile.durable, StringSerializer.class, JsonNodeSerialializer.class);
     }
 
     public void sendToErrorTopic(String applicationId, ValidateData validateData) {
@@ -70,4 +71,12 @@ public class ESErrorRetryWriter {
         produceMessageToKafka.labels(applicationId, kafkaConfiguration.getRetryTopic(), jsonNode.path("type").asText()).inc();
         retryProducer.send(new ProducerRecord<>(kafkaConfiguration.getRetryTopic(), jsonNode));
     }
+
+    /**
+     * Blocks until the error and retry records sent so far are acknowledged.
+     */
+    public void flush() {
+        errorProducer.flush();
+        retryProducer.flush();
+    }
 }
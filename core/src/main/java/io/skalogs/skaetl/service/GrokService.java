@@ -1,10 +1,18 @@
 package io.skalogs.skaetl.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.krakens.grok.api.Grok;
 import io.krakens.grok.api.GrokCompiler;
 import io.krakens.grok.api.Match;
 import io.krakens.grok.api.exception.GrokException;
+import io.prometheus.client.Counter;
 import io.skalogs.skaetl.domain.GrokData;
 import io.skalogs.skaetl.domain.GrokDomain;
 import io.skalogs.skaetl.domain.GrokResult;
@@ -15,9 +23,13 @@ import org.apache.commons.lang.StringUtils;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import static java.util.stream.Collectors.toList;
 
@@ -26,18 +38,40 @@ import static java.util.stream.Collectors.toList;
 @Component
 public class GrokService {
 
+    private static final long MAX_COMPILED_PATTERNS = 1000;
+
+    private static final Counter grokCacheCount = Counter.build()
+            .name("nb_grok_cache_count")
+            .labelNames("status")
+            .help("nb compiled grok cache hit, miss and eviction.")
+            .register();
+
     private final GrokCompiler grokInstance = GrokCompiler.newInstance();
     private final GrokRepository grokRepository;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // replaced rather than invalidated when patterns change: a compilation still running against the old
+    // definitions can only fill the discarded cache
+    private volatile Cache<String, Grok> compiledGroks = newCompiledGroks();
 
     public GrokService(GrokRepository grokRepository){
         this.grokRepository = grokRepository;
     }
 
+    private static Cache<String, Grok> newCompiledGroks() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(MAX_COMPILED_PATTERNS)
+                .<String, Grok>removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        grokCacheCount.labels("eviction").inc();
+                    }
+                })
+                .build();
+    }
+
     @PostConstruct
     public void setup() {
         grokInstance.getPatternDefinitions().clear();
         loadAll();
+        compiledGroks = newCompiledGroks();
     }
 
     public List<GrokDomain> findGrokPatten(String filter) {
@@ -66,6 +100,7 @@ public class GrokService {
         if(StringUtils.isNotBlank(key) && StringUtils.isNotBlank(value)){
             try {
                 grokInstance.register(key,value);
+                compiledGroks = newCompiledGroks();
                 log.info("add user grok key {} value {}",key,value);
                 grokRepository.save(GrokData.builder().key(key).value(value).build());
             } catch (GrokException e) {
@@ -114,11 +149,8 @@ public class GrokService {
 
     public GrokResult parseGrok(String value, String grokPattern) {
         try {
-            log.info("parseGrok pattern {} for value {}", grokPattern, value);
-            Grok grok = grokInstance.compile(grokPattern);
-            Match match = grok.match(value);
-            Map<String, Object> capture = match.capture();
-            return GrokResult.builder().value(objectMapper.writeValueAsString(capture)).pattern(grokPattern).build();
+            log.debug("parseGrok pattern {} for value {}", grokPattern, value);
+            return GrokResult.builder().value(capture(value, grokPattern).toString()).pattern(grokPattern).build();
         } catch (GrokException e) {
             log.error("GrokException pattern {} message {}", grokPattern, e);
             return GrokResult.builder().messageError("GrokException pattern " + grokPattern + " message " + e.getMessage()).pattern(grokPattern).build();
@@ -128,4 +160,73 @@ public class GrokService {
             return g;
         }
     }
+
+    /**
+     * Hot path used by the GROK parser: the compiled pattern comes from the cache and the capture
+     * is written straight into an ObjectNode, without going through a JSON String.
+     */
+    public ObjectNode capture(String value, String grokPattern) throws GrokException {
+        Match match = compile(grokPattern).match(value);
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        for (Map.Entry<String, Object> entry : match.capture().entrySet()) {
+            result.set(entry.getKey(), toJsonNode(entry.getValue()));
+        }
+        return result;
+    }
+
+    private Grok compile(String grokPattern) throws GrokException {
+        Cache<String, Grok> current = compiledGroks;
+        Grok grok = current.getIfPresent(grokPattern);
+        if (grok != null) {
+            grokCacheCount.labels("hit").inc();
+            return grok;
+        }
+        try {
+            // concurrent misses wait for a single compilation
+            return current.get(grokPattern, () -> {
+                grokCacheCount.labels("miss").inc();
+                return grokInstance.compile(grokPattern);
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfInstanceOf(e.getCause(), GrokException.class);
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private JsonNode toJsonNode(Object value) {
+        JsonNodeFactory factory = JsonNodeFactory.instance;
+        if (value == null) {
+            return factory.nullNode();
+        }
+        if (value instanceof String) {
+            return factory.textNode((String) value);
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return factory.numberNode(((Number) value).intValue());
+        }
+        if (value instanceof Long) {
+            return factory.numberNode((Long) value);
+        }
+        if (value instanceof Float || value instanceof Double) {
+            return factory.numberNode(((Number) value).doubleValue());
+        }
+        if (value instanceof BigDecimal) {
+            return factory.numberNode((BigDecimal) value);
+        }
+        if (value instanceof BigInteger) {
+            return factory.numberNode((BigInteger) value);
+        }
+        if (value instanceof Boolean) {
+            return factory.booleanNode((Boolean) value);
+        }
+        if (value instanceof Collection) {
+            ArrayNode arrayNode = factory.arrayNode();
+            for (Object item : (Collection<?>) value) {
+                arrayNode.add(toJsonNode(item));
+            }
+            return arrayNode;
+        }
+        return factory.textNode(value.toString());
+    }
 }
@@ -9,9 +9,15 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.StateStore;
 import org.slf4j.MDC;
 
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.commons.lang3.StringUtils.contains;
 
@@ -27,50 +33,108 @@ public abstract class AbstractElasticsearchProcessor<K, V> extends AbstractOutpu
             .help("count nb elements to write into ES")
             .labelNames("processConsumerName", "project", "type")
             .register();
+    private static final long FLUSH_CHECK_INTERVAL_MS = 1000;
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+    private static final AtomicInteger STORE_SEQUENCE = new AtomicInteger();
+
+    @Override
+    public void init(ProcessorContext context) {
+        if (context() != null) {
+            throw new IllegalStateException(getClass().getSimpleName() + " is already used by task " + context().taskId() + ", the ProcessorSupplier must return a new instance per call");
+        }
+        super.init(context);
+        // the stores are flushed right before the task commits its offsets
+        context.register(new InFlightBulksStore("es-bulks-in-flight-" + STORE_SEQUENCE.incrementAndGet()), false, (key, value) -> {
+        });
+        // honours maxTime even when no record comes in
+        context.schedule(FLUSH_CHECK_INTERVAL_MS, PunctuationType.WALL_CLOCK_TIME, timestamp -> {
+            if (esBuffer.needFlush()) {
+                flush();
+            }
+        });
+    }
 
     protected void processToElasticsearch(Date date, String project, String type, RetentionLevel retentionLevel, String valueAsString) {
         esWriteEs.labels(getApplicationId()!=null ? getApplicationId() : "retryApplication", project, type).inc();
         esBuffer.add(date, project, type, retentionLevel, valueAsString);
         if (esBuffer.needFlush()) {
-            log.debug("Flushing {}", esBuffer.values().size());
-            try {
-                BulkResponse bulkItemResponses = esBuffer.flush();
-                if (bulkItemResponses != null && bulkItemResponses.hasFailures()) {
-                    //parse result for check if error or not
-                    parseResultErrors(bulkItemResponses);
+            flush();
+        }
+    }
+
+    private void flush() {
+        log.debug("Flushing {}", esBuffer.values().size());
+        try {
+            esBuffer.flushAsync(new ESBuffer.FlushListener() {
+                @Override
+                public void onResponse(BulkResponse bulkItemResponses, List<String> values) {
+                    if (bulkItemResponses.hasFailures()) {
+                        //parse result for check if error or not
+                        parseResultErrors(bulkItemResponses, values);
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e, List<String> values) {
+                    log.error("Bulk of {} items failed", values.size(), e);
+                    parseErrorsTechnical(values);
                 }
-            } catch (Exception e) {
-                parseErrorsTechnical();
-            } finally {
-                esBuffer.reset();
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends the pending bulk and blocks until every bulk got its response, so that the offsets committed next
+     * only cover events indexed or handed over to the retry / error topics.
+     */
+    private void flushBeforeCommit() {
+        flush();
+        try {
+            while (!esBuffer.awaitInFlight(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Commit of {} waiting for bulk requests in flight since more than {}s", getApplicationId(), CLOSE_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        esErrorRetryWriter.flush();
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try {
+            if (!esBuffer.awaitInFlight(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.error("Bulk requests still in flight after {}s on close", CLOSE_TIMEOUT_SECONDS);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    private void parseErrorsTechnical() {
+    private void parseErrorsTechnical(List<String> values) {
         //send all value into topic retry
-        esBuffer
-                .values()
-                .stream()
+        values.stream()
                 .forEach(itemRaw -> esErrorRetryWriter.sendToRetryTopic(getApplicationId(), itemRaw));
 
     }
 
-    protected void parseResultErrors(BulkResponse bulkItemResponses) {
+    protected void parseResultErrors(BulkResponse bulkItemResponses, List<String> values) {
         for (BulkItemResponse bir : bulkItemResponses) {
             MDC.put("item_error", bir.getFailureMessage());
             log.info("EsError {} ", bir.getFailureMessage());
             MDC.remove("item_error");
             if (bir.isFailed() && isRetryable(bir)) {
-                routeToNextTopic(bir, false);
+                routeToNextTopic(bir, values, false);
             } else {
-                routeToNextTopic(bir, true);
+                routeToNextTopic(bir, values, true);
             }
         }
     }
 
-    private void routeToNextTopic(BulkItemResponse bulkItemResponse, boolean isErrorTopic) {
-        String itemRaw = esBuffer.getItem(bulkItemResponse.getItemId());
+    private void routeToNextTopic(BulkItemResponse bulkItemResponse, List<String> values, boolean isErrorTopic) {
+        String itemRaw = bulkItemResponse.getItemId() < values.size() ? values.get(bulkItemResponse.getItemId()) : null;
         log.debug("target bir is failed {} msg fail {} itemRaw {}", bulkItemResponse.isFailed(), bulkItemResponse.getFailureMessage(), itemRaw);
         if (itemRaw == null) {
             produceErrorToKafka(ValidateData.builder()
@@ -116,4 +180,43 @@ public abstract class AbstractElasticsearchProcessor<K, V> extends AbstractOutpu
     public boolean support(TypeOutput typeOutput) {
         return typeOutput == TypeOutput.ELASTICSEARCH;
     }
+
+    private class InFlightBulksStore implements StateStore {
+
+        private final String name;
+        private boolean open = true;
+
+        private InFlightBulksStore(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void init(ProcessorContext context, StateStore root) {
+        }
+
+        @Override
+        public void flush() {
+            flushBeforeCommit();
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        @Override
+        public boolean persistent() {
+            return false;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+    }
 }
\ No newline at end of file
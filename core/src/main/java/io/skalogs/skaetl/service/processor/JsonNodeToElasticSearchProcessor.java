@@ -1,17 +1,16 @@
 package io.skalogs.skaetl.service.processor;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
 import io.skalogs.skaetl.domain.ESBuffer;
 import io.skalogs.skaetl.domain.RetentionLevel;
 import io.skalogs.skaetl.service.ESErrorRetryWriter;
+import io.skalogs.skaetl.utils.DateUtils;
 import lombok.extern.slf4j.Slf4j;
 
 import java.text.ParseException;
 
 @Slf4j
 public class JsonNodeToElasticSearchProcessor extends AbstractElasticsearchProcessor<String, JsonNode> {
-    private final ISO8601DateFormat df = new ISO8601DateFormat();
 
     public JsonNodeToElasticSearchProcessor(ESBuffer esBuffer, ESErrorRetryWriter esErrorRetryWriter) {
         super(esBuffer, esErrorRetryWriter);
@@ -21,9 +20,10 @@ public class JsonNodeToElasticSearchProcessor extends AbstractElasticsearchProce
     public void process(String key, JsonNode jsonNode) {
         RetentionLevel retentionLevel = jsonNode.has("retention") ? RetentionLevel.valueOf(jsonNode.path("retention").asText()) : RetentionLevel.week;
         String valueAsString = jsonNode.toString();
+        // parsed again: the treat topic only carries the event, Kafka Streams 1.0 can't set the timestamp of its records
         String timestamp = jsonNode.path("timestamp").asText();
         try {
-            processToElasticsearch(df.parse(timestamp), jsonNode.path("project").asText(), jsonNode.path("type").asText(), retentionLevel, valueAsString);
+            processToElasticsearch(DateUtils.parseISO8601(timestamp), jsonNode.path("project").asText(), jsonNode.path("type").asText(), retentionLevel, valueAsString);
         } catch (ParseException e) {
             log.error("Couldn't extract timestamp " + jsonNode.toString(), e);
         }
@@ -0,0 +1,149 @@
+package io.skalogs.skaetl.utils;
+
+import com.fasterxml.jackson.databind.util.ISO8601Utils;
+
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe date parsing shared by the pipeline stages.
+ */
+public final class DateUtils {
+
+    private static final ConcurrentMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+    private static final long NOT_FAST_PATH = Long.MIN_VALUE;
+
+    private DateUtils() {
+    }
+
+    /**
+     * Immutable formatter for a pattern, built once and shared.
+     */
+    public static DateTimeFormatter formatter(String pattern) {
+        DateTimeFormatter formatter = FORMATTERS.get(pattern);
+        if (formatter == null) {
+            formatter = FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+        }
+        return formatter;
+    }
+
+    /**
+     * yyyy-MM-dd'T'HH:mm:ss.SSS'Z', the layout taken by the fast path of parseISO8601.
+     */
+    public static String formatISO8601(Date date) {
+        return ISO8601Utils.format(date, true);
+    }
+
+    public static Date parseISO8601(String value) throws ParseException {
+        return new Date(parseISO8601ToEpochMilli(value));
+    }
+
+    /**
+     * Same grammar as jackson's ISO8601DateFormat. The usual yyyy-MM-dd'T'HH:mm:ss[.SSS](Z|+hh:mm|+hhmm) layout is decoded
+     * directly, without a Calendar, everything else goes through ISO8601Utils, which also rejects a bare +hh offset.
+     */
+    public static long parseISO8601ToEpochMilli(String value) throws ParseException {
+        if (value == null) {
+            throw new ParseException("Can't parse null date", 0);
+        }
+        long epochMilli = fastParse(value);
+        if (epochMilli != NOT_FAST_PATH) {
+            return epochMilli;
+        }
+        return ISO8601Utils.parse(value, new ParsePosition(0)).getTime();
+    }
+
+    private static long fastParse(String value) {
+        int length = value.length();
+        if (length < 20 || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T' || value.charAt(13) != ':' || value.charAt(16) != ':') {
+            return NOT_FAST_PATH;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = digits(value, 17, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return NOT_FAST_PATH;
+        }
+        int pos = 19;
+        int millis = 0;
+        if (value.charAt(pos) == '.') {
+            pos++;
+            int start = pos;
+            while (pos < length && value.charAt(pos) >= '0' && value.charAt(pos) <= '9') {
+                if (pos - start < 3) {
+                    millis = millis * 10 + (value.charAt(pos) - '0');
+                }
+                pos++;
+            }
+            if (pos == start) {
+                return NOT_FAST_PATH;
+            }
+            for (int i = pos - start; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+        if (pos >= length) {
+            return NOT_FAST_PATH;
+        }
+        int offsetSeconds;
+        char zone = value.charAt(pos);
+        if (zone == 'Z' && pos == length - 1) {
+            offsetSeconds = 0;
+        } else if (zone == '+' || zone == '-') {
+            int offset = offsetSeconds(value, pos + 1);
+            if (offset < 0) {
+                return NOT_FAST_PATH;
+            }
+            offsetSeconds = zone == '+' ? offset : -offset;
+        } else {
+            return NOT_FAST_PATH;
+        }
+        long epochDay;
+        try {
+            epochDay = LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return NOT_FAST_PATH;
+        }
+        long epochSecond = epochDay * 86400L + hour * 3600L + minute * 60L + second - offsetSeconds;
+        return epochSecond * 1000L + millis;
+    }
+
+    // hhmm or hh:mm up to the end of the value
+    private static int offsetSeconds(String value, int pos) {
+        int remaining = value.length() - pos;
+        int hours = remaining >= 4 ? digits(value, pos, 2) : -1;
+        int minutes;
+        if (remaining == 4) {
+            minutes = digits(value, pos + 2, 2);
+        } else if (remaining == 5 && value.charAt(pos + 2) == ':') {
+            minutes = digits(value, pos + 3, 2);
+        } else {
+            return -1;
+        }
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            return -1;
+        }
+        return hours * 3600 + minutes * 60;
+    }
+
+    private static int digits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
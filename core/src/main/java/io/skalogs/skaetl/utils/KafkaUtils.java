@@ -1,10 +1,13 @@
 package io.skalogs.skaetl.utils;
 
 import io.skalogs.skaetl.config.KafkaConfiguration;
+import io.skalogs.skaetl.config.ProducerSettings;
 import io.skalogs.skaetl.domain.GrokData;
+import io.skalogs.skaetl.domain.StreamSettings;
 import io.skalogs.skaetl.serdes.GenericDeserializer;
 import io.skalogs.skaetl.serdes.GenericSerializer;
 import io.skalogs.skaetl.serdes.GrokDataSerializer;
+import io.skalogs.skaetl.serdes.JsonNodeDeserializer;
 import lombok.AllArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -70,26 +73,33 @@ public class KafkaUtils {
         props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, "30000");
         props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "1000");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "io.skalogs.skaetl.domain.JsonNodeDeserializer");
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonNodeDeserializer.class.getName());
         return new KafkaConsumer<>(props);
     }
 
 
     public Producer<String, String> kafkaProducer(String bootstrapServer) {
-        return kafkaProducer(bootstrapServer, StringSerializer.class, StringSerializer.class);
+        return kafkaProducer(bootstrapServer, StringSerializer.class, StringSerializer.class, kafkaConfiguration.producerSettings(ProducerProfile.throughput));
     }
 
     public Producer<String, GrokData> kafkaGrokProducer() {
-        return kafkaProducer(kafkaConfiguration.getBootstrapServers(), StringSerializer.class, GrokDataSerializer.class);
+        return kafkaProducer(kafkaConfiguration.getBootstrapServers(), StringSerializer.class, GrokDataSerializer.class, kafkaConfiguration.producerSettings(ProducerProfile.durable));
     }
 
-    public static <K, V> Producer<K, V> kafkaProducer(String bootstrapServer, Class<? extends Serializer<K>> keySerializer, Class<? extends Serializer<V>> valueSerializer) {
+    public static <K, V> Producer<K, V> kafkaProducer(KafkaConfiguration kafkaConfiguration, ProducerProfile producerProfile, Class<? extends Serializer<K>> keySerializer, Class<? extends Serializer<V>> valueSerializer) {
+        return kafkaProducer(kafkaConfiguration.getBootstrapServers(), keySerializer, valueSerializer, kafkaConfiguration.producerSettings(producerProfile));
+    }
+
+    public static <K, V> Producer<K, V> kafkaProducer(String bootstrapServer, Class<? extends Serializer<K>> keySerializer, Class<? extends Serializer<V>> valueSerializer, ProducerSettings producerSettings) {
         Properties props = new Properties();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServer);
-        props.put(ProducerConfig.ACKS_CONFIG, "all");
-        props.put(ProducerConfig.RETRIES_CONFIG, 0);
-        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 1);
-        props.put(ProducerConfig.LINGER_MS_CONFIG, 1);
+        props.put(ProducerConfig.ACKS_CONFIG, producerSettings.getAcks());
+        props.put(ProducerConfig.RETRIES_CONFIG, producerSettings.getRetries());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, producerSettings.getBatchSize());
+        props.put(ProducerConfig.LINGER_MS_CONFIG, producerSettings.getLingerMs());
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producerSettings.getCompressionType());
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, producerSettings.getIdempotence());
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, producerSettings.getMaxInFlightRequestsPerConnection());
         props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, keySerializer.getName());
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer.getName());
@@ -101,14 +111,43 @@ public class KafkaUtils {
     }
 
     public static Properties createKStreamProperties(String nameProcess, String bootstrapServers) {
-        Properties props = new Properties();
+        return createKStreamProperties(nameProcess, bootstrapServers, null);
+    }
+
+    public static Properties createKStreamProperties(String nameProcess, String bootstrapServers, StreamSettings streamSettings) {
+        Properties props = createStreamProperties(bootstrapServers, streamSettings);
         props.put(StreamsConfig.APPLICATION_ID_CONFIG, "application-process" + nameProcess);
         props.put(StreamsConfig.CLIENT_ID_CONFIG, nameProcess);
+        return props;
+    }
+
+    public static Properties createStreamProperties(String bootstrapServers, StreamSettings streamSettings) {
+        StreamSettings settings = streamSettings != null ? streamSettings : new StreamSettings();
+        StreamSettings defaults = new StreamSettings();
+        Properties props = new Properties();
         props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
         props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
-        props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 10);
-        props.put(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG, 0);
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, valueOrDefault(settings.getNumStreamThreads(), defaults.getNumStreamThreads()));
+        props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, valueOrDefault(settings.getCommitIntervalMs(), defaults.getCommitIntervalMs()));
+        props.put(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG, valueOrDefault(settings.getCacheMaxBytesBuffering(), defaults.getCacheMaxBytesBuffering()));
+        props.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, valueOrDefault(settings.getProcessingGuarantee(), defaults.getProcessingGuarantee()));
+        if (settings.getRocksDBBlockCacheSize() != null || settings.getRocksDBWriteBufferSize() != null || settings.getRocksDBMaxWriteBuffers() != null) {
+            props.put(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, StreamSettingsRocksDBConfigSetter.class.getName());
+            putIfNotNull(props, StreamSettingsRocksDBConfigSetter.BLOCK_CACHE_SIZE_CONFIG, settings.getRocksDBBlockCacheSize());
+            putIfNotNull(props, StreamSettingsRocksDBConfigSetter.WRITE_BUFFER_SIZE_CONFIG, settings.getRocksDBWriteBufferSize());
+            putIfNotNull(props, StreamSettingsRocksDBConfigSetter.MAX_WRITE_BUFFERS_CONFIG, settings.getRocksDBMaxWriteBuffers());
+        }
         return props;
     }
+
+    private static <T> T valueOrDefault(T value, T defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static void putIfNotNull(Properties props, String key, Object value) {
+        if (value != null) {
+            props.put(key, value);
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package io.skalogs.skaetl.utils;
+
+public enum ProducerProfile {
+    // small records sent as soon as possible
+    latency,
+    // bigger batches, compressed, a few ms of linger
+    throughput,
+    // acks from all replicas and idempotence, nothing lost nor duplicated on retry
+    durable
+}
@@ -0,0 +1,36 @@
+package io.skalogs.skaetl.utils;
+
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Options;
+import org.rocksdb.TableFormatConfig;
+
+import java.util.Map;
+
+public class StreamSettingsRocksDBConfigSetter implements RocksDBConfigSetter {
+
+    public static final String BLOCK_CACHE_SIZE_CONFIG = "skaetl.rocksdb.block.cache.size";
+    public static final String WRITE_BUFFER_SIZE_CONFIG = "skaetl.rocksdb.write.buffer.size";
+    public static final String MAX_WRITE_BUFFERS_CONFIG = "skaetl.rocksdb.max.write.buffers";
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        Object blockCacheSize = configs.get(BLOCK_CACHE_SIZE_CONFIG);
+        if (blockCacheSize != null) {
+            // kafka-streams already set its table config (block size, bloom filter), only the cache size changes
+            TableFormatConfig current = options.tableFormatConfig();
+            BlockBasedTableConfig tableConfig = current instanceof BlockBasedTableConfig ? (BlockBasedTableConfig) current : new BlockBasedTableConfig();
+            tableConfig.setBlockCacheSize(Long.parseLong(blockCacheSize.toString()));
+            // the native table factory is created from the config when it is set
+            options.setTableFormatConfig(tableConfig);
+        }
+        Object writeBufferSize = configs.get(WRITE_BUFFER_SIZE_CONFIG);
+        if (writeBufferSize != null) {
+            options.setWriteBufferSize(Long.parseLong(writeBufferSize.toString()));
+        }
+        Object maxWriteBuffers = configs.get(MAX_WRITE_BUFFERS_CONFIG);
+        if (maxWriteBuffers != null) {
+            options.setMaxWriteBufferNumber(Integer.parseInt(maxWriteBuffers.toString()));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package io.skalogs.skaetl.utils;
+
+import org.apache.kafka.streams.processor.StreamPartitioner;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Spreads records over every partition whatever their key, for topics whose key carries no grouping
+ * (the same type for every record of a process would otherwise pin it to a single partition and thread).
+ */
+public class UniformStreamPartitioner<K, V> implements StreamPartitioner<K, V> {
+
+    @Override
+    public Integer partition(K key, V value, int numPartitions) {
+        return ThreadLocalRandom.current().nextInt(numPartitions);
+    }
+}
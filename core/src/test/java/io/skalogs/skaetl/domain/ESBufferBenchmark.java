@@ -0,0 +1,82 @@
+package io.skalogs.skaetl.domain;
+
+import io.skalogs.skaetl.config.ESBufferConfiguration;
+import io.skalogs.skaetl.config.ESConfiguration;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.hash.Hashing.murmur3_128;
+import static java.nio.charset.Charset.defaultCharset;
+
+/**
+ * Per-document cost of ESBuffer.add, compared with the former implementation (SimpleDateFormat, String.format and
+ * murmur3 over a copy of the document for every call).
+ * Not part of the test suite, run the main method from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ESBufferBenchmark {
+
+    private static final String VALUE = "{\"project\":\"skalogs\",\"type\":\"apache\",\"@timestamp\":\"2018-03-12T10:15:30.000Z\",\"remote_ip\":\"10.10.13.1\",\"user\":\"jdoe\",\"request\":\"/index.html\",\"response_code\":200,\"bytes\":2326,\"agent\":\"Mozilla/5.0 (X11; Linux x86_64)\"}";
+
+    private ESBuffer esBuffer;
+    private BulkRequest legacyBulk;
+    private ESConfiguration esConfiguration;
+    private Date timestamp;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        ESBufferConfiguration esBufferConfiguration = new ESBufferConfiguration();
+        esBufferConfiguration.setMaxElements(1000);
+        esBufferConfiguration.setMaxSizeInBytes(Integer.MAX_VALUE);
+        esBufferConfiguration.setMaxTime(Integer.MAX_VALUE);
+        esConfiguration = new ESConfiguration();
+        esConfiguration.setCustomIndexPrefix("skalogs");
+        esBuffer = new ESBuffer(null, esBufferConfiguration, esConfiguration);
+        legacyBulk = new BulkRequest();
+        timestamp = new Date();
+    }
+
+    @Benchmark
+    public void add() {
+        if (esBuffer.needFlush()) {
+            esBuffer.reset();
+        }
+        esBuffer.add(timestamp, "skalogs", "apache", RetentionLevel.week, VALUE);
+    }
+
+    @Benchmark
+    public BulkRequest legacyAdd() {
+        if (legacyBulk.numberOfActions() >= 1000) {
+            legacyBulk = new BulkRequest();
+        }
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        String index = esConfiguration.getCustomIndexPrefix() + "-" + "skalogs" + "-" + "apache" + "-" + String.format("%04d", RetentionLevel.week.nbDays) + "-" + simpleDateFormat.format(timestamp);
+        String id = murmur3_128()
+                .newHasher()
+                .putString(VALUE, defaultCharset())
+                .hash()
+                .toString();
+        return legacyBulk.add(new IndexRequest(index.toLowerCase())
+                .type("skalogs" + "-" + "apache")
+                .id(id)
+                .source(VALUE, XContentType.JSON));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ESBufferBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,44 @@
+package io.skalogs.skaetl.serdes;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BinaryJsonNodeSerializerTest {
+
+    private final BinaryJsonNodeSerializer serializer = new BinaryJsonNodeSerializer();
+
+    @Test
+    public void roundTrip() {
+        ObjectNode event = JsonNodeFactory.instance.objectNode();
+        event.put("project", "skaetl");
+        event.put("count", 3);
+        event.putNull("missing");
+        assertThat(new JsonNodeDeserializer().deserialize("topic", serializer.serialize("topic", event))).isEqualTo(event);
+    }
+
+    @Test
+    public void nullValue() {
+        assertThat(serializer.serialize("topic", null)).isNull();
+    }
+
+    @Test
+    public void failureIsNotATombstone() {
+        ObjectNode event = JsonNodeFactory.instance.objectNode();
+        // no serializer for a bean without properties
+        event.putPOJO("value", new Object());
+        assertThatThrownBy(() -> serializer.serialize("topic", event))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("topic");
+    }
+
+    @Test
+    public void genericSerializerFailureIsNotATombstone() {
+        assertThatThrownBy(() -> new GenericSerializer<>().serialize("topic", new Object()))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,62 @@
+package io.skalogs.skaetl.serdes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonNodeDeserializerTest {
+
+    private final JsonNodeDeserializer deserializer = new JsonNodeDeserializer();
+
+    @Test
+    public void readsJsonText() {
+        JsonNode jsonNode = deserializer.deserialize("topic", "{\"project\":\"skaetl\",\"count\":3}".getBytes(StandardCharsets.UTF_8));
+        assertThat(jsonNode.path("project").asText()).isEqualTo("skaetl");
+        assertThat(jsonNode.path("count").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    public void readsSmile() {
+        ObjectNode event = event();
+        byte[] bytes = new BinaryJsonNodeSerializer().serialize("topic", event);
+        assertThat(new String(bytes, 0, 3, StandardCharsets.US_ASCII)).isEqualTo(":)\n");
+        assertThat(deserializer.deserialize("topic", bytes)).isEqualTo(event);
+    }
+
+    @Test
+    public void detectsEncodingPerRecord() {
+        ObjectNode event = event();
+        byte[] json = new JsonNodeSerialializer().serialize("topic", event);
+        byte[] smile = new BinaryJsonNodeSerializer().serialize("topic", event);
+        assertThat(json).isNotEqualTo(smile);
+        assertThat(deserializer.deserialize("topic", json)).isEqualTo(event);
+        assertThat(deserializer.deserialize("topic", smile)).isEqualTo(event);
+        assertThat(deserializer.deserialize("topic", json)).isEqualTo(event);
+    }
+
+    @Test
+    public void nullPayload() {
+        assertThat(deserializer.deserialize("topic", null)).isNull();
+    }
+
+    @Test
+    public void unreadablePayload() {
+        assertThat(deserializer.deserialize("topic", "{\"project\":".getBytes(StandardCharsets.UTF_8))).isNull();
+        assertThat(deserializer.deserialize("topic", new byte[]{':', ')', '\n', (byte) 0xFF})).isNull();
+    }
+
+    private static ObjectNode event() {
+        ObjectNode event = JsonNodeFactory.instance.objectNode();
+        event.put("project", "skaetl");
+        event.put("type", "nginx");
+        event.put("duration", 12.5);
+        event.putArray("tags").add("a").add("a");
+        event.putObject("user").put("name", "skaetl");
+        return event;
+    }
+}
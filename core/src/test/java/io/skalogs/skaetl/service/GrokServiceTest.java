@@ -0,0 +1,88 @@
+package io.skalogs.skaetl.service;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.prometheus.client.CollectorRegistry;
+import io.skalogs.skaetl.domain.GrokData;
+import io.skalogs.skaetl.repository.GrokRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GrokServiceTest {
+
+    private static final String REQUEST = "%{WORD:verb} %{INT:status}";
+    private static final String CLIENT = "%{WORD:client}";
+
+    private final GrokRepository grokRepository = mock(GrokRepository.class);
+    private GrokService grokService;
+
+    @Before
+    public void init() {
+        when(grokRepository.findAll()).thenReturn(Arrays.asList(
+                GrokData.builder().key("WORD").value("\\b\\w+\\b").build(),
+                GrokData.builder().key("INT").value("(?:[+-]?(?:[0-9]+))").build()));
+        grokService = new GrokService(grokRepository);
+        grokService.setup();
+    }
+
+    @Test
+    public void compiledPatternReused() throws Exception {
+        double hits = cacheCount("hit");
+        double misses = cacheCount("miss");
+
+        ObjectNode first = grokService.capture("GET 200", REQUEST);
+        ObjectNode second = grokService.capture("POST 404", REQUEST);
+
+        assertThat(cacheCount("miss") - misses).isEqualTo(1);
+        assertThat(cacheCount("hit") - hits).isEqualTo(1);
+        assertThat(first.path("verb").asText()).isEqualTo("GET");
+        assertThat(first.path("status").asText()).isEqualTo("200");
+        assertThat(second.path("verb").asText()).isEqualTo("POST");
+        assertThat(second.path("status").asText()).isEqualTo("404");
+    }
+
+    @Test
+    public void distinctPatternsCompiledSeparately() throws Exception {
+        double misses = cacheCount("miss");
+
+        ObjectNode request = grokService.capture("GET 200", REQUEST);
+        ObjectNode client = grokService.capture("GET 200", CLIENT);
+
+        assertThat(cacheCount("miss") - misses).isEqualTo(2);
+        assertThat(request.has("verb")).isTrue();
+        assertThat(request.has("client")).isFalse();
+        assertThat(client.path("client").asText()).isEqualTo("GET");
+        assertThat(client.has("verb")).isFalse();
+    }
+
+    @Test
+    public void invalidPatternNotCached() throws Exception {
+        grokService.capture("GET 200", REQUEST);
+        double hits = cacheCount("hit");
+        double misses = cacheCount("miss");
+
+        assertThatThrownBy(() -> grokService.capture("GET 200", "%{UNKNOWN:verb}")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> grokService.capture("GET 200", "%{UNKNOWN:verb}")).isInstanceOf(IllegalArgumentException.class);
+        // each attempt compiles again, the failure is not kept
+        assertThat(cacheCount("miss") - misses).isEqualTo(2);
+        assertThat(grokService.parseGrok("GET 200", "%{UNKNOWN:verb}").messageError).isNotBlank();
+
+        assertThat(grokService.capture("GET 200", REQUEST).path("verb").asText()).isEqualTo("GET");
+        assertThat(cacheCount("hit") - hits).isEqualTo(1);
+
+        // once the missing pattern is defined the same expression compiles
+        grokService.createUserGrok("UNKNOWN", "\\b\\w+\\b");
+        assertThat(grokService.capture("GET 200", "%{UNKNOWN:verb}").path("verb").asText()).isEqualTo("GET");
+    }
+
+    private static double cacheCount(String status) {
+        Double value = CollectorRegistry.defaultRegistry.getSampleValue("nb_grok_cache_count", new String[]{"status"}, new String[]{status});
+        return value == null ? 0 : value;
+    }
+}
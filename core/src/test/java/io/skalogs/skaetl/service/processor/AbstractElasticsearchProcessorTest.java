@@ -0,0 +1,140 @@
+package io.skalogs.skaetl.service.processor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.skalogs.skaetl.config.ESBufferConfiguration;
+import io.skalogs.skaetl.config.ESConfiguration;
+import io.skalogs.skaetl.domain.ESBuffer;
+import io.skalogs.skaetl.service.ESErrorRetryWriter;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.StateRestoreCallback;
+import org.apache.kafka.streams.processor.StateStore;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AbstractElasticsearchProcessorTest {
+
+    private final BlockingQueue<ActionListener<BulkResponse>> inFlight = new LinkedBlockingQueue<>();
+    private final ESErrorRetryWriter esErrorRetryWriter = mock(ESErrorRetryWriter.class);
+    private final ProcessorContext context = mock(ProcessorContext.class);
+    private JsonNodeToElasticSearchProcessor processor;
+    private StateStore inFlightStore;
+
+    @Before
+    public void init() {
+        ESBufferConfiguration esBufferConfiguration = new ESBufferConfiguration();
+        esBufferConfiguration.maxElements = 2;
+        esBufferConfiguration.maxSizeInBytes = 1024 * 1024;
+        esBufferConfiguration.maxTime = 60;
+        ESConfiguration esConfiguration = new ESConfiguration();
+        esConfiguration.setCustomIndexPrefix("skaetl");
+        ESBuffer esBuffer = new ESBuffer(null, esBufferConfiguration, esConfiguration) {
+            @Override
+            protected void bulkAsync(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+                inFlight.add(listener);
+            }
+        };
+        when(context.applicationId()).thenReturn("app");
+        processor = new JsonNodeToElasticSearchProcessor(esBuffer, esErrorRetryWriter);
+        processor.init(context);
+        ArgumentCaptor<StateStore> store = ArgumentCaptor.forClass(StateStore.class);
+        verify(context).register(store.capture(), anyBoolean(), any(StateRestoreCallback.class));
+        inFlightStore = store.getValue();
+    }
+
+    @Test
+    public void commitWaitsForAsyncBulk() throws Exception {
+        processor.process("key", event(1));
+        processor.process("key", event(2));
+        ActionListener<BulkResponse> listener = inFlight.poll(1, TimeUnit.SECONDS);
+        assertThat(listener).isNotNull();
+
+        CompletableFuture<Void> commit = CompletableFuture.runAsync(inFlightStore::flush);
+        assertThatThrownBy(() -> commit.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        listener.onResponse(new BulkResponse(new BulkItemResponse[0], 1));
+        commit.get(5, TimeUnit.SECONDS);
+        verify(esErrorRetryWriter, never()).sendToRetryTopic(anyString(), anyString());
+        verify(esErrorRetryWriter).flush();
+    }
+
+    @Test
+    public void commitSendsPendingEvents() throws Exception {
+        processor.process("key", event(1));
+        assertThat(inFlight).isEmpty();
+
+        CompletableFuture<Void> commit = CompletableFuture.runAsync(inFlightStore::flush);
+        ActionListener<BulkResponse> listener = inFlight.poll(5, TimeUnit.SECONDS);
+        assertThat(listener).isNotNull();
+        assertThat(commit).isNotDone();
+
+        listener.onResponse(new BulkResponse(new BulkItemResponse[0], 1));
+        commit.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void failedBulkRoutedToRetry() throws Exception {
+        JsonNode first = event(1);
+        JsonNode second = event(2);
+        processor.process("key", first);
+        processor.process("key", second);
+
+        inFlight.poll(1, TimeUnit.SECONDS).onFailure(new IOException("connection refused"));
+
+        verify(esErrorRetryWriter).sendToRetryTopic("app", first.toString());
+        verify(esErrorRetryWriter).sendToRetryTopic("app", second.toString());
+        CompletableFuture.runAsync(inFlightStore::flush).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void closeDrainsBulks() throws Exception {
+        processor.process("key", event(1));
+
+        CompletableFuture<Void> close = CompletableFuture.runAsync(processor::close);
+        ActionListener<BulkResponse> listener = inFlight.poll(5, TimeUnit.SECONDS);
+        assertThat(listener).isNotNull();
+        assertThatThrownBy(() -> close.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        listener.onResponse(new BulkResponse(new BulkItemResponse[0], 1));
+        close.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void sharedInstanceRejected() {
+        assertThatThrownBy(() -> processor.init(mock(ProcessorContext.class)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("new instance");
+    }
+
+    private static JsonNode event(int id) {
+        ObjectNode event = JsonNodeFactory.instance.objectNode();
+        event.put("id", id);
+        event.put("project", "skaetl");
+        event.put("type", "nginx");
+        event.put("timestamp", "2026-10-17T10:00:00.000Z");
+        return event;
+    }
+}
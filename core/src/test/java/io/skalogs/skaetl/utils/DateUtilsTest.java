@@ -0,0 +1,80 @@
+package io.skalogs.skaetl.utils;
+
+import com.fasterxml.jackson.databind.util.ISO8601Utils;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DateUtilsTest {
+
+    @Test
+    public void parse_sameAsJackson() throws Exception {
+        String[] values = {
+                "2018-01-15T10:20:30.123Z",
+                "2018-01-15T10:20:30Z",
+                "2018-01-15T10:20:30.1Z",
+                "2018-01-15T10:20:30.123456789Z",
+                "2018-01-15T10:20:30.123+02:00",
+                "2018-01-15T10:20:30-0530",
+                "2018-01-15T10:20:30+00:00",
+                "2018-01-15T10:20:30+23:59",
+                "2018-01-15T10:20:60Z",
+                "2018-01-15T10:20:30ZZ",
+                "2016-02-29T23:59:59.999Z",
+                "1969-12-31T23:59:59.999Z",
+                "2018-01-15",
+                "20180115T102030Z"
+        };
+        for (String value : values) {
+            assertThat(DateUtils.parseISO8601(value)).as(value).isEqualTo(ISO8601Utils.parse(value, new ParsePosition(0)));
+        }
+    }
+
+    @Test
+    public void reject_sameAsJackson() {
+        String[] values = {
+                "2018-01-15T10:20:30+01",
+                "2018-01-15T10:20:30-05",
+                "2018-01-15T10:20:30",
+                "2018-01-15T10:20:30.Z",
+                "2018-01-15T24:20:30Z",
+                "2018-01-15T10:60:30Z",
+                "2018-02-30T10:20:30Z",
+                "2018-01-15T10:20:30+1:00",
+                "2018-01-15T10:20:30+01:0a",
+                "2018-01-15T10:20:30+24:00",
+                "2018-01-15T10:20:30+99:00"
+        };
+        for (String value : values) {
+            assertThatThrownBy(() -> ISO8601Utils.parse(value, new ParsePosition(0))).as("jackson " + value).isInstanceOf(ParseException.class);
+            assertThatThrownBy(() -> DateUtils.parseISO8601(value)).as(value).isInstanceOf(ParseException.class);
+        }
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_invalid() throws Exception {
+        DateUtils.parseISO8601("2018-02-30T10:20:30 UTC");
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_null() throws Exception {
+        DateUtils.parseISO8601(null);
+    }
+
+    @Test
+    public void format_roundTrip() throws Exception {
+        Date date = new Date(1516011630123L);
+        assertThat(DateUtils.formatISO8601(date)).isEqualTo("2018-01-15T10:20:30.123Z");
+        assertThat(DateUtils.parseISO8601(DateUtils.formatISO8601(date))).isEqualTo(date);
+    }
+
+    @Test
+    public void formatter_cached() {
+        assertThat(DateUtils.formatter("yyyy-MM-dd")).isSameAs(DateUtils.formatter("yyyy-MM-dd"));
+    }
+}
@@ -0,0 +1,52 @@
+package io.skalogs.skaetl.utils;
+
+import io.skalogs.skaetl.config.KafkaConfiguration;
+import io.skalogs.skaetl.kafka.KafkaUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records/s sent by each producer profile to an embedded broker.
+ * Not part of the test suite, run the main method from the test classpath.
+ */
+@Slf4j
+public class ProducerProfileBenchmark {
+
+    private static final int NB_RECORDS = 200_000;
+    private static final int NB_WARMUP_RECORDS = 20_000;
+    private static final String VALUE = "{\"project\":\"skalogs\",\"type\":\"apache\",\"message\":\"" + StringUtils.repeat("a", 400) + "\"}";
+
+    public static void main(String[] args) throws Exception {
+        KafkaUnit kafkaUnit = new KafkaUnit();
+        kafkaUnit.startup();
+        try {
+            KafkaConfiguration kafkaConfiguration = new KafkaConfiguration();
+            kafkaConfiguration.setBootstrapServers(kafkaUnit.getKafkaConnect());
+            for (ProducerProfile producerProfile : ProducerProfile.values()) {
+                String topic = "benchmark-" + producerProfile;
+                kafkaUnit.createTopic(topic);
+                try (Producer<String, String> producer = KafkaUtils.kafkaProducer(kafkaConfiguration, producerProfile, StringSerializer.class, StringSerializer.class)) {
+                    send(producer, topic, NB_WARMUP_RECORDS);
+                    long start = System.nanoTime();
+                    send(producer, topic, NB_RECORDS);
+                    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    log.info("profile {} {} records in {} ms, {} records/s", producerProfile, NB_RECORDS, elapsedMs, NB_RECORDS * 1000L / Math.max(1, elapsedMs));
+                }
+            }
+        } finally {
+            kafkaUnit.shutdown();
+        }
+    }
+
+    private static void send(Producer<String, String> producer, String topic, int nbRecords) {
+        for (int i = 0; i < nbRecords; i++) {
+            producer.send(new ProducerRecord<>(topic, VALUE));
+        }
+        producer.flush();
+    }
+}
@@ -0,0 +1,59 @@
+package io.skalogs.skaetl.utils;
+
+import org.junit.Test;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StreamSettingsRocksDBConfigSetterTest {
+
+    static {
+        RocksDB.loadLibrary();
+    }
+
+    private final StreamSettingsRocksDBConfigSetter configSetter = new StreamSettingsRocksDBConfigSetter();
+
+    @Test
+    public void keepsStreamsTableConfig() {
+        // as set by kafka-streams before calling the config setter
+        BlockBasedTableConfig streamsTableConfig = new BlockBasedTableConfig();
+        streamsTableConfig.setBlockCacheSize(50 * 1024 * 1024L);
+        streamsTableConfig.setBlockSize(4096L);
+        streamsTableConfig.setFilter(new BloomFilter());
+        try (Options options = new Options()) {
+            options.setTableFormatConfig(streamsTableConfig);
+            Map<String, Object> configs = new HashMap<>();
+            configs.put(StreamSettingsRocksDBConfigSetter.BLOCK_CACHE_SIZE_CONFIG, 8 * 1024 * 1024L);
+            configs.put(StreamSettingsRocksDBConfigSetter.WRITE_BUFFER_SIZE_CONFIG, "4194304");
+            configs.put(StreamSettingsRocksDBConfigSetter.MAX_WRITE_BUFFERS_CONFIG, 5);
+
+            configSetter.setConfig("store", options, configs);
+
+            assertThat(options.tableFormatConfig()).isSameAs(streamsTableConfig);
+            assertThat(streamsTableConfig.blockCacheSize()).isEqualTo(8 * 1024 * 1024L);
+            assertThat(streamsTableConfig.blockSize()).isEqualTo(4096L);
+            assertThat(options.writeBufferSize()).isEqualTo(4 * 1024 * 1024L);
+            assertThat(options.maxWriteBufferNumber()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    public void leavesDefaultsWhenNotSet() {
+        BlockBasedTableConfig streamsTableConfig = new BlockBasedTableConfig();
+        try (Options options = new Options()) {
+            options.setTableFormatConfig(streamsTableConfig);
+            long writeBufferSize = options.writeBufferSize();
+
+            configSetter.setConfig("store", options, new HashMap<>());
+
+            assertThat(options.tableFormatConfig()).isSameAs(streamsTableConfig);
+            assertThat(options.writeBufferSize()).isEqualTo(writeBufferSize);
+        }
+    }
+}
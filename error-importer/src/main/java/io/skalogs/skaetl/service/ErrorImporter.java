@@ -13,6 +13,7 @@ import org.apache.kafka.streams.Consumed;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.KStream;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
@@ -25,7 +26,7 @@ public class ErrorImporter {
     private static final String INPUT_PROCESS_ERROR = "es-error";
     private final KafkaStreams errorStream;
 
-    public ErrorImporter(ErrorToElasticsearchProcessor elasticsearchProcessor, KafkaConfiguration kafkaConfiguration, KafkaAdminService kafkaAdminService) {
+    public ErrorImporter(ApplicationContext applicationContext, KafkaConfiguration kafkaConfiguration, KafkaAdminService kafkaAdminService) {
         kafkaAdminService.buildTopic(kafkaConfiguration.getErrorTopic());
 
         StreamsBuilder builder = new StreamsBuilder();
@@ -33,7 +34,7 @@ public class ErrorImporter {
 
         KStream<String, ErrorData> streamToES = builder.stream(kafkaConfiguration.getErrorTopic(), Consumed.with(Serdes.String(), errorDataSerde));
 
-        streamToES.process(() -> elasticsearchProcessor);
+        streamToES.process(() -> applicationContext.getBean(ErrorToElasticsearchProcessor.class));
 
         errorStream = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(INPUT_PROCESS_ERROR, kafkaConfiguration.getBootstrapServers()));
         Runtime.getRuntime().addShutdownHook(new Thread(errorStream::close));
@@ -1,11 +1,11 @@
 package io.skalogs.skaetl.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
 import io.skalogs.skaetl.domain.ESBuffer;
 import io.skalogs.skaetl.domain.ErrorData;
 import io.skalogs.skaetl.domain.RetentionLevel;
 import io.skalogs.skaetl.service.processor.AbstractElasticsearchProcessor;
+import io.skalogs.skaetl.utils.DateUtils;
 import io.skalogs.skaetl.utils.JSONUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.action.bulk.BulkItemResponse;
@@ -13,13 +13,13 @@ import org.elasticsearch.action.bulk.BulkResponse;
 import org.slf4j.MDC;
 
 import java.text.ParseException;
+import java.util.List;
 
 @Slf4j
 public class ErrorToElasticsearchProcessor extends AbstractElasticsearchProcessor<String, ErrorData> {
 
     private static final String NO_PROJECT = "no-project";
     private static final String ERRORS = "errors";
-    private final ISO8601DateFormat df = new ISO8601DateFormat();
 
     public ErrorToElasticsearchProcessor(ESBuffer esBuffer, ESErrorRetryWriter esErrorRetryWriter) {
         super(esBuffer, esErrorRetryWriter);
@@ -29,7 +29,7 @@ public class ErrorToElasticsearchProcessor extends AbstractElasticsearchProcesso
     public void process(String key, ErrorData errorData) {
         try {
             String valueAsString = JSONUtils.getInstance().asJsonString(errorData);
-            processToElasticsearch(df.parse(errorData.timestamp), NO_PROJECT, ERRORS, RetentionLevel.week, valueAsString);
+            processToElasticsearch(DateUtils.parseISO8601(errorData.timestamp), NO_PROJECT, ERRORS, RetentionLevel.week, valueAsString);
         } catch (JsonProcessingException e) {
             log.error("Couldn't transform value " + errorData, e);
         } catch (ParseException e) {
@@ -39,7 +39,7 @@ public class ErrorToElasticsearchProcessor extends AbstractElasticsearchProcesso
 
 
     @Override
-    protected void parseResultErrors(BulkResponse bulkItemResponses) {
+    protected void parseResultErrors(BulkResponse bulkItemResponses, List<String> values) {
         for (BulkItemResponse bir : bulkItemResponses) {
             MDC.put("item_error", bir.getFailureMessage());
             log.info("EsError" + bir.getFailureMessage());
@@ -4,12 +4,15 @@ import io.skalogs.skaetl.rules.metrics.udaf.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 public class UDAFRegistry {
 
     private static UDAFRegistry INSTANCE = new UDAFRegistry();
 
-    private Map<String, Class<? extends AggregateFunction>> registry = new HashMap<>();
+    private Map<String, Function<double[], AggregateFunction>> registry = new HashMap<>();
 
     private UDAFRegistry() {
         register("count", CountFunction.class);
@@ -20,24 +23,48 @@ public class UDAFRegistry {
         register("stddev", StdDevPopulationFunction.class);
         register("stddev-sample", StdDevSampleFunction.class);
         register("median", MedianFunction.class);
+        register("mad", MADFunction.class);
+        register("percentile", parameters -> {
+            checkArgument(parameters.length == 1, "percentile expects the percentile to compute, as in percentile(duration, 90)");
+            return new PercentileFunction(parameters[0]);
+        });
+        register("p95", parameters -> new PercentileFunction(95));
+        register("p99", parameters -> new PercentileFunction(99));
+        register("count_distinct", parameters -> {
+            checkArgument(parameters.length <= 1, "count_distinct expects at most the precision, as in count_distinct(ip, 16)");
+            return parameters.length == 0 ? new CountDistinctFunction() : new CountDistinctFunction((int) parameters[0]);
+        });
+        register("topk", parameters -> {
+            checkArgument(parameters.length == 1, "topk expects the number of values to rank, as in topk(ip, 10)");
+            return new TopKFunction((int) parameters[0]);
+        });
     }
 
     public void register(String name, Class<? extends AggregateFunction> aggFunctionClass) {
-        registry.put(name.toLowerCase(), aggFunctionClass);
+        register(name, parameters -> {
+            checkArgument(parameters.length == 0, "%s takes no parameter", name);
+            try {
+                return aggFunctionClass.newInstance();
+            } catch (InstantiationException e) {
+                throw new RuntimeException(e);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * For functions configured in the SELECT clause, as in percentile(duration, 90).
+     */
+    public void register(String name, Function<double[], AggregateFunction> aggFunctionFactory) {
+        registry.put(name.toLowerCase(), aggFunctionFactory);
     }
 
     public static UDAFRegistry getInstance() {
         return INSTANCE;
     }
 
-    public AggregateFunction get(String aggregateFunctionName) {
-        try {
-            Class<? extends AggregateFunction> aggFunctionClass = registry.get(aggregateFunctionName.toLowerCase());
-            return aggFunctionClass.newInstance();
-        } catch (InstantiationException e) {
-            throw new RuntimeException(e);
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
-        }
+    public AggregateFunction get(String aggregateFunctionName, double... parameters) {
+        return registry.get(aggregateFunctionName.toLowerCase()).apply(parameters);
     }
 }
@@ -0,0 +1,57 @@
+package io.skalogs.skaetl.rules.metrics.serdes;
+
+import io.skalogs.skaetl.rules.metrics.udaf.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Binary layout of a window state: MAGIC, VERSION, the function code, then what the function writes in writeState.
+ * JSON never starts with MAGIC, states written before the binary format keep being read.
+ * Codes are stored in the state stores: never change or reuse one, add new functions at the end.
+ */
+final class AggregateFunctionCodes {
+
+    static final byte MAGIC = 0;
+    static final byte VERSION = 1;
+
+    private static final Map<Class<? extends AggregateFunction>, Byte> CODES = new HashMap<>();
+    private static final Map<Byte, Supplier<? extends AggregateFunction>> FACTORIES = new HashMap<>();
+
+    static {
+        register(1, CountFunction.class, CountFunction::new);
+        register(2, SumFunction.class, SumFunction::new);
+        register(3, MinFunction.class, MinFunction::new);
+        register(4, MaxFunction.class, MaxFunction::new);
+        register(5, AvgFunction.class, AvgFunction::new);
+        register(6, StdDevPopulationFunction.class, StdDevPopulationFunction::new);
+        register(7, StdDevSampleFunction.class, StdDevSampleFunction::new);
+        register(8, MedianFunction.class, MedianFunction::new);
+        register(9, MADFunction.class, MADFunction::new);
+        register(10, PercentileFunction.class, PercentileFunction::new);
+        register(11, CountDistinctFunction.class, CountDistinctFunction::new);
+        register(12, TopKFunction.class, TopKFunction::new);
+    }
+
+    private AggregateFunctionCodes() {
+    }
+
+    private static <T extends AggregateFunction & BinaryState> void register(int code, Class<T> aggFunctionClass, Supplier<T> factory) {
+        CODES.put(aggFunctionClass, (byte) code);
+        FACTORIES.put((byte) code, factory);
+    }
+
+    // null when the function has no binary state
+    static Byte code(AggregateFunction aggregateFunction) {
+        return aggregateFunction instanceof BinaryState ? CODES.get(aggregateFunction.getClass()) : null;
+    }
+
+    static AggregateFunction newInstance(byte code) {
+        Supplier<? extends AggregateFunction> factory = FACTORIES.get(code);
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown aggregate function code " + code);
+        }
+        return factory.get();
+    }
+}
@@ -0,0 +1,59 @@
+package io.skalogs.skaetl.rules.metrics.serdes;
+
+import io.skalogs.skaetl.rules.metrics.udaf.AggregateFunction;
+import io.skalogs.skaetl.rules.metrics.udaf.BinaryState;
+import io.skalogs.skaetl.serdes.GenericDeserializer;
+import io.skalogs.skaetl.serdes.SerdeMetrics;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static io.skalogs.skaetl.serdes.SerdeMetrics.DESERIALIZE;
+
+/**
+ * Reads what AggregateFunctionSerializer writes, binary or JSON.
+ */
+public class AggregateFunctionDeserializer implements Deserializer<AggregateFunction> {
+
+    private static final String NAME = AggregateFunctionDeserializer.class.getSimpleName();
+
+    private final GenericDeserializer<AggregateFunction> jsonDeserializer = new GenericDeserializer<>(AggregateFunction.class);
+
+    @Override
+    public void configure(Map<String, ?> map, boolean b) {
+
+    }
+
+    @Override
+    public AggregateFunction deserialize(String s, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length == 0 || bytes[0] != AggregateFunctionCodes.MAGIC) {
+            return jsonDeserializer.deserialize(s, bytes);
+        }
+        long start = System.nanoTime();
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            byte version = in.readByte();
+            if (version != AggregateFunctionCodes.VERSION) {
+                throw new IOException("Unsupported aggregate function state version " + version);
+            }
+            AggregateFunction aggregateFunction = AggregateFunctionCodes.newInstance(in.readByte());
+            ((BinaryState) aggregateFunction).readState(in);
+            SerdeMetrics.success(NAME, DESERIALIZE, bytes.length, start);
+            return aggregateFunction;
+        } catch (Exception e) {
+            SerdeMetrics.failure(NAME, DESERIALIZE, s, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
@@ -0,0 +1,61 @@
+package io.skalogs.skaetl.rules.metrics.serdes;
+
+import io.skalogs.skaetl.rules.metrics.udaf.AggregateFunction;
+import io.skalogs.skaetl.rules.metrics.udaf.BinaryState;
+import io.skalogs.skaetl.serdes.GenericSerializer;
+import io.skalogs.skaetl.serdes.SerdeMetrics;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.Map;
+
+import static io.skalogs.skaetl.serdes.SerdeMetrics.SERIALIZE;
+
+/**
+ * Window states of the built-in functions as raw primitives, see AggregateFunctionCodes. Any other function is
+ * written as JSON.
+ */
+public class AggregateFunctionSerializer implements Serializer<AggregateFunction> {
+
+    private static final String NAME = AggregateFunctionSerializer.class.getSimpleName();
+
+    private final GenericSerializer<AggregateFunction> jsonSerializer = new GenericSerializer<>();
+
+    @Override
+    public void configure(Map<String, ?> map, boolean b) {
+
+    }
+
+    @Override
+    public byte[] serialize(String s, AggregateFunction aggregateFunction) {
+        if (aggregateFunction == null) {
+            return null;
+        }
+        Byte code = AggregateFunctionCodes.code(aggregateFunction);
+        if (code == null) {
+            return jsonSerializer.serialize(s, aggregateFunction);
+        }
+        long start = System.nanoTime();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(AggregateFunctionCodes.MAGIC);
+            out.writeByte(AggregateFunctionCodes.VERSION);
+            out.writeByte(code);
+            ((BinaryState) aggregateFunction).writeState(out);
+            out.flush();
+            byte[] retVal = bytes.toByteArray();
+            SerdeMetrics.success(NAME, SERIALIZE, retVal.length, start);
+            return retVal;
+        } catch (Exception e) {
+            SerdeMetrics.failure(NAME, SERIALIZE, s, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
@@ -2,22 +2,35 @@ package io.skalogs.skaetl.rules.metrics.udaf;
 
 import lombok.Getter;
 
-public class AvgFunction extends AggregateFunction<Number, Double> {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class AvgFunction extends AggregateFunction<Number, Double> implements DoubleAggregateFunction, BinaryState {
     @Getter
-    private Double sum = 0d;
+    private double sum = 0d;
     @Getter
-    private Double count = 0d;
+    private double count = 0d;
 
     @Override
     public AggregateFunction addValue(Number value) {
-        double doubleValue = value.doubleValue();
-        sum += doubleValue;
-        count++;
+        add(value.doubleValue());
         return this;
     }
 
+    @Override
+    public void add(double value) {
+        sum += value;
+        count++;
+    }
+
     @Override
     public Double compute() {
+        return result();
+    }
+
+    @Override
+    public double result() {
         return sum / count;
     }
 
@@ -28,4 +41,16 @@ public class AvgFunction extends AggregateFunction<Number, Double> {
         count += newValueFunction.count;
         return this;
     }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(sum);
+        out.writeDouble(count);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        sum = in.readDouble();
+        count = in.readDouble();
+    }
 }
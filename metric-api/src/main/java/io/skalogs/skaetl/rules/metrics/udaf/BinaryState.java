@@ -0,0 +1,16 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * An aggregate function whose window state is stored as raw primitives rather than JSON, see
+ * AggregateFunctionSerializer. readState gets exactly what writeState wrote, into a new instance.
+ */
+public interface BinaryState {
+
+    void writeState(DataOutput out) throws IOException;
+
+    void readState(DataInput in) throws IOException;
+}
@@ -0,0 +1,81 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import lombok.Getter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Approximate number of distinct values, see HyperLogLog for the error.
+ */
+public class CountDistinctFunction extends AggregateFunction<Number, Double> implements DoubleAggregateFunction, BinaryState {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    @Getter
+    private HyperLogLog hyperLogLog;
+
+    public CountDistinctFunction() {
+        this(HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    public CountDistinctFunction(int precision) {
+        hyperLogLog = new HyperLogLog(precision);
+    }
+
+    /**
+     * Values reach aggregate functions as doubles: text is hashed into the 53 bits a double holds exactly.
+     * Missing and null fields have no value to count, they give null and the event is skipped.
+     */
+    public static Double distinctValue(JsonNode value) {
+        if (value.isMissingNode() || value.isNull()) {
+            return null;
+        }
+        if (value.isNumber()) {
+            return value.asDouble();
+        }
+        return (double) (HASH_FUNCTION.hashString(value.asText(), UTF_8).asLong() >>> 11);
+    }
+
+    @Override
+    public AggregateFunction addValue(Number value) {
+        add(value.doubleValue());
+        return this;
+    }
+
+    @Override
+    public void add(double value) {
+        hyperLogLog.addHash(HASH_FUNCTION.hashLong(Double.doubleToLongBits(value)).asLong());
+    }
+
+    @Override
+    public Double compute() {
+        return result();
+    }
+
+    @Override
+    public double result() {
+        return hyperLogLog.cardinality();
+    }
+
+    @Override
+    public AggregateFunction<Number, Double> merge(AggregateFunction<Number, Double> newValue) {
+        hyperLogLog.merge(((CountDistinctFunction) newValue).hyperLogLog);
+        return this;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        hyperLogLog.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        hyperLogLog = HyperLogLog.readState(in);
+    }
+}
@@ -2,10 +2,14 @@ package io.skalogs.skaetl.rules.metrics.udaf;
 
 import lombok.Getter;
 
-public class CountFunction extends AggregateFunction<Object,Double> {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class CountFunction extends AggregateFunction<Object,Double> implements DoubleAggregateFunction, BinaryState {
 
     @Getter
-    private Double count = 0d;
+    private double count = 0d;
 
     @Override
     public AggregateFunction addValue(Object value) {
@@ -13,15 +17,35 @@ public class CountFunction extends AggregateFunction<Object,Double> {
         return this;
     }
 
+    @Override
+    public void add(double value) {
+        count++;
+    }
+
     @Override
     public Double compute() {
         return count;
     }
 
+    @Override
+    public double result() {
+        return count;
+    }
+
     @Override
     public AggregateFunction<Object, Double> merge(AggregateFunction<Object, Double> newValue) {
         CountFunction countFunction = (CountFunction) newValue;
         count += countFunction.getCount();
         return this;
     }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(count);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        count = in.readDouble();
+    }
 }
@@ -0,0 +1,12 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+/**
+ * Primitive side of the numeric aggregate functions: values are added and results read as double, without unboxing a
+ * Number or boxing a Double for each event. AggregateFunction.addValue and compute delegate to it.
+ */
+public interface DoubleAggregateFunction {
+
+    void add(double value);
+
+    double result();
+}
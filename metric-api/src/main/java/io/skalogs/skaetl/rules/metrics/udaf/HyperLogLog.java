@@ -0,0 +1,253 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * HyperLogLog++ on 64 bits hashes: 2^precision registers, a sparse list of the touched registers while it is smaller
+ * than the dense array, and the estimator of Ertl ("New cardinality estimation algorithms for HyperLogLog sketches",
+ * 2017) which stays unbiased from small to large cardinalities without the empirical bias tables.
+ * Relative standard error is 1.04 / sqrt(2^precision), 0.8% with the default precision.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private static final int RANK_BITS = 6;
+    private static final int RANK_MASK = (1 << RANK_BITS) - 1;
+
+    private final int precision;
+    // register index << RANK_BITS | rank, sorted by index, until there are more than registers / 4 of them
+    private int[] sparse = new int[8];
+    private int sparseSize;
+    private byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        checkArgument(precision >= MIN_PRECISION && precision <= MAX_PRECISION, "precision must be between %s and %s", MIN_PRECISION, MAX_PRECISION);
+        this.precision = precision;
+    }
+
+    @JsonCreator
+    HyperLogLog(@JsonProperty("precision") int precision, @JsonProperty("sparse") int[] sparse, @JsonProperty("registers") byte[] registers) {
+        this(precision);
+        if (registers != null) {
+            checkArgument(registers.length == 1 << precision, "%s registers expected", 1 << precision);
+            this.registers = registers;
+            this.sparse = null;
+        } else if (sparse != null) {
+            this.sparse = Arrays.copyOf(sparse, Math.max(8, sparse.length));
+            this.sparseSize = sparse.length;
+        }
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+        update(index, rank);
+    }
+
+    public void merge(HyperLogLog other) {
+        checkArgument(precision == other.precision, "cannot merge precision %s into precision %s", other.precision, precision);
+        if (other.registers != null) {
+            for (int i = 0; i < other.registers.length; i++) {
+                if (other.registers[i] != 0) {
+                    update(i, other.registers[i]);
+                }
+            }
+        } else {
+            for (int i = 0; i < other.sparseSize; i++) {
+                update(other.sparse[i] >>> RANK_BITS, other.sparse[i] & RANK_MASK);
+            }
+        }
+    }
+
+    private void update(int index, int rank) {
+        if (registers != null) {
+            if (registers[index] < rank) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+        int position = sparseIndexOf(index);
+        if (position >= 0) {
+            if ((sparse[position] & RANK_MASK) < rank) {
+                sparse[position] = index << RANK_BITS | rank;
+            }
+            return;
+        }
+        if (sparseSize + 1 > (1 << precision) / 4) {
+            toDense();
+            registers[index] = (byte) rank;
+            return;
+        }
+        position = -position - 1;
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparseSize * 2);
+        }
+        System.arraycopy(sparse, position, sparse, position + 1, sparseSize - position);
+        sparse[position] = index << RANK_BITS | rank;
+        sparseSize++;
+    }
+
+    private int sparseIndexOf(int index) {
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleIndex = sparse[middle] >>> RANK_BITS;
+            if (middleIndex < index) {
+                low = middle + 1;
+            } else if (middleIndex > index) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void toDense() {
+        registers = new byte[1 << precision];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> RANK_BITS] = (byte) (sparse[i] & RANK_MASK);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    public double cardinality() {
+        int m = 1 << precision;
+        int q = 64 - precision;
+        int[] histogram = new int[q + 2];
+        if (registers != null) {
+            for (byte register : registers) {
+                histogram[register]++;
+            }
+        } else {
+            histogram[0] = m - sparseSize;
+            for (int i = 0; i < sparseSize; i++) {
+                histogram[sparse[i] & RANK_MASK]++;
+            }
+        }
+        if (histogram[0] == m) {
+            return 0;
+        }
+        double z = m * tau(1 - (double) histogram[q + 1] / m);
+        for (int k = q; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += m * sigma((double) histogram[0] / m);
+        return m * m / (2 * Math.log(2) * z);
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (previous != z);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (previous != z);
+        return z / 3;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int[] getSparse() {
+        return registers == null ? Arrays.copyOf(sparse, sparseSize) : null;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    public void writeState(DataOutput out) throws IOException {
+        out.writeByte(precision);
+        if (registers != null) {
+            out.writeBoolean(true);
+            out.write(registers);
+        } else {
+            out.writeBoolean(false);
+            out.writeInt(sparseSize);
+            for (int i = 0; i < sparseSize; i++) {
+                out.writeInt(sparse[i]);
+            }
+        }
+    }
+
+    // ranks are checked as cardinality() indexes its histogram with them
+    public static HyperLogLog readState(DataInput in) throws IOException {
+        int precision = in.readByte();
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IOException("Invalid HyperLogLog state, precision " + precision);
+        }
+        HyperLogLog hyperLogLog = new HyperLogLog(precision);
+        int m = 1 << precision;
+        int maxRank = 65 - precision;
+        if (in.readBoolean()) {
+            hyperLogLog.registers = new byte[m];
+            in.readFully(hyperLogLog.registers);
+            hyperLogLog.sparse = null;
+            for (byte register : hyperLogLog.registers) {
+                if (register < 0 || register > maxRank) {
+                    throw new IOException("Invalid HyperLogLog state, rank " + register + " above " + maxRank);
+                }
+            }
+        } else {
+            int size = in.readInt();
+            if (size < 0 || size > m / 4) {
+                throw new IOException("Invalid HyperLogLog state, " + size + " sparse registers");
+            }
+            hyperLogLog.sparse = new int[Math.max(8, size)];
+            int previousIndex = -1;
+            for (int i = 0; i < size; i++) {
+                int entry = in.readInt();
+                int index = entry >>> RANK_BITS;
+                int rank = entry & RANK_MASK;
+                if (index <= previousIndex || index >= m || rank < 1 || rank > maxRank) {
+                    throw new IOException("Invalid HyperLogLog state, sparse register " + index + " with rank " + rank);
+                }
+                hyperLogLog.sparse[i] = entry;
+                previousIndex = index;
+            }
+            hyperLogLog.sparseSize = size;
+        }
+        return hyperLogLog;
+    }
+}
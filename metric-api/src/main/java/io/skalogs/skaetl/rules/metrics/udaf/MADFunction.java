@@ -1,45 +1,61 @@
 package io.skalogs.skaetl.rules.metrics.udaf;
 
-import com.google.common.math.Quantiles;
+import com.fasterxml.jackson.annotation.JsonSetter;
 import lombok.Getter;
 
-import java.util.ArrayList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
-public class MADFunction extends AggregateFunction<Number, Double> {
+/**
+ * Approximate median absolute deviation, computed on a t-digest of the values so the state does not grow with the
+ * number of events.
+ */
+public class MADFunction extends AggregateFunction<Number, Double> implements DoubleAggregateFunction, BinaryState {
     @Getter
-    private List<Double> values = new ArrayList<>();
+    private TDigest digest = new TDigest();
 
     @Override
     public AggregateFunction addValue(Number value) {
-        values.add(value.doubleValue());
+        add(value.doubleValue());
         return this;
     }
 
+    @Override
+    public void add(double value) {
+        digest.add(value);
+    }
+
     @Override
     public Double compute() {
-        if (values.isEmpty()) {
-            return Double.NaN;
-        }
-        return mad();
+        return result();
+    }
+
+    @Override
+    public double result() {
+        return digest.medianAbsoluteDeviation();
     }
 
-    private Double mad() {
-        double median = Quantiles.median().compute(values);
-        List<Double> deviations = deviation(values, median);
-        return Quantiles.median().compute(deviations);
+    @Override
+    public AggregateFunction<Number, Double> merge(AggregateFunction<Number, Double> newValue) {
+        digest.merge(((MADFunction) newValue).digest);
+        return this;
+    }
 
+    // window states stored before the digest kept every value
+    @JsonSetter("values")
+    private void setValues(List<Double> values) {
+        values.forEach(digest::add);
     }
 
-    private List<Double> deviation(List<Double> values, Double median) {
-        return values.stream()
-                .map(value -> Math.abs(value - median))
-                .collect(Collectors.toList());
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        digest.writeState(out);
     }
 
     @Override
-    public AggregateFunction<Number, Double> merge(AggregateFunction<Number, Double> newValue) {
-        return compute() > newValue.compute() ? this : newValue;
+    public void readState(DataInput in) throws IOException {
+        digest = TDigest.readState(in);
     }
 }
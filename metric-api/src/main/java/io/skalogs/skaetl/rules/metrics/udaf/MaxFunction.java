@@ -3,29 +3,50 @@ package io.skalogs.skaetl.rules.metrics.udaf;
 
 import lombok.Getter;
 
-public class MaxFunction extends AggregateFunction<Number, Double> {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class MaxFunction extends AggregateFunction<Number, Double> implements DoubleAggregateFunction, BinaryState {
     @Getter
-    private Double maxValue = Double.NaN;
+    private double maxValue = Double.NaN;
 
     @Override
     public AggregateFunction addValue(Number value) {
-        double doubleValue = value.doubleValue();
-        if (Double.isNaN(maxValue)) {
-            maxValue = doubleValue;
-        }
-        if (doubleValue > maxValue) {
-            maxValue = doubleValue;
-        }
+        add(value.doubleValue());
         return this;
     }
 
+    @Override
+    public void add(double value) {
+        if (Double.isNaN(maxValue) || value > maxValue) {
+            maxValue = value;
+        }
+    }
+
     @Override
     public Double compute() {
         return maxValue;
     }
 
+    @Override
+    public double result() {
+        return maxValue;
+    }
+
     @Override
     public AggregateFunction<Number, Double> merge(AggregateFunction<Number, Double> newValue) {
-        return compute() > newValue.compute() ? this : newValue;
+        double other = newValue.compute();
+        return Double.isNaN(other) || result() > other ? this : newValue;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(maxValue);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        maxValue = in.readDouble();
     }
 }
@@ -7,7 +7,17 @@ import io.skalogs.skaetl.rules.metrics.serdes.DoubleHistogramSerializer;
 import lombok.Getter;
 import org.HdrHistogram.DoubleHistogram;
 
-public class MedianFunction extends AggregateFunction<Number, Double> {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+public class MedianFunction extends AggregateFunction<Number, Double> implements DoubleAggregateFunction, BinaryState {
+    // the uncompressed encoding is as large as the counts array, only the compressed one is stored
+    private static final ThreadLocal<ByteBuffer> ENCODING_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));
+
     @Getter
     @JsonSerialize(using = DoubleHistogramSerializer.class)
     @JsonDeserialize(using = DoubleHistogramDeserializer.class)
@@ -15,17 +25,53 @@ public class MedianFunction extends AggregateFunction<Number, Double> {
 
     @Override
     public AggregateFunction addValue(Number value) {
-        histogram.recordValue(value.doubleValue());
+        add(value.doubleValue());
         return this;
     }
 
+    @Override
+    public void add(double value) {
+        histogram.recordValue(value);
+    }
+
     @Override
     public Double compute() {
+        return result();
+    }
+
+    @Override
+    public double result() {
         return histogram.getValueAtPercentile(50);
     }
 
     @Override
     public AggregateFunction<Number, Double> merge(AggregateFunction<Number, Double> newValue) {
-        return compute() > newValue.compute() ? this : newValue;
+        histogram.add(((MedianFunction) newValue).histogram);
+        return this;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        ByteBuffer buffer = ENCODING_BUFFER.get();
+        int neededCapacity = histogram.getNeededByteBufferCapacity();
+        if (buffer.capacity() < neededCapacity) {
+            buffer = ByteBuffer.allocate(neededCapacity);
+            ENCODING_BUFFER.set(buffer);
+        }
+        buffer.clear();
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer, Deflater.BEST_SPEED);
+        out.writeInt(length);
+        out.write(buffer.array(), 0, length);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        byte[] compressed = new byte[in.readInt()];
+        in.readFully(compressed);
+        try {
+            histogram = DoubleHistogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(compressed), 0);
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        }
     }
 }
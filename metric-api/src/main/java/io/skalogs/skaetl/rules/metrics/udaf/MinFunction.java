@@ -3,29 +3,50 @@ package io.skalogs.skaetl.rules.metrics.udaf;
 
 import lombok.Getter;
 
-public class MinFunction extends AggregateFunction<Number, Double> {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class MinFunction extends AggregateFunction<Number, Double> implements DoubleAggregateFunction, BinaryState {
     @Getter
-    private Double minValue = Double.NaN;
+    private double minValue = Double.NaN;
 
     @Override
     public AggregateFunction addValue(Number value) {
-        double doubleValue = value.doubleValue();
-        if (Double.isNaN(minValue)) {
-            minValue = doubleValue;
-        }
-        if (doubleValue < minValue) {
-            minValue = doubleValue;
-        }
+        add(value.doubleValue());
         return this;
     }
 
+    @Override
+    public void add(double value) {
+        if (Double.isNaN(minValue) || value < minValue) {
+            minValue = value;
+        }
+    }
+
     @Override
     public Double compute() {
         return minValue;
     }
 
+    @Override
+    public double result() {
+        return minValue;
+    }
+
     @Override
     public AggregateFunction<Number, Double> merge(AggregateFunction<Number, Double> newValue) {
-        return compute() < newValue.compute() ? this : newValue;
+        double other = newValue.compute();
+        return Double.isNaN(other) || result() < other ? this : newValue;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(minValue);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        minValue = in.readDouble();
     }
 }
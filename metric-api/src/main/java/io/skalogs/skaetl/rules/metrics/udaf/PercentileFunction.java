@@ -0,0 +1,63 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import lombok.Getter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+@Getter
+public class PercentileFunction extends AggregateFunction<Number, Double> implements DoubleAggregateFunction, BinaryState {
+    private double percentile;
+    private TDigest digest = new TDigest();
+
+    public PercentileFunction() {
+        this(50);
+    }
+
+    public PercentileFunction(double percentile) {
+        checkArgument(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100");
+        this.percentile = percentile;
+    }
+
+    @Override
+    public AggregateFunction addValue(Number value) {
+        add(value.doubleValue());
+        return this;
+    }
+
+    @Override
+    public void add(double value) {
+        digest.add(value);
+    }
+
+    @Override
+    public Double compute() {
+        return result();
+    }
+
+    @Override
+    public double result() {
+        return digest.quantile(percentile / 100);
+    }
+
+    @Override
+    public AggregateFunction<Number, Double> merge(AggregateFunction<Number, Double> newValue) {
+        digest.merge(((PercentileFunction) newValue).digest);
+        return this;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(percentile);
+        digest.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        percentile = in.readDouble();
+        digest = TDigest.readState(in);
+    }
+}
@@ -0,0 +1,22 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A value of a ranking with its count, over-estimated by at most error.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class RankedValue {
+    private String value;
+    private long count;
+    private long error;
+
+    @Override
+    public String toString() {
+        return value + "=" + count;
+    }
+}
@@ -2,21 +2,29 @@ package io.skalogs.skaetl.rules.metrics.udaf;
 
 import lombok.Getter;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.primitives.Doubles.isFinite;
 import static java.lang.Double.NaN;
 import static java.lang.Double.isNaN;
 
 @Getter
-public abstract class StdDevFunction extends AggregateFunction<Number, Double> {
+public abstract class StdDevFunction extends AggregateFunction<Number, Double> implements DoubleAggregateFunction, BinaryState {
     private long count = 0;
-    private Double mean = 0.0;
-    private Double sumOfSquaresOfDeltas = 0.0;
-
+    private double mean = 0.0;
+    private double sumOfSquaresOfDeltas = 0.0;
 
     @Override
     public AggregateFunction addValue(Number inputvalue) {
-        Double value = inputvalue.doubleValue();
+        add(inputvalue.doubleValue());
+        return this;
+    }
+
+    @Override
+    public void add(double value) {
         if (count == 0) {
             count = 1;
             mean = value;
@@ -26,7 +34,7 @@ public abstract class StdDevFunction extends AggregateFunction<Number, Double> {
         } else {
             count++;
             if (isFinite(value) && isFinite(mean)) {
-                Double delta = value - mean;
+                double delta = value - mean;
                 mean += delta / count;
                 sumOfSquaresOfDeltas += delta * (value - mean);
             } else {
@@ -34,10 +42,9 @@ public abstract class StdDevFunction extends AggregateFunction<Number, Double> {
                 sumOfSquaresOfDeltas = NaN;
             }
         }
-        return this;
     }
 
-    private Double calculateNewMeanNonFinite(Double previousMean, Double value) {
+    private double calculateNewMeanNonFinite(double previousMean, double value) {
         if (isFinite(previousMean)) {
             return value;
         } else if (isFinite(value) || previousMean == value) {
@@ -47,7 +54,7 @@ public abstract class StdDevFunction extends AggregateFunction<Number, Double> {
         }
     }
 
-    protected Double ensureNonNegative(Double value) {
+    protected double ensureNonNegative(double value) {
         checkArgument(!isNaN(value));
         if (value > 0.0) {
             return value;
@@ -56,8 +63,50 @@ public abstract class StdDevFunction extends AggregateFunction<Number, Double> {
         }
     }
 
+    @Override
+    public Double compute() {
+        return result();
+    }
+
+    /**
+     * Parallel algorithm of Chan et al.: the deltas of both sides plus what their means are apart.
+     */
     @Override
     public AggregateFunction<Number, Double> merge(AggregateFunction<Number, Double> newValue) {
-        return compute() > newValue.compute() ? this : newValue;
+        StdDevFunction other = (StdDevFunction) newValue;
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            sumOfSquaresOfDeltas = other.sumOfSquaresOfDeltas;
+            return this;
+        }
+        long total = count + other.count;
+        if (isFinite(mean) && isFinite(other.mean)) {
+            double delta = other.mean - mean;
+            sumOfSquaresOfDeltas += other.sumOfSquaresOfDeltas + delta * delta * count * other.count / total;
+            mean += delta * other.count / total;
+        } else {
+            mean = calculateNewMeanNonFinite(mean, other.mean);
+            sumOfSquaresOfDeltas = NaN;
+        }
+        count = total;
+        return this;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeDouble(mean);
+        out.writeDouble(sumOfSquaresOfDeltas);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        count = in.readLong();
+        mean = in.readDouble();
+        sumOfSquaresOfDeltas = in.readDouble();
     }
 }
@@ -6,7 +6,7 @@ import static java.lang.Double.NaN;
 import static java.lang.Double.isNaN;
 
 public class StdDevPopulationFunction extends StdDevFunction {
-    private Double populationVariance() {
+    private double populationVariance() {
         checkState(getCount() != 0);
         if (isNaN(getSumOfSquaresOfDeltas())) {
             return NaN;
@@ -18,7 +18,7 @@ public class StdDevPopulationFunction extends StdDevFunction {
     }
 
     @Override
-    public Double compute() {
+    public double result() {
         if (getCount() == 0) {
             return Double.NaN;
         }
@@ -16,7 +16,7 @@ public class StdDevSampleFunction extends StdDevFunction {
     }
 
     @Override
-    public Double compute() {
+    public double result() {
         if (getCount() == 0) {
             return Double.NaN;
         }
@@ -2,25 +2,48 @@ package io.skalogs.skaetl.rules.metrics.udaf;
 
 import lombok.Getter;
 
-public class SumFunction extends AggregateFunction<Number, Double> {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class SumFunction extends AggregateFunction<Number, Double> implements DoubleAggregateFunction, BinaryState {
     @Getter
-    private Double sum = 0d;
+    private double sum = 0d;
 
     @Override
     public AggregateFunction addValue(Number value) {
-        double doubleValue = value.doubleValue();
-        sum += doubleValue;
+        add(value.doubleValue());
         return this;
     }
 
+    @Override
+    public void add(double value) {
+        sum += value;
+    }
+
     @Override
     public Double compute() {
         return sum;
     }
 
+    @Override
+    public double result() {
+        return sum;
+    }
+
     @Override
     public AggregateFunction<Number, Double> merge(AggregateFunction<Number, Double> newValue) {
-        addValue(newValue.compute());
+        sum += ((SumFunction) newValue).sum;
         return this;
     }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(sum);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        sum = in.readDouble();
+    }
 }
@@ -0,0 +1,225 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Merging t-digest (Dunning & Ertl): values are buffered, then merged into centroids sized with the arcsine scale
+ * function, so there are at most about compression centroids whatever the number of values and the tails stay
+ * accurate. Two digests merge into a digest of the union of their values.
+ */
+public class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+    private final int bufferSize;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double totalWeight;
+    // centroids then not yet merged values, sorted by mean after compress()
+    private double[] means = new double[16];
+    private double[] weights = new double[16];
+    private int centroidCount;
+    private int size;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        checkArgument(compression >= 10, "compression must be at least 10");
+        this.compression = compression;
+        this.bufferSize = (int) (5 * compression);
+    }
+
+    @JsonCreator
+    TDigest(@JsonProperty("compression") double compression, @JsonProperty("min") double min, @JsonProperty("max") double max,
+            @JsonProperty("means") double[] means, @JsonProperty("weights") double[] weights) {
+        this(compression);
+        for (int i = 0; i < means.length; i++) {
+            add(means[i], weights[i]);
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroidCount; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    private void add(double mean, double weight) {
+        if (Double.isNaN(mean)) {
+            return;
+        }
+        if (size == means.length) {
+            if (size - centroidCount >= bufferSize) {
+                compress();
+            }
+            if (size == means.length) {
+                means = Arrays.copyOf(means, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+        }
+        means[size] = mean;
+        weights[size] = weight;
+        size++;
+        totalWeight += weight;
+        min = Math.min(min, mean);
+        max = Math.max(max, mean);
+    }
+
+    private void compress() {
+        if (size == centroidCount) {
+            return;
+        }
+        sort();
+        int last = 0;
+        double weightBefore = 0;
+        double kBefore = k(0);
+        for (int i = 1; i < size; i++) {
+            double merged = weights[last] + weights[i];
+            if (k((weightBefore + merged) / totalWeight) - kBefore <= 1) {
+                weights[last] = merged;
+                means[last] += (means[i] - means[last]) * weights[i] / merged;
+            } else {
+                weightBefore += weights[last];
+                kBefore = k(weightBefore / totalWeight);
+                last++;
+                means[last] = means[i];
+                weights[last] = weights[i];
+            }
+        }
+        centroidCount = size = last + 1;
+    }
+
+    // arcsine scale function: small centroids near the tails, a centroid covers at most one unit of k
+    private double k(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, q) - 1);
+    }
+
+    private void sort() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        double[] unsortedMeans = Arrays.copyOf(means, size);
+        double[] unsortedWeights = Arrays.copyOf(weights, size);
+        Arrays.sort(order, (a, b) -> Double.compare(unsortedMeans[a], unsortedMeans[b]));
+        for (int i = 0; i < size; i++) {
+            means[i] = unsortedMeans[order[i]];
+            weights[i] = unsortedWeights[order[i]];
+        }
+    }
+
+    /**
+     * @param q between 0 and 1
+     * @return NaN when empty, values in between centroid centers are interpolated
+     */
+    public double quantile(double q) {
+        checkArgument(q >= 0 && q <= 1, "quantile must be between 0 and 1");
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+        double index = q * totalWeight;
+        if (index <= weights[0] / 2) {
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+        int lastCentroid = centroidCount - 1;
+        if (index >= totalWeight - weights[lastCentroid] / 2) {
+            return max - (max - means[lastCentroid]) * (totalWeight - index) / (weights[lastCentroid] / 2);
+        }
+        double center = weights[0] / 2;
+        for (int i = 0; i < lastCentroid; i++) {
+            double distance = (weights[i] + weights[i + 1]) / 2;
+            if (center + distance >= index) {
+                return means[i] + (means[i + 1] - means[i]) * (index - center) / distance;
+            }
+            center += distance;
+        }
+        return max;
+    }
+
+    /**
+     * Median of the absolute deviations to the median, each centroid standing for its values.
+     */
+    public double medianAbsoluteDeviation() {
+        double median = quantile(0.5);
+        if (Double.isNaN(median)) {
+            return Double.NaN;
+        }
+        TDigest deviations = new TDigest(compression);
+        for (int i = 0; i < centroidCount; i++) {
+            deviations.add(Math.abs(means[i] - median), weights[i]);
+        }
+        return deviations.quantile(0.5);
+    }
+
+    public double getCompression() {
+        return compression;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double[] getMeans() {
+        compress();
+        return Arrays.copyOf(means, centroidCount);
+    }
+
+    public double[] getWeights() {
+        compress();
+        return Arrays.copyOf(weights, centroidCount);
+    }
+
+    public void writeState(DataOutput out) throws IOException {
+        compress();
+        out.writeDouble(compression);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeInt(centroidCount);
+        for (int i = 0; i < centroidCount; i++) {
+            out.writeDouble(means[i]);
+            out.writeDouble(weights[i]);
+        }
+    }
+
+    public static TDigest readState(DataInput in) throws IOException {
+        TDigest digest = new TDigest(in.readDouble());
+        double min = in.readDouble();
+        double max = in.readDouble();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            double mean = in.readDouble();
+            digest.add(mean, in.readDouble());
+        }
+        digest.min = min;
+        digest.max = max;
+        return digest;
+    }
+}
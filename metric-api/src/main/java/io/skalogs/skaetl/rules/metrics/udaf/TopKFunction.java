@@ -0,0 +1,222 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The k most frequent values of a window with the Space-Saving algorithm (Metwally et al.): CAPACITY_FACTOR * k counters,
+ * a new value takes over the smallest counter and inherits its count as error. Any value seen more than
+ * total / capacity times is kept. Counters live in a min heap indexed by value so an event costs O(log capacity).
+ * compute() is the count of the most frequent value.
+ */
+public class TopKFunction extends AggregateFunction<Object, Double> implements BinaryState {
+
+    public static final int CAPACITY_FACTOR = 10;
+    public static final int MAX_K = 1000;
+    // longer values are truncated, the state is meant for ip addresses, user names, urls...
+    private static final int MAX_VALUE_LENGTH = 1024;
+
+    @Getter
+    private int k;
+    private int capacity;
+    private String[] values;
+    private long[] counts;
+    private long[] errors;
+    private int size;
+    private Map<String, Integer> positions;
+
+    public TopKFunction() {
+        this(10);
+    }
+
+    public TopKFunction(int k) {
+        checkArgument(k >= 1 && k <= MAX_K, "k must be between 1 and %s", MAX_K);
+        init(k);
+    }
+
+    @JsonCreator
+    TopKFunction(@JsonProperty("k") int k, @JsonProperty("entries") List<RankedValue> entries) {
+        this(k);
+        for (RankedValue entry : entries) {
+            push(entry.getValue(), entry.getCount(), entry.getError());
+        }
+    }
+
+    private void init(int k) {
+        this.k = k;
+        capacity = k * CAPACITY_FACTOR;
+        values = new String[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        size = 0;
+        positions = new HashMap<>();
+    }
+
+    @Override
+    public AggregateFunction addValue(Object value) {
+        String text = String.valueOf(value);
+        if (text.length() > MAX_VALUE_LENGTH) {
+            text = text.substring(0, MAX_VALUE_LENGTH);
+        }
+        Integer position = positions.get(text);
+        if (position != null) {
+            counts[position]++;
+            siftDown(position);
+        } else if (size < capacity) {
+            push(text, 1, 0);
+        } else {
+            // the smallest counter, at the root, goes to the new value
+            positions.remove(values[0]);
+            values[0] = text;
+            errors[0] = counts[0];
+            counts[0]++;
+            positions.put(text, 0);
+            siftDown(0);
+        }
+        return this;
+    }
+
+    @Override
+    public Double compute() {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        long max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, counts[i]);
+        }
+        return (double) max;
+    }
+
+    @JsonIgnore
+    public List<RankedValue> getRanking() {
+        return getEntries().stream()
+                .sorted(Comparator.comparingLong(RankedValue::getCount).reversed().thenComparing(RankedValue::getValue))
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+
+    public List<RankedValue> getEntries() {
+        List<RankedValue> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new RankedValue(values[i], counts[i], errors[i]));
+        }
+        return entries;
+    }
+
+    /**
+     * Mergeable summaries (Agarwal et al.): a value missing from a full side may have been evicted there with up to its
+     * smallest count, that count is added to both its count and its error.
+     */
+    @Override
+    public AggregateFunction<Object, Double> merge(AggregateFunction<Object, Double> newValue) {
+        TopKFunction other = (TopKFunction) newValue;
+        long thisMissing = size == capacity ? counts[0] : 0;
+        long otherMissing = other.size == other.capacity ? other.counts[0] : 0;
+        Map<String, RankedValue> merged = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Integer otherPosition = other.positions.get(values[i]);
+            long otherCount = otherPosition == null ? otherMissing : other.counts[otherPosition];
+            long otherError = otherPosition == null ? otherMissing : other.errors[otherPosition];
+            merged.put(values[i], new RankedValue(values[i], counts[i] + otherCount, errors[i] + otherError));
+        }
+        for (int i = 0; i < other.size; i++) {
+            if (!merged.containsKey(other.values[i])) {
+                merged.put(other.values[i], new RankedValue(other.values[i], other.counts[i] + thisMissing, other.errors[i] + thisMissing));
+            }
+        }
+        init(Math.max(k, other.k));
+        merged.values().stream()
+                .sorted(Comparator.comparingLong(RankedValue::getCount).reversed())
+                .limit(capacity)
+                .forEach(entry -> push(entry.getValue(), entry.getCount(), entry.getError()));
+        return this;
+    }
+
+    private void push(String value, long count, long error) {
+        values[size] = value;
+        counts[size] = count;
+        errors[size] = error;
+        positions.put(value, size);
+        size++;
+        siftUp(size - 1);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String value = values[i];
+        long count = counts[i];
+        long error = errors[i];
+        values[i] = values[j];
+        counts[i] = counts[j];
+        errors[i] = errors[j];
+        values[j] = value;
+        counts[j] = count;
+        errors[j] = error;
+        positions.put(values[i], i);
+        positions.put(values[j], j);
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(k);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeUTF(values[i]);
+            out.writeLong(counts[i]);
+            out.writeLong(errors[i]);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        int k = in.readInt();
+        int entries = in.readInt();
+        if (k < 1 || k > MAX_K || entries < 0 || entries > k * CAPACITY_FACTOR) {
+            throw new IOException("Invalid topk state, k " + k + " with " + entries + " entries");
+        }
+        init(k);
+        for (int i = 0; i < entries; i++) {
+            push(in.readUTF(), in.readLong(), in.readLong());
+        }
+    }
+}
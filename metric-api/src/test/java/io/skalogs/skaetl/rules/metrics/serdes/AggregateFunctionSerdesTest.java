@@ -0,0 +1,60 @@
+package io.skalogs.skaetl.rules.metrics.serdes;
+
+import io.skalogs.skaetl.rules.metrics.udaf.*;
+import io.skalogs.skaetl.serdes.GenericSerializer;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AggregateFunctionSerdesTest {
+
+    private final AggregateFunctionSerializer serializer = new AggregateFunctionSerializer();
+    private final AggregateFunctionDeserializer deserializer = new AggregateFunctionDeserializer();
+
+    @Test
+    public void roundTrip() {
+        List<AggregateFunction> aggregateFunctions = Arrays.asList(new CountFunction(), new SumFunction(), new MinFunction(),
+                new MaxFunction(), new AvgFunction(), new StdDevPopulationFunction(), new StdDevSampleFunction(),
+                new MedianFunction(), new MADFunction(), new PercentileFunction(99), new CountDistinctFunction());
+        for (AggregateFunction aggregateFunction : aggregateFunctions) {
+            for (int i = 1; i <= 100; i++) {
+                aggregateFunction.addValue(i * 1.5);
+            }
+            byte[] bytes = serializer.serialize("topic", aggregateFunction);
+            assertThat(bytes[0]).isEqualTo(AggregateFunctionCodes.MAGIC);
+
+            AggregateFunction deserialized = deserializer.deserialize("topic", bytes);
+            assertThat(deserialized).isInstanceOf(aggregateFunction.getClass());
+            assertThat(deserialized.compute()).as(aggregateFunction.getClass().getSimpleName()).isEqualTo(aggregateFunction.compute());
+        }
+    }
+
+    @Test
+    public void emptyState() {
+        AggregateFunction deserialized = deserializer.deserialize("topic", serializer.serialize("topic", new MADFunction()));
+        assertThat(deserialized.compute()).isEqualTo(Double.NaN);
+    }
+
+    @Test
+    public void readsJsonState() {
+        AvgFunction avgFunction = new AvgFunction();
+        avgFunction.addValue(2);
+        avgFunction.addValue(4);
+        byte[] json = new GenericSerializer<AggregateFunction>().serialize("topic", avgFunction);
+
+        AggregateFunction deserialized = deserializer.deserialize("topic", json);
+        assertThat(deserialized).isInstanceOf(AvgFunction.class);
+        assertThat(deserialized.compute()).isEqualTo(3.0);
+    }
+
+    @Test
+    public void smallerThanJson() {
+        AvgFunction avgFunction = new AvgFunction();
+        avgFunction.addValue(2);
+        assertThat(serializer.serialize("topic", avgFunction).length)
+                .isLessThan(new GenericSerializer<AggregateFunction>().serialize("topic", avgFunction).length);
+    }
+}
@@ -0,0 +1,158 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class CountDistinctFunctionTest {
+    // sparse registers are written as index << 6 | rank
+    private static final int RANK_BITS = 6;
+
+    @Test
+    public void shouldReturnZeroIfNoValue() {
+        assertThat(new CountDistinctFunction().compute()).isEqualTo(0);
+    }
+
+    @Test
+    public void exactOnFewValues() {
+        CountDistinctFunction countDistinctFunction = new CountDistinctFunction();
+        for (int i = 0; i < 1000; i++) {
+            countDistinctFunction.addValue(i % 10);
+        }
+        assertThat(countDistinctFunction.compute()).isCloseTo(10, within(0.1));
+    }
+
+    @Test
+    public void errorBound() {
+        // 1.04 / sqrt(2^14) = 0.8% standard error, checked at 3 standard errors
+        CountDistinctFunction countDistinctFunction = new CountDistinctFunction();
+        for (int cardinality = 1; cardinality <= 4_000_000; cardinality++) {
+            countDistinctFunction.addValue(cardinality);
+            if (cardinality == 1_000 || cardinality == 10_000 || cardinality == 100_000 || cardinality == 1_000_000 || cardinality == 4_000_000) {
+                assertThat(countDistinctFunction.compute()).as(cardinality + " distinct values")
+                        .isCloseTo(cardinality, within(cardinality * 0.025));
+            }
+        }
+    }
+
+    @Test
+    public void lowerPrecisionLargerError() {
+        CountDistinctFunction countDistinctFunction = new CountDistinctFunction(10);
+        for (int i = 0; i < 1_000_000; i++) {
+            countDistinctFunction.addValue(i);
+        }
+        // 1.04 / sqrt(2^10) = 3.25%
+        assertThat(countDistinctFunction.compute()).isCloseTo(1_000_000, within(100_000.0));
+        assertThat(countDistinctFunction.getHyperLogLog().getRegisters()).hasSize(1024);
+    }
+
+    @Test
+    public void mergeIsTheUnion() {
+        CountDistinctFunction left = new CountDistinctFunction();
+        CountDistinctFunction right = new CountDistinctFunction();
+        CountDistinctFunction small = new CountDistinctFunction();
+        for (int i = 0; i < 300_000; i++) {
+            left.addValue(i);
+            right.addValue(i + 100_000);
+        }
+        small.addValue(-1);
+        small.addValue(-2);
+        left.merge(right);
+        assertThat(left.compute()).isCloseTo(400_000, within(10_000.0));
+        right.merge(small);
+        assertThat(right.compute()).isCloseTo(300_002, within(7_500.0));
+    }
+
+    @Test
+    public void text() {
+        CountDistinctFunction countDistinctFunction = new CountDistinctFunction();
+        for (int i = 0; i < 100_000; i++) {
+            countDistinctFunction.addValue(CountDistinctFunction.distinctValue(JsonNodeFactory.instance.textNode("10.0." + (i / 256 % 256) + "." + (i % 256))));
+        }
+        assertThat(countDistinctFunction.compute()).isCloseTo(65_536, within(1_650.0));
+    }
+
+    @Test
+    public void missingOrNullFieldHasNoValue() {
+        assertThat(CountDistinctFunction.distinctValue(MissingNode.getInstance())).isNull();
+        assertThat(CountDistinctFunction.distinctValue(JsonNodeFactory.instance.nullNode())).isNull();
+        assertThat(CountDistinctFunction.distinctValue(JsonNodeFactory.instance.textNode(""))).isNotNull();
+    }
+
+    @Test
+    public void rejectInvalidState() throws IOException {
+        // precision 14: ranks go up to 65 - 14
+        assertThatThrownBy(() -> read(dense(14, 65 - 14 + 1))).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> read(sparse(14, 1 << RANK_BITS | (65 - 14 + 1)))).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> read(sparse(14, (1 << 14) << RANK_BITS | 1))).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> read(dense(HyperLogLog.MAX_PRECISION + 1, 1))).isInstanceOf(IOException.class);
+        assertThat(read(dense(14, 65 - 14)).compute()).isPositive();
+        assertThat(read(sparse(14, 1 << RANK_BITS | (65 - 14))).compute()).isPositive();
+    }
+
+    @Test
+    public void sparseUntilDenseIsSmaller() throws IOException {
+        CountDistinctFunction countDistinctFunction = new CountDistinctFunction();
+        for (int i = 0; i < 100; i++) {
+            countDistinctFunction.addValue(i);
+        }
+        assertThat(countDistinctFunction.getHyperLogLog().getRegisters()).isNull();
+        assertThat(state(countDistinctFunction).length).isLessThan(1024);
+        CountDistinctFunction read = read(state(countDistinctFunction));
+        assertThat(read.compute()).isEqualTo(countDistinctFunction.compute());
+
+        for (int i = 0; i < 100_000; i++) {
+            countDistinctFunction.addValue(i);
+        }
+        assertThat(countDistinctFunction.getHyperLogLog().getRegisters()).hasSize(1 << 14);
+        read = read(state(countDistinctFunction));
+        assertThat(read.compute()).isEqualTo(countDistinctFunction.compute());
+    }
+
+    private byte[] state(CountDistinctFunction countDistinctFunction) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        countDistinctFunction.writeState(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private byte[] dense(int precision, int firstRank) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(precision);
+        out.writeBoolean(true);
+        if (precision <= HyperLogLog.MAX_PRECISION) {
+            byte[] registers = new byte[1 << precision];
+            registers[0] = (byte) firstRank;
+            out.write(registers);
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] sparse(int precision, int... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(precision);
+        out.writeBoolean(false);
+        out.writeInt(entries.length);
+        for (int entry : entries) {
+            out.writeInt(entry);
+        }
+        return bytes.toByteArray();
+    }
+
+    private CountDistinctFunction read(byte[] state) throws IOException {
+        CountDistinctFunction countDistinctFunction = new CountDistinctFunction();
+        countDistinctFunction.readState(new DataInputStream(new ByteArrayInputStream(state)));
+        return countDistinctFunction;
+    }
+}
@@ -3,6 +3,7 @@ package io.skalogs.skaetl.rules.metrics.udaf;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 public class MADFunctionTest {
 
@@ -25,4 +26,28 @@ public class MADFunctionTest {
         madFunction.addValue(100);
         assertThat(madFunction.compute()).isEqualTo(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void mergeKeepsBothSides() {
+        MADFunction left = new MADFunction();
+        left.addValue(1);
+        left.addValue(2);
+        left.addValue(3);
+        MADFunction right = new MADFunction();
+        right.addValue(4);
+        right.addValue(5);
+        right.addValue(6);
+        right.addValue(100);
+        assertThat(left.merge(right).compute()).isEqualTo(2);
+    }
+
+    @Test
+    public void boundedState() {
+        MADFunction madFunction = new MADFunction();
+        for (int i = 0; i < 100_000; i++) {
+            madFunction.addValue(i);
+        }
+        assertThat(madFunction.getDigest().getMeans().length).isLessThanOrEqualTo(110);
+        assertThat(madFunction.compute()).isCloseTo(25_000, within(250.0));
+    }
+}
@@ -20,4 +20,11 @@ public class MinFunctionTest {
         assertThat(minFunction.compute()).isEqualTo(3);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void mergeWithEmptyWindow() {
+        MinFunction minFunction = new MinFunction();
+        minFunction.add(3);
+        assertThat(minFunction.merge(new MinFunction()).compute()).isEqualTo(3);
+        assertThat(new MinFunction().merge(minFunction).compute()).isEqualTo(3);
+    }
+}
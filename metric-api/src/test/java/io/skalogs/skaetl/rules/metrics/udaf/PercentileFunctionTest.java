@@ -0,0 +1,40 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class PercentileFunctionTest {
+
+    @Test
+    public void shouldReturnNanIfNoResult() {
+        assertThat(new PercentileFunction(95).compute()).isEqualTo(Double.NaN);
+    }
+
+    @Test
+    public void percentile() {
+        PercentileFunction percentileFunction = new PercentileFunction(95);
+        for (int i = 1; i <= 1000; i++) {
+            percentileFunction.addValue(i);
+        }
+        assertThat(percentileFunction.compute()).isCloseTo(950, within(2.0));
+    }
+
+    @Test
+    public void mergeKeepsBothSides() {
+        PercentileFunction low = new PercentileFunction(50);
+        PercentileFunction high = new PercentileFunction(50);
+        for (int i = 1; i <= 500; i++) {
+            low.addValue(i);
+            high.addValue(500 + i);
+        }
+        assertThat(low.merge(high).compute()).isCloseTo(500.5, within(2.0));
+    }
+
+    @Test
+    public void outOfRange() {
+        assertThatThrownBy(() -> new PercentileFunction(101)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
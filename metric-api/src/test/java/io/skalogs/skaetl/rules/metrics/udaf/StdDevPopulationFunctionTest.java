@@ -36,4 +36,16 @@ public class StdDevPopulationFunctionTest {
         assertThat(stdDevFunction.compute()).isCloseTo(2.28,within(0.01));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void mergeIsTheStdDevOfBothSides() {
+        StdDevPopulationFunction left = new StdDevPopulationFunction();
+        left.add(600);
+        left.add(470);
+        StdDevPopulationFunction right = new StdDevPopulationFunction();
+        right.add(170);
+        right.add(430);
+        right.add(300);
+        assertThat(left.merge(right).compute()).isCloseTo(147.32, within(0.01));
+        assertThat(left.merge(new StdDevPopulationFunction()).compute()).isCloseTo(147.32, within(0.01));
+    }
+}
@@ -0,0 +1,99 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class TDigestTest {
+
+    @Test
+    public void shouldReturnNanIfEmpty() {
+        assertThat(new TDigest().quantile(0.5)).isEqualTo(Double.NaN);
+    }
+
+    @Test
+    public void exactOnFewValues() {
+        TDigest digest = new TDigest();
+        for (int i = 1; i <= 7; i++) {
+            digest.add(i);
+        }
+        assertThat(digest.quantile(0)).isEqualTo(1);
+        assertThat(digest.quantile(0.5)).isEqualTo(4);
+        assertThat(digest.quantile(1)).isEqualTo(7);
+    }
+
+    @Test
+    public void boundedAndAccurate() {
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        TDigest digest = new TDigest();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 100;
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertThat(digest.getMeans().length).isLessThanOrEqualTo(110);
+        // rank of the estimate among the actual values
+        for (double q : new double[]{0.001, 0.01, 0.25, 0.5, 0.75, 0.95, 0.99, 0.999}) {
+            int index = Arrays.binarySearch(values, digest.quantile(q));
+            double rank = (index >= 0 ? index : -index - 1) / (double) values.length;
+            assertThat(rank).as("quantile " + q).isCloseTo(q, within(q * (1 - q) / 10 + 0.0005));
+        }
+    }
+
+    @Test
+    public void mergeIsTheDigestOfTheUnion() {
+        Random random = new Random(42);
+        TDigest all = new TDigest();
+        TDigest left = new TDigest();
+        TDigest right = new TDigest();
+        for (int i = 0; i < 50_000; i++) {
+            double value = random.nextDouble() * 1000;
+            all.add(value);
+            (i % 3 == 0 ? left : right).add(value);
+        }
+        left.merge(right);
+
+        assertThat(left.getMin()).isEqualTo(all.getMin());
+        assertThat(left.getMax()).isEqualTo(all.getMax());
+        for (double q : new double[]{0.05, 0.5, 0.95, 0.99}) {
+            assertThat(left.quantile(q)).as("quantile " + q).isCloseTo(all.quantile(q), within(5.0));
+        }
+    }
+
+    @Test
+    public void medianAbsoluteDeviation() {
+        Random random = new Random(42);
+        TDigest digest = new TDigest();
+        for (int i = 0; i < 100_000; i++) {
+            digest.add(random.nextGaussian() * 10);
+        }
+        // MAD of a normal distribution is 0.6745 sigma
+        assertThat(digest.medianAbsoluteDeviation()).isCloseTo(6.745, within(0.3));
+    }
+
+    @Test
+    public void writeAndReadState() throws IOException {
+        TDigest digest = new TDigest();
+        for (int i = 0; i < 10_000; i++) {
+            digest.add(i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        digest.writeState(new DataOutputStream(bytes));
+        TDigest read = TDigest.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(read.getMeans()).containsExactly(digest.getMeans());
+        assertThat(read.getWeights()).containsExactly(digest.getWeights());
+        assertThat(read.quantile(0.99)).isEqualTo(digest.quantile(0.99));
+    }
+}
@@ -0,0 +1,107 @@
+package io.skalogs.skaetl.rules.metrics.udaf;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TopKFunctionTest {
+
+    @Test
+    public void shouldReturnNanIfNoResult() {
+        TopKFunction topKFunction = new TopKFunction(3);
+        assertThat(topKFunction.compute()).isEqualTo(Double.NaN);
+        assertThat(topKFunction.getRanking()).isEmpty();
+    }
+
+    @Test
+    public void exactBelowCapacity() {
+        TopKFunction topKFunction = new TopKFunction(2);
+        for (String ip : new String[]{"10.0.0.1", "10.0.0.2", "10.0.0.1", "10.0.0.3", "10.0.0.1", "10.0.0.2"}) {
+            topKFunction.addValue(ip);
+        }
+        assertThat(topKFunction.getRanking().stream().map(RankedValue::toString).collect(Collectors.toList()))
+                .containsExactly("10.0.0.1=3", "10.0.0.2=2");
+        assertThat(topKFunction.compute()).isEqualTo(3);
+    }
+
+    @Test
+    public void heavyHittersInLongTail() {
+        // 50 counters: any value seen more than 200_000 / 50 times is kept
+        TopKFunction topKFunction = new TopKFunction(5);
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            if (i % 10 == 0) {
+                topKFunction.addValue("heavy-1");
+            } else if (i % 20 == 1) {
+                topKFunction.addValue("heavy-2");
+            } else if (i % 40 == 3) {
+                topKFunction.addValue("heavy-3");
+            } else {
+                topKFunction.addValue("tail-" + random.nextInt(100_000));
+            }
+        }
+        List<RankedValue> ranking = topKFunction.getRanking();
+        assertThat(ranking).hasSize(5);
+        assertThat(ranking.subList(0, 3).stream().map(RankedValue::getValue).collect(Collectors.toList()))
+                .containsExactly("heavy-1", "heavy-2", "heavy-3");
+        // Space-Saving never under-estimates, and over-estimates by at most error
+        assertThat(ranking.get(0).getCount()).isGreaterThanOrEqualTo(20_000);
+        assertThat(ranking.get(0).getCount() - ranking.get(0).getError()).isLessThanOrEqualTo(20_000);
+    }
+
+    @Test
+    public void mergeKeepsBothSides() {
+        TopKFunction left = new TopKFunction(2);
+        TopKFunction right = new TopKFunction(2);
+        for (int i = 0; i < 100; i++) {
+            left.addValue("a");
+            right.addValue("b");
+            right.addValue(i % 2 == 0 ? "a" : "c");
+        }
+        assertThat(left.merge(right).compute()).isEqualTo(150);
+        assertThat(left.getRanking().stream().map(RankedValue::toString).collect(Collectors.toList()))
+                .containsExactly("a=150", "b=100");
+    }
+
+    @Test
+    public void writeAndReadState() throws IOException {
+        TopKFunction topKFunction = new TopKFunction(5);
+        for (int i = 0; i < 10_000; i++) {
+            topKFunction.addValue("value-" + (i % 97) * (i % 13));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        topKFunction.writeState(new DataOutputStream(bytes));
+        TopKFunction read = new TopKFunction();
+        read.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(read.getK()).isEqualTo(5);
+        assertThat(read.getRanking().stream().map(RankedValue::toString).collect(Collectors.toList()))
+                .isEqualTo(topKFunction.getRanking().stream().map(RankedValue::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void rejectInvalidState() throws IOException {
+        assertThatThrownBy(() -> new TopKFunction().readState(state(0, 0))).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> new TopKFunction().readState(state(TopKFunction.MAX_K + 1, 0))).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> new TopKFunction().readState(state(2, 2 * TopKFunction.CAPACITY_FACTOR + 1))).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> new TopKFunction().readState(state(2, -1))).isInstanceOf(IOException.class);
+    }
+
+    private static DataInputStream state(int k, int entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(k);
+        out.writeInt(entries);
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
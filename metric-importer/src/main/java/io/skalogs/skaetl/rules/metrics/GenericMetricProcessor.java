@@ -5,6 +5,7 @@ import io.prometheus.client.Counter;
 import io.skalogs.skaetl.domain.ParameterOutput;
 import io.skalogs.skaetl.domain.ProcessMetric;
 import io.skalogs.skaetl.domain.ProcessOutput;
+import io.skalogs.skaetl.rules.functions.BoundFilter;
 import io.skalogs.skaetl.rules.functions.FunctionRegistry;
 import io.skalogs.skaetl.rules.metrics.domain.Keys;
 import io.skalogs.skaetl.rules.metrics.domain.MetricResult;
@@ -14,6 +15,9 @@ import io.skalogs.skaetl.rules.metrics.processor.MetricsSlackProcessor;
 import io.skalogs.skaetl.rules.metrics.processor.MetricsSnmpProcessor;
 import io.skalogs.skaetl.rules.metrics.serdes.MetricsSerdes;
 import io.skalogs.skaetl.rules.metrics.udaf.AggregateFunction;
+import io.skalogs.skaetl.rules.metrics.udaf.CountDistinctFunction;
+import io.skalogs.skaetl.rules.metrics.udaf.DoubleAggregateFunction;
+import io.skalogs.skaetl.rules.metrics.udaf.TopKFunction;
 import io.skalogs.skaetl.serdes.GenericSerdes;
 import io.skalogs.skaetl.service.processor.LoggingProcessor;
 import lombok.Getter;
@@ -24,7 +28,6 @@ import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.*;
 import org.apache.kafka.streams.kstream.*;
-import org.apache.kafka.streams.processor.AbstractProcessor;
 import org.apache.kafka.streams.state.SessionStore;
 import org.apache.kafka.streams.state.WindowStore;
 import org.springframework.context.ApplicationContext;
@@ -68,20 +71,15 @@ public abstract class GenericMetricProcessor {
     public KafkaStreams buildStream(Properties props) {
         StreamsBuilder builder = new StreamsBuilder();
 
-        KStream<Keys, JsonNode> mainStream = builder.stream(srcTopic, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde()))
+        KStream<Keys, JsonNode> mainStream = builder.stream(srcTopic, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde()))
                 .filter(this::filterKey)
                 .filter(this::filter)
                 .selectKey(this::selectKey);
 
 
-        KGroupedStream<Keys, Double> filteredElementsGroupByKeys = mainStream
-                .peek(this::countInput)
-                .mapValues(this::mapValues)
-                .groupByKey(Serialized.with(MetricsSerdes.keysSerde(), Serdes.Double()));
+        KTable<Windowed<Keys>, AggregateFunction> windowStates = aggregateValues(mainStream.peek(this::countInput));
 
-        KTable<Windowed<Keys>, Double> aggregateResults = aggregate(filteredElementsGroupByKeys);
-
-        KStream<Keys, MetricResult> result = joinResult(builder, aggregateResults);
+        KStream<Keys, MetricResult> result = joinResult(builder, windowStates);
 
         result.peek(this::countOutput);
         routeResult(result);
@@ -93,16 +91,33 @@ public abstract class GenericMetricProcessor {
         return streams;
     }
 
-    private KStream<Keys, MetricResult> joinResult(StreamsBuilder builder, KTable<Windowed<Keys>, Double> aggregateResults) {
-        KStream<Keys, MetricResult> result = aggregateResults
+    // ranking functions such as topk count the values themselves, the others aggregate numbers
+    private KTable<Windowed<Keys>, AggregateFunction> aggregateValues(KStream<Keys, JsonNode> stream) {
+        if (aggInitializer() instanceof TopKFunction) {
+            KGroupedStream<Keys, String> textGroupByKeys = stream
+                    .mapValues(this::mapText)
+                    .groupByKey(Serialized.with(MetricsSerdes.keysSerde(), Serdes.String()));
+            return aggregateText(textGroupByKeys);
+        }
+        KGroupedStream<Keys, Double> filteredElementsGroupByKeys = stream
+                .mapValues(this::mapValues)
+                // no value to aggregate, as count_distinct on a missing field
+                .filter((key, value) -> value != null)
+                .groupByKey(Serialized.with(MetricsSerdes.keysSerde(), Serdes.Double()));
+        return aggregate(filteredElementsGroupByKeys);
+    }
+
+    private KStream<Keys, MetricResult> joinResult(StreamsBuilder builder, KTable<Windowed<Keys>, AggregateFunction> windowStates) {
+        KStream<Keys, MetricResult> result = windowStates
                 .toStream()
-                .filter(this::having)
-                .map((key, value) -> new KeyValue<>(key.key(), new MetricResult(key, value)));
+                .map((key, value) -> new KeyValue<>(key, metricResult(key, value)))
+                .filter((key, value) -> having(key, value.getResult()))
+                .map((key, value) -> new KeyValue<>(key.key(), value));
 
         if (StringUtils.isBlank(srcTopic2)) {
             return result;
         }
-        KStream<Keys, JsonNode> secondStream = builder.stream(srcTopic2, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde()))
+        KStream<Keys, JsonNode> secondStream = builder.stream(srcTopic2, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde()))
                 .filter(this::filterKeyJoin)
                 .filter(this::filterJoin)
                 .selectKey(this::selectKeyJoin);
@@ -111,7 +126,7 @@ public abstract class GenericMetricProcessor {
                 .join(secondStream,
                         (metricResult, jsonNodeFromTopic2) -> join(metricResult, jsonNodeFromTopic2),
                         joinWindow(),
-                        Joined.with(MetricsSerdes.keysSerde(), MetricsSerdes.metricResultSerdes(), GenericSerdes.jsonNodeSerde()));
+                        Joined.with(MetricsSerdes.keysSerde(), MetricsSerdes.metricResultSerdes(), GenericSerdes.internalJsonNodeSerde()));
 
         return joinedStream;
     }
@@ -132,6 +147,14 @@ public abstract class GenericMetricProcessor {
         return true;
     }
 
+    // ranking functions such as topk carry their ranking along with the result
+    private MetricResult metricResult(Windowed<Keys> key, AggregateFunction windowState) {
+        if (windowState instanceof TopKFunction) {
+            return new MetricResult(key, operation(windowState), ((TopKFunction) windowState).getRanking());
+        }
+        return new MetricResult(key, operation(windowState));
+    }
+
     private MetricResult join(MetricResult metricResult, JsonNode fromTopic2) {
         return metricResult.withElement(fromTopic2);
     }
@@ -170,13 +193,11 @@ public abstract class GenericMetricProcessor {
     }
 
     private void toEmail(KStream<Keys,MetricResult> result, ParameterOutput parameterOutput) {
-        AbstractProcessor abstractProcessor = applicationContext.getBean(MetricsEmailProcessor.class, parameterOutput.getEmail(), parameterOutput.getTemplate());
-        result.process(() -> abstractProcessor);
+        result.process(() -> applicationContext.getBean(MetricsEmailProcessor.class, parameterOutput.getEmail(), parameterOutput.getTemplate()));
     }
 
     private void toSlack(KStream<Keys, MetricResult> result, ParameterOutput parameterOutput) {
-        AbstractProcessor abstractProcessor = applicationContext.getBean(MetricsSlackProcessor.class, parameterOutput.getWebHookURL(), parameterOutput.getTemplate());
-        result.process(() -> abstractProcessor);
+        result.process(() -> applicationContext.getBean(MetricsSlackProcessor.class, parameterOutput.getWebHookURL(), parameterOutput.getTemplate()));
     }
 
     protected void toKafkaTopic(KStream<Keys, MetricResult> result, ParameterOutput parameterOutput) {
@@ -184,34 +205,56 @@ public abstract class GenericMetricProcessor {
     }
 
     protected void toElasticsearch(KStream<Keys, MetricResult> result, ParameterOutput parameterOutput) {
-        AbstractProcessor abstractProcessor = applicationContext.getBean(MetricsElasticsearchProcessor.class, parameterOutput.getElasticsearchRetentionLevel());
-        result.process(() -> abstractProcessor);
+        result.process(() -> applicationContext.getBean(MetricsElasticsearchProcessor.class, parameterOutput.getElasticsearchRetentionLevel()));
     }
 
     protected void toSystemOut(KStream<Keys, MetricResult> result) {
-        AbstractProcessor abstractProcessor = applicationContext.getBean(LoggingProcessor.class);
-        result.process(() -> abstractProcessor);
+        result.process(() -> applicationContext.getBean(LoggingProcessor.class));
     }
 
     private void toSnmp(KStream<Keys, MetricResult> result, ParameterOutput parameterOutput) {
-        AbstractProcessor abstractProcessor = applicationContext.getBean(MetricsSnmpProcessor.class);
-        result.process(() -> abstractProcessor);
+        result.process(() -> applicationContext.getBean(MetricsSnmpProcessor.class));
     }
 
     protected AggregateFunction aggFunction(String aggFunctionName) {
         return UDAFRegistry.getInstance().get(aggFunctionName);
     }
 
+    protected AggregateFunction aggFunction(String aggFunctionName, double... parameters) {
+        return UDAFRegistry.getInstance().get(aggFunctionName, parameters);
+    }
+
+    protected Double distinctValue(JsonNode value) {
+        return CountDistinctFunction.distinctValue(value);
+    }
+
     // MANDATORY METHODS
     protected abstract AggregateFunction aggInitializer();
 
-    protected abstract Double mapValues(JsonNode value);
 
-    protected abstract KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream);
+    // VALUE METHODS: mapValues and aggregate for numbers, mapText and aggregateText for ranking functions
+    protected Double mapValues(JsonNode value) {
+        throw new IllegalStateException(processMetric.getName() + " does not map its values to numbers");
+    }
+
+    protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+        throw new IllegalStateException(processMetric.getName() + " does not aggregate numbers");
+    }
+
+    protected String mapText(JsonNode value) {
+        throw new IllegalStateException(processMetric.getName() + " does not map its values to text");
+    }
+
+    protected KTable<Windowed<Keys>, AggregateFunction> aggregateText(KGroupedStream<Keys, String> kGroupedStream) {
+        throw new IllegalStateException(processMetric.getName() + " does not aggregate text");
+    }
 
 
     // OPTIONAL METHODS
     protected Double operation(AggregateFunction myOperation) {
+        if (myOperation instanceof DoubleAggregateFunction) {
+            return ((DoubleAggregateFunction) myOperation).result();
+        }
         return (Double) myOperation.compute();
     }
 
@@ -248,48 +291,55 @@ public abstract class GenericMetricProcessor {
         return FunctionRegistry.getInstance().evaluate(functionName, args);
     }
 
+    protected BoundFilter bind(String functionName, Object... constantArgs) {
+        return FunctionRegistry.getInstance().bind(functionName, constantArgs);
+    }
 
-    protected KTable<Windowed<Keys>, Double> aggregateHoppingWindow(KGroupedStream<Keys, Double> kGroupedStream,
-                                                                    long size,
-                                                                    TimeUnit sizeUnit,
-                                                                    long advanceBy,
-                                                                    TimeUnit advanceByUnit) {
-        TimeWindowedKStream<Keys, Double> windowedKStream = kGroupedStream
+
+    protected <V> KTable<Windowed<Keys>, AggregateFunction> aggregateHoppingWindow(KGroupedStream<Keys, V> kGroupedStream,
+                                                                                   long size,
+                                                                                   TimeUnit sizeUnit,
+                                                                                   long advanceBy,
+                                                                                   TimeUnit advanceByUnit) {
+        TimeWindowedKStream<Keys, V> windowedKStream = kGroupedStream
                 .windowedBy(TimeWindows.of(sizeUnit.toMillis(size)).advanceBy(advanceByUnit.toMillis(advanceBy)));
-        KTable<Windowed<Keys>, AggregateFunction> aggregate = windowedKStream.aggregate(
+        return windowedKStream.aggregate(
                 this::aggInitializer,
-                (k, v, agg) -> agg.addValue(v),
+                adder(),
                 materializedMathOperationTimeWindow());
-
-
-        return aggregate.mapValues(this::operation);
     }
 
-    protected KTable<Windowed<Keys>, Double> aggregateTumblingWindow(KGroupedStream<Keys, Double> kGroupedStream,
-                                                                     long size,
-                                                                     TimeUnit sizeUnit) {
-        TimeWindowedKStream<Keys, Double> windowedKStream = kGroupedStream
+    protected <V> KTable<Windowed<Keys>, AggregateFunction> aggregateTumblingWindow(KGroupedStream<Keys, V> kGroupedStream,
+                                                                                    long size,
+                                                                                    TimeUnit sizeUnit) {
+        TimeWindowedKStream<Keys, V> windowedKStream = kGroupedStream
                 .windowedBy(TimeWindows.of(sizeUnit.toMillis(size)));
-        KTable<Windowed<Keys>, AggregateFunction> aggregate = windowedKStream.aggregate(
+        return windowedKStream.aggregate(
                 this::aggInitializer,
-                (k, v, agg) -> agg.addValue(v),
+                adder(),
                 materializedMathOperationTimeWindow());
-
-        return aggregate.mapValues(this::operation);
     }
 
-    protected KTable<Windowed<Keys>, Double> aggregateSessionWindow(KGroupedStream<Keys, Double> kGroupedStream,
-                                                                    long gap,
-                                                                    TimeUnit sizeUnit) {
-        SessionWindowedKStream<Keys, Double> windowedKStream = kGroupedStream
+    protected <V> KTable<Windowed<Keys>, AggregateFunction> aggregateSessionWindow(KGroupedStream<Keys, V> kGroupedStream,
+                                                                                   long gap,
+                                                                                   TimeUnit sizeUnit) {
+        SessionWindowedKStream<Keys, V> windowedKStream = kGroupedStream
                 .windowedBy(SessionWindows.with(sizeUnit.toMillis(gap)));
-        KTable<Windowed<Keys>, AggregateFunction> aggregate = windowedKStream.aggregate(
+        return windowedKStream.aggregate(
                 this::aggInitializer,
-                (k, v, agg) -> agg.addValue(v),
+                adder(),
                 (key, aggOne, aggTwo) -> aggOne.merge(aggTwo),
                 materializedMathOperationSessionWindow());
-
-        return aggregate.mapValues(this::operation);
     }
 
+    // chosen once per stream: numbers go straight to the primitive side of the built-in functions
+    private Aggregator<Keys, Object, AggregateFunction> adder() {
+        if (aggInitializer() instanceof DoubleAggregateFunction) {
+            return (key, value, aggregateFunction) -> {
+                ((DoubleAggregateFunction) aggregateFunction).add(((Number) value).doubleValue());
+                return aggregateFunction;
+            };
+        }
+        return (key, value, aggregateFunction) -> aggregateFunction.addValue(value);
+    }
 }
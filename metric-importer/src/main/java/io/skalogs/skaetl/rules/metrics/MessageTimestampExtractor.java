@@ -1,7 +1,7 @@
 package io.skalogs.skaetl.rules.metrics;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
+import io.skalogs.skaetl.utils.DateUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.streams.processor.TimestampExtractor;
@@ -11,15 +11,13 @@ import java.text.ParseException;
 @Slf4j
 public class MessageTimestampExtractor implements TimestampExtractor {
 
-    private final ISO8601DateFormat df = new ISO8601DateFormat();
-
     @Override
     public long extract(ConsumerRecord<Object, Object> record, long previousTimestamp) {
         long timestamp = -1;
         final JsonNode jsonNode = (JsonNode) record.value();
         if (jsonNode.has("timestamp")) {
             try {
-                timestamp = df.parse(jsonNode.path("timestamp").asText()).toInstant().toEpochMilli();
+                timestamp = DateUtils.parseISO8601ToEpochMilli(jsonNode.path("timestamp").asText());
             } catch (ParseException e) {
                 log.error("can't parse timestamp from " + jsonNode, e);
             }
@@ -1,34 +1,65 @@
 package io.skalogs.skaetl.rules.metrics;
 
 
+import io.skalogs.skaetl.compiler.DynamicCompilerException;
+import io.skalogs.skaetl.config.RuleCompilerConfiguration;
 import io.skalogs.skaetl.domain.ProcessMetric;
-import io.skalogs.skaetl.rules.codegeneration.domain.RuleCode;
+import io.skalogs.skaetl.rules.codegeneration.CompiledClassCache;
+import io.skalogs.skaetl.rules.codegeneration.RuleCompiler;
+import io.skalogs.skaetl.rules.codegeneration.RuleToJava;
 import io.skalogs.skaetl.rules.codegeneration.metrics.RuleMetricToJava;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-@AllArgsConstructor
 @Component
 @Slf4j
 public class RuleMetricExecutor {
 
+    // the generated classes extend GenericMetricProcessor, they are compiled again whenever it changes
+    private static final String METRIC_API_VERSION = CompiledClassCache.fingerprint(GenericMetricProcessor.class);
+
     private final RuleMetricToJava ruleMetricToJava;
+    private final CompiledClassCache compiledClassCache;
 
-    public GenericMetricProcessor instanciate(ProcessMetric processMetric) {
-        return instanciate(ruleMetricToJava.convert(processMetric.getName(), processMetric.toDSL()),processMetric);
+    public RuleMetricExecutor(RuleMetricToJava ruleMetricToJava) {
+        this(ruleMetricToJava, new CompiledClassCache());
+    }
+
+    @Autowired
+    public RuleMetricExecutor(RuleMetricToJava ruleMetricToJava, CompiledClassCache compiledClassCache, RuleCompilerConfiguration ruleCompilerConfiguration) {
+        this(ruleMetricToJava, compiledClassCache);
+        // the byte code backend only writes filters, a metric class wires windows and joins and needs javac
+        if (ruleCompilerConfiguration.getCompiler() != RuleCompiler.JAVAC) {
+            throw new IllegalStateException("rules.compiler=" + ruleCompilerConfiguration.getCompiler().name().toLowerCase() + " is not supported by the metric importer, metric rules are compiled with javac: remove rules.compiler or set it to javac");
+        }
+    }
+
+    public RuleMetricExecutor(RuleMetricToJava ruleMetricToJava, CompiledClassCache compiledClassCache) {
+        this.ruleMetricToJava = ruleMetricToJava;
+        this.compiledClassCache = compiledClassCache;
     }
 
-    private GenericMetricProcessor instanciate(RuleCode ruleCode, ProcessMetric processMetric) {
+    public GenericMetricProcessor instanciate(ProcessMetric processMetric) {
+        String name = processMetric.getName();
+        String dsl = processMetric.toDSL();
+        String key = CompiledClassCache.key(RuleToJava.GENERATOR_VERSION, METRIC_API_VERSION, "metric", name, dsl);
+        String className = RuleMetricToJava.ruleClassName(name);
+        Class aClass;
         try {
-            return instanciate(ruleCode.compile(),processMetric);
-        } catch (Exception e) {
+            aClass = compiledClassCache.get(key, className, () -> CompiledClassCache.javac(className, ruleMetricToJava.convert(name, dsl).getJava()));
+        } catch (DynamicCompilerException e) {
             throw new IllegalArgumentException(e);
         }
+        return instanciate(aClass, processMetric);
     }
 
-    private GenericMetricProcessor instanciate(Class aClass,ProcessMetric processMetric) throws Exception {
-        return (GenericMetricProcessor) aClass.getConstructor(ProcessMetric.class).newInstance(processMetric);
+    private GenericMetricProcessor instanciate(Class aClass, ProcessMetric processMetric) {
+        try {
+            return (GenericMetricProcessor) aClass.getConstructor(ProcessMetric.class).newInstance(processMetric);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
     }
 
 
@@ -1,17 +1,16 @@
 package io.skalogs.skaetl.rules.metrics.domain;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.experimental.Wither;
+import io.skalogs.skaetl.rules.metrics.udaf.RankedValue;
 import org.apache.commons.lang.StringUtils;
 import org.apache.kafka.streams.kstream.Windowed;
 
-import java.util.Collections;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 @AllArgsConstructor
 @Getter
@@ -24,10 +23,17 @@ public class MetricResult {
     private final Date endDate;
     private final Date timestamp;
     private final Double result;
+    // most frequent values first, for ranking functions such as topk
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final List<RankedValue> ranking;
     @Wither
     private final JsonNode element;
 
     public MetricResult(Windowed<Keys> keysWindowed, Double result) {
+        this(keysWindowed, result, null);
+    }
+
+    public MetricResult(Windowed<Keys> keysWindowed, Double result, List<RankedValue> ranking) {
         this.ruleName = keysWindowed.key().getRuleName();
         this.ruleDSL = keysWindowed.key().getRuleDSL();
         this.project = keysWindowed.key().getProject();
@@ -37,6 +43,7 @@ public class MetricResult {
         //for Elasticsearch
         this.timestamp = endDate;
         this.result = result;
+        this.ranking = ranking;
         this.element = null;
 
     }
@@ -49,6 +56,9 @@ public class MetricResult {
             put("rule_name", getRuleName());
             put("project", getProject());
         }};
+        if (ranking != null) {
+            values.put("ranking", StringUtils.join(ranking, ", "));
+        }
 
         return values;
     }
@@ -59,6 +69,10 @@ public class MetricResult {
     }
 
     public String toString() {
-        return StringUtils.join(new String[]{this.getRuleName(), " triggered with value ", this.getResult().toString()});
+        String message = StringUtils.join(new String[]{this.getRuleName(), " triggered with value ", this.getResult().toString()});
+        if (ranking != null) {
+            message += " " + StringUtils.join(ranking, ", ");
+        }
+        return message;
     }
 }
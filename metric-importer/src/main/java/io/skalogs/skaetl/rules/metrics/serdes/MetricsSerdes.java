@@ -15,7 +15,7 @@ public class MetricsSerdes {
     }
 
     public static Serde<AggregateFunction> aggFunctionSerdes() {
-        return Serdes.serdeFrom(new GenericSerializer<AggregateFunction>(), new GenericDeserializer(AggregateFunction.class));
+        return Serdes.serdeFrom(new AggregateFunctionSerializer(), new AggregateFunctionDeserializer());
     }
 
 
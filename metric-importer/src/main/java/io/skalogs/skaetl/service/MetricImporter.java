@@ -8,6 +8,7 @@ import io.skalogs.skaetl.domain.*;
 import io.skalogs.skaetl.rules.metrics.GenericMetricProcessor;
 import io.skalogs.skaetl.rules.metrics.RuleMetricExecutor;
 import io.skalogs.skaetl.serdes.GenericSerdes;
+import io.skalogs.skaetl.utils.KafkaUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.serialization.Serdes;
@@ -52,7 +53,7 @@ public class MetricImporter {
             deactivate(processMetric);
         }
         log.info("creating {} Metric Stream Process", processMetric.getName());
-        kafkaAdminService.buildTopic(processMetric.getFromTopic());
+        kafkaAdminService.buildTopic(processMetric.getStreamSettings(), processMetric.getFromTopic());
         processMetric.getProcessOutputs()
                 .stream()
                 .filter(processOutput -> processOutput.getTypeOutput() == TypeOutput.KAFKA)
@@ -61,20 +62,20 @@ public class MetricImporter {
 
         List<KafkaStreams> streams = new ArrayList<>();
         for (String idProcessConsumer : processMetric.getSourceProcessConsumers()) {
-            streams.add(feedMergeTopic(idProcessConsumer,processMetric.getFromTopic()));
+            streams.add(feedMergeTopic(idProcessConsumer,processMetric.getFromTopic(), processMetric.getStreamSettings()));
         }
 
         if (!processMetric.getSourceProcessConsumersB().isEmpty()) {
-            kafkaAdminService.buildTopic(processMetric.getFromTopicB());
+            kafkaAdminService.buildTopic(processMetric.getStreamSettings(), processMetric.getFromTopicB());
             for (String idProcessConsumer : processMetric.getSourceProcessConsumersB()) {
-                streams.add(feedMergeTopic(idProcessConsumer, processMetric.getFromTopicB()));
+                streams.add(feedMergeTopic(idProcessConsumer, processMetric.getFromTopicB(), processMetric.getStreamSettings()));
             }
         }
 
         GenericMetricProcessor metricProcessor = ruleMetricExecutor.instanciate(processMetric);
         metricProcessor.setApplicationContext(applicationContext);
 
-        KafkaStreams metricStream = metricProcessor.buildStream(createProperties(kafkaConfiguration.getBootstrapServers()));
+        KafkaStreams metricStream = metricProcessor.buildStream(KafkaUtils.createStreamProperties(kafkaConfiguration.getBootstrapServers(), processMetric.getStreamSettings()));
         metricStream.start();
 
         streams.add(metricStream);
@@ -83,15 +84,15 @@ public class MetricImporter {
         runningMetricProcessors.put(processMetricDefinition, streams);
     }
 
-    private KafkaStreams feedMergeTopic(String id, String mergeTopic) {
+    private KafkaStreams feedMergeTopic(String id, String mergeTopic, StreamSettings streamSettings) {
 
         StreamsBuilder builder = new StreamsBuilder();
-        Properties properties = createProperties(kafkaConfiguration.getBootstrapServers());
+        Properties properties = KafkaUtils.createStreamProperties(kafkaConfiguration.getBootstrapServers(), streamSettings);
         String inputTopic = id + TOPIC_TREAT_PROCESS;
         properties.put(StreamsConfig.APPLICATION_ID_CONFIG, inputTopic + "merger-stream");
 
-        KStream<String, JsonNode> stream = builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde()));
-        stream.to(mergeTopic, Produced.with(Serdes.String(),GenericSerdes.jsonNodeSerde()));
+        KStream<String, JsonNode> stream = builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde()));
+        stream.to(mergeTopic, Produced.with(Serdes.String(),GenericSerdes.internalJsonNodeSerde()));
 
         final KafkaStreams streams = new KafkaStreams(builder.build(), properties);
         Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
@@ -106,16 +107,6 @@ public class MetricImporter {
         runningMetricProcessors.remove(processMetric);
     }
 
-    private Properties createProperties(String bootstrapServers) {
-        Properties props = new Properties();
-        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
-        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
-        props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 10);
-        props.put(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG, 0);
-        return props;
-    }
-
     private void sendToRegistry(String action) {
         RegistryWorker registry = null;
         try {
@@ -27,6 +27,30 @@ public class GenericMetricProcessorCompileTest {
     }
 
 
+    @Test
+    public void count() {
+        RuleMetricToJava ruleToJava = new RuleMetricToJava();
+        String dsl = "SELECT count() FROM mytopic WINDOW TUMBLING(5 MINUTES)";
+        RuleCode rule = ruleToJava.convert("MyCountRule", dsl);
+        rule.compile();
+    }
+
+    @Test
+    public void topk() {
+        RuleMetricToJava ruleToJava = new RuleMetricToJava();
+        String dsl = "SELECT topk(ip, 10) FROM mytopic WINDOW TUMBLING(5 MINUTES)";
+        RuleCode rule = ruleToJava.convert("MyTopkRule", dsl);
+        rule.compile();
+    }
+
+    @Test
+    public void countDistinct() {
+        RuleMetricToJava ruleToJava = new RuleMetricToJava();
+        String dsl = "SELECT count_distinct(ip, 12) FROM mytopic WINDOW TUMBLING(5 MINUTES)";
+        RuleCode rule = ruleToJava.convert("MyCountDistinctRule", dsl);
+        rule.compile();
+    }
+
     @Test
     public void groupBy() {
         RuleMetricToJava ruleToJava = new RuleMetricToJava();
@@ -9,8 +9,11 @@ import io.skalogs.skaetl.kafka.KafkaUnitRule;
 import io.skalogs.skaetl.rules.UtilsValidator;
 import io.skalogs.skaetl.rules.metrics.domain.Keys;
 import io.skalogs.skaetl.rules.metrics.domain.MetricResult;
+import io.skalogs.skaetl.rules.metrics.processor.MetricsEmailProcessorBeanFactory;
 import io.skalogs.skaetl.rules.metrics.udaf.AggregateFunction;
+import io.skalogs.skaetl.rules.metrics.udaf.RankedValue;
 import io.skalogs.skaetl.serdes.JsonNodeSerialializer;
+import io.skalogs.skaetl.service.EmailService;
 import io.skalogs.skaetl.utils.JSONUtils;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.serialization.Serdes;
@@ -23,12 +26,18 @@ import org.apache.kafka.streams.kstream.KTable;
 import org.apache.kafka.streams.kstream.Windowed;
 import org.assertj.core.util.Lists;
 import org.junit.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 public class GenericMetricProcessorIT {
     @ClassRule
@@ -71,7 +80,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -121,7 +130,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -155,7 +164,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -191,7 +200,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -227,7 +236,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -268,7 +277,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -305,7 +314,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -364,7 +373,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -434,7 +443,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -496,7 +505,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -550,7 +559,7 @@ public class GenericMetricProcessorIT {
             }
 
             @Override
-            protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
                 return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
             }
 
@@ -573,6 +582,106 @@ public class GenericMetricProcessorIT {
     }
 
 
+    @Test
+    public void shouldComputeCountDistinctWithoutMissingFields() {
+
+        List<JsonNode> input = Arrays.asList(
+                toJsonNode("{\"project\":\"myproject\",\"type\":\"something\",\"ip\": \"10.0.0.1\"}"),
+                toJsonNode("{\"project\":\"myproject\",\"type\":\"something\",\"ip\": \"10.0.0.2\"}"),
+                toJsonNode("{\"project\":\"myproject\",\"type\":\"something\",\"ip\": \"10.0.0.1\"}"),
+                toJsonNode("{\"project\":\"myproject\",\"type\":\"something\"}"),
+                toJsonNode("{\"project\":\"myproject\",\"type\":\"something\",\"ip\": null}")
+        );
+        String destTopic = "count-distinct-dest";
+        GenericMetricProcessor distinctIps = new GenericMetricProcessor(buildProcessMetric("count-distinct", destTopic), "count-distinct-src") {
+            @Override
+            protected AggregateFunction aggInitializer() {
+                return aggFunction("count_distinct");
+            }
+
+            @Override
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {
+                return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
+            }
+
+            @Override
+            protected Double mapValues(JsonNode value) {
+                return distinctValue(value.path("ip"));
+            }
+        };
+        List<KafkaUnit.Message<Keys, MetricResult>> resultInDestTopic = executeMetricStream(input, distinctIps, destTopic);
+        assertThat(resultInDestTopic).hasSize(1);
+        assertThat(resultInDestTopic.get(0).getKey().getRuleName()).isEqualTo("count-distinct");
+        assertThat(resultInDestTopic.get(0).getValue().getResult()).isCloseTo(2, within(0.1));
+    }
+
+    @Test
+    public void shouldComputeTopK() {
+
+        List<JsonNode> input = Arrays.asList(
+                toJsonNode("{\"project\":\"myproject\",\"type\":\"something\",\"ip\": \"10.0.0.1\"}"),
+                toJsonNode("{\"project\":\"myproject\",\"type\":\"something\",\"ip\": \"10.0.0.2\"}"),
+                toJsonNode("{\"project\":\"myproject\",\"type\":\"something\",\"ip\": \"10.0.0.1\"}"),
+                toJsonNode("{\"project\":\"myproject\",\"type\":\"something\",\"ip\": \"10.0.0.1\"}")
+        );
+        String destTopic = "topk-dest";
+        ProcessMetric processMetric = buildProcessMetric("topk", destTopic);
+        // routed before the kafka output, the mail is sent once the result can be read from the topic
+        processMetric.getProcessOutputs().add(0, ProcessOutput.builder()
+                .typeOutput(TypeOutput.EMAIL)
+                .parameterOutput(ParameterOutput.builder()
+                        .email("ops@skalogs.com")
+                        .template("top ips [[${ranking}]]")
+                        .build())
+                .build());
+        GenericMetricProcessor topIps = new GenericMetricProcessor(processMetric, "topk-src") {
+            @Override
+            protected AggregateFunction aggInitializer() {
+                return aggFunction("topk", 2);
+            }
+
+            @Override
+            protected KTable<Windowed<Keys>, AggregateFunction> aggregateText(KGroupedStream<Keys, String> kGroupedStream) {
+                return aggregateTumblingWindow(kGroupedStream, 1, TimeUnit.SECONDS);
+            }
+
+            @Override
+            protected String mapText(JsonNode value) {
+                return value.path("ip").asText();
+            }
+        };
+        RecordingMailSender mailSender = new RecordingMailSender();
+        topIps.setApplicationContext(emailContext(mailSender));
+
+        List<KafkaUnit.Message<Keys, MetricResult>> resultInDestTopic = executeMetricStream(input, topIps, destTopic);
+        assertThat(resultInDestTopic).hasSize(1);
+        assertThat(resultInDestTopic.get(0).getKey().getRuleName()).isEqualTo("topk");
+        assertThat(resultInDestTopic.get(0).getValue().getResult()).isEqualTo(3);
+        assertThat(resultInDestTopic.get(0).getValue().getRanking().stream().map(RankedValue::toString).collect(Collectors.toList()))
+                .containsExactly("10.0.0.1=3", "10.0.0.2=1");
+
+        assertThat(mailSender.sent).hasSize(1);
+        assertThat(mailSender.sent.get(0).getTo()).containsExactly("ops@skalogs.com");
+        assertThat(mailSender.sent.get(0).getText()).isEqualTo("top ips 10.0.0.1=3, 10.0.0.2=1");
+    }
+
+    private AnnotationConfigApplicationContext emailContext(JavaMailSender mailSender) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().registerSingleton("emailService", new EmailService(mailSender));
+        context.register(MetricsEmailProcessorBeanFactory.class);
+        context.refresh();
+        return context;
+    }
+
+    private static class RecordingMailSender extends JavaMailSenderImpl {
+        private final List<SimpleMailMessage> sent = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            sent.addAll(Arrays.asList(simpleMessages));
+        }
+    }
+
     private List<KafkaUnit.Message<Keys, MetricResult>> executeMetricStream(List<JsonNode> inputs, GenericMetricProcessor metricProcessor, String destTopic) {
         kafkaUnitRule.getKafkaUnit().createTopic(metricProcessor.getSrcTopic());
         kafkaUnitRule.getKafkaUnit().createTopic(destTopic);
@@ -0,0 +1,28 @@
+package io.skalogs.skaetl.rules.metrics;
+
+import io.skalogs.skaetl.config.RuleCompilerConfiguration;
+import io.skalogs.skaetl.rules.codegeneration.CompiledClassCache;
+import io.skalogs.skaetl.rules.codegeneration.RuleCompiler;
+import io.skalogs.skaetl.rules.codegeneration.metrics.RuleMetricToJava;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RuleMetricExecutorTest {
+
+    @Test
+    public void javacByDefault() {
+        new RuleMetricExecutor(new RuleMetricToJava(), new CompiledClassCache(), new RuleCompilerConfiguration());
+    }
+
+    @Test
+    public void rejectBytecodeCompiler() {
+        RuleCompilerConfiguration ruleCompilerConfiguration = new RuleCompilerConfiguration();
+        ruleCompilerConfiguration.setCompiler(RuleCompiler.BYTECODE);
+
+        assertThatThrownBy(() -> new RuleMetricExecutor(new RuleMetricToJava(), new CompiledClassCache(), ruleCompilerConfiguration))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("rules.compiler=bytecode")
+                .hasMessageContaining("metric rules are compiled with javac");
+    }
+}
@@ -1,5 +1,6 @@
 package io.skalogs.skaetl.domain;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.*;
 import lombok.experimental.Wither;
 
@@ -15,4 +16,13 @@ public class ParserResult {
     @Builder.Default
     private Boolean failParse = false;
     private String messageFailParse;
+    // set by parsers producing a json tree directly, the String form is only computed on demand
+    private ObjectNode jsonResult;
+
+    public String getResult() {
+        if (result == null && jsonResult != null) {
+            result = jsonResult.toString();
+        }
+        return result;
+    }
 }
@@ -30,4 +30,10 @@ public class ProcessConsumer extends ProcessDefinition {
     private List<ProcessFilter> processFilter = new ArrayList<>();
     @Builder.Default
     private List<ProcessOutput> processOutput = new ArrayList<>();
+    // parse, transform, validate and filter in a single sub-topology instead of going through the parsed topic,
+    // which is then not fed: referentials sourcing this process need the default layout
+    @Builder.Default
+    private Boolean fusedTopology = false;
+    @Builder.Default
+    private StreamSettings streamSettings = new StreamSettings();
 }
@@ -9,6 +9,9 @@ import lombok.*;
 @Builder
 @ToString
 public class ProcessHashData {
+    // one field or several separated by commas
     private String field;
     private TypeHash typeHash;
+    // name of the HMAC_SHA256 secret, the key itself is configured on the importers as hash.hmacKeys.<name>
+    private String keyName;
 }
@@ -2,5 +2,8 @@ package io.skalogs.skaetl.domain;
 
 public enum TypeHash {
     SHA256,
-    MURMUR3
+    MURMUR3,
+    XXHASH64,
+    SHA1,
+    HMAC_SHA256
 }
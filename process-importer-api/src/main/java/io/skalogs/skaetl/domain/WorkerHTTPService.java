@@ -3,18 +3,23 @@ package io.skalogs.skaetl.domain;
 import lombok.*;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Map;
 
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 @Builder
-@ToString
+@ToString(exclude = "mapResult")
 public class WorkerHTTPService {
     @Builder.Default
     private ExternalHTTPData externalHTTPService;
     private LocalDateTime lastRefresh;
+    // immutable snapshot, replaced as a whole on each refresh and read without locking by the stream threads
     @Builder.Default
-    private HashMap<String, String> mapResult = new HashMap<>();
+    private volatile Map<String, String> mapResult = Collections.emptyMap();
+    // validators sent back on the next refresh so an unchanged dictionary isn't downloaded again
+    private String etag;
+    private String lastModified;
 }
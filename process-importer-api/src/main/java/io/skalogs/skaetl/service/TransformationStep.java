@@ -0,0 +1,12 @@
+package io.skalogs.skaetl.service;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * A transformation bound to its process and parameters, ready to be applied on each event.
+ */
+@FunctionalInterface
+public interface TransformationStep {
+
+    void apply(ObjectNode jsonValue, String value);
+}
@@ -20,4 +20,12 @@ public abstract class TransformatorProcess {
     }
 
     public abstract void apply(String idProcess, ParameterTransformation parameterTransformation, ObjectNode jsonValue, String value);
+
+    /**
+     * Binds the transformation to a process, called once when the process is compiled.
+     * Overridden by transformators that can pre-resolve their parameters.
+     */
+    public TransformationStep bind(String idProcess, ParameterTransformation parameterTransformation) {
+        return (jsonValue, value) -> apply(idProcess, parameterTransformation, jsonValue, value);
+    }
 }
@@ -0,0 +1,13 @@
+package io.skalogs.skaetl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.skalogs.skaetl.domain.ValidateData;
+
+/**
+ * A validation bound to its parameters, ready to be applied on each event.
+ */
+@FunctionalInterface
+public interface ValidationStep {
+
+    ValidateData process(JsonNode jsonValue, String value);
+}
@@ -18,6 +18,13 @@ public abstract class ValidatorProcess {
 
     public abstract ValidateData process(ProcessValidation processValidation, JsonNode jsonValue, String value);
 
+    /**
+     * Binds the validation to its parameters, called once when the process is compiled.
+     */
+    public ValidationStep bind(ProcessValidation processValidation) {
+        return (jsonValue, value) -> process(processValidation, jsonValue, value);
+    }
+
     public Boolean type(TypeValidation typeValidation) {
         return type.equals(typeValidation);
     }
@@ -0,0 +1,18 @@
+package io.skalogs.skaetl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "geoip")
+public class GeoIPConfiguration {
+    // GeoLite2/GeoIP2 City database, memory-mapped and reloaded when the file changes. The bundled database is used when not set
+    private String databasePath;
+    // recently resolved IPs kept with their geo fields
+    private Integer cacheSize = 10000;
+    private Integer reloadCheckSec = 60;
+}
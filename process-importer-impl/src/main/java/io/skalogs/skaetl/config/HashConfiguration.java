@@ -0,0 +1,18 @@
+package io.skalogs.skaetl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "hash")
+public class HashConfiguration {
+    // HMAC_SHA256 secrets by name, process definitions only reference the name
+    private Map<String, String> hmacKeys = new HashMap<>();
+}
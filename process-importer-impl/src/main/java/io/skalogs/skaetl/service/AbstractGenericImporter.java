@@ -22,8 +22,8 @@ import static java.util.stream.Collectors.toList;
 public abstract class AbstractGenericImporter {
 
 
-    private static final int NUM_CONSUMERS = 10;
-    private final ExecutorService executor = Executors.newFixedThreadPool(NUM_CONSUMERS);
+    // only builds and starts the topologies, records are processed by the stream threads of each process
+    private final ExecutorService executor = Executors.newCachedThreadPool();
     private final List<AbstractStreamProcess> listConsumer = new ArrayList<>();
     private final GenericValidator genericValidator;
     private final GenericTransformator genericTransformator;
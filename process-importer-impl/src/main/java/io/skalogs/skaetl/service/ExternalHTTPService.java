@@ -1,5 +1,10 @@
 package io.skalogs.skaetl.service;
 
+import com.google.common.collect.ImmutableMap;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+import io.skalogs.skaetl.domain.ExternalHTTPData;
 import io.skalogs.skaetl.domain.ProcessConsumer;
 import io.skalogs.skaetl.domain.ProcessKeyValue;
 import io.skalogs.skaetl.domain.TypeValidation;
@@ -7,9 +12,8 @@ import io.skalogs.skaetl.domain.WorkerHTTPService;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.http.*;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
@@ -17,14 +21,34 @@ import org.springframework.web.client.RestTemplate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @AllArgsConstructor
 @Component
 @Slf4j
 public class ExternalHTTPService {
+
+    private static final Counter refreshCount = Counter.build()
+            .name("nb_external_http_refresh")
+            .help("nb refresh of external lookups")
+            .labelNames("url", "status")
+            .register();
+    private static final Histogram refreshDuration = Histogram.build()
+            .name("external_http_refresh_seconds")
+            .help("external lookup refresh duration")
+            .labelNames("url")
+            .register();
+    private static final Gauge entriesGauge = Gauge.build()
+            .name("nb_external_http_entries")
+            .help("nb entries of external lookups")
+            .labelNames("idProcess", "url")
+            .register();
+
+    // idProcess -> lookup key -> worker, a process can declare several LOOKUP_EXTERNAL
     @Getter
-    private final HashMap<String, WorkerHTTPService> mapExternalService = new HashMap<>();
+    private final Map<String, Map<String, WorkerHTTPService>> mapExternalService = new ConcurrentHashMap<>();
+    private final RestTemplate restTemplate = new RestTemplate();
 
     public void buildCache(ProcessConsumer processConsumer) {
         if (mapExternalService.get(processConsumer.getIdProcess()) != null) {
@@ -33,7 +57,7 @@ public class ExternalHTTPService {
             LocalDateTime lInit = LocalDateTime.ofInstant(new Date().toInstant(), ZoneId.systemDefault()).minusHours(1);
             processConsumer.getProcessTransformation().stream()
                     .filter(process -> process.getTypeTransformation() == TypeValidation.LOOKUP_EXTERNAL)
-                    .forEach(process -> mapExternalService.put(processConsumer.getIdProcess(), WorkerHTTPService.builder()
+                    .forEach(process -> addWorker(processConsumer.getIdProcess(), WorkerHTTPService.builder()
                             .externalHTTPService(process.getParameterTransformation().getExternalHTTPData())
                             .lastRefresh(lInit)
                             .build()));
@@ -41,60 +65,82 @@ public class ExternalHTTPService {
         }
     }
 
+    public void addWorker(String idProcess, WorkerHTTPService workerHTTPService) {
+        mapExternalService.computeIfAbsent(idProcess, k -> new ConcurrentHashMap<>())
+                .putIfAbsent(lookupKey(workerHTTPService.getExternalHTTPService()), workerHTTPService);
+    }
+
+    public WorkerHTTPService getWorker(String idProcess, ExternalHTTPData externalHTTPData) {
+        Map<String, WorkerHTTPService> workers = mapExternalService.get(idProcess);
+        return workers == null ? null : workers.get(lookupKey(externalHTTPData));
+    }
+
     public void revokeCache(ProcessConsumer processConsumer) {
-        mapExternalService.remove(processConsumer.getIdProcess());
+        Map<String, WorkerHTTPService> workers = mapExternalService.remove(processConsumer.getIdProcess());
+        if (workers != null) {
+            workers.values().forEach(e -> entriesGauge.remove(processConsumer.getIdProcess(), url(e)));
+        }
     }
 
     @Scheduled(initialDelay = 20 * 1000, fixedRate = 10 * 1000)
-    public void refresh() {
+    public synchronized void refresh() {
         LocalDateTime now = LocalDateTime.ofInstant(new Date().toInstant(), ZoneId.systemDefault());
-        mapExternalService.values().stream()
+        mapExternalService.forEach((idProcess, workers) -> workers.values().stream()
                 .filter(e -> e.getLastRefresh().plusSeconds(e.getExternalHTTPService().getRefresh()).isBefore(now))
-                .forEach(e -> refreshData(e, now));
+                .forEach(e -> refreshData(idProcess, e, now)));
     }
 
-    private void refreshData(WorkerHTTPService workerHTTPService, LocalDateTime now) {
-        RestTemplate restTemplate = new RestTemplate();
-        HttpEntity request = workerHTTPService.getExternalHTTPService().getHttpMethod() == HttpMethod.POST ? new HttpEntity<String>(workerHTTPService.getExternalHTTPService().getBody()) : null;
+    private void refreshData(String idProcess, WorkerHTTPService workerHTTPService, LocalDateTime now) {
+        ExternalHTTPData externalHTTPData = workerHTTPService.getExternalHTTPService();
+        HttpHeaders headers = new HttpHeaders();
+        if (workerHTTPService.getEtag() != null) {
+            headers.setIfNoneMatch(workerHTTPService.getEtag());
+        }
+        if (workerHTTPService.getLastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, workerHTTPService.getLastModified());
+        }
+        HttpEntity<String> request = new HttpEntity<>(externalHTTPData.getHttpMethod() == HttpMethod.POST ? externalHTTPData.getBody() : null, headers);
+        Histogram.Timer timer = refreshDuration.labels(url(workerHTTPService)).startTimer();
         try {
-            ResponseEntity<ProcessKeyValue[]> responseEntity = restTemplate.exchange(workerHTTPService.getExternalHTTPService().getUrl(),
-                    workerHTTPService.getExternalHTTPService().getHttpMethod(),
+            ResponseEntity<ProcessKeyValue[]> responseEntity = restTemplate.exchange(externalHTTPData.getUrl(),
+                    externalHTTPData.getHttpMethod(),
                     request,
                     ProcessKeyValue[].class);
-            if (responseEntity.getBody() != null && responseEntity.getBody().length > 0) {
-                workerHTTPService.getMapResult().clear();
+            if (responseEntity.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                workerHTTPService.setLastRefresh(now);
+                refreshCount.labels(url(workerHTTPService), "not_modified").inc();
+            } else if (responseEntity.getBody() != null && responseEntity.getBody().length > 0) {
+                // built aside then published with a single reference swap, lookups never see a partial map
+                ImmutableMap.Builder<String, String> mapResult = ImmutableMap.builder();
                 for (ProcessKeyValue pKV : responseEntity.getBody()) {
-                    workerHTTPService.getMapResult().put(pKV.getKey(), pKV.getValue());
+                    mapResult.put(pKV.getKey(), pKV.getValue());
                 }
+                workerHTTPService.setMapResult(mapResult.build());
+                workerHTTPService.setEtag(responseEntity.getHeaders().getETag());
+                workerHTTPService.setLastModified(responseEntity.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
                 workerHTTPService.setLastRefresh(now);
+                entriesGauge.labels(idProcess, url(workerHTTPService)).set(workerHTTPService.getMapResult().size());
+                refreshCount.labels(url(workerHTTPService), "updated").inc();
+            } else {
+                refreshCount.labels(url(workerHTTPService), "empty").inc();
             }
         } catch (Exception e) {
-            log.error("Error during call to {}", workerHTTPService.getExternalHTTPService(), e.getMessage());
+            refreshCount.labels(url(workerHTTPService), "error").inc();
+            log.error("Error during call to {} {}", externalHTTPData, e.getMessage());
+        } finally {
+            timer.observeDuration();
         }
     }
 
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
+    private static String lookupKey(ExternalHTTPData externalHTTPData) {
+        if (externalHTTPData == null) {
+            return "";
+        }
+        return externalHTTPData.getHttpMethod() + " " + StringUtils.defaultString(externalHTTPData.getUrl()) + " " + StringUtils.defaultString(externalHTTPData.getBody());
+    }
 
+    private static String url(WorkerHTTPService workerHTTPService) {
+        return workerHTTPService.getExternalHTTPService() == null ? "" : StringUtils.defaultString(workerHTTPService.getExternalHTTPService().getUrl());
+    }
 
+}
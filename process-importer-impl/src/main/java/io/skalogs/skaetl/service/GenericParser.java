@@ -9,6 +9,7 @@ import io.skalogs.skaetl.service.parser.CSVParser;
 import io.skalogs.skaetl.service.parser.GrokParser;
 import io.skalogs.skaetl.service.parser.NitroParser;
 import io.skalogs.skaetl.utils.KafkaUtils;
+import io.skalogs.skaetl.utils.ProducerProfile;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 import org.apache.kafka.clients.producer.Producer;
@@ -31,21 +32,28 @@ public class GenericParser {
         this.cefParser = cefParser;
         this.nitroParser = nitroParser;
         this.csvParser = csvParser;
-        this.failParserProducer = KafkaUtils.kafkaProducer(kafkaConfiguration.getBootstrapServers(), StringSerializer.class, StringSerializer.class);
+        this.failParserProducer = KafkaUtils.kafkaProducer(kafkaConfiguration, ProducerProfile.throughput, StringSerializer.class, StringSerializer.class);
     }
 
     public String apply(String value, ProcessConsumer processConsumer) {
+        return parse(value, processConsumer).getResult();
+    }
+
+    /**
+     * Runs the parsers of the process until one succeeds. Parsers producing a json tree (GROK) expose it through
+     * {@link ParserResult#getJsonResult()} so that the fused topology does not have to parse it again.
+     */
+    public ParserResult parse(String value, ProcessConsumer processConsumer) {
         if (processConsumer.getProcessParser() != null && !processConsumer.getProcessParser().isEmpty()) {
             for(ProcessParser processParser : processConsumer.getProcessParser()){
                 ParserResult parserResult = treatData(processParser, value);
                 if(!parserResult.getFailParse()){
                     //success
-                    value = parserResult.getResult();
-                    break;
+                    return parserResult;
                 }
             }
         }
-        return value;
+        return ParserResult.builder().result(value).build();
     }
 
     private ParserResult treatData(ProcessParser processParser, String value){
@@ -3,6 +3,13 @@ package io.skalogs.skaetl.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.skalogs.skaetl.config.GeoIPConfiguration;
+import io.skalogs.skaetl.config.HashConfiguration;
 import io.skalogs.skaetl.domain.ProcessConsumer;
 import io.skalogs.skaetl.domain.ProcessTransformation;
 import io.skalogs.skaetl.domain.TypeValidation;
@@ -13,40 +20,88 @@ import org.springframework.stereotype.Component;
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
 public class GenericTransformator {
 
-    private List<TransformatorProcess> listTransformator = new ArrayList<>();
+    private static final TransformationStep[] NO_STEPS = new TransformationStep[0];
+
+    private final Map<TypeValidation, TransformatorProcess> transformators = new EnumMap<>(TypeValidation.class);
+    // keyed by identity, a new definition is compiled each time a process is (re)activated
+    private final LoadingCache<ProcessConsumer, TransformationStep[]> plans = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(this::compile));
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final ExternalHTTPService externalHTTPService;
+    private final GeoIPConfiguration geoIPConfiguration;
+    private final HashConfiguration hashConfiguration;
 
-    public GenericTransformator(ExternalHTTPService externalHTTPService) {
+    public GenericTransformator(ExternalHTTPService externalHTTPService, GeoIPConfiguration geoIPConfiguration, HashConfiguration hashConfiguration) {
         this.externalHTTPService = externalHTTPService;
+        this.geoIPConfiguration = geoIPConfiguration;
+        this.hashConfiguration = hashConfiguration;
     }
 
     @PostConstruct
     public void init() {
-        listTransformator.add(new AddFieldTransformator(TypeValidation.ADD_FIELD));
-        listTransformator.add(new BooleanTransformator(TypeValidation.FORMAT_BOOLEAN));
-        listTransformator.add(new DeleteFieldTransformator(TypeValidation.DELETE_FIELD));
-        listTransformator.add(new DoubleFieldTransformator(TypeValidation.FORMAT_DOUBLE));
-        listTransformator.add(new FormatDateTransformator(TypeValidation.FORMAT_DATE));
-        listTransformator.add(new GeoPointTransformator(TypeValidation.FORMAT_GEOPOINT));
-        listTransformator.add(new IpFieldTransformator(TypeValidation.FORMAT_IP));
-        listTransformator.add(new LongFieldTransformator(TypeValidation.FORMAT_LONG));
-        listTransformator.add(new RenameFieldTransformator(TypeValidation.RENAME_FIELD));
-        listTransformator.add(new LookupListTransformator(TypeValidation.LOOKUP_LIST));
-        listTransformator.add(new HashFieldTransformator(TypeValidation.HASH));
-        listTransformator.add(new CapitalizeTransformator(TypeValidation.CAPITALIZE));
-        listTransformator.add(new UncapitalizeTransformator(TypeValidation.UNCAPITALIZE));
-        listTransformator.add(new LowerCaseTransformator(TypeValidation.LOWER_CASE));
-        listTransformator.add(new UpperCaseTransformator(TypeValidation.UPPER_CASE));
-        listTransformator.add(new SwapCaseTransformator(TypeValidation.SWAP_CASE));
-        listTransformator.add(new LookupHTTPServiceTransformator(TypeValidation.LOOKUP_EXTERNAL, externalHTTPService));
-        listTransformator.add(new AddGeoLocalisationTransformator(TypeValidation.ADD_GEO_LOCALISATION));
+        register(new AddFieldTransformator(TypeValidation.ADD_FIELD));
+        register(new BooleanTransformator(TypeValidation.FORMAT_BOOLEAN));
+        register(new DeleteFieldTransformator(TypeValidation.DELETE_FIELD));
+        register(new DoubleFieldTransformator(TypeValidation.FORMAT_DOUBLE));
+        register(new FormatDateTransformator(TypeValidation.FORMAT_DATE));
+        register(new GeoPointTransformator(TypeValidation.FORMAT_GEOPOINT));
+        register(new IpFieldTransformator(TypeValidation.FORMAT_IP));
+        register(new LongFieldTransformator(TypeValidation.FORMAT_LONG));
+        register(new RenameFieldTransformator(TypeValidation.RENAME_FIELD));
+        register(new LookupListTransformator(TypeValidation.LOOKUP_LIST));
+        register(new HashFieldTransformator(TypeValidation.HASH, hashConfiguration));
+        register(new CapitalizeTransformator(TypeValidation.CAPITALIZE));
+        register(new UncapitalizeTransformator(TypeValidation.UNCAPITALIZE));
+        register(new LowerCaseTransformator(TypeValidation.LOWER_CASE));
+        register(new UpperCaseTransformator(TypeValidation.UPPER_CASE));
+        register(new SwapCaseTransformator(TypeValidation.SWAP_CASE));
+        register(new LookupHTTPServiceTransformator(TypeValidation.LOOKUP_EXTERNAL, externalHTTPService));
+        register(new AddGeoLocalisationTransformator(TypeValidation.ADD_GEO_LOCALISATION, geoIPConfiguration));
+    }
+
+    private void register(TransformatorProcess transformatorProcess) {
+        transformators.put(transformatorProcess.getType(), transformatorProcess);
+    }
+
+    /**
+     * Resolves the transformations of a process into bound steps, in declaration order.
+     */
+    public TransformationStep[] compile(ProcessConsumer processConsumer) {
+        List<ProcessTransformation> processTransformations = processConsumer.getProcessTransformation();
+        if (processTransformations == null || processTransformations.isEmpty()) {
+            return NO_STEPS;
+        }
+        List<TransformationStep> steps = new ArrayList<>(processTransformations.size());
+        for (ProcessTransformation pt : processTransformations) {
+            TransformatorProcess transformatorProcess = transformators.get(pt.getTypeTransformation());
+            if (transformatorProcess == null) {
+                log.warn("No transformator for {} in process {}", pt.getTypeTransformation(), processConsumer.getIdProcess());
+            } else {
+                steps.add(transformatorProcess.bind(processConsumer.getIdProcess(), pt.getParameterTransformation()));
+            }
+        }
+        return steps.toArray(NO_STEPS);
+    }
+
+    /**
+     * Compiles the transformations of a process, throws when one of them can't be bound.
+     */
+    public void prepare(ProcessConsumer processConsumer) {
+        try {
+            plans.getUnchecked(processConsumer);
+        } catch (UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
     }
 
     public JsonNode createJsonObject(String value) {
@@ -58,17 +113,31 @@ public class GenericTransformator {
     }
 
     public String apply(String value, ProcessConsumer processConsumer) {
+        TransformationStep[] steps = plans.getUnchecked(processConsumer);
+        if (steps.length == 0) {
+            return value;
+        }
         ObjectNode jsonValue = (ObjectNode) createJsonObject(value);
-        if (jsonValue != null && processConsumer.getProcessTransformation() != null && !processConsumer.getProcessTransformation().isEmpty()) {
-            for (ProcessTransformation pt : processConsumer.getProcessTransformation()) {
-                listTransformator.stream()
-                        .filter(e -> e.type(pt.getTypeTransformation()))
-                        .forEach(e -> e.apply(processConsumer.getIdProcess(), pt.getParameterTransformation(), jsonValue, value));
-            }
+        if (jsonValue != null) {
+            apply(jsonValue, value, steps);
             return jsonValue.toString();
         } else {
             return value;
         }
     }
 
+    /**
+     * Applies the transformations in place on an already parsed event.
+     */
+    public ObjectNode apply(ObjectNode jsonValue, ProcessConsumer processConsumer) {
+        apply(jsonValue, null, plans.getUnchecked(processConsumer));
+        return jsonValue;
+    }
+
+    private void apply(ObjectNode jsonValue, String value, TransformationStep[] steps) {
+        for (TransformationStep step : steps) {
+            step.apply(jsonValue, value);
+        }
+    }
+
 }
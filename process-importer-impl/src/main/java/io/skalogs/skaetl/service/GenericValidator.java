@@ -2,10 +2,14 @@ package io.skalogs.skaetl.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import io.prometheus.client.Counter;
 import io.skalogs.skaetl.domain.*;
 import io.skalogs.skaetl.service.validate.*;
+import io.skalogs.skaetl.utils.DateUtils;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.stereotype.Component;
@@ -15,10 +19,11 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import static io.skalogs.skaetl.service.UtilsValidateData.createValidateData;
-import static java.util.stream.Collectors.toList;
 
 @Component
 @Slf4j
@@ -30,17 +35,49 @@ public class GenericValidator {
             .help("nb message not json.")
             .register();
 
-    private final ISO8601DateFormat dateFormat = new ISO8601DateFormat();
+    private static final ValidationStep[] NO_STEPS = new ValidationStep[0];
+
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private List<ValidatorProcess> listValidator = new ArrayList<>();
+    private final Map<TypeValidation, ValidatorProcess> validators = new EnumMap<>(TypeValidation.class);
+    // keyed by identity, a new definition is compiled each time a process is (re)activated
+    private final LoadingCache<ProcessConsumer, ValidationPlan> plans = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(this::compile));
 
     @PostConstruct
     public void init() {
-        listValidator.add(new BlackListValidator(TypeValidation.BLACK_LIST_FIELD));
-        listValidator.add(new MandatoryFieldValidator(TypeValidation.MANDATORY_FIELD));
-        listValidator.add(new MaxFieldValidator(TypeValidation.MAX_FIELD));
-        listValidator.add(new MaxMessageSizeValidator(TypeValidation.MAX_MESSAGE_SIZE));
-        listValidator.add(new FieldExistValidator(TypeValidation.FIELD_EXIST));
+        register(new BlackListValidator(TypeValidation.BLACK_LIST_FIELD));
+        register(new MandatoryFieldValidator(TypeValidation.MANDATORY_FIELD));
+        register(new MaxFieldValidator(TypeValidation.MAX_FIELD));
+        register(new MaxMessageSizeValidator(TypeValidation.MAX_MESSAGE_SIZE));
+        register(new FieldExistValidator(TypeValidation.FIELD_EXIST));
+    }
+
+    private void register(ValidatorProcess validatorProcess) {
+        validators.put(validatorProcess.getType(), validatorProcess);
+    }
+
+    private ValidationPlan compile(ProcessConsumer processConsumer) {
+        List<ProcessValidation> processValidations = processConsumer.getProcessValidation();
+        if (processValidations == null || processValidations.isEmpty()) {
+            return new ValidationPlan(NO_STEPS, false);
+        }
+        List<ValidationStep> steps = new ArrayList<>(processValidations.size());
+        boolean needRawValue = false;
+        for (ProcessValidation pv : processValidations) {
+            ValidatorProcess validatorProcess = validators.get(pv.getTypeValidation());
+            if (validatorProcess == null) {
+                log.warn("No validator for {} in process {}", pv.getTypeValidation(), processConsumer.getIdProcess());
+            } else {
+                steps.add(validatorProcess.bind(pv));
+                needRawValue |= pv.getTypeValidation() == TypeValidation.MAX_MESSAGE_SIZE;
+            }
+        }
+        return new ValidationPlan(steps.toArray(NO_STEPS), needRawValue);
+    }
+
+    public void prepare(ProcessConsumer processConsumer) {
+        plans.getUnchecked(processConsumer);
     }
 
     public JsonNode createJsonObject(String value) {
@@ -82,9 +119,9 @@ public class GenericValidator {
         Date timestamp;
         try {
             if (StringUtils.isBlank(timestampAsString)) {
-                timestamp = dateFormat.parse(timestampAnnotedAsString);
+                timestamp = DateUtils.parseISO8601(timestampAnnotedAsString);
             } else {
-                timestamp = dateFormat.parse(timestampAsString);
+                timestamp = DateUtils.parseISO8601(timestampAsString);
             }
 
         } catch (ParseException e) {
@@ -94,16 +131,44 @@ public class GenericValidator {
     }
 
     public ValidateData process(String value, ProcessConsumer processConsumer) {
-        JsonNode jsonValue = createJsonObject(value);
+        return process(value, createJsonObject(value), processConsumer);
+    }
+
+    /**
+     * Validates an already parsed event. The raw String form is only rendered when a validator needs it
+     * or when the event is rejected and has to be routed to the error topic.
+     */
+    public ValidateData process(JsonNode jsonValue, ProcessConsumer processConsumer) {
+        ValidationPlan plan = plans.getUnchecked(processConsumer);
+        String value = plan.needRawValue ? jsonValue.toString() : null;
+        ValidateData validateData = process(value, jsonValue, plan);
+        if (!validateData.success && validateData.value == null) {
+            validateData.value = jsonValue.toString();
+        }
+        return validateData;
+    }
+
+    private ValidateData process(String value, JsonNode jsonValue, ProcessConsumer processConsumer) {
+        return process(value, jsonValue, plans.getUnchecked(processConsumer));
+    }
 
+    private ValidateData process(String value, JsonNode jsonValue, ValidationPlan plan) {
         ValidateData validateMandatory = mandatoryImporter(value, jsonValue);
         if (!validateMandatory.success) {
             return createValidateData(false, validateMandatory.statusCode, validateMandatory.errorList, TypeValidation.MANDATORY_FIELD, value);
         }
-        List<ValidateData> result = treat(value, jsonValue, processConsumer);
-        List<ValidateData> listNotSuccess = result.stream().filter(e -> !e.success).collect(toList());
-        if (!listNotSuccess.isEmpty()) {
-            return createValidateData(false, validateMandatory.statusCode, listNotSuccess.stream().map(e -> e.getStatusCode()).collect(toList()), TypeValidation.MANDATORY_FIELD, value);
+        List<StatusCode> errors = null;
+        for (ValidationStep step : plan.steps) {
+            ValidateData validateData = step.process(jsonValue, value);
+            if (!validateData.success) {
+                if (errors == null) {
+                    errors = new ArrayList<>();
+                }
+                errors.add(validateData.getStatusCode());
+            }
+        }
+        if (errors != null) {
+            return createValidateData(false, validateMandatory.statusCode, errors, TypeValidation.MANDATORY_FIELD, value);
         }
         return ValidateData.builder()
                 .success(true)
@@ -116,17 +181,20 @@ public class GenericValidator {
     }
 
     public List<ValidateData> treat(String value, JsonNode jsonValue, ProcessConsumer processConsumer) {
-        List<ValidateData> result = new ArrayList<>();
-        if (processConsumer.getProcessValidation() != null && !processConsumer.getProcessValidation().isEmpty()) {
-            for (ProcessValidation pv : processConsumer.getProcessValidation()) {
-                listValidator.stream()
-                        .filter(e -> e.type(pv.getTypeValidation()))
-                        .forEach(e -> result.add(e.process(pv, jsonValue, value)));
-            }
+        ValidationStep[] steps = plans.getUnchecked(processConsumer).steps;
+        List<ValidateData> result = new ArrayList<>(steps.length);
+        for (ValidationStep step : steps) {
+            result.add(step.process(jsonValue, value));
         }
         return result;
     }
 
+    @AllArgsConstructor
+    private static class ValidationPlan {
+        private final ValidationStep[] steps;
+        // MAX_MESSAGE_SIZE measures the raw event
+        private final boolean needRawValue;
+    }
 
 }
 
@@ -1,13 +1,12 @@
 package io.skalogs.skaetl.service.parser;
 
-import io.skalogs.skaetl.domain.GrokResult;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.skalogs.skaetl.domain.ParserResult;
 import io.skalogs.skaetl.domain.ProcessParser;
 import io.skalogs.skaetl.service.GrokService;
 import io.skalogs.skaetl.service.ParserProcess;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.StringUtils;
 import org.springframework.stereotype.Component;
 
 
@@ -20,13 +19,13 @@ public class GrokParser implements ParserProcess {
 
     @Override
     public ParserResult process(String value, ProcessParser processParser) {
-        GrokResult result = grokService.parseGrok(value, processParser.getGrokPattern());
-        if (StringUtils.isBlank(result.value)) {
-            return ParserResult.builder().failParse(true).messageFailParse(result.messageError).build();
-        } else {
-            return ParserResult.builder().result(result.value).build();
+        try {
+            ObjectNode result = grokService.capture(value, processParser.getGrokPattern());
+            return ParserResult.builder().jsonResult(result).build();
+        } catch (Exception e) {
+            log.debug("Grok pattern {} failed for value {}", processParser.getGrokPattern(), value, e);
+            return ParserResult.builder().failParse(true).messageFailParse("GrokException pattern " + processParser.getGrokPattern() + " message " + e.getMessage()).build();
         }
-
     }
 
 }
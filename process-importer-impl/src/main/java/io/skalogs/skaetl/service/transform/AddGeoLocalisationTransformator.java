@@ -1,91 +1,216 @@
 package io.skalogs.skaetl.service.transform;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.net.InetAddresses;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.maxmind.db.CHMCache;
+import com.maxmind.db.Reader;
 import com.maxmind.geoip2.DatabaseReader;
 import com.maxmind.geoip2.exception.AddressNotFoundException;
 import com.maxmind.geoip2.model.CityResponse;
-import com.maxmind.geoip2.record.*;
+import com.maxmind.geoip2.record.Location;
+import io.skalogs.skaetl.config.GeoIPConfiguration;
 import io.skalogs.skaetl.domain.ParameterTransformation;
 import io.skalogs.skaetl.domain.TypeValidation;
+import io.skalogs.skaetl.service.TransformationStep;
 import io.skalogs.skaetl.service.TransformatorProcess;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.InetAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class AddGeoLocalisationTransformator extends TransformatorProcess {
 
-    private DatabaseReader reader;
+    private static final String BUNDLED_DATABASE = "/GeoLite2-City.mmdb";
+    private static final GeoFields NOT_FOUND = new GeoFields(null, null, null, null, null, null, null);
+
+    private final String databasePath;
+    private final int cacheSize;
+    private final int reloadCheckSec;
+    private final ScheduledExecutorService reloadExecutor;
+    private volatile GeoDatabase geoDatabase;
+    private long databaseLastModified;
 
     public AddGeoLocalisationTransformator(TypeValidation type) {
+        this(type, new GeoIPConfiguration());
+    }
+
+    public AddGeoLocalisationTransformator(TypeValidation type, GeoIPConfiguration geoIPConfiguration) {
         super(type);
+        this.databasePath = geoIPConfiguration.getDatabasePath();
+        this.cacheSize = geoIPConfiguration.getCacheSize();
+        this.reloadCheckSec = geoIPConfiguration.getReloadCheckSec();
+        this.geoDatabase = open();
+        if (StringUtils.isNotBlank(databasePath)) {
+            this.reloadExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("geoip-reload-%d").build());
+            this.reloadExecutor.scheduleWithFixedDelay(this::reloadIfChanged, reloadCheckSec, reloadCheckSec, TimeUnit.SECONDS);
+        } else {
+            this.reloadExecutor = null;
+        }
+    }
 
-        // TODO: Replace this bullshit code
+    private GeoDatabase open() {
         try {
-            File tmpFile = File.createTempFile("bwx", "dat");
-            tmpFile.deleteOnExit();
-            InputStream is = AddGeoLocalisationTransformator.class.getResourceAsStream("/GeoLite2-City.mmdb");
-            OutputStream os = new FileOutputStream(tmpFile);
-
-            byte[] buffer = new byte[4000];
-            int len;
-            while ((len = is.read(buffer)) != -1) {
-                os.write(buffer, 0, len);
+            DatabaseReader reader;
+            if (StringUtils.isNotBlank(databasePath)) {
+                File database = new File(databasePath);
+                long lastModified = database.lastModified();
+                reader = new DatabaseReader.Builder(database).fileMode(Reader.FileMode.MEMORY_MAPPED).withCache(new CHMCache()).build();
+                // only once it could be read: a file caught half written is tried again at the next check
+                databaseLastModified = lastModified;
+            } else {
+                try (InputStream is = AddGeoLocalisationTransformator.class.getResourceAsStream(BUNDLED_DATABASE)) {
+                    reader = new DatabaseReader.Builder(is).withCache(new CHMCache()).build();
+                }
             }
-
-            is.close();
-            os.close();
-
-            reader = new DatabaseReader.Builder(tmpFile).withCache(new CHMCache()).build();
+            log.info("GeoIP database {} opened", databaseName());
+            return new GeoDatabase(reader, CacheBuilder.newBuilder().maximumSize(cacheSize).build());
         } catch (Exception ex) {
-            ex.printStackTrace();
+            log.error("Can't open GeoIP database {}", databaseName(), ex);
+            return null;
         }
     }
 
-    public void apply(String idProcess, ParameterTransformation parameterTransformation, ObjectNode jsonValue, String value) {
+    private String databaseName() {
+        return StringUtils.isNotBlank(databasePath) ? databasePath : BUNDLED_DATABASE;
+    }
 
-        String key = parameterTransformation.getKeyField();
-        String ipToResolve = jsonValue.path(parameterTransformation.getKeyField()).asText();
+    private void reloadIfChanged() {
+        if (new File(databasePath).lastModified() == databaseLastModified) {
+            return;
+        }
+        GeoDatabase newDatabase = open();
+        if (newDatabase != null) {
+            GeoDatabase oldDatabase = geoDatabase;
+            geoDatabase = newDatabase;
+            if (oldDatabase != null) {
+                // lookups that read the previous reference may still be running, it is closed one check period later
+                reloadExecutor.schedule(() -> close(oldDatabase), reloadCheckSec, TimeUnit.SECONDS);
+            }
+        }
+    }
 
-        log.debug("Start to localise IP address [{}]", ipToResolve);
+    private void close(GeoDatabase database) {
+        try {
+            database.reader.close();
+        } catch (IOException ex) {
+            log.error("Can't close previous GeoIP database", ex);
+        }
+    }
+
+    public void apply(String idProcess, ParameterTransformation parameterTransformation, ObjectNode jsonValue, String value) {
+        localise(new FieldNames(parameterTransformation.getKeyField()), jsonValue);
+    }
 
-        if (StringUtils.isNotBlank(ipToResolve)) {
+    @Override
+    public TransformationStep bind(String idProcess, ParameterTransformation parameterTransformation) {
+        FieldNames fieldNames = new FieldNames(parameterTransformation.getKeyField());
+        return (jsonValue, value) -> localise(fieldNames, jsonValue);
+    }
 
-            try {
+    private void localise(FieldNames fieldNames, ObjectNode jsonValue) {
+        String ipToResolve = jsonValue.path(fieldNames.key).asText();
+        GeoDatabase database = geoDatabase;
+        if (database == null || StringUtils.isBlank(ipToResolve)) {
+            return;
+        }
+        GeoFields geoFields = database.cache.getIfPresent(ipToResolve);
+        if (geoFields == null) {
+            geoFields = resolve(database.reader, ipToResolve);
+            if (geoFields == null) {
+                return;
+            }
+            database.cache.put(ipToResolve, geoFields);
+        }
+        if (geoFields == NOT_FOUND) {
+            return;
+        }
+        jsonValue.
+                put(fieldNames.countryName, geoFields.countryName).
+                put(fieldNames.countryIsocode, geoFields.countryIsocode).
+                put(fieldNames.subdivisionName, geoFields.subdivisionName).
+                put(fieldNames.subdivisionIsocode, geoFields.subdivisionIsocode).
+                put(fieldNames.cityName, geoFields.cityName).
+                put(fieldNames.cityPostalcode, geoFields.cityPostalcode);
+        if (geoFields.locationGp != null) {
+            jsonValue.put(fieldNames.locationGp, geoFields.locationGp);
+        }
+    }
 
-                InetAddress ipAddress = InetAddress.getByName(ipToResolve);
+    private GeoFields resolve(DatabaseReader reader, String ipToResolve) {
+        InetAddress ipAddress;
+        try {
+            // literal only, never goes through the resolver
+            ipAddress = InetAddresses.forString(ipToResolve);
+        } catch (IllegalArgumentException ex) {
+            log.debug("Not an IP address [{}]", ipToResolve);
+            return NOT_FOUND;
+        }
+        try {
+            CityResponse response = reader.city(ipAddress);
+            Location location = response.getLocation();
+            return new GeoFields(
+                    response.getCountry().getName(),
+                    response.getCountry().getIsoCode(),
+                    response.getMostSpecificSubdivision().getName(),
+                    response.getMostSpecificSubdivision().getIsoCode(),
+                    response.getCity().getName(),
+                    response.getPostal().getCode(),
+                    location.getLatitude() != null && location.getLongitude() != null ? location.getLatitude() + "," + location.getLongitude() : null);
+        } catch (AddressNotFoundException ex) {
+            return NOT_FOUND;
+        } catch (Exception ex) {
+            log.error("Exception during Geo IP Transformation of {}", ipToResolve, ex);
+            return null;
+        }
+    }
 
-                CityResponse response = reader.city(ipAddress);
-                Country country = response.getCountry();
-                Subdivision subdivision = response.getMostSpecificSubdivision();
-                City city = response.getCity();
-                Postal postal = response.getPostal();
-                Location location = response.getLocation();
+    @AllArgsConstructor
+    private static class GeoDatabase {
+        private final DatabaseReader reader;
+        private final Cache<String, GeoFields> cache;
+    }
 
-                jsonValue.
-                        put(key + "_country_name", country.getName()).
-                        put(key + "_country_isocode", country.getIsoCode()).
-                        put(key + "_city_name", response.getCity().getName()).
-                        put(key + "_subdivision_name", subdivision.getName()).
-                        put(key + "_subdivision_isocode", subdivision.getIsoCode()).
-                        put(key + "_city_name", city.getName()).
-                        put(key + "_city_postalcode", postal.getCode()).
-                        put(key + "_location_gp", location.getLatitude().toString() + "," + location.getLongitude().toString());
+    @AllArgsConstructor
+    private static class GeoFields {
+        private final String countryName;
+        private final String countryIsocode;
+        private final String subdivisionName;
+        private final String subdivisionIsocode;
+        private final String cityName;
+        private final String cityPostalcode;
+        private final String locationGp;
+    }
 
-            } catch (AddressNotFoundException ex) {
-                //
-            } catch (Exception ex) {
-                log.error("Exception during Geo IP Transformation");
-                ex.printStackTrace();
-            }
+    private static class FieldNames {
+        private final String key;
+        private final String countryName;
+        private final String countryIsocode;
+        private final String subdivisionName;
+        private final String subdivisionIsocode;
+        private final String cityName;
+        private final String cityPostalcode;
+        private final String locationGp;
+
+        private FieldNames(String key) {
+            this.key = key;
+            this.countryName = key + "_country_name";
+            this.countryIsocode = key + "_country_isocode";
+            this.subdivisionName = key + "_subdivision_name";
+            this.subdivisionIsocode = key + "_subdivision_isocode";
+            this.cityName = key + "_city_name";
+            this.cityPostalcode = key + "_city_postalcode";
+            this.locationGp = key + "_location_gp";
         }
-
-        log.debug("End to localise IP address [{}]", ipToResolve);
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,27 @@
 package io.skalogs.skaetl.service.transform;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.skalogs.skaetl.domain.FormatDateValue;
 import io.skalogs.skaetl.domain.ParameterTransformation;
 import io.skalogs.skaetl.domain.TypeValidation;
+import io.skalogs.skaetl.service.TransformationStep;
 import io.skalogs.skaetl.service.TransformatorProcess;
+import io.skalogs.skaetl.utils.DateUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.HashSet;
+import java.util.Set;
 
 @Slf4j
 public class FormatDateTransformator extends TransformatorProcess {
@@ -19,17 +31,155 @@ public class FormatDateTransformator extends TransformatorProcess {
     }
 
     public void apply(String idProcess, ParameterTransformation parameterTransformation, ObjectNode jsonValue, String value) {
-        String valueToFormat = jsonValue.path(parameterTransformation.getFormatDateValue().getKeyField()).asText();
-        if (StringUtils.isNotBlank(valueToFormat)) {
+        bind(idProcess, parameterTransformation).apply(jsonValue, value);
+    }
+
+    @Override
+    public TransformationStep bind(String idProcess, ParameterTransformation parameterTransformation) {
+        FormatDateValue formatDateValue = parameterTransformation.getFormatDateValue();
+        if (StringUtils.isBlank(formatDateValue.getSrcFormat()) || StringUtils.isBlank(formatDateValue.getTargetFormat())) {
+            log.error("Missing date format in {}", formatDateValue);
+            return (jsonValue, value) -> {
+            };
+        }
+        ThreadLocal<SimpleDateFormat> legacySource = ThreadLocal.withInitial(() -> new SimpleDateFormat(formatDateValue.getSrcFormat()));
+        ThreadLocal<SimpleDateFormat> legacyTarget = ThreadLocal.withInitial(() -> new SimpleDateFormat(formatDateValue.getTargetFormat()));
+        try {
+            legacySource.get();
+            legacyTarget.get();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid date format in {}: {}", formatDateValue, e.getMessage());
+            return (jsonValue, value) -> {
+            };
+        }
+        if (!sameInBothApis(formatDateValue.getSrcFormat(), true) || !sameInBothApis(formatDateValue.getTargetFormat(), false)) {
+            return new FormatDateStep(formatDateValue, null, null, legacySource, legacyTarget);
+        }
+        try {
+            // lenient like SimpleDateFormat: 2018-02-30 is March 2nd, not the last day of February
+            DateTimeFormatter source = DateUtils.formatter(formatDateValue.getSrcFormat()).withResolverStyle(ResolverStyle.LENIENT);
+            DateTimeFormatter target = DateUtils.formatter(formatDateValue.getTargetFormat());
+            return new FormatDateStep(formatDateValue, source, target, legacySource, legacyTarget);
+        } catch (IllegalArgumentException e) {
+            log.info("Date format {} only handled by SimpleDateFormat: {}", formatDateValue, e.getMessage());
+            return new FormatDateStep(formatDateValue, null, null, legacySource, legacyTarget);
+        }
+    }
+
+    /**
+     * java.time is only used when every letter of the pattern means the same thing for SimpleDateFormat, so the choice
+     * never changes a result: 'u', 'Y', 'w', 'z', 'yy' (pivot year), 'S' other than milliseconds... stay on SimpleDateFormat.
+     * A source pattern must also name a full date, and an am/pm marker for a 12 hour clock, to resolve to an instant.
+     */
+    private static boolean sameInBothApis(String pattern, boolean source) {
+        Set<Character> letters = new HashSet<>();
+        boolean quoted = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                i++;
+                continue;
+            }
+            if (quoted || !((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                i++;
+                continue;
+            }
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                count++;
+            }
+            if (!sameInBothApis(c, count)) {
+                return false;
+            }
+            letters.add(c);
+            i += count;
+        }
+        if (!source) {
+            return true;
+        }
+        boolean halfDayClock = letters.contains('h') || letters.contains('K');
+        return letters.contains('y') && letters.contains('M') && letters.contains('d') && (!halfDayClock || letters.contains('a'));
+    }
+
+    private static boolean sameInBothApis(char letter, int count) {
+        switch (letter) {
+            case 'y':
+                return count == 4;
+            case 'S':
+                return count == 3;
+            case 'M':
+            case 'E':
+                return count <= 4;
+            case 'Z':
+            case 'X':
+                return count <= 3;
+            case 'd':
+            case 'D':
+            case 'H':
+            case 'h':
+            case 'k':
+            case 'K':
+            case 'm':
+            case 's':
+            case 'a':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Patterns that mean the same in both APIs are read with java.time. Values it reads more strictly than
+     * SimpleDateFormat (single digit fields, trailing text...) are read by SimpleDateFormat, with the same result.
+     * The other patterns only go through SimpleDateFormat.
+     */
+    private static class FormatDateStep implements TransformationStep {
+        private final FormatDateValue formatDateValue;
+        private final DateTimeFormatter source;
+        private final DateTimeFormatter target;
+        private final ThreadLocal<SimpleDateFormat> legacySource;
+        private final ThreadLocal<SimpleDateFormat> legacyTarget;
+
+        private FormatDateStep(FormatDateValue formatDateValue, DateTimeFormatter source, DateTimeFormatter target, ThreadLocal<SimpleDateFormat> legacySource, ThreadLocal<SimpleDateFormat> legacyTarget) {
+            this.formatDateValue = formatDateValue;
+            this.source = source;
+            this.target = target;
+            this.legacySource = legacySource;
+            this.legacyTarget = legacyTarget;
+        }
+
+        @Override
+        public void apply(ObjectNode jsonValue, String value) {
+            String valueToFormat = jsonValue.path(formatDateValue.getKeyField()).asText();
+            if (StringUtils.isBlank(valueToFormat)) {
+                return;
+            }
+            if (source != null) {
+                try {
+                    jsonValue.put(formatDateValue.getKeyField(), target.format(toZonedDateTime(source.parseBest(valueToFormat, ZonedDateTime::from, LocalDateTime::from, LocalDate::from))));
+                    return;
+                } catch (DateTimeException e) {
+                    log.debug("java.time can't read {} with {}, trying SimpleDateFormat", valueToFormat, formatDateValue);
+                }
+            }
             try {
-                SimpleDateFormat simpleDateFormatSource = new SimpleDateFormat(parameterTransformation.getFormatDateValue().getSrcFormat());
-                Date date = simpleDateFormatSource.parse(valueToFormat);
-                SimpleDateFormat simpleDateFormatTarget = new SimpleDateFormat(parameterTransformation.getFormatDateValue().getTargetFormat());
-                String result = simpleDateFormatTarget.format(date);
-                jsonValue.put(parameterTransformation.getFormatDateValue().getKeyField(), result);
+                jsonValue.put(formatDateValue.getKeyField(), legacyTarget.get().format(legacySource.get().parse(valueToFormat)));
             } catch (ParseException e) {
-                log.error("ParseException on field {} for value {}", parameterTransformation.getFormatDateValue(), value);
+                log.error("ParseException on field {} for value {}", formatDateValue, valueToFormat);
+            }
+        }
+
+        // written in the system zone like SimpleDateFormat does, values without zone or time are read in it too
+        private static ZonedDateTime toZonedDateTime(TemporalAccessor temporalAccessor) {
+            if (temporalAccessor instanceof ZonedDateTime) {
+                return ((ZonedDateTime) temporalAccessor).withZoneSameInstant(ZoneId.systemDefault());
+            }
+            if (temporalAccessor instanceof LocalDateTime) {
+                return ((LocalDateTime) temporalAccessor).atZone(ZoneId.systemDefault());
             }
+            return ((LocalDate) temporalAccessor).atStartOfDay(ZoneId.systemDefault());
         }
     }
 }
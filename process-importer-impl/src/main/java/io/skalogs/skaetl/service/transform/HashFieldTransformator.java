@@ -1,40 +1,203 @@
 package io.skalogs.skaetl.service.transform;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
+import io.skalogs.skaetl.config.HashConfiguration;
 import io.skalogs.skaetl.domain.ParameterTransformation;
+import io.skalogs.skaetl.domain.ProcessHashData;
 import io.skalogs.skaetl.domain.TypeValidation;
+import io.skalogs.skaetl.service.TransformationStep;
 import io.skalogs.skaetl.service.TransformatorProcess;
-import lombok.extern.slf4j.Slf4j;
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
 import org.apache.commons.lang.StringUtils;
 
-@Slf4j
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
 public class HashFieldTransformator extends TransformatorProcess {
 
-    public HashFieldTransformator(TypeValidation type) {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final HashConfiguration hashConfiguration;
+
+    public HashFieldTransformator(TypeValidation type, HashConfiguration hashConfiguration) {
         super(type);
+        this.hashConfiguration = hashConfiguration;
     }
 
     public void apply(String idProcess, ParameterTransformation parameterTransformation, ObjectNode jsonValue, String value) {
-        if(jsonValue.has(parameterTransformation.getProcessHashData().getField()) &&
-                StringUtils.isNotBlank(jsonValue.path(parameterTransformation.getProcessHashData().getField()).asText())){
-            switch (parameterTransformation.getProcessHashData().getTypeHash()){
-                case SHA256:
-                    HashFunction m_hash256 = Hashing.sha256();
-                    String valueHash256 = m_hash256.hashBytes(jsonValue.path(parameterTransformation.getProcessHashData().getField()).asText().getBytes()).toString();
-                    jsonValue.put(parameterTransformation.getProcessHashData().getField(),valueHash256);
-                    break;
-                case MURMUR3:
-                    HashFunction m_hashMurmur3 = Hashing.murmur3_128();
-                    String valueHashMurmur3 = m_hashMurmur3.hashBytes(jsonValue.path(parameterTransformation.getProcessHashData().getField()).asText().getBytes()).toString();
-                    jsonValue.put(parameterTransformation.getProcessHashData().getField(),valueHashMurmur3);
-                    break;
-                default:
-                    log.error("Type Hash not manage {}",parameterTransformation.getProcessHashData().getTypeHash());
-                    break;
-
-            }
-        }
-    }
-}
\ No newline at end of file
+        bind(idProcess, parameterTransformation).apply(jsonValue, value);
+    }
+
+    /**
+     * Fails on an incomplete definition rather than letting the fields through in clear.
+     */
+    @Override
+    public TransformationStep bind(String idProcess, ParameterTransformation parameterTransformation) {
+        ProcessHashData processHashData = parameterTransformation.getProcessHashData();
+        String[] fields = Arrays.stream(StringUtils.split(StringUtils.defaultString(processHashData.getField()), ','))
+                .map(String::trim)
+                .filter(StringUtils::isNotEmpty)
+                .toArray(String[]::new);
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("No field to hash in process " + idProcess);
+        }
+        Supplier<ByteHasher> hasherFactory = hasherFactory(idProcess, processHashData);
+        // digests and macs are stateful, each stream thread gets its own along with its encoding buffers
+        ThreadLocal<HashContext> context = ThreadLocal.withInitial(() -> new HashContext(hasherFactory.get()));
+        return (jsonValue, value) -> hash(fields, context.get(), jsonValue);
+    }
+
+    private void hash(String[] fields, HashContext context, ObjectNode jsonValue) {
+        for (String field : fields) {
+            JsonNode node = jsonValue.get(field);
+            if (node == null) {
+                continue;
+            }
+            String valueToHash = node.asText();
+            if (StringUtils.isNotBlank(valueToHash)) {
+                jsonValue.put(field, context.hasher.hash(context, context.encode(valueToHash)));
+            }
+        }
+    }
+
+    private Supplier<ByteHasher> hasherFactory(String idProcess, ProcessHashData processHashData) {
+        if (processHashData.getTypeHash() == null) {
+            throw new IllegalArgumentException("Missing type hash in process " + idProcess);
+        }
+        switch (processHashData.getTypeHash()) {
+            case MURMUR3:
+                HashFunction murmur3 = Hashing.murmur3_128();
+                return () -> (context, length) -> murmur3.hashBytes(context.bytes, 0, length).toString();
+            case XXHASH64:
+                XXHash64 xxHash64 = XXHashFactory.fastestInstance().hash64();
+                return () -> (context, length) -> context.hex(xxHash64.hash(context.bytes, 0, length, 0L));
+            case SHA256:
+                return () -> digest("SHA-256");
+            case SHA1:
+                return () -> digest("SHA-1");
+            case HMAC_SHA256:
+                String key = StringUtils.isEmpty(processHashData.getKeyName()) ? null : hashConfiguration.getHmacKeys().get(processHashData.getKeyName());
+                if (StringUtils.isEmpty(key)) {
+                    throw new IllegalArgumentException("No HMAC key configured as hash.hmacKeys." + StringUtils.defaultString(processHashData.getKeyName()) + " for process " + idProcess);
+                }
+                SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+                return () -> hmac(secretKey);
+            default:
+                throw new IllegalArgumentException("Type hash " + processHashData.getTypeHash() + " not managed in process " + idProcess);
+        }
+    }
+
+    private static ByteHasher digest(String algorithm) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(algorithm);
+        } catch (GeneralSecurityException e) {
+            // part of the algorithms every JRE must provide
+            throw new IllegalStateException(e);
+        }
+        byte[] digest = new byte[messageDigest.getDigestLength()];
+        return (context, length) -> {
+            try {
+                messageDigest.update(context.bytes, 0, length);
+                return context.hex(digest, messageDigest.digest(digest, 0, digest.length));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static ByteHasher hmac(SecretKeySpec secretKey) {
+        Mac mac;
+        try {
+            mac = Mac.getInstance(secretKey.getAlgorithm());
+            mac.init(secretKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] digest = new byte[mac.getMacLength()];
+        return (context, length) -> {
+            try {
+                mac.update(context.bytes, 0, length);
+                mac.doFinal(digest, 0);
+                return context.hex(digest, digest.length);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface ByteHasher {
+        // hash of the first length bytes of context.bytes, as lower case hex
+        String hash(HashContext context, int length);
+    }
+
+    private static class HashContext {
+        private final ByteHasher hasher;
+        private byte[] bytes = new byte[256];
+        private char[] chars = new char[64];
+
+        private HashContext(ByteHasher hasher) {
+            this.hasher = hasher;
+        }
+
+        // UTF-8 encoding into the reusable buffer, lone surrogates become '?' like String.getBytes
+        private int encode(String value) {
+            int length = value.length();
+            if (bytes.length < length * 3) {
+                bytes = new byte[length * 3];
+            }
+            int pos = 0;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[pos++] = (byte) (0xC0 | (c >> 6));
+                    bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[pos++] = '?';
+                } else {
+                    bytes[pos++] = (byte) (0xE0 | (c >> 12));
+                    bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return pos;
+        }
+
+        private String hex(byte[] digest, int length) {
+            if (chars.length < length * 2) {
+                chars = new char[length * 2];
+            }
+            for (int i = 0; i < length; i++) {
+                chars[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                chars[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(chars, 0, length * 2);
+        }
+
+        private String hex(long hash) {
+            for (int i = 15; i >= 0; i--) {
+                chars[i] = HEX[(int) (hash & 0xF)];
+                hash >>>= 4;
+            }
+            return new String(chars, 0, 16);
+        }
+    }
+}
@@ -1,17 +1,13 @@
 package io.skalogs.skaetl.service.transform;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.skalogs.skaetl.domain.ParameterTransformation;
 import io.skalogs.skaetl.domain.TypeValidation;
 import io.skalogs.skaetl.domain.WorkerHTTPService;
 import io.skalogs.skaetl.service.ExternalHTTPService;
+import io.skalogs.skaetl.service.TransformationStep;
 import io.skalogs.skaetl.service.TransformatorProcess;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.StringUtils;
-
-import java.util.Iterator;
-import java.util.Map;
 
 @Slf4j
 public class LookupHTTPServiceTransformator extends TransformatorProcess {
@@ -24,33 +20,21 @@ public class LookupHTTPServiceTransformator extends TransformatorProcess {
     }
 
     public void apply(String idProcess, ParameterTransformation parameterTransformation, ObjectNode jsonValue, String value) {
-        WorkerHTTPService workerHTTPService = externalHTTPService.getMapExternalService().get(idProcess);
+        WorkerHTTPService workerHTTPService = externalHTTPService.getWorker(idProcess, parameterTransformation.getExternalHTTPData());
         if (workerHTTPService != null) {
-            String key = parameterTransformation.getKeyField();
-            if (StringUtils.isNotBlank(key)) {
-                if (jsonValue.has(key)) {
-                    String oldValue = jsonValue.path(key).asText();
-                    workerHTTPService.getMapResult().entrySet().stream()
-                            .filter(entry -> entry.getKey().equals(oldValue))
-                            .forEach(entry -> jsonValue.put(key, entry.getValue()));
-                }
-            } else {
-                //All Keys
-                workerHTTPService.getMapResult().entrySet().stream()
-                        .forEach(entry -> applyMap(jsonValue, entry.getKey(), entry.getValue()));
-            }
+            LookupListTransformator.lookup(jsonValue, parameterTransformation.getKeyField(), workerHTTPService.getMapResult());
         }
     }
 
-    private void applyMap(ObjectNode jsonValue, String oldValue, String newValue) {
-        for (Iterator<Map.Entry<String, JsonNode>> it = jsonValue.fields(); it.hasNext(); ) {
-            Map.Entry<String, JsonNode> entry = it.next();
-            if (entry.getValue() != null && entry.getValue().asText().equals(oldValue)) {
-                //update
-                jsonValue.put(entry.getKey(), newValue);
-            }
+    @Override
+    public TransformationStep bind(String idProcess, ParameterTransformation parameterTransformation) {
+        WorkerHTTPService workerHTTPService = externalHTTPService.getWorker(idProcess, parameterTransformation.getExternalHTTPData());
+        if (workerHTTPService == null) {
+            // cache not built yet, resolved on each event
+            return super.bind(idProcess, parameterTransformation);
         }
+        String key = parameterTransformation.getKeyField();
+        return (jsonValue, value) -> LookupListTransformator.lookup(jsonValue, key, workerHTTPService.getMapResult());
     }
 
-
-}
\ No newline at end of file
+}
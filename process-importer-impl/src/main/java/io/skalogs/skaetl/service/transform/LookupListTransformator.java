@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.skalogs.skaetl.domain.ParameterTransformation;
 import io.skalogs.skaetl.domain.TypeValidation;
+import io.skalogs.skaetl.service.TransformationStep;
 import io.skalogs.skaetl.service.TransformatorProcess;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
@@ -19,28 +20,44 @@ public class LookupListTransformator extends TransformatorProcess {
     }
 
     public void apply(String idProcess, ParameterTransformation parameterTransformation, ObjectNode jsonValue, String value) {
+        lookup(jsonValue, parameterTransformation.getKeyField(), parameterTransformation.getMapLookup());
+    }
+
+    @Override
+    public TransformationStep bind(String idProcess, ParameterTransformation parameterTransformation) {
         String key = parameterTransformation.getKeyField();
+        Map<String, String> mapLookup = parameterTransformation.getMapLookup();
+        return (jsonValue, value) -> lookup(jsonValue, key, mapLookup);
+    }
+
+    /**
+     * Replaces the value of the key field, or of every field when no key is given, by its entry in the lookup map.
+     * The map is indexed by the value to replace so the cost only depends on the number of fields.
+     */
+    static void lookup(ObjectNode jsonValue, String key, Map<String, String> mapLookup) {
+        if (mapLookup == null || mapLookup.isEmpty()) {
+            return;
+        }
         if (StringUtils.isNotBlank(key)) {
-            if (jsonValue.has(key)) {
-                String oldValue = jsonValue.path(key).asText();
-                parameterTransformation.getMapLookup().entrySet().stream()
-                        .filter(entry -> entry.getKey().equals(oldValue))
-                        .forEach(entry -> jsonValue.put(key, entry.getValue()));
+            JsonNode oldValue = jsonValue.get(key);
+            if (oldValue != null) {
+                String newValue = mapLookup.get(oldValue.asText());
+                if (newValue != null) {
+                    jsonValue.put(key, newValue);
+                }
             }
         } else {
             //All Keys
-            parameterTransformation.getMapLookup().entrySet().stream()
-                    .forEach(entry -> applyMap(jsonValue, entry.getKey(), entry.getValue()));
-        }
-    }
-
-    private void applyMap(ObjectNode jsonValue, String oldValue, String newValue) {
-        for (Iterator<Map.Entry<String, JsonNode>> it = jsonValue.fields(); it.hasNext(); ) {
-            Map.Entry<String, JsonNode> entry = it.next();
-            if (entry.getValue() != null && entry.getValue().asText().equals(oldValue)) {
-                //update
-                jsonValue.put(entry.getKey(), newValue);
+            for (Iterator<Map.Entry<String, JsonNode>> it = jsonValue.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> entry = it.next();
+                if (entry.getValue() != null) {
+                    String newValue = mapLookup.get(entry.getValue().asText());
+                    if (newValue != null) {
+                        //update
+                        jsonValue.put(entry.getKey(), newValue);
+                    }
+                }
             }
         }
     }
-}
\ No newline at end of file
+}
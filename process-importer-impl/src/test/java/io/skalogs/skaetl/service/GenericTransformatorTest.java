@@ -0,0 +1,118 @@
+package io.skalogs.skaetl.service;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.skalogs.skaetl.config.GeoIPConfiguration;
+import io.skalogs.skaetl.config.HashConfiguration;
+import io.skalogs.skaetl.domain.*;
+import io.skalogs.skaetl.service.transform.*;
+import io.skalogs.skaetl.utils.JSONUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenericTransformatorTest {
+
+    private static final String EVENT = "{\"project\":\"skaetl\",\"type\":\"NGINX\",\"duration\":\"12\",\"debug\":\"on\"}";
+
+    private final GenericTransformator genericTransformator = genericTransformator();
+
+    @Test
+    public void planReusedForSameProcess() {
+        ProcessConsumer processConsumer = processConsumer(addField("env", "prod"));
+        assertThat(field(genericTransformator.apply(EVENT, processConsumer), "env")).isEqualTo("prod");
+
+        // the definition is read once, when the plan is built
+        processConsumer.getProcessTransformation().set(0, addField("env", "dev"));
+        assertThat(field(genericTransformator.apply(EVENT, processConsumer), "env")).isEqualTo("prod");
+    }
+
+    @Test
+    public void planRebuiltForNewDefinition() {
+        ProcessConsumer processConsumer = processConsumer(addField("env", "prod"));
+        assertThat(field(genericTransformator.apply(EVENT, processConsumer), "env")).isEqualTo("prod");
+
+        // an updated process comes back as a new ProcessConsumer when it is activated again
+        ProcessConsumer updated = processConsumer.withProcessTransformation(new ArrayList<>(Arrays.asList(addField("env", "dev"))));
+        assertThat(field(genericTransformator.apply(EVENT, updated), "env")).isEqualTo("dev");
+        assertThat(field(genericTransformator.apply(EVENT, processConsumer), "env")).isEqualTo("prod");
+    }
+
+    @Test
+    public void sameOutputAsEachTransformator() {
+        List<ProcessTransformation> transformations = Arrays.asList(
+                addField("env", "prod"),
+                transformation(TypeValidation.LOWER_CASE, "type"),
+                transformation(TypeValidation.FORMAT_LONG, "duration"),
+                transformation(TypeValidation.DELETE_FIELD, "debug"),
+                ProcessTransformation.builder()
+                        .typeTransformation(TypeValidation.RENAME_FIELD)
+                        .parameterTransformation(ParameterTransformation.builder()
+                                .composeField(ProcessKeyValue.builder().key("project").value("@project").build())
+                                .build())
+                        .build());
+        ObjectNode expected = JSONUtils.getInstance().parseObj(EVENT);
+        for (ProcessTransformation processTransformation : transformations) {
+            transformator(processTransformation.getTypeTransformation()).apply("process", processTransformation.getParameterTransformation(), expected, EVENT);
+        }
+
+        ProcessConsumer processConsumer = processConsumer(transformations.toArray(new ProcessTransformation[0]));
+        assertThat(genericTransformator.apply(EVENT, processConsumer)).isEqualTo(expected.toString());
+        assertThat(genericTransformator.apply(JSONUtils.getInstance().parseObj(EVENT), processConsumer)).isEqualTo(expected);
+        assertThat(expected.path("@project").asText()).isEqualTo("skaetl");
+        assertThat(expected.path("duration_long").asLong()).isEqualTo(12);
+    }
+
+    private static GenericTransformator genericTransformator() {
+        GenericTransformator genericTransformator = new GenericTransformator(null, new GeoIPConfiguration(), new HashConfiguration());
+        genericTransformator.init();
+        return genericTransformator;
+    }
+
+    private static TransformatorProcess transformator(TypeValidation type) {
+        switch (type) {
+            case ADD_FIELD:
+                return new AddFieldTransformator(type);
+            case LOWER_CASE:
+                return new LowerCaseTransformator(type);
+            case FORMAT_LONG:
+                return new LongFieldTransformator(type);
+            case DELETE_FIELD:
+                return new DeleteFieldTransformator(type);
+            case RENAME_FIELD:
+                return new RenameFieldTransformator(type);
+            default:
+                throw new IllegalArgumentException(type.name());
+        }
+    }
+
+    private static ProcessConsumer processConsumer(ProcessTransformation... processTransformations) {
+        return ProcessConsumer.builder()
+                .idProcess("process")
+                .processTransformation(new ArrayList<>(Arrays.asList(processTransformations)))
+                .build();
+    }
+
+    private static ProcessTransformation addField(String key, String value) {
+        return ProcessTransformation.builder()
+                .typeTransformation(TypeValidation.ADD_FIELD)
+                .parameterTransformation(ParameterTransformation.builder()
+                        .composeField(ProcessKeyValue.builder().key(key).value(value).build())
+                        .build())
+                .build();
+    }
+
+    private static ProcessTransformation transformation(TypeValidation type, String keyField) {
+        return ProcessTransformation.builder()
+                .typeTransformation(type)
+                .parameterTransformation(ParameterTransformation.builder().keyField(keyField).build())
+                .build();
+    }
+
+    private static String field(String event, String field) {
+        return JSONUtils.getInstance().parse(event).path(field).asText();
+    }
+}
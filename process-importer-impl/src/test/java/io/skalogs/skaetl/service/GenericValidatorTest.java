@@ -0,0 +1,117 @@
+package io.skalogs.skaetl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.skalogs.skaetl.domain.*;
+import io.skalogs.skaetl.service.validate.*;
+import io.skalogs.skaetl.utils.JSONUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenericValidatorTest {
+
+    private static final String EVENT = "{\"project\":\"skaetl\",\"type\":\"nginx\",\"timestamp\":\"2018-01-01T00:00:00Z\",\"duration\":12}";
+
+    private final GenericValidator genericValidator = genericValidator();
+
+    @Test
+    public void planReusedForSameProcess() {
+        ProcessConsumer processConsumer = processConsumer(fieldExist("user"));
+        assertThat(genericValidator.process(EVENT, processConsumer).success).isFalse();
+
+        // the definition is read once, when the plan is built
+        processConsumer.getProcessValidation().set(0, fieldExist("project"));
+        assertThat(genericValidator.process(EVENT, processConsumer).success).isFalse();
+    }
+
+    @Test
+    public void planRebuiltForNewDefinition() {
+        ProcessConsumer processConsumer = processConsumer(fieldExist("user"));
+        assertThat(genericValidator.process(EVENT, processConsumer).success).isFalse();
+
+        // an updated process comes back as a new ProcessConsumer when it is activated again
+        ProcessConsumer updated = processConsumer.withProcessValidation(new ArrayList<>(Arrays.asList(fieldExist("project"))));
+        assertThat(genericValidator.process(EVENT, updated).success).isTrue();
+        assertThat(genericValidator.process(EVENT, processConsumer).success).isFalse();
+    }
+
+    @Test
+    public void sameOutputAsEachValidator() {
+        List<ProcessValidation> validations = Arrays.asList(
+                fieldExist("project"),
+                fieldExist("user"),
+                ProcessValidation.builder()
+                        .typeValidation(TypeValidation.MAX_FIELD)
+                        .parameterValidation(ParameterValidation.builder().maxFields(3L).build())
+                        .build(),
+                ProcessValidation.builder()
+                        .typeValidation(TypeValidation.MAX_MESSAGE_SIZE)
+                        .parameterValidation(ParameterValidation.builder().maxMessageSize(1000L).build())
+                        .build(),
+                ProcessValidation.builder()
+                        .typeValidation(TypeValidation.BLACK_LIST_FIELD)
+                        .parameterValidation(ParameterValidation.builder()
+                                .blackList(Arrays.asList(ProcessKeyValue.builder().key("type").value("nginx").build()))
+                                .build())
+                        .build());
+        JsonNode jsonValue = JSONUtils.getInstance().parse(EVENT);
+        List<String> expected = validations.stream()
+                .map(processValidation -> outcome(validator(processValidation.getTypeValidation()).process(processValidation, jsonValue, EVENT)))
+                .collect(Collectors.toList());
+
+        ProcessConsumer processConsumer = processConsumer(validations.toArray(new ProcessValidation[0]));
+        assertThat(genericValidator.treat(EVENT, jsonValue, processConsumer).stream().map(GenericValidatorTest::outcome).collect(Collectors.toList()))
+                .isEqualTo(expected)
+                .containsExactly("true null", "false field_not_exist", "false max_fields", "true null", "false blacklist");
+
+        ValidateData fromText = genericValidator.process(EVENT, processConsumer);
+        ValidateData fromTree = genericValidator.process(JSONUtils.getInstance().parse(EVENT), processConsumer);
+        assertThat(fromText.success).isFalse();
+        assertThat(fromTree.success).isFalse();
+        assertThat(fromTree.errorList).isEqualTo(fromText.errorList);
+    }
+
+    private static GenericValidator genericValidator() {
+        GenericValidator genericValidator = new GenericValidator();
+        genericValidator.init();
+        return genericValidator;
+    }
+
+    private static ValidatorProcess validator(TypeValidation type) {
+        switch (type) {
+            case FIELD_EXIST:
+                return new FieldExistValidator(type);
+            case MAX_FIELD:
+                return new MaxFieldValidator(type);
+            case MAX_MESSAGE_SIZE:
+                return new MaxMessageSizeValidator(type);
+            case BLACK_LIST_FIELD:
+                return new BlackListValidator(type);
+            default:
+                throw new IllegalArgumentException(type.name());
+        }
+    }
+
+    private static String outcome(ValidateData validateData) {
+        return validateData.success + " " + validateData.statusCode;
+    }
+
+    private static ProcessConsumer processConsumer(ProcessValidation... processValidations) {
+        return ProcessConsumer.builder()
+                .idProcess("process")
+                .processValidation(new ArrayList<>(Arrays.asList(processValidations)))
+                .build();
+    }
+
+    private static ProcessValidation fieldExist(String field) {
+        return ProcessValidation.builder()
+                .typeValidation(TypeValidation.FIELD_EXIST)
+                .parameterValidation(ParameterValidation.builder().fieldExist(field).build())
+                .build();
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.skalogs.skaetl.RawDataGen;
 import io.skalogs.skaetl.domain.ParameterTransformation;
 import io.skalogs.skaetl.domain.TypeValidation;
+import io.skalogs.skaetl.service.TransformationStep;
 import io.skalogs.skaetl.service.transform.AddGeoLocalisationTransformator;
 import io.skalogs.skaetl.utils.JSONUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -31,4 +32,41 @@ public class AddGeoLocalisationTransformatorTest {
 
         assertThat(jsonValue.path("project_country_name").asText()).isEqualTo("France");
     }
+
+    @Test
+    public void should_Process_Cached_Ok() throws Exception {
+
+        AddGeoLocalisationTransformator addGeoLocalisationTransformator = new AddGeoLocalisationTransformator(TypeValidation.ADD_GEO_LOCALISATION);
+        TransformationStep step = addGeoLocalisationTransformator.bind(null,
+                ParameterTransformation.builder().
+                        keyField("project").
+                        build());
+        RawDataGen rd = RawDataGen.builder().messageSend("Test add Geo-Localisation").project("82.245.25.86").type("type").build();
+        ObjectMapper obj = new ObjectMapper();
+        String value = obj.writeValueAsString(rd);
+        ObjectNode first = JSONUtils.getInstance().parseObj(value);
+        ObjectNode second = JSONUtils.getInstance().parseObj(value);
+        step.apply(first, value);
+        step.apply(second, value);
+
+        assertThat(second.path("project_country_name").asText()).isEqualTo("France");
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    public void should_Not_Resolve_Hostname() throws Exception {
+
+        AddGeoLocalisationTransformator addGeoLocalisationTransformator = new AddGeoLocalisationTransformator(TypeValidation.ADD_GEO_LOCALISATION);
+        RawDataGen rd = RawDataGen.builder().messageSend("Test add Geo-Localisation").project("localhost").type("type").build();
+        ObjectMapper obj = new ObjectMapper();
+        String value = obj.writeValueAsString(rd);
+        ObjectNode jsonValue = JSONUtils.getInstance().parseObj(value);
+        addGeoLocalisationTransformator.apply(null,
+                ParameterTransformation.builder().
+                        keyField("project").
+                        build(),
+                jsonValue, value);
+
+        assertThat(jsonValue.has("project_country_name")).isFalse();
+    }
 }
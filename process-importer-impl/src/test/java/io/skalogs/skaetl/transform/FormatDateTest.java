@@ -1,16 +1,20 @@
 package io.skalogs.skaetl.transform;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.skalogs.skaetl.RawDataGen;
 import io.skalogs.skaetl.domain.FormatDateValue;
 import io.skalogs.skaetl.domain.ParameterTransformation;
 import io.skalogs.skaetl.domain.TypeValidation;
+import io.skalogs.skaetl.service.TransformationStep;
 import io.skalogs.skaetl.service.transform.FormatDateTransformator;
 import io.skalogs.skaetl.utils.JSONUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Test;
 
+import java.text.SimpleDateFormat;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @Slf4j
@@ -57,4 +61,80 @@ public class FormatDateTest {
                 jsonValue, value);
         assertThat(jsonValue.path("toto").asText()).isEqualTo("");
     }
+
+    @Test
+    public void should_Process_Partial_Patterns() throws Exception {
+        assertThat(format("HH:mm", "10:20")).isEqualTo("1970-01-01T10:20:00.000");
+        assertThat(format("yyyy-MM", "2018-03")).isEqualTo("2018-03-01T00:00:00.000");
+    }
+
+    @Test
+    public void should_Process_Lenient_Like_SimpleDateFormat() throws Exception {
+        assertThat(format("yyyy-MM-dd", "2018-1-5")).isEqualTo("2018-01-05T00:00:00.000");
+        assertThat(format("yyyy-MM-dd", "2018-02-30")).isEqualTo("2018-03-02T00:00:00.000");
+        assertThat(format("yyyy-MM-dd HH:mm:ss", "2018-01-15 10:20:30")).isEqualTo("2018-01-15T10:20:30.000");
+    }
+
+    @Test
+    public void should_Keep_SimpleDateFormat_Meaning_Of_Letters() throws Exception {
+        // 'S' counts milliseconds, not a fraction of second
+        assertThat(format("yyyy-MM-dd HH:mm:ss.S", "2018-03-01 10:00:00.5")).isEqualTo("2018-03-01T10:00:00.005");
+        // two digit years within 80 years before and 20 years after now, not 2000-2099
+        assertThat(format("dd/MM/yy", "01/03/60")).isEqualTo("1960-03-01T00:00:00.000");
+        // 'u' is the day number of the week, not the year
+        assertThat(format("yyyy-MM-dd", "2018-03-01", "u")).isEqualTo("4");
+        // 12 hour clock without marker is in the morning, not dropped
+        assertThat(format("yyyy-MM-dd hh:mm", "2018-03-01 10:20")).isEqualTo("2018-03-01T10:20:00.000");
+    }
+
+    @Test
+    public void should_Not_Depend_On_Previous_Values() throws Exception {
+        TransformationStep step = bind("yyyy-MM-dd'T'HH:mm:ssX", "yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+        String expected = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").format(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssX").parse("2018-01-15T10:20:30+01"));
+
+        assertThat(apply(step, "2018-01-15T10:20:30+01")).isEqualTo(expected);
+        // only SimpleDateFormat reads single digit fields
+        assertThat(apply(step, "2018-1-5T1:2:3Z")).isEqualTo(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").format(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssX").parse("2018-1-5T1:2:3Z")));
+        assertThat(apply(step, "2018-01-15T10:20:30+01")).isEqualTo(expected);
+    }
+
+    private TransformationStep bind(String srcFormat, String targetFormat) {
+        return new FormatDateTransformator(TypeValidation.FORMAT_DATE).bind(null,
+                ParameterTransformation.builder()
+                        .formatDateValue(FormatDateValue.builder()
+                                .keyField("messageSend")
+                                .srcFormat(srcFormat)
+                                .targetFormat(targetFormat)
+                                .build())
+                        .build());
+    }
+
+    private String apply(TransformationStep step, String date) {
+        ObjectNode jsonValue = JsonNodeFactory.instance.objectNode().put("messageSend", date);
+        step.apply(jsonValue, null);
+        return jsonValue.path("messageSend").asText();
+    }
+
+    private String format(String srcFormat, String date) throws Exception {
+        return format(srcFormat, date, "yyyy-MM-dd'T'HH:mm:ss.SSS");
+    }
+
+    private String format(String srcFormat, String date, String targetFormat) throws Exception {
+        FormatDateTransformator formatDateTransformator = new FormatDateTransformator(TypeValidation.FORMAT_DATE);
+        RawDataGen rd = RawDataGen.builder().messageSend(date).project("project").type("type").build();
+        ObjectMapper obj = new ObjectMapper();
+        String value = obj.writeValueAsString(rd);
+        ObjectNode jsonValue = JSONUtils.getInstance().parseObj(value);
+
+        formatDateTransformator.apply(null,
+                ParameterTransformation.builder()
+                        .formatDateValue(FormatDateValue.builder()
+                                .keyField("messageSend")
+                                .srcFormat(srcFormat)
+                                .targetFormat(targetFormat)
+                                .build())
+                        .build(),
+                jsonValue, value);
+        return jsonValue.path("messageSend").asText();
+    }
 }
@@ -2,23 +2,29 @@ package io.skalogs.skaetl.transform;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.hash.Hashing;
 import io.skalogs.skaetl.RawDataGen;
+import io.skalogs.skaetl.config.HashConfiguration;
 import io.skalogs.skaetl.domain.ParameterTransformation;
 import io.skalogs.skaetl.domain.ProcessHashData;
 import io.skalogs.skaetl.domain.TypeHash;
 import io.skalogs.skaetl.domain.TypeValidation;
+import io.skalogs.skaetl.service.TransformationStep;
 import io.skalogs.skaetl.service.transform.HashFieldTransformator;
 import io.skalogs.skaetl.utils.JSONUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @Slf4j
 public class HashFieldTransformatorTest {
     @Test
     public void should_Process_Ok() throws Exception {
-        HashFieldTransformator hashFieldTransformator = new HashFieldTransformator(TypeValidation.HASH);
+        HashFieldTransformator hashFieldTransformator = new HashFieldTransformator(TypeValidation.HASH, hashConfiguration());
 
         RawDataGen rd = RawDataGen.builder().messageSend("message gni de test").project("project").type("type").build();
         ObjectMapper obj = new ObjectMapper();
@@ -36,7 +42,7 @@ public class HashFieldTransformatorTest {
 
     @Test
     public void should_Process_Ko() throws Exception {
-        HashFieldTransformator hashFieldTransformator = new HashFieldTransformator(TypeValidation.HASH);
+        HashFieldTransformator hashFieldTransformator = new HashFieldTransformator(TypeValidation.HASH, hashConfiguration());
 
         RawDataGen rd = RawDataGen.builder().messageSend("").project("project").type("type").build();
         ObjectMapper obj = new ObjectMapper();
@@ -52,4 +58,78 @@ public class HashFieldTransformatorTest {
         assertThat(jsonValue.path("messageSend").asText()).isEqualTo("");
     }
 
+    @Test
+    public void should_Hash_Several_Fields() throws Exception {
+        HashFieldTransformator hashFieldTransformator = new HashFieldTransformator(TypeValidation.HASH, hashConfiguration());
+        ObjectNode jsonValue = JSONUtils.getInstance().parseObj("{\"user\":\"jdoe\",\"email\":\"jdoe@skalogs.io\",\"city\":\"Zürich\",\"other\":\"keep\"}");
+
+        TransformationStep step = hashFieldTransformator.bind(null, ParameterTransformation.builder()
+                .processHashData(ProcessHashData.builder()
+                        .field("user, email,city,missing")
+                        .typeHash(TypeHash.SHA256)
+                        .build()
+                ).build());
+        step.apply(jsonValue, null);
+
+        assertThat(jsonValue.path("user").asText()).isEqualTo(Hashing.sha256().hashString("jdoe", StandardCharsets.UTF_8).toString());
+        assertThat(jsonValue.path("email").asText()).isEqualTo(Hashing.sha256().hashString("jdoe@skalogs.io", StandardCharsets.UTF_8).toString());
+        assertThat(jsonValue.path("city").asText()).isEqualTo(Hashing.sha256().hashString("Zürich", StandardCharsets.UTF_8).toString());
+        assertThat(jsonValue.path("other").asText()).isEqualTo("keep");
+        assertThat(jsonValue.has("missing")).isFalse();
+    }
+
+    @Test
+    public void should_Hash_Other_Algorithms() throws Exception {
+        assertThat(hash(TypeHash.SHA1, null, "abc")).isEqualTo("a9993e364706816aba3e25717850c26c9cd0d89d");
+        assertThat(hash(TypeHash.XXHASH64, null, "abc")).isEqualTo("44bc2cf5ad770999");
+        assertThat(hash(TypeHash.HMAC_SHA256, "test", "abc"))
+                .isEqualTo(Hashing.hmacSha256("secret".getBytes(StandardCharsets.UTF_8)).hashString("abc", StandardCharsets.UTF_8).toString());
+        // surrogate pair and multi bytes chars go through the same UTF-8 encoding as String.getBytes
+        assertThat(hash(TypeHash.SHA1, null, "日本\uD83D\uDE00"))
+                .isEqualTo(Hashing.sha1().hashBytes("日本\uD83D\uDE00".getBytes(StandardCharsets.UTF_8)).toString());
+    }
+
+    @Test
+    public void should_Reject_Hmac_Without_Key() throws Exception {
+        assertThatThrownBy(() -> hash(TypeHash.HMAC_SHA256, null, "abc"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> hash(TypeHash.HMAC_SHA256, "unknown", "abc"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("hash.hmacKeys.unknown");
+    }
+
+    @Test
+    public void should_Reject_Incomplete_Definition() throws Exception {
+        assertThatThrownBy(() -> hash(null, null, "abc"))
+                .isInstanceOf(IllegalArgumentException.class);
+        HashFieldTransformator hashFieldTransformator = new HashFieldTransformator(TypeValidation.HASH, hashConfiguration());
+        assertThatThrownBy(() -> hashFieldTransformator.bind("id", ParameterTransformation.builder()
+                .processHashData(ProcessHashData.builder()
+                        .field(" , ")
+                        .typeHash(TypeHash.SHA256)
+                        .build()
+                ).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static HashConfiguration hashConfiguration() {
+        HashConfiguration hashConfiguration = new HashConfiguration();
+        hashConfiguration.getHmacKeys().put("test", "secret");
+        return hashConfiguration;
+    }
+
+    private String hash(TypeHash typeHash, String keyName, String value) throws Exception {
+        HashFieldTransformator hashFieldTransformator = new HashFieldTransformator(TypeValidation.HASH, hashConfiguration());
+        ObjectNode jsonValue = JSONUtils.getInstance().parseObj("{}");
+        jsonValue.put("field", value);
+        hashFieldTransformator.apply(null, ParameterTransformation.builder()
+                .processHashData(ProcessHashData.builder()
+                        .field("field")
+                        .typeHash(typeHash)
+                        .keyName(keyName)
+                        .build()
+                ).build(), jsonValue, null);
+        return jsonValue.path("field").asText();
+    }
+
 }
@@ -3,6 +3,7 @@ package io.skalogs.skaetl.transform;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.skalogs.skaetl.RawDataGen;
+import io.skalogs.skaetl.domain.ExternalHTTPData;
 import io.skalogs.skaetl.domain.ParameterTransformation;
 import io.skalogs.skaetl.domain.TypeValidation;
 import io.skalogs.skaetl.domain.WorkerHTTPService;
@@ -23,11 +24,12 @@ public class LookupHTTPServiceTransformatorTest {
     @Test
     public void should_Process_Limit_Ok() throws Exception {
         ExternalHTTPService service = new ExternalHTTPService();
+        ExternalHTTPData externalHTTPData = ExternalHTTPData.builder().url("http://localhost/lookup").build();
         HashMap<String, String> mapTest = new HashMap<>();
         mapTest.put("gni", "test of gni");
         mapTest.put("messageSend", "new value of message");
         mapTest.put("gna", "test of gna");
-        service.getMapExternalService().put("10", WorkerHTTPService.builder().mapResult(mapTest).build());
+        service.addWorker("10", WorkerHTTPService.builder().externalHTTPService(externalHTTPData).mapResult(mapTest).build());
         LookupHTTPServiceTransformator lookupHTTPServiceTransformator = new LookupHTTPServiceTransformator(TypeValidation.LOOKUP_EXTERNAL, service);
         RawDataGen rd = RawDataGen.builder().messageSend("gni").project("value of project").type("type").build();
         ObjectMapper obj = new ObjectMapper();
@@ -36,6 +38,7 @@ public class LookupHTTPServiceTransformatorTest {
 
         lookupHTTPServiceTransformator.apply("10",
                 ParameterTransformation.builder()
+                        .externalHTTPData(externalHTTPData)
                         .keyField("messageSend")
                         .build(),
                 jsonValue, value);
@@ -47,11 +50,12 @@ public class LookupHTTPServiceTransformatorTest {
     @Test
     public void should_Process_Limit_Ko() throws Exception {
         ExternalHTTPService service = new ExternalHTTPService();
+        ExternalHTTPData externalHTTPData = ExternalHTTPData.builder().url("http://localhost/lookup").build();
         HashMap<String, String> mapTest = new HashMap<>();
         mapTest.put("gni", "test of gni");
         mapTest.put("messageSend", "new value of message");
         mapTest.put("gna", "test of gna");
-        service.getMapExternalService().put("10", WorkerHTTPService.builder().mapResult(mapTest).build());
+        service.addWorker("10", WorkerHTTPService.builder().externalHTTPService(externalHTTPData).mapResult(mapTest).build());
         LookupHTTPServiceTransformator lookupHTTPServiceTransformator = new LookupHTTPServiceTransformator(TypeValidation.LOOKUP_EXTERNAL, service);
         RawDataGen rd = RawDataGen.builder().messageSend("gni").project("value of project").type("type").build();
         ObjectMapper obj = new ObjectMapper();
@@ -60,6 +64,7 @@ public class LookupHTTPServiceTransformatorTest {
 
         lookupHTTPServiceTransformator.apply("10",
                 ParameterTransformation.builder()
+                        .externalHTTPData(externalHTTPData)
                         .keyField("gni")
                         .build(),
                 jsonValue, value);
@@ -71,11 +76,12 @@ public class LookupHTTPServiceTransformatorTest {
     @Test
     public void should_Process_Ok() throws Exception {
         ExternalHTTPService service = new ExternalHTTPService();
+        ExternalHTTPData externalHTTPData = ExternalHTTPData.builder().url("http://localhost/lookup").build();
         HashMap<String, String> mapTest = new HashMap<>();
         mapTest.put("gni", "test of gni");
         mapTest.put("messageSend", "new value of message");
         mapTest.put("type", "test of type");
-        service.getMapExternalService().put("10", WorkerHTTPService.builder().mapResult(mapTest).build());
+        service.addWorker("10", WorkerHTTPService.builder().externalHTTPService(externalHTTPData).mapResult(mapTest).build());
         LookupHTTPServiceTransformator lookupHTTPServiceTransformator = new LookupHTTPServiceTransformator(TypeValidation.LOOKUP_EXTERNAL, service);
         RawDataGen rd = RawDataGen.builder().messageSend("gni").project("value of project").type("type").build();
         ObjectMapper obj = new ObjectMapper();
@@ -84,6 +90,7 @@ public class LookupHTTPServiceTransformatorTest {
 
         lookupHTTPServiceTransformator.apply("10",
                 ParameterTransformation.builder()
+                        .externalHTTPData(externalHTTPData)
                         .build(),
                 jsonValue, value);
         assertThat(jsonValue.get("messageSend").asText()).isEqualTo("test of gni");
@@ -94,11 +101,12 @@ public class LookupHTTPServiceTransformatorTest {
     @Test
     public void should_Process_Ko() throws Exception {
         ExternalHTTPService service = new ExternalHTTPService();
+        ExternalHTTPData externalHTTPData = ExternalHTTPData.builder().url("http://localhost/lookup").build();
         HashMap<String, String> mapTest = new HashMap<>();
         mapTest.put("gnia", "test of gni");
         mapTest.put("messageSend", "new value of message");
         mapTest.put("typea", "test of type");
-        service.getMapExternalService().put("10", WorkerHTTPService.builder().mapResult(mapTest).build());
+        service.addWorker("10", WorkerHTTPService.builder().externalHTTPService(externalHTTPData).mapResult(mapTest).build());
         LookupHTTPServiceTransformator lookupHTTPServiceTransformator = new LookupHTTPServiceTransformator(TypeValidation.LOOKUP_EXTERNAL, service);
         RawDataGen rd = RawDataGen.builder().messageSend("gni").project("value of project").type("type").build();
         ObjectMapper obj = new ObjectMapper();
@@ -107,6 +115,7 @@ public class LookupHTTPServiceTransformatorTest {
 
         lookupHTTPServiceTransformator.apply("10",
                 ParameterTransformation.builder()
+                        .externalHTTPData(externalHTTPData)
                         .build(),
                 jsonValue, value);
         assertThat(jsonValue.get("messageSend").asText()).isEqualTo("gni");
@@ -114,5 +123,37 @@ public class LookupHTTPServiceTransformatorTest {
         assertThat(jsonValue.get("type").asText()).isEqualTo("type");
     }
 
+    @Test
+    public void should_Process_Several_Lookups() throws Exception {
+        ExternalHTTPService service = new ExternalHTTPService();
+        ExternalHTTPData projectLookup = ExternalHTTPData.builder().url("http://localhost/project").build();
+        ExternalHTTPData typeLookup = ExternalHTTPData.builder().url("http://localhost/type").build();
+        HashMap<String, String> mapProject = new HashMap<>();
+        mapProject.put("value of project", "new project");
+        HashMap<String, String> mapType = new HashMap<>();
+        mapType.put("type", "new type");
+        service.addWorker("10", WorkerHTTPService.builder().externalHTTPService(projectLookup).mapResult(mapProject).build());
+        service.addWorker("10", WorkerHTTPService.builder().externalHTTPService(typeLookup).mapResult(mapType).build());
+        LookupHTTPServiceTransformator lookupHTTPServiceTransformator = new LookupHTTPServiceTransformator(TypeValidation.LOOKUP_EXTERNAL, service);
+        RawDataGen rd = RawDataGen.builder().messageSend("gni").project("value of project").type("type").build();
+        ObjectMapper obj = new ObjectMapper();
+        String value = obj.writeValueAsString(rd);
+        ObjectNode jsonValue = JSONUtils.getInstance().parseObj(value);
 
+        lookupHTTPServiceTransformator.bind("10",
+                ParameterTransformation.builder()
+                        .keyField("project")
+                        .externalHTTPData(projectLookup)
+                        .build())
+                .apply(jsonValue, value);
+        lookupHTTPServiceTransformator.bind("10",
+                ParameterTransformation.builder()
+                        .keyField("type")
+                        .externalHTTPData(typeLookup)
+                        .build())
+                .apply(jsonValue, value);
+        assertThat(jsonValue.get("messageSend").asText()).isEqualTo("gni");
+        assertThat(jsonValue.get("project").asText()).isEqualTo("new project");
+        assertThat(jsonValue.get("type").asText()).isEqualTo("new type");
+    }
 }
@@ -82,5 +82,22 @@ public class LookupListTransformatorTest {
         assertThat(jsonValue.get("type").asText()).isEqualTo("type");
     }
 
-
+    @Test
+    public void should_Process_Bound_Ok() throws Exception {
+        LookupListTransformator lookupListTransformator = new LookupListTransformator(TypeValidation.LOOKUP_LIST);
+        RawDataGen rd = RawDataGen.builder().messageSend("gni").project("gni").type("type").build();
+        ObjectMapper obj = new ObjectMapper();
+        String value = obj.writeValueAsString(rd);
+        ObjectNode jsonValue = JSONUtils.getInstance().parseObj(value);
+        HashMap<String, String> mapTest = new HashMap<>();
+        mapTest.put("gni", "new value");
+        lookupListTransformator.bind(null,
+                ParameterTransformation.builder()
+                        .mapLookup(mapTest)
+                        .build())
+                .apply(jsonValue, value);
+        assertThat(jsonValue.get("messageSend").asText()).isEqualTo("new value");
+        assertThat(jsonValue.get("project").asText()).isEqualTo("new value");
+        assertThat(jsonValue.get("type").asText()).isEqualTo("type");
+    }
 }
@@ -31,6 +31,7 @@ public class SimulateImporter extends AbstractGenericImporter {
     }
 
     public void createProcessGeneric(ProcessConsumer processConsumer) {
+        getGenericTransformator().prepare(processConsumer);
         log.info("Create topic for importer");
         kafkaAdminService.buildTopic(SIMULATE_OUTPUT);
         log.info("Create process importer {}", processConsumer.getName());
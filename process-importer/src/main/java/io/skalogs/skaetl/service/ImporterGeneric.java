@@ -5,7 +5,7 @@ import io.skalogs.skaetl.config.ProcessConfiguration;
 import io.skalogs.skaetl.domain.ProcessConstants;
 import io.skalogs.skaetl.domain.ProcessConsumer;
 import io.skalogs.skaetl.domain.ProcessFilter;
-import io.skalogs.skaetl.rules.filters.GenericFilter;
+import io.skalogs.skaetl.rules.filters.FilterChain;
 import io.skalogs.skaetl.rules.filters.RuleFilterExecutor;
 import io.skalogs.skaetl.service.processor.JsonNodeToElasticSearchProcessor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,9 +15,9 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Component
 @Lazy(value = false)
@@ -50,7 +50,8 @@ public class ImporterGeneric extends AbstractGenericImporter {
 
         processConsumer.setTimestamp(new Date());
         log.info("Create topic for importer");
-        kafkaAdminService.buildTopic(processConsumer.getProcessInput().getTopicInput(),
+        kafkaAdminService.buildTopic(processConsumer.getStreamSettings(),
+                processConsumer.getProcessInput().getTopicInput(),
                 processConsumer.getIdProcess() + ProcessConstants.TOPIC_PARSED_PROCESS,
                 processConsumer.getIdProcess() + ProcessConstants.TOPIC_TREAT_PROCESS
         );
@@ -60,19 +61,22 @@ public class ImporterGeneric extends AbstractGenericImporter {
         processConsumer.getProcessParser().stream()
                 .forEach(processParser -> kafkaAdminService.buildTopic(processParser.getFailForwardTopic()));
         getExternalHTTPService().buildCache(processConsumer);
+        getGenericTransformator().prepare(processConsumer);
+        getGenericValidator().prepare(processConsumer);
         log.info("Create process importer {}", processConsumer.getName());
-        List<GenericFilter> genericFilters = new ArrayList<>();
+        Map<String, String> criteriaByFilterName = new LinkedHashMap<>();
         for (ProcessFilter processFilter : processConsumer.getProcessFilter()) {
-            genericFilters.add(ruleFilterExecutor.instanciate(processFilter.getName(), processFilter.getCriteria()));
+            criteriaByFilterName.merge(processFilter.getName(), processFilter.getCriteria(), (criteria, otherCriteria) -> "(" + criteria + ") AND (" + otherCriteria + ")");
         }
+        FilterChain filterChain = ruleFilterExecutor.instanciate(processConsumer.getName(), criteriaByFilterName);
         ProcessStreamService processStreamService = new ProcessStreamService(
                 getGenericValidator(),
                 getGenericTransformator(),
                 getGenericParser(),
                 processConsumer,
-                genericFilters,
+                filterChain,
                 esErrorRetryWriter,
-                applicationContext.getBean(JsonNodeToElasticSearchProcessor.class),
+                () -> applicationContext.getBean(JsonNodeToElasticSearchProcessor.class),
                 emailService,
                 snmpService
         );
@@ -1,11 +1,14 @@
 package io.skalogs.skaetl.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.skalogs.skaetl.domain.*;
-import io.skalogs.skaetl.rules.filters.GenericFilter;
+import io.skalogs.skaetl.rules.filters.FilterChain;
 import io.skalogs.skaetl.serdes.GenericSerdes;
 import io.skalogs.skaetl.service.processor.*;
+import io.skalogs.skaetl.utils.JSONUtils;
 import io.skalogs.skaetl.utils.KafkaUtils;
+import io.skalogs.skaetl.utils.UniformStreamPartitioner;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 import org.apache.kafka.common.serialization.Serde;
@@ -16,31 +19,35 @@ import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Produced;
-
-import java.util.List;
+import org.apache.kafka.streams.processor.ProcessorSupplier;
 
 @Slf4j
 public class ProcessStreamService extends AbstractStreamProcess {
     private final ESErrorRetryWriter esErrorRetryWriter;
-    private final JsonNodeToElasticSearchProcessor elasticSearchProcessor;
-    private final List<GenericFilter> genericFilters;
+    private final ProcessorSupplier<String, JsonNode> elasticSearchProcessorSupplier;
+    private final FilterChain filterChain;
     private final EmailService emailService;
     private final SnmpService snmpService;
 
-    public ProcessStreamService(GenericValidator genericValidator, GenericTransformator transformValidator, GenericParser genericParser, ProcessConsumer processConsumer, List<GenericFilter> genericFilters, ESErrorRetryWriter esErrorRetryWriter, JsonNodeToElasticSearchProcessor elasticSearchProcessor, EmailService emailService, SnmpService snmpService) {
+    public ProcessStreamService(GenericValidator genericValidator, GenericTransformator transformValidator, GenericParser genericParser, ProcessConsumer processConsumer, FilterChain filterChain, ESErrorRetryWriter esErrorRetryWriter, ProcessorSupplier<String, JsonNode> elasticSearchProcessorSupplier, EmailService emailService, SnmpService snmpService) {
         super(genericValidator, transformValidator, genericParser, processConsumer);
         this.esErrorRetryWriter = esErrorRetryWriter;
-        this.elasticSearchProcessor = elasticSearchProcessor;
-        this.genericFilters = genericFilters;
+        this.elasticSearchProcessorSupplier = elasticSearchProcessorSupplier;
+        this.filterChain = filterChain;
         this.emailService = emailService;
         this.snmpService = snmpService;
     }
 
     public void createStreamProcess() {
-        log.info("create Stream Process for treat INPUT");
-        createStreamInput(getProcessConsumer().getProcessInput().getTopicInput(), getProcessConsumer().getIdProcess() + ProcessConstants.TOPIC_PARSED_PROCESS);
-        log.info("create Stream Process for valid transform and filters");
-        createStreamValidAndTransformAndFilter(getProcessConsumer().getIdProcess() + ProcessConstants.TOPIC_PARSED_PROCESS, getProcessConsumer().getIdProcess() + ProcessConstants.TOPIC_TREAT_PROCESS);
+        if (Boolean.TRUE.equals(getProcessConsumer().getFusedTopology())) {
+            log.info("create fused Stream Process for parse, valid transform and filters");
+            createStreamFused(getProcessConsumer().getProcessInput().getTopicInput(), getProcessConsumer().getIdProcess() + ProcessConstants.TOPIC_TREAT_PROCESS);
+        } else {
+            log.info("create Stream Process for treat INPUT");
+            createStreamInput(getProcessConsumer().getProcessInput().getTopicInput(), getProcessConsumer().getIdProcess() + ProcessConstants.TOPIC_PARSED_PROCESS);
+            log.info("create Stream Process for valid transform and filters");
+            createStreamValidAndTransformAndFilter(getProcessConsumer().getIdProcess() + ProcessConstants.TOPIC_PARSED_PROCESS, getProcessConsumer().getIdProcess() + ProcessConstants.TOPIC_TREAT_PROCESS);
+        }
         getProcessConsumer().getProcessOutput().stream()
                 .forEach(processOutput -> treatOutput(processOutput));
     }
@@ -85,9 +92,9 @@ public class ProcessStreamService extends AbstractStreamProcess {
 
         final Serde<String> stringSerdes = Serdes.String();
 
-        streamParsed.to(outputTopic, Produced.with(stringSerdes, stringSerdes));
+        streamParsed.to(outputTopic, Produced.with(stringSerdes, stringSerdes, new UniformStreamPartitioner<>()));
 
-        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.INPUT_PROCESS, getBootstrapServer()));
+        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.INPUT_PROCESS, getBootstrapServer(), getProcessConsumer().getStreamSettings()));
         Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
         streams.start();
         addStreams(getProcessConsumer().getIdProcess() + ProcessConstants.INPUT_PROCESS, streams);
@@ -114,32 +121,71 @@ public class ProcessStreamService extends AbstractStreamProcess {
         });
 
         KStream<String, JsonNode> streamOfJsonNode = streamValidation.mapValues(value -> value.getJsonValue());
-        streamOfJsonNode.to(outputTopic, Produced.with(Serdes.String(), GenericSerdes.jsonNodeSerde()));
+        streamOfJsonNode.to(outputTopic, Produced.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde(), new UniformStreamPartitioner<>()));
 
-        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(applicationId, getBootstrapServer()));
+        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(applicationId, getBootstrapServer(), getProcessConsumer().getStreamSettings()));
         Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
         streams.start();
         addStreams(applicationId, streams);
     }
 
-    private Boolean processFilter(ValidateData item) {
-        for (GenericFilter genericFilter : genericFilters) {
-            if (!genericFilter.filter(item.jsonValue)) {
-                return false;
+    private void createStreamFused(String inputTopic, String outputTopic) {
+        StreamsBuilder builder = new StreamsBuilder();
+        KStream<String, String> streamInput = builder.stream(inputTopic, Consumed.with(Serdes.String(), Serdes.String()));
+        String applicationId = getProcessConsumer().getIdProcess() + ProcessConstants.FUSED_PROCESS;
+        KStream<String, ValidateData> streamValidation = streamInput
+                .filter((key, value) -> StringUtils.isNotBlank(value))
+                .map((key, value) -> {
+                    readKafkaCount.labels(getProcessConsumer().getName()).inc();
+                    ValidateData item = parseTransformAndValidate(value);
+                    transformationAndValidationCount.labels(getProcessConsumer().getName()).inc();
+                    return new KeyValue<>(item.type, item);
+                }).filter((key, value) -> {
+                    //Validation
+                    if (!value.success) {
+                        //produce to errorTopic
+                        esErrorRetryWriter.sendToErrorTopic(applicationId, value);
+                        return false;
+                    }
+                    //FILTER
+                    return processFilter(value);
+                });
+
+        KStream<String, JsonNode> streamOfJsonNode = streamValidation.mapValues(value -> value.getJsonValue());
+        streamOfJsonNode.to(outputTopic, Produced.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde(), new UniformStreamPartitioner<>()));
+
+        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(applicationId, getBootstrapServer(), getProcessConsumer().getStreamSettings()));
+        Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
+        streams.start();
+        addStreams(applicationId, streams);
+    }
+
+    private ValidateData parseTransformAndValidate(String value) {
+        ParserResult parserResult = getGenericParser().parse(value, getProcessConsumer());
+        ObjectNode jsonValue = parserResult.getJsonResult();
+        if (jsonValue == null) {
+            JsonNode parsed = JSONUtils.getInstance().parse(parserResult.getResult());
+            if (parsed == null || !parsed.isObject()) {
+                return getGenericValidator().mandatoryImporter(parserResult.getResult(), null);
             }
+            jsonValue = (ObjectNode) parsed;
         }
-        return true;
+        getGenericTransformator().apply(jsonValue, getProcessConsumer());
+        return getGenericValidator().process(jsonValue, getProcessConsumer());
+    }
 
+    private Boolean processFilter(ValidateData item) {
+        return filterChain.filter(item.jsonValue);
     }
 
     public void createStreamEs(String inputTopic) {
 
         StreamsBuilder builder = new StreamsBuilder();
 
-        KStream<String, JsonNode> streamToES = builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde()));
-        streamToES.process(() -> elasticSearchProcessor);
+        KStream<String, JsonNode> streamToES = builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde()));
+        streamToES.process(elasticSearchProcessorSupplier);
 
-        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.ES_PROCESS, getBootstrapServer()));
+        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.ES_PROCESS, getBootstrapServer(), getProcessConsumer().getStreamSettings()));
         Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
         streams.start();
         addStreams(getProcessConsumer().getIdProcess() + ProcessConstants.ES_PROCESS, streams);
@@ -149,9 +195,9 @@ public class ProcessStreamService extends AbstractStreamProcess {
 
         StreamsBuilder builder = new StreamsBuilder();
 
-        builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde())).process(() -> new LoggingProcessor<>());
+        builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde())).process(() -> new LoggingProcessor<>());
 
-        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.SYSOUT_PROCESS, getBootstrapServer()));
+        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.SYSOUT_PROCESS, getBootstrapServer(), getProcessConsumer().getStreamSettings()));
         Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
         streams.start();
         addStreams(getProcessConsumer().getIdProcess() + ProcessConstants.SYSOUT_PROCESS, streams);
@@ -161,12 +207,12 @@ public class ProcessStreamService extends AbstractStreamProcess {
 
         StreamsBuilder builder = new StreamsBuilder();
 
-        builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde()))
+        builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde()))
                 //json as string powa
                 .mapValues(value -> value.toString())
                 .to(parameterOutput.getTopicOut(), Produced.with(Serdes.String(), Serdes.String()));
 
-        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.KAFKA_PROCESS, getBootstrapServer()));
+        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.KAFKA_PROCESS, getBootstrapServer(), getProcessConsumer().getStreamSettings()));
         Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
         streams.start();
         addStreams(getProcessConsumer().getIdProcess() + ProcessConstants.KAFKA_PROCESS, streams);
@@ -180,11 +226,11 @@ public class ProcessStreamService extends AbstractStreamProcess {
             StreamsBuilder builder = new StreamsBuilder();
 
             if (template != null)
-                builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde())).process(() -> new JsonNodeEmailProcessor(email, template, emailService));
+                builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde())).process(() -> new JsonNodeEmailProcessor(email, template, emailService));
             else
-                builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde())).process(() -> new JsonNodeEmailProcessor(email, emailService));
+                builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde())).process(() -> new JsonNodeEmailProcessor(email, emailService));
 
-            KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.EMAIL_PROCESS, getBootstrapServer()));
+            KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.EMAIL_PROCESS, getBootstrapServer(), getProcessConsumer().getStreamSettings()));
             Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
             streams.start();
             addStreams(getProcessConsumer().getIdProcess() + ProcessConstants.SLACK_PROCESS, streams);
@@ -201,11 +247,11 @@ public class ProcessStreamService extends AbstractStreamProcess {
             StreamsBuilder builder = new StreamsBuilder();
 
             if (template != null)
-                builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde())).process(() -> new JsonNodeSlackProcessor(webHookURL, template));
+                builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde())).process(() -> new JsonNodeSlackProcessor(webHookURL, template));
             else
-                builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde())).process(() -> new JsonNodeSlackProcessor(webHookURL));
+                builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde())).process(() -> new JsonNodeSlackProcessor(webHookURL));
 
-            KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.SLACK_PROCESS, getBootstrapServer()));
+            KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.SLACK_PROCESS, getBootstrapServer(), getProcessConsumer().getStreamSettings()));
             Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
             streams.start();
             addStreams(getProcessConsumer().getIdProcess() + ProcessConstants.SLACK_PROCESS, streams);
@@ -217,9 +263,9 @@ public class ProcessStreamService extends AbstractStreamProcess {
     public void createStreamSnmp(String inputTopic, ParameterOutput parameterOutput) {
 
         StreamsBuilder builder = new StreamsBuilder();
-        builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde())).process(() -> new JsonNodeSnmpProcessor(snmpService));
+        builder.stream(inputTopic, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde())).process(() -> new JsonNodeSnmpProcessor(snmpService));
 
-        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.SNMP_PROCESS, getBootstrapServer()));
+        KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(getProcessConsumer().getIdProcess() + ProcessConstants.SNMP_PROCESS, getBootstrapServer(), getProcessConsumer().getStreamSettings()));
         Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
         streams.start();
         addStreams(getProcessConsumer().getIdProcess() + ProcessConstants.SNMP_PROCESS, streams);
@@ -0,0 +1,117 @@
+package io.skalogs.skaetl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.ISO8601Utils;
+import io.skalogs.skaetl.config.GeoIPConfiguration;
+import io.skalogs.skaetl.config.HashConfiguration;
+import io.skalogs.skaetl.config.KafkaConfiguration;
+import io.skalogs.skaetl.domain.*;
+import io.skalogs.skaetl.kafka.KafkaUnit;
+import io.skalogs.skaetl.kafka.KafkaUnitRule;
+import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterToJava;
+import io.skalogs.skaetl.rules.filters.FilterChain;
+import io.skalogs.skaetl.rules.filters.RuleFilterExecutor;
+import io.skalogs.skaetl.service.parser.CEFParser;
+import io.skalogs.skaetl.service.parser.CSVParser;
+import io.skalogs.skaetl.service.parser.GrokParser;
+import io.skalogs.skaetl.service.parser.NitroParser;
+import io.skalogs.skaetl.utils.JSONUtils;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProcessStreamServiceIT {
+    @ClassRule
+    public static KafkaUnitRule kafkaUnitRule = new KafkaUnitRule();
+
+    private ProcessStreamService processStreamService;
+
+    @After
+    public void closeStreams() {
+        if (processStreamService != null) {
+            processStreamService.shutdownAllStreams();
+        }
+    }
+
+    @Test
+    public void shouldRunFusedTopology() throws InterruptedException {
+        KafkaUnit kafkaUnit = kafkaUnitRule.getKafkaUnit();
+        KafkaConfiguration kafkaConfiguration = new KafkaConfiguration();
+        kafkaConfiguration.setBootstrapServers(kafkaUnit.getKafkaConnect());
+
+        ProcessConsumer processConsumer = ProcessConsumer.builder()
+                .idProcess("fused")
+                .name("fused")
+                .processInput(ProcessInput.builder()
+                        .host(kafkaUnit.getKafkaConnect().split(":")[0])
+                        .port(kafkaUnit.getKafkaConnect().split(":")[1])
+                        .topicInput("fused-input")
+                        .build())
+                .processOutput(Collections.singletonList(ProcessOutput.builder()
+                        .typeOutput(TypeOutput.KAFKA)
+                        .parameterOutput(ParameterOutput.builder().topicOut("fused-output").build())
+                        .build()))
+                .fusedTopology(true)
+                .build();
+
+        kafkaUnit.createTopic("fused-input");
+        kafkaUnit.createTopic("fused" + ProcessConstants.TOPIC_TREAT_PROCESS);
+        kafkaUnit.createTopic("fused-output");
+        kafkaUnit.createTopic(kafkaConfiguration.getErrorTopic());
+        kafkaUnit.sendMessagesAsString(
+                new ProducerRecord<>("fused-input", event("{\"project\":\"fused\",\"type\":\"apache\",\"code\":200}")),
+                new ProducerRecord<>("fused-input", event("{\"project\":\"fused\",\"type\":\"apache\",\"code\":503}")),
+                new ProducerRecord<>("fused-input", event("{\"type\":\"apache\",\"code\":200}")));
+
+        GenericValidator genericValidator = new GenericValidator();
+        genericValidator.init();
+        GenericTransformator genericTransformator = new GenericTransformator(null, new GeoIPConfiguration(), new HashConfiguration());
+        genericTransformator.init();
+        GenericParser genericParser = new GenericParser(new GrokParser(null), new CEFParser(), new NitroParser(), new CSVParser(), kafkaConfiguration);
+        FilterChain filterChain = new RuleFilterExecutor(new RuleFilterToJava()).instanciate("fused", Collections.singletonMap("no errors", "code < 400"));
+
+        processStreamService = new ProcessStreamService(genericValidator, genericTransformator, genericParser, processConsumer, filterChain,
+                new ESErrorRetryWriter(kafkaConfiguration), null, null, null);
+        processStreamService.createStreamProcess();
+
+        assertThat(processStreamService.getMapStreams().keySet())
+                .containsExactlyInAnyOrder("fused" + ProcessConstants.FUSED_PROCESS, "fused" + ProcessConstants.KAFKA_PROCESS);
+
+        List<JsonNode> output = readMessages("fused-output");
+        assertThat(output).hasSize(1);
+        assertThat(output.get(0).path("project").asText()).isEqualTo("fused");
+        assertThat(output.get(0).path("code").asInt()).isEqualTo(200);
+
+        List<JsonNode> errors = readMessages(kafkaConfiguration.getErrorTopic());
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).path("errorReason").asText()).isEqualTo(StatusCode.missing_mandatory_field_project.name());
+    }
+
+    private String event(String rawJson) {
+        return JSONUtils.getInstance().parseObj(rawJson).put("timestamp", ISO8601Utils.format(new Date())).toString();
+    }
+
+    // the output goes through two applications, each one joining its consumer group first
+    private List<JsonNode> readMessages(String topic) throws InterruptedException {
+        List<JsonNode> messages = Collections.emptyList();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(60);
+        while (messages.isEmpty() && System.currentTimeMillis() < deadline) {
+            messages = kafkaUnitRule.getKafkaUnit().readAllMessages(topic).stream()
+                    .map(message -> JSONUtils.getInstance().parse(message.getValue()))
+                    .collect(Collectors.toList());
+            if (messages.isEmpty()) {
+                Thread.sleep(500);
+            }
+        }
+        return messages;
+    }
+}
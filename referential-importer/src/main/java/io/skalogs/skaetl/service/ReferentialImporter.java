@@ -72,7 +72,7 @@ public class ReferentialImporter {
         log.info("creating {} Process Merge for topicsource {}", consumerId, topicSource);
         StreamsBuilder builder = new StreamsBuilder();
         KStream<String, JsonNode> streamToMerge = builder.stream(topicSource, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde()));
-        streamToMerge.to(topicMerge, Produced.with(Serdes.String(), GenericSerdes.jsonNodeSerde()));
+        streamToMerge.to(topicMerge, Produced.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde()));
         KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(processReferential.getIdProcess() +"#" +consumerId + "#merge-topic", kafkaConfiguration.getBootstrapServers()));
         Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
         runningMergeProcess.get(processReferential).add(streams);
@@ -91,7 +91,7 @@ public class ReferentialImporter {
 
     private void buildStreamMerge(ProcessReferential processReferential, String topicMerge) {
         StreamsBuilder builder = new StreamsBuilder();
-        KStream<String, JsonNode> streamToRef = builder.stream(topicMerge, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde()));
+        KStream<String, JsonNode> streamToRef = builder.stream(topicMerge, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde()));
         streamToRef.process(() -> new ReferentialProcessor(processReferential, referentialESService));
         KafkaStreams stream = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(processReferential.getIdProcess() + "#" + TOPIC_MERGE_REFERENTIAL, kafkaConfiguration.getBootstrapServers()));
         Runtime.getRuntime().addShutdownHook(new Thread(stream::close));
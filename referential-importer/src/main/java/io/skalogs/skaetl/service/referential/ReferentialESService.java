@@ -6,10 +6,11 @@ import io.skalogs.skaetl.config.KafkaConfiguration;
 import io.skalogs.skaetl.domain.MetadataItem;
 import io.skalogs.skaetl.domain.Referential;
 import io.skalogs.skaetl.serdes.GenericSerdes;
-import io.skalogs.skaetl.serdes.JsonNodeSerialializer;
+import io.skalogs.skaetl.serdes.BinaryJsonNodeSerializer;
 import io.skalogs.skaetl.service.processor.JsonNodeToElasticSearchProcessor;
 import io.skalogs.skaetl.utils.JSONUtils;
 import io.skalogs.skaetl.utils.KafkaUtils;
+import io.skalogs.skaetl.utils.ProducerProfile;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
@@ -19,6 +20,7 @@ import org.apache.kafka.streams.Consumed;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.KStream;
+import org.springframework.context.ApplicationContext;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -34,14 +36,14 @@ public class ReferentialESService {
 
     private Map<String, Referential> referentialMap = new HashMap<>();
     private final Producer<String, JsonNode> referentialProducer;
-    private final JsonNodeToElasticSearchProcessor elasticSearchProcessor;
+    private final ApplicationContext applicationContext;
     private final KafkaAdminService kafkaAdminService;
     private final String bootstrapServer;
     private final String TOPIC_REFERENTIAL_ES = "topicReferentialEs";
 
-    public ReferentialESService(KafkaConfiguration kafkaConfiguration, JsonNodeToElasticSearchProcessor elasticSearchProcessor, KafkaAdminService kafkaAdminService) {
-        this.referentialProducer = KafkaUtils.kafkaProducer(kafkaConfiguration.getBootstrapServers(), StringSerializer.class, JsonNodeSerialializer.class);
-        this.elasticSearchProcessor = elasticSearchProcessor;
+    public ReferentialESService(KafkaConfiguration kafkaConfiguration, ApplicationContext applicationContext, KafkaAdminService kafkaAdminService) {
+        this.referentialProducer = KafkaUtils.kafkaProducer(kafkaConfiguration, ProducerProfile.throughput, StringSerializer.class, BinaryJsonNodeSerializer.class);
+        this.applicationContext = applicationContext;
         this.bootstrapServer = kafkaConfiguration.getBootstrapServers();
         this.kafkaAdminService = kafkaAdminService;
     }
@@ -52,8 +54,8 @@ public class ReferentialESService {
         kafkaAdminService.buildTopic(TOPIC_REFERENTIAL_ES);
         //Init Stream
         StreamsBuilder builder = new StreamsBuilder();
-        KStream<String, JsonNode> streamToES = builder.stream(TOPIC_REFERENTIAL_ES, Consumed.with(Serdes.String(), GenericSerdes.jsonNodeSerde()));
-        streamToES.process(() -> elasticSearchProcessor);
+        KStream<String, JsonNode> streamToES = builder.stream(TOPIC_REFERENTIAL_ES, Consumed.with(Serdes.String(), GenericSerdes.internalJsonNodeSerde()));
+        streamToES.process(() -> applicationContext.getBean(JsonNodeToElasticSearchProcessor.class));
         KafkaStreams streams = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties("REFERENTIAL#ELASTICSEARCH", bootstrapServer));
         Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
         streams.start();
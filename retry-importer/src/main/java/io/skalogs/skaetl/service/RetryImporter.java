@@ -14,6 +14,7 @@ import org.apache.kafka.streams.Consumed;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.KStream;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
@@ -25,14 +26,14 @@ public class RetryImporter {
     private static final String INPUT_PROCESS_RETRY = "es-retry";
     private final KafkaStreams retryStream;
 
-    public RetryImporter(ValidateDataToElasticSearchProcessor elasticSearchProcessor, KafkaConfiguration kafkaConfiguration, KafkaAdminService kafkaAdminService) {
+    public RetryImporter(ApplicationContext applicationContext, KafkaConfiguration kafkaConfiguration, KafkaAdminService kafkaAdminService) {
         kafkaAdminService.buildTopic(kafkaConfiguration.getRetryTopic());
 
         StreamsBuilder builder = new StreamsBuilder();
         final Serde<ValidateData> validateDataSerdes = Serdes.serdeFrom(new ValidateDataSerializer(), new ValidateDataDeserializer());
 
         KStream<String, ValidateData> streamToES = builder.stream(kafkaConfiguration.getRetryTopic(), Consumed.with(Serdes.String(), validateDataSerdes));
-        streamToES.process(() -> elasticSearchProcessor);
+        streamToES.process(() -> applicationContext.getBean(ValidateDataToElasticSearchProcessor.class));
 
         retryStream = new KafkaStreams(builder.build(), KafkaUtils.createKStreamProperties(INPUT_PROCESS_RETRY, kafkaConfiguration.getBootstrapServers()));
         Runtime.getRuntime().addShutdownHook(new Thread(retryStream::close));
@@ -104,7 +104,7 @@ fragment ESC
  ;
 
 FIELD_NAME
- : [a-zA-Z][A-Za-z0-9_]*
+ : [a-zA-Z][A-Za-z0-9_]* ('.' [a-zA-Z_][A-Za-z0-9_]*)*  // user.country for nested fields
  ;
 
 INT
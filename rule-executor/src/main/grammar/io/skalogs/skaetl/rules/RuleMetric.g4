@@ -11,7 +11,12 @@ select_clause
 
 aggfunction
  : function_name '(' ')'
- | function_name '(' target ')'
+ | function_name '(' target (',' aggparameter)* ')'
+ ;
+
+aggparameter
+ : INT
+ | FLOAT
  ;
 
 from
@@ -0,0 +1,29 @@
+package io.skalogs.skaetl.config;
+
+import io.skalogs.skaetl.rules.codegeneration.CompiledClassCache;
+import io.skalogs.skaetl.rules.codegeneration.RuleCompiler;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "rules")
+public class RuleCompilerConfiguration {
+    // compiled filters and metrics are kept there between restarts, memory only when blank
+    private String classCacheDirectory;
+    private int classCacheSize = 1000;
+    // filters only, the metric importer refuses to start with bytecode as metric rules need javac
+    private RuleCompiler compiler = RuleCompiler.JAVAC;
+
+    @Bean
+    public CompiledClassCache compiledClassCache() {
+        return new CompiledClassCache(StringUtils.isBlank(classCacheDirectory) ? null : new File(classCacheDirectory), classCacheSize);
+    }
+}
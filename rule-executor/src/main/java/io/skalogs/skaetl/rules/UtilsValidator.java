@@ -1,10 +1,12 @@
 package io.skalogs.skaetl.rules;
 
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 
 import java.util.Date;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -12,10 +14,17 @@ public final class UtilsValidator {
 
 
     public static <T> T get(JsonNode jsonValue, String key) {
-        if (!jsonValue.hasNonNull(key)) {
+        return value(jsonValue.get(key));
+    }
+
+    public static <T> T get(JsonNode jsonValue, JsonPointer pointer) {
+        return value(jsonValue.at(pointer));
+    }
+
+    private static <T> T value(JsonNode jsonNode) {
+        if (isAbsent(jsonNode)) {
             return null;
         }
-        JsonNode jsonNode = jsonValue.path(key);
         switch (jsonNode.getNodeType()) {
             case BOOLEAN:
                 return (T) Boolean.valueOf(jsonNode.asBoolean());
@@ -26,7 +35,7 @@ public final class UtilsValidator {
                 if (jsonNode.isDouble()) {
                     return (T) Double.valueOf(jsonNode.asDouble());
                 }
-
+                return (T) jsonNode.numberValue();
             case STRING:
                 return (T) jsonNode.asText();
             default:
@@ -37,6 +46,91 @@ public final class UtilsValidator {
 
     }
 
+    // typed access, generated when a field is compared to a literal, nothing is boxed
+
+    public static JsonNode field(JsonNode jsonValue, String key) {
+        return jsonValue.get(key);
+    }
+
+    public static JsonNode field(JsonNode jsonValue, JsonPointer pointer) {
+        return jsonValue.at(pointer);
+    }
+
+    private static boolean isAbsent(JsonNode field) {
+        return field == null || field.isMissingNode() || field.isNull();
+    }
+
+    private static int compare(JsonNode field, long b) {
+        return field.isIntegralNumber() ? Long.compare(field.longValue(), b) : Double.compare(field.doubleValue(), b);
+    }
+
+    public static boolean fieldIsEqualTo(JsonNode field, long b) {
+        return field != null && field.isNumber() && compare(field, b) == 0;
+    }
+
+    public static boolean fieldIsDifferentFrom(JsonNode field, long b) {
+        return !fieldIsEqualTo(field, b);
+    }
+
+    public static boolean fieldIsGreaterThan(JsonNode field, long b) {
+        return field != null && field.isNumber() && compare(field, b) > 0;
+    }
+
+    public static boolean fieldIsLowerThan(JsonNode field, long b) {
+        return field != null && field.isNumber() && compare(field, b) < 0;
+    }
+
+    public static boolean fieldIsGreaterThanOrEqual(JsonNode field, long b) {
+        return field != null && field.isNumber() && compare(field, b) >= 0;
+    }
+
+    public static boolean fieldIsLowerThanOrEqual(JsonNode field, long b) {
+        return field != null && field.isNumber() && compare(field, b) <= 0;
+    }
+
+    public static boolean fieldIsEqualTo(JsonNode field, double b) {
+        return field != null && field.isNumber() && field.doubleValue() == b;
+    }
+
+    public static boolean fieldIsDifferentFrom(JsonNode field, double b) {
+        return !fieldIsEqualTo(field, b);
+    }
+
+    public static boolean fieldIsGreaterThan(JsonNode field, double b) {
+        return field != null && field.isNumber() && field.doubleValue() > b;
+    }
+
+    public static boolean fieldIsLowerThan(JsonNode field, double b) {
+        return field != null && field.isNumber() && field.doubleValue() < b;
+    }
+
+    public static boolean fieldIsGreaterThanOrEqual(JsonNode field, double b) {
+        return field != null && field.isNumber() && field.doubleValue() >= b;
+    }
+
+    public static boolean fieldIsLowerThanOrEqual(JsonNode field, double b) {
+        return field != null && field.isNumber() && field.doubleValue() <= b;
+    }
+
+    public static boolean fieldIsEqualTo(JsonNode field, String b) {
+        if (isAbsent(field)) {
+            return b == null;
+        }
+        return field.isTextual() ? field.textValue().equals(b) : field.isValueNode() && field.asText().equals(b);
+    }
+
+    public static boolean fieldIsDifferentFrom(JsonNode field, String b) {
+        return !fieldIsEqualTo(field, b);
+    }
+
+    public static boolean fieldIsEqualTo(JsonNode field, boolean b) {
+        return field != null && field.isBoolean() && field.booleanValue() == b;
+    }
+
+    public static boolean fieldIsDifferentFrom(JsonNode field, boolean b) {
+        return !fieldIsEqualTo(field, b);
+    }
+
     // string
 
     public static boolean isEqualTo(String a, String b) {
@@ -72,6 +166,39 @@ public final class UtilsValidator {
         return a == null ? false : a.doubleValue() <= b.doubleValue();
     }
 
+    // untyped operands, the byte code generator has no javac to pick one of the overloads above
+
+    public static boolean valueIsEqualTo(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return isEqualTo((Number) a, (Number) b);
+        }
+        return Objects.equals(a, b);
+    }
+
+    public static boolean valueIsDifferentFrom(Object a, Object b) {
+        return !valueIsEqualTo(a, b);
+    }
+
+    public static boolean valueIsGreaterThan(Object a, Object b) {
+        return a instanceof Number && b instanceof Number && isGreaterThan((Number) a, (Number) b);
+    }
+
+    public static boolean valueIsLowerThan(Object a, Object b) {
+        return a instanceof Number && b instanceof Number && isLowerThan((Number) a, (Number) b);
+    }
+
+    public static boolean valueIsGreaterThanOrEqual(Object a, Object b) {
+        return a instanceof Number && b instanceof Number && isGreaterThanOrEqual((Number) a, (Number) b);
+    }
+
+    public static boolean valueIsLowerThanOrEqual(Object a, Object b) {
+        return a instanceof Number && b instanceof Number && isLowerThanOrEqual((Number) a, (Number) b);
+    }
+
+    public static boolean isTrue(Object value) {
+        return Boolean.TRUE.equals(value);
+    }
+
     // dates
 
     public static boolean isGreaterThan(Date date, int count, TimeUnit unit) {
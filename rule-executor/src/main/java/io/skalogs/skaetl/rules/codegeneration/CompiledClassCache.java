@@ -0,0 +1,164 @@
+package io.skalogs.skaetl.rules.codegeneration;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.skalogs.skaetl.compiler.DynamicClassLoader;
+import io.skalogs.skaetl.compiler.DynamicCompiler;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Generated classes by content: the key is a hash of everything the byte code is generated from, so a process
+ * activated again, rescaled or simulated reuses the class without going through ANTLR and javac (or ASM).
+ * With a directory, the byte code is also written as .class files and survives restarts.
+ */
+@Slf4j
+public class CompiledClassCache {
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private final File directory;
+    private final Cache<String, Class<?>> classes;
+
+    public CompiledClassCache() {
+        this(null, 1000);
+    }
+
+    public CompiledClassCache(File directory, int maximumSize) {
+        this.directory = directory;
+        this.classes = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    public static String key(String... parts) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (String part : parts) {
+            hasher.putString(String.valueOf(part), StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Hash of the byte code of classes: keyed on the code generators and on the API the generated classes call, a class
+     * generated by any other build of them, released or not, is never reused.
+     */
+    public static String fingerprint(Class<?>... classes) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (Class<?> aClass : classes) {
+            String resource = aClass.getName().substring(aClass.getName().lastIndexOf('.') + 1) + CLASS_FILE_EXTENSION;
+            try (InputStream byteCode = aClass.getResourceAsStream(resource)) {
+                if (byteCode == null) {
+                    throw new IllegalStateException("No byte code found for " + aClass.getName());
+                }
+                hasher.putString(aClass.getName(), StandardCharsets.UTF_8).putBytes(ByteStreams.toByteArray(byteCode));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Byte code of a java source compiled with javac, className and its inner classes.
+     */
+    public static Map<String, byte[]> javac(String className, String java) {
+        log.debug("compiling {}", className);
+        DynamicCompiler dynamicCompiler = new DynamicCompiler();
+        dynamicCompiler.addSource(className, java);
+        dynamicCompiler.build();
+        return dynamicCompiler.getByteCodes();
+    }
+
+    /**
+     * The byte code supplier is only called when neither the memory nor the directory knows the key, its exceptions
+     * (syntax errors) are rethrown as is.
+     */
+    public Class<?> get(String key, String className, Supplier<Map<String, byte[]>> byteCodes) {
+        try {
+            return classes.get(key, () -> load(key, className, byteCodes));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Class<?> load(String key, String className, Supplier<Map<String, byte[]>> byteCodes) throws ClassNotFoundException {
+        Class<?> aClass = loadFromDirectory(key, className);
+        if (aClass != null) {
+            return aClass;
+        }
+        Map<String, byte[]> generated = byteCodes.get();
+        aClass = define(className, generated);
+        writeToDirectory(key, generated);
+        return aClass;
+    }
+
+    private Class<?> define(String className, Map<String, byte[]> byteCodes) throws ClassNotFoundException {
+        DynamicClassLoader dynamicClassLoader = new DynamicClassLoader(Thread.currentThread().getContextClassLoader());
+        for (Map.Entry<String, byte[]> byteCode : byteCodes.entrySet()) {
+            dynamicClassLoader.registerByteCode(byteCode.getKey(), byteCode.getValue());
+        }
+        return dynamicClassLoader.loadClass(className);
+    }
+
+    private Class<?> loadFromDirectory(String key, String className) {
+        if (directory == null) {
+            return null;
+        }
+        File classesDirectory = new File(directory, key);
+        File[] classFiles = classesDirectory.listFiles((dir, name) -> name.endsWith(CLASS_FILE_EXTENSION));
+        if (classFiles == null || classFiles.length == 0) {
+            return null;
+        }
+        try {
+            Map<String, byte[]> byteCodes = new HashMap<>();
+            for (File classFile : classFiles) {
+                String name = classFile.getName();
+                byteCodes.put(name.substring(0, name.length() - CLASS_FILE_EXTENSION.length()), Files.readAllBytes(classFile.toPath()));
+            }
+            return define(className, byteCodes);
+        } catch (IOException | ClassNotFoundException | LinkageError e) {
+            log.warn("Can't load {} from {}, compiling it again", className, classesDirectory, e);
+            return null;
+        }
+    }
+
+    private void writeToDirectory(String key, Map<String, byte[]> byteCodes) {
+        if (directory == null) {
+            return;
+        }
+        File classesDirectory = new File(directory, key);
+        // written aside then renamed, workers sharing the directory never read half written classes
+        File tmpDirectory = new File(directory, key + "-" + UUID.randomUUID() + ".tmp");
+        try {
+            FileUtils.forceMkdir(tmpDirectory);
+            for (Map.Entry<String, byte[]> byteCode : byteCodes.entrySet()) {
+                Files.write(new File(tmpDirectory, byteCode.getKey() + CLASS_FILE_EXTENSION).toPath(), byteCode.getValue());
+            }
+            Files.move(tmpDirectory.toPath(), classesDirectory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // already written by another worker, or not writable: the class is still cached in memory
+            log.debug("Can't write {} in {}", key, directory, e);
+        } finally {
+            FileUtils.deleteQuietly(tmpDirectory);
+        }
+    }
+}
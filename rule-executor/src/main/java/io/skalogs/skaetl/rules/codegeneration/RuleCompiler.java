@@ -0,0 +1,10 @@
+package io.skalogs.skaetl.rules.codegeneration;
+
+/**
+ * How filter rules become classes: javac on the generated source (needs a JDK), or byte code written straight from
+ * the parse tree with ASM (works on a JRE, compiles in well under a millisecond).
+ */
+public enum RuleCompiler {
+    JAVAC,
+    BYTECODE
+}
@@ -1,12 +1,40 @@
 package io.skalogs.skaetl.rules.codegeneration;
 
+import io.skalogs.skaetl.rules.RuleFilterParser;
+import io.skalogs.skaetl.rules.RuleMetricParser;
+import io.skalogs.skaetl.rules.UtilsValidator;
+import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterBytecodeVisitor;
+import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterToBytecode;
+import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterToJava;
+import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterVisitorImpl;
+import io.skalogs.skaetl.rules.codegeneration.metrics.RuleMetricToJava;
+import io.skalogs.skaetl.rules.codegeneration.metrics.RuleMetricVisitorImpl;
+import io.skalogs.skaetl.rules.filters.GenericFilter;
+import io.skalogs.skaetl.rules.filters.GenericFilterClauses;
 import io.skalogs.skaetl.rules.functions.FunctionRegistry;
 import org.apache.commons.lang.StringUtils;
 
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class RuleToJava {
+
+    // part of the compiled class cache key: the generated code changes for a same DSL whenever one of these classes does
+    public static final String GENERATOR_VERSION = CompiledClassCache.fingerprint(
+            RuleToJava.class,
+            RuleFilterParser.class,
+            RuleFilterToJava.class,
+            RuleFilterVisitorImpl.class,
+            RuleFilterToBytecode.class,
+            RuleFilterBytecodeVisitor.class,
+            RuleMetricParser.class,
+            RuleMetricToJava.class,
+            RuleMetricVisitorImpl.class,
+            GenericFilter.class,
+            GenericFilterClauses.class,
+            UtilsValidator.class);
+
     public static String nullSafePredicate(String lambda) {
         if (StringUtils.isBlank(lambda) || "null".equals(lambda)) {
             return "true";
@@ -68,22 +96,52 @@ public class RuleToJava {
     }
 
     public static String comparisonMethod(String operation, String expr1, String expr2) {
-        String arguments = "(" + expr1 + "," + expr2 + ")";
+        return comparisonMethodName(operation) + "(" + expr1 + "," + expr2 + ")";
+    }
+
+    /**
+     * Comparison of a field node with a primitive literal (3L, 2.5d, "text", true), see UtilsValidator.fieldIsEqualTo and co.
+     */
+    public static String fieldComparisonMethod(String operation, String field, String literal) {
+        return "field" + StringUtils.capitalize(comparisonMethodName(operation)) + "(" + field + "," + literal + ")";
+    }
+
+    public static boolean isEqualityOperation(String operation) {
+        return "=".equals(operation) || "==".equals(operation) || "!=".equals(operation) || "<>".equals(operation);
+    }
+
+    // a > b is b < a
+    public static String mirrorComparisonOperation(String operation) {
+        switch (operation) {
+            case ">":
+                return "<";
+            case "<":
+                return ">";
+            case ">=":
+                return "<=";
+            case "<=":
+                return ">=";
+            default:
+                return operation;
+        }
+    }
+
+    public static String comparisonMethodName(String operation) {
         switch (operation) {
             case "=":
             case "==":
-                return "isEqualTo" + arguments;
+                return "isEqualTo";
             case "!=":
             case "<>":
-                return "isDifferentFrom" + arguments;
+                return "isDifferentFrom";
             case ">":
-                return "isGreaterThan" + arguments;
+                return "isGreaterThan";
             case "<":
-                return "isLowerThan" + arguments;
+                return "isLowerThan";
             case ">=":
-                return "isGreaterThanOrEqual" + arguments;
+                return "isGreaterThanOrEqual";
             case "<=":
-                return "isLowerThanOrEqual" + arguments;
+                return "isLowerThanOrEqual";
             default:
                 throw new IllegalArgumentException("Could not handle " + operation);
         }
@@ -129,23 +187,68 @@ public class RuleToJava {
         return "(" + condition + ")?(" + thenClause + "):(" + elseClause + ")";
     }
 
-    public static String oneArgCondition(String functionName, String fieldValue) {
+    public static String oneArgCondition(List<String> boundFunctions, String functionName, String fieldValue) {
         if (FunctionRegistry.getInstance().getRuleFunction(functionName) == null) {
             throw new IllegalArgumentException("Unknown function " + functionName);
         }
-        return "evaluate(" + functionName + "," + fieldValue + ")";
+        return boundCondition(boundFunctions, "bind(\"" + functionName + "\")", fieldValue);
     }
 
     public static String twoArgsFunction(String function, String expr1, String expr2) {
         return function + "(" + expr1 + "," + expr2 + ")";
     }
 
-    public static String varArgCondition(String functionName, String fieldValue, String args) {
+    public static String varArgCondition(List<String> boundFunctions, String functionName, String fieldValue, String args, boolean constantArgs) {
         if (FunctionRegistry.getInstance().getRuleFunction(functionName) == null) {
             throw new IllegalArgumentException("Unknown function " + functionName);
         }
+        if (!constantArgs) {
+            return "evaluate(\"" + functionName + "\"," + fieldValue + "," + args + ")";
+        }
+        return boundCondition(boundFunctions, "bind(\"" + functionName + "\"," + args + ")", fieldValue);
+    }
 
-        return "evaluate(" + functionName + "," + fieldValue + "," + args + ")";
+    // constant arguments are bound once in a field of the generated class, patterns and subnets are compiled there
+    private static String boundCondition(List<String> boundFunctions, String binding, String fieldValue) {
+        int index = boundFunctions.indexOf(binding);
+        if (index < 0) {
+            boundFunctions.add(binding);
+            index = boundFunctions.size() - 1;
+        }
+        return "function" + index + ".test(" + fieldValue + ")";
+    }
+
+    // nested fields (user.country) are split once into a JsonPointer constant of the generated class
+    public static String fieldPointer(List<String> fieldPointers, String fieldName) {
+        String pointer = "/" + fieldName.replace('.', '/');
+        int index = fieldPointers.indexOf(pointer);
+        if (index < 0) {
+            fieldPointers.add(pointer);
+            index = fieldPointers.size() - 1;
+        }
+        return "pointer" + index;
+    }
+
+    public static String fieldPointerFields(List<String> fieldPointers) {
+        if (fieldPointers.isEmpty()) {
+            return "";
+        }
+        String fields = "";
+        for (int i = 0; i < fieldPointers.size(); i++) {
+            fields += "    private static final com.fasterxml.jackson.core.JsonPointer pointer" + i + " = com.fasterxml.jackson.core.JsonPointer.compile(\"" + fieldPointers.get(i) + "\");\n";
+        }
+        return fields + "    \n";
+    }
+
+    public static String boundFunctionFields(List<String> boundFunctions) {
+        if (boundFunctions.isEmpty()) {
+            return "";
+        }
+        String fields = "";
+        for (int i = 0; i < boundFunctions.size(); i++) {
+            fields += "    private final io.skalogs.skaetl.rules.functions.BoundFilter function" + i + " = " + boundFunctions.get(i) + ";\n";
+        }
+        return fields + "    \n";
     }
 
     public static String toCamelCase(String input) {
@@ -0,0 +1,361 @@
+package io.skalogs.skaetl.rules.codegeneration.filters;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.skalogs.skaetl.rules.RuleFilterBaseVisitor;
+import io.skalogs.skaetl.rules.RuleFilterParser;
+import io.skalogs.skaetl.rules.UtilsValidator;
+import io.skalogs.skaetl.rules.codegeneration.exceptions.RuleVisitorException;
+import io.skalogs.skaetl.rules.functions.BoundFilter;
+import io.skalogs.skaetl.rules.functions.FunctionRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang.StringUtils;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static io.skalogs.skaetl.rules.codegeneration.RuleToJava.*;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Writes the body of doFilter(JsonNode jsonValue) straight from the parse tree, the same calls javac would produce
+ * from the RuleFilterVisitorImpl source. Each visit leaves one value on the stack and returns its type: boolean.class
+ * for conditions, Object.class for field values and literals.
+ */
+@Getter
+public class RuleFilterBytecodeVisitor extends RuleFilterBaseVisitor<Class<?>> {
+
+    static final String BOUND_FILTER_DESCRIPTOR = Type.getDescriptor(BoundFilter.class);
+    static final String JSON_POINTER_DESCRIPTOR = Type.getDescriptor(JsonPointer.class);
+    private static final int JSON_VALUE = 1;
+
+    private final String className;
+    private final MethodVisitor methodVisitor;
+    private final List<String> fieldPointers = new ArrayList<>();
+    private final List<String> boundFunctionKeys = new ArrayList<>();
+    private final List<BoundFunction> boundFunctions = new ArrayList<>();
+
+    public RuleFilterBytecodeVisitor(String className, MethodVisitor methodVisitor) {
+        this.className = className;
+        this.methodVisitor = methodVisitor;
+    }
+
+    @Override
+    public Class<?> visitParse(RuleFilterParser.ParseContext ctx) {
+        try {
+            toBoolean(visit(ctx.filter()));
+            methodVisitor.visitInsn(IRETURN);
+            return boolean.class;
+        } catch (Exception e) {
+            throw new RuleVisitorException(e);
+        }
+    }
+
+    @Override
+    public Class<?> visitFilter(RuleFilterParser.FilterContext ctx) {
+        return visit(ctx.expr());
+    }
+
+    @Override
+    public Class<?> visitSubExpr(RuleFilterParser.SubExprContext ctx) {
+        return visit(ctx.expr());
+    }
+
+    @Override
+    public Class<?> visitExponentExpr(RuleFilterParser.ExponentExprContext ctx) {
+        throw new IllegalArgumentException("Arithmetic is not supported in filters: " + ctx.getText());
+    }
+
+    @Override
+    public Class<?> visitHighPriorityOperationExpr(RuleFilterParser.HighPriorityOperationExprContext ctx) {
+        throw new IllegalArgumentException("Arithmetic is not supported in filters: " + ctx.getText());
+    }
+
+    @Override
+    public Class<?> visitLowPriorityOperationExpr(RuleFilterParser.LowPriorityOperationExprContext ctx) {
+        throw new IllegalArgumentException("Arithmetic is not supported in filters: " + ctx.getText());
+    }
+
+    @Override
+    public Class<?> visitComparisonExpr(RuleFilterParser.ComparisonExprContext ctx) {
+        String operation = ctx.COMPARISON_OPERATION().getText();
+        if (ctx.expr(0) instanceof RuleFilterParser.FieldNameExprContext && ctx.expr(1) instanceof RuleFilterParser.AtomExprContext
+                && fieldComparison(operation, ((RuleFilterParser.FieldNameExprContext) ctx.expr(0)).fieldname(), ((RuleFilterParser.AtomExprContext) ctx.expr(1)).atom())) {
+            return boolean.class;
+        }
+        if (ctx.expr(0) instanceof RuleFilterParser.AtomExprContext && ctx.expr(1) instanceof RuleFilterParser.FieldNameExprContext
+                && fieldComparison(mirrorComparisonOperation(operation), ((RuleFilterParser.FieldNameExprContext) ctx.expr(1)).fieldname(), ((RuleFilterParser.AtomExprContext) ctx.expr(0)).atom())) {
+            return boolean.class;
+        }
+        toObject(visit(ctx.expr(0)));
+        toObject(visit(ctx.expr(1)));
+        invokeStatic(UtilsValidator.class, "value" + StringUtils.capitalize(comparisonMethodName(operation)), boolean.class, Object.class, Object.class);
+        return boolean.class;
+    }
+
+    // same typed comparisons as RuleFilterVisitorImpl.fieldComparison
+    private boolean fieldComparison(String operation, RuleFilterParser.FieldnameContext fieldname, RuleFilterParser.AtomContext atom) {
+        String methodName = "field" + StringUtils.capitalize(comparisonMethodName(operation));
+        if (atom instanceof RuleFilterParser.IntAtomContext) {
+            fieldNode(fieldname);
+            methodVisitor.visitLdcInsn(Long.parseLong(atom.getText()));
+            invokeStatic(UtilsValidator.class, methodName, boolean.class, JsonNode.class, long.class);
+            return true;
+        }
+        if (atom instanceof RuleFilterParser.FloatAtomContext) {
+            fieldNode(fieldname);
+            methodVisitor.visitLdcInsn(Double.parseDouble(atom.getText()));
+            invokeStatic(UtilsValidator.class, methodName, boolean.class, JsonNode.class, double.class);
+            return true;
+        }
+        if (atom instanceof RuleFilterParser.StringAtomContext && isEqualityOperation(operation)) {
+            fieldNode(fieldname);
+            methodVisitor.visitLdcInsn(unquote(atom.getText()));
+            invokeStatic(UtilsValidator.class, methodName, boolean.class, JsonNode.class, String.class);
+            return true;
+        }
+        if (atom instanceof RuleFilterParser.BooleanAtomContext && isEqualityOperation(operation)) {
+            fieldNode(fieldname);
+            methodVisitor.visitInsn(Boolean.parseBoolean(atom.getText()) ? ICONST_1 : ICONST_0);
+            invokeStatic(UtilsValidator.class, methodName, boolean.class, JsonNode.class, boolean.class);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Class<?> visitTimeCondition(RuleFilterParser.TimeConditionContext ctx) {
+        String operation = ctx.COMPARISON_OPERATION().getText();
+        if (isEqualityOperation(operation)) {
+            throw new IllegalArgumentException("Could not handle " + operation);
+        }
+        fieldValue(ctx.fieldname());
+        methodVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(Date.class));
+        methodVisitor.visitLdcInsn(Integer.parseInt(ctx.INT().getText()));
+        methodVisitor.visitFieldInsn(GETSTATIC, Type.getInternalName(TimeUnit.class), timeunit(ctx.timeunit().getText()), Type.getDescriptor(TimeUnit.class));
+        invokeStatic(UtilsValidator.class, comparisonMethodName(operation), boolean.class, Date.class, int.class, TimeUnit.class);
+        return boolean.class;
+    }
+
+    @Override
+    public Class<?> visitAndCondition(RuleFilterParser.AndConditionContext ctx) {
+        Label isFalse = new Label();
+        Label end = new Label();
+        toBoolean(visit(ctx.expr(0)));
+        methodVisitor.visitJumpInsn(IFEQ, isFalse);
+        toBoolean(visit(ctx.expr(1)));
+        methodVisitor.visitJumpInsn(GOTO, end);
+        methodVisitor.visitLabel(isFalse);
+        methodVisitor.visitInsn(ICONST_0);
+        methodVisitor.visitLabel(end);
+        return boolean.class;
+    }
+
+    @Override
+    public Class<?> visitOrCondition(RuleFilterParser.OrConditionContext ctx) {
+        Label isTrue = new Label();
+        Label end = new Label();
+        toBoolean(visit(ctx.expr(0)));
+        methodVisitor.visitJumpInsn(IFNE, isTrue);
+        toBoolean(visit(ctx.expr(1)));
+        methodVisitor.visitJumpInsn(GOTO, end);
+        methodVisitor.visitLabel(isTrue);
+        methodVisitor.visitInsn(ICONST_1);
+        methodVisitor.visitLabel(end);
+        return boolean.class;
+    }
+
+    @Override
+    public Class<?> visitNotCondition(RuleFilterParser.NotConditionContext ctx) {
+        toBoolean(visit(ctx.expr()));
+        not();
+        return boolean.class;
+    }
+
+    @Override
+    public Class<?> visitIfCondition(RuleFilterParser.IfConditionContext ctx) {
+        Label elseClause = new Label();
+        Label end = new Label();
+        toBoolean(visit(ctx.expr(0)));
+        methodVisitor.visitJumpInsn(IFEQ, elseClause);
+        toBoolean(visit(ctx.expr(1)));
+        methodVisitor.visitJumpInsn(GOTO, end);
+        methodVisitor.visitLabel(elseClause);
+        toBoolean(visit(ctx.expr(2)));
+        methodVisitor.visitLabel(end);
+        return boolean.class;
+    }
+
+    @Override
+    public Class<?> visitOneArgCondition(RuleFilterParser.OneArgConditionContext ctx) {
+        String functionName = functionName(ctx.functionname());
+        boundCondition(functionName, new ArrayList<>(), ctx.fieldname());
+        return boolean.class;
+    }
+
+    @Override
+    public Class<?> visitVarArgCondition(RuleFilterParser.VarArgConditionContext ctx) {
+        String functionName = functionName(ctx.functionname());
+        boolean constantArgs = ctx.expr().stream().allMatch(expr -> expr instanceof RuleFilterParser.AtomExprContext);
+        if (constantArgs) {
+            List<RuleFilterParser.AtomContext> args = ctx.expr().stream()
+                    .map(expr -> ((RuleFilterParser.AtomExprContext) expr).atom())
+                    .collect(Collectors.toList());
+            boundCondition(functionName, args, ctx.fieldname());
+        } else {
+            // evaluate("NAME", fieldValue, args...)
+            methodVisitor.visitVarInsn(ALOAD, 0);
+            methodVisitor.visitLdcInsn(functionName);
+            methodVisitor.visitLdcInsn(ctx.expr().size() + 1);
+            methodVisitor.visitTypeInsn(ANEWARRAY, Type.getInternalName(Object.class));
+            methodVisitor.visitInsn(DUP);
+            methodVisitor.visitInsn(ICONST_0);
+            fieldValue(ctx.fieldname());
+            methodVisitor.visitInsn(AASTORE);
+            for (int i = 0; i < ctx.expr().size(); i++) {
+                methodVisitor.visitInsn(DUP);
+                methodVisitor.visitLdcInsn(i + 1);
+                toObject(visit(ctx.expr(i)));
+                methodVisitor.visitInsn(AASTORE);
+            }
+            methodVisitor.visitMethodInsn(INVOKEVIRTUAL, className, "evaluate", Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(String.class), Type.getType(Object[].class)), false);
+        }
+        if (ctx.NOT_OPERATION() != null) {
+            not();
+        }
+        return boolean.class;
+    }
+
+    @Override
+    public Class<?> visitAtomExpr(RuleFilterParser.AtomExprContext ctx) {
+        atom(methodVisitor, ctx.atom());
+        return Object.class;
+    }
+
+    @Override
+    public Class<?> visitFieldNameExpr(RuleFilterParser.FieldNameExprContext ctx) {
+        fieldValue(ctx.fieldname());
+        return Object.class;
+    }
+
+    private String functionName(RuleFilterParser.FunctionnameContext ctx) {
+        String functionName = ctx.getText();
+        if (FunctionRegistry.getInstance().getRuleFunction(functionName) == null) {
+            throw new IllegalArgumentException("Unknown function " + functionName);
+        }
+        return functionName;
+    }
+
+    // constant arguments are bound once in a field, see RuleToJava.boundCondition
+    private void boundCondition(String functionName, List<RuleFilterParser.AtomContext> args, RuleFilterParser.FieldnameContext fieldname) {
+        String key = functionName + args.stream().map(RuleFilterParser.AtomContext::getText).collect(Collectors.joining(",", "(", ")"));
+        int index = boundFunctionKeys.indexOf(key);
+        if (index < 0) {
+            boundFunctionKeys.add(key);
+            boundFunctions.add(new BoundFunction(functionName, args));
+            index = boundFunctions.size() - 1;
+        }
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitFieldInsn(GETFIELD, className, "function" + index, BOUND_FILTER_DESCRIPTOR);
+        fieldValue(fieldname);
+        methodVisitor.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(BoundFilter.class), "test", Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(Object.class)), true);
+    }
+
+    // get(jsonValue, "name"), boxed value of the field
+    private void fieldValue(RuleFilterParser.FieldnameContext ctx) {
+        fieldReference(ctx);
+        invokeStatic(UtilsValidator.class, "get", Object.class, JsonNode.class, ctx.getText().indexOf('.') < 0 ? String.class : JsonPointer.class);
+    }
+
+    // field(jsonValue, "name"), node of the field for typed comparisons
+    private void fieldNode(RuleFilterParser.FieldnameContext ctx) {
+        fieldReference(ctx);
+        invokeStatic(UtilsValidator.class, "field", JsonNode.class, JsonNode.class, ctx.getText().indexOf('.') < 0 ? String.class : JsonPointer.class);
+    }
+
+    private void fieldReference(RuleFilterParser.FieldnameContext ctx) {
+        String fieldName = ctx.getText();
+        methodVisitor.visitVarInsn(ALOAD, JSON_VALUE);
+        if (fieldName.indexOf('.') < 0) {
+            methodVisitor.visitLdcInsn(fieldName);
+        } else {
+            methodVisitor.visitFieldInsn(GETSTATIC, className, fieldPointer(fieldPointers, fieldName), JSON_POINTER_DESCRIPTOR);
+        }
+    }
+
+    private void toBoolean(Class<?> type) {
+        if (type != boolean.class) {
+            invokeStatic(UtilsValidator.class, "isTrue", boolean.class, Object.class);
+        }
+    }
+
+    private void toObject(Class<?> type) {
+        if (type == boolean.class) {
+            invokeStatic(Boolean.class, "valueOf", Boolean.class, boolean.class);
+        }
+    }
+
+    private void not() {
+        methodVisitor.visitInsn(ICONST_1);
+        methodVisitor.visitInsn(IXOR);
+    }
+
+    private void invokeStatic(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        invokeStatic(methodVisitor, owner, name, returnType, parameterTypes);
+    }
+
+    static void invokeStatic(MethodVisitor methodVisitor, Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        Type[] argumentTypes = new Type[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            argumentTypes[i] = Type.getType(parameterTypes[i]);
+        }
+        methodVisitor.visitMethodInsn(INVOKESTATIC, Type.getInternalName(owner), name, Type.getMethodDescriptor(Type.getType(returnType), argumentTypes), false);
+    }
+
+    /**
+     * Boxed literal, as javac boxes 3, 2.5f, "text" or true passed where an Object is expected.
+     */
+    static void atom(MethodVisitor methodVisitor, RuleFilterParser.AtomContext atom) {
+        String text = atom.getText();
+        if (atom instanceof RuleFilterParser.IntAtomContext) {
+            long value = Long.parseLong(text);
+            if (value == (int) value) {
+                methodVisitor.visitLdcInsn((int) value);
+                invokeStatic(methodVisitor, Integer.class, "valueOf", Integer.class, int.class);
+            } else {
+                methodVisitor.visitLdcInsn(value);
+                invokeStatic(methodVisitor, Long.class, "valueOf", Long.class, long.class);
+            }
+        } else if (atom instanceof RuleFilterParser.FloatAtomContext) {
+            methodVisitor.visitLdcInsn(Float.parseFloat(text));
+            invokeStatic(methodVisitor, Float.class, "valueOf", Float.class, float.class);
+        } else if (atom instanceof RuleFilterParser.StringAtomContext) {
+            methodVisitor.visitLdcInsn(unquote(text));
+        } else if (atom instanceof RuleFilterParser.BooleanAtomContext) {
+            methodVisitor.visitFieldInsn(GETSTATIC, Type.getInternalName(Boolean.class), Boolean.parseBoolean(text) ? "TRUE" : "FALSE", Type.getDescriptor(Boolean.class));
+        } else {
+            methodVisitor.visitInsn(ACONST_NULL);
+        }
+    }
+
+    // the DSL string literal is a java one in the generated source
+    private static String unquote(String text) {
+        return StringEscapeUtils.unescapeJava(text.substring(1, text.length() - 1));
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class BoundFunction {
+        private final String functionName;
+        private final List<RuleFilterParser.AtomContext> args;
+    }
+
+}
@@ -0,0 +1,178 @@
+package io.skalogs.skaetl.rules.codegeneration.filters;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.skalogs.skaetl.rules.RuleFilterParser;
+import io.skalogs.skaetl.rules.codegeneration.exceptions.TemplatingException;
+import io.skalogs.skaetl.rules.filters.GenericFilter;
+import io.skalogs.skaetl.rules.filters.GenericFilterClauses;
+import io.skalogs.skaetl.rules.functions.BoundFilter;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterBytecodeVisitor.BOUND_FILTER_DESCRIPTOR;
+import static io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterBytecodeVisitor.JSON_POINTER_DESCRIPTOR;
+import static io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterBytecodeVisitor.atom;
+import static io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterBytecodeVisitor.invokeStatic;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Same class as the one RuleFilterToJava templates, without going through javac: no JDK needed at runtime.
+ */
+@Component
+public class RuleFilterToBytecode {
+
+    private static final String GENERIC_FILTER = Type.getInternalName(GenericFilter.class);
+    private static final String GENERIC_FILTER_CLAUSES = Type.getInternalName(GenericFilterClauses.class);
+
+    public Map<String, byte[]> convert(String name, String dsl) {
+        checkNotNull(name);
+        checkNotNull(dsl);
+        String ruleClassName = RuleFilterToJava.ruleClassName(name);
+        String className = ruleClassName.replace('.', '/');
+        ClassWriter classWriter = new RuleClassWriter();
+        classWriter.visit(V1_8, ACC_PUBLIC | ACC_SUPER, className, null, GENERIC_FILTER, null);
+
+        MethodVisitor doFilter = classWriter.visitMethod(ACC_PROTECTED, "doFilter", Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(JsonNode.class)), null, null);
+        doFilter.visitCode();
+        RuleFilterBytecodeVisitor ruleFilterVisitor = new RuleFilterBytecodeVisitor(className, doFilter);
+        ruleFilterVisitor.visit(RuleFilterToJava.parser(dsl).parse());
+        try {
+            doFilter.visitMaxs(0, 0);
+            doFilter.visitEnd();
+            fields(classWriter, ruleFilterVisitor);
+            staticInitializer(classWriter, className, ruleFilterVisitor.getFieldPointers());
+            constructor(classWriter, className, GENERIC_FILTER, -1, ruleFilterVisitor.getBoundFunctions());
+            classWriter.visitEnd();
+            return Collections.singletonMap(ruleClassName, classWriter.toByteArray());
+        } catch (Exception e) {
+            throw new TemplatingException(e);
+        }
+    }
+
+    /**
+     * Same class as RuleFilterToJava.convertClauses: clause(jsonValue, i) is a tableswitch over the clauses.
+     */
+    public Map<String, byte[]> convertClauses(String name, List<String> clauses) {
+        checkNotNull(name);
+        checkNotNull(clauses);
+        String ruleClassName = RuleFilterToJava.clausesClassName(name);
+        String className = ruleClassName.replace('.', '/');
+        ClassWriter classWriter = new RuleClassWriter();
+        classWriter.visit(V1_8, ACC_PUBLIC | ACC_SUPER, className, null, GENERIC_FILTER_CLAUSES, null);
+
+        MethodVisitor clause = classWriter.visitMethod(ACC_PROTECTED, "clause", Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(JsonNode.class), Type.INT_TYPE), null, null);
+        clause.visitCode();
+        Label noClause = new Label();
+        Label[] cases = new Label[clauses.size()];
+        for (int i = 0; i < cases.length; i++) {
+            cases[i] = new Label();
+        }
+        if (cases.length > 0) {
+            clause.visitVarInsn(ILOAD, 2);
+            clause.visitTableSwitchInsn(0, cases.length - 1, noClause, cases);
+        }
+        // one visitor: field pointers and bound functions used by several clauses are declared once
+        RuleFilterBytecodeVisitor ruleFilterVisitor = new RuleFilterBytecodeVisitor(className, clause);
+        for (int i = 0; i < cases.length; i++) {
+            clause.visitLabel(cases[i]);
+            ruleFilterVisitor.visit(RuleFilterToJava.parser(clauses.get(i)).parse());
+        }
+        clause.visitLabel(noClause);
+        clause.visitTypeInsn(NEW, Type.getInternalName(IndexOutOfBoundsException.class));
+        clause.visitInsn(DUP);
+        clause.visitMethodInsn(INVOKESPECIAL, Type.getInternalName(IndexOutOfBoundsException.class), "<init>", "()V", false);
+        clause.visitInsn(ATHROW);
+        try {
+            clause.visitMaxs(0, 0);
+            clause.visitEnd();
+            fields(classWriter, ruleFilterVisitor);
+            staticInitializer(classWriter, className, ruleFilterVisitor.getFieldPointers());
+            constructor(classWriter, className, GENERIC_FILTER_CLAUSES, clauses.size(), ruleFilterVisitor.getBoundFunctions());
+            classWriter.visitEnd();
+            return Collections.singletonMap(ruleClassName, classWriter.toByteArray());
+        } catch (Exception e) {
+            throw new TemplatingException(e);
+        }
+    }
+
+    private void fields(ClassWriter classWriter, RuleFilterBytecodeVisitor ruleFilterVisitor) {
+        for (int i = 0; i < ruleFilterVisitor.getFieldPointers().size(); i++) {
+            classWriter.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, "pointer" + i, JSON_POINTER_DESCRIPTOR, null, null).visitEnd();
+        }
+        for (int i = 0; i < ruleFilterVisitor.getBoundFunctions().size(); i++) {
+            classWriter.visitField(ACC_PRIVATE | ACC_FINAL, "function" + i, BOUND_FILTER_DESCRIPTOR, null, null).visitEnd();
+        }
+    }
+
+    // pointerN = JsonPointer.compile("/user/country")
+    private void staticInitializer(ClassWriter classWriter, String className, List<String> fieldPointers) {
+        if (fieldPointers.isEmpty()) {
+            return;
+        }
+        MethodVisitor clinit = classWriter.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        clinit.visitCode();
+        for (int i = 0; i < fieldPointers.size(); i++) {
+            clinit.visitLdcInsn(fieldPointers.get(i));
+            invokeStatic(clinit, JsonPointer.class, "compile", JsonPointer.class, String.class);
+            clinit.visitFieldInsn(PUTSTATIC, className, "pointer" + i, JSON_POINTER_DESCRIPTOR);
+        }
+        clinit.visitInsn(RETURN);
+        clinit.visitMaxs(0, 0);
+        clinit.visitEnd();
+    }
+
+    // super() or super(clauseCount), then functionN = bind("NAME", constantArgs...)
+    private void constructor(ClassWriter classWriter, String className, String superName, int clauseCount, List<RuleFilterBytecodeVisitor.BoundFunction> boundFunctions) {
+        MethodVisitor init = classWriter.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        if (clauseCount < 0) {
+            init.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "()V", false);
+        } else {
+            init.visitLdcInsn(clauseCount);
+            init.visitMethodInsn(INVOKESPECIAL, superName, "<init>", "(I)V", false);
+        }
+        for (int i = 0; i < boundFunctions.size(); i++) {
+            RuleFilterBytecodeVisitor.BoundFunction boundFunction = boundFunctions.get(i);
+            List<RuleFilterParser.AtomContext> args = boundFunction.getArgs();
+            init.visitVarInsn(ALOAD, 0);
+            init.visitVarInsn(ALOAD, 0);
+            init.visitLdcInsn(boundFunction.getFunctionName());
+            init.visitLdcInsn(args.size());
+            init.visitTypeInsn(ANEWARRAY, Type.getInternalName(Object.class));
+            for (int j = 0; j < args.size(); j++) {
+                init.visitInsn(DUP);
+                init.visitLdcInsn(j);
+                atom(init, args.get(j));
+                init.visitInsn(AASTORE);
+            }
+            init.visitMethodInsn(INVOKEVIRTUAL, className, "bind", Type.getMethodDescriptor(Type.getType(BoundFilter.class), Type.getType(String.class), Type.getType(Object[].class)), false);
+            init.visitFieldInsn(PUTFIELD, className, "function" + i, BOUND_FILTER_DESCRIPTOR);
+        }
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+    }
+
+    private static class RuleClassWriter extends ClassWriter {
+
+        private RuleClassWriter() {
+            super(ClassWriter.COMPUTE_FRAMES);
+        }
+
+        // only booleans are merged between branches, no need to load classes to find a common super class
+        @Override
+        protected String getCommonSuperClass(String type1, String type2) {
+            return Type.getInternalName(Object.class);
+        }
+    }
+}
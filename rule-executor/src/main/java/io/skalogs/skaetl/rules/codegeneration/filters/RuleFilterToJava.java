@@ -12,12 +12,19 @@ import org.antlr.v4.runtime.atn.PredictionMode;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.google.common.base.Preconditions.checkNotNull;
+import static io.skalogs.skaetl.rules.codegeneration.RuleToJava.boundFunctionFields;
+import static io.skalogs.skaetl.rules.codegeneration.RuleToJava.fieldPointerFields;
 import static io.skalogs.skaetl.rules.codegeneration.RuleToJava.nullSafePredicate;
 
 @Component
 public class RuleFilterToJava {
 
+    private static final String PACKAGE_NAME = "io.skalogs.skaetl.rules.generated";
+
     public RuleCode convert(String name, String dsl) {
         checkNotNull(name);
         checkNotNull(dsl);
@@ -31,10 +38,46 @@ public class RuleFilterToJava {
     }
 
 
-    private RuleCode templating(String name, String dsl, RuleFilterVisitorImpl ruleFilterVisitor) {
+    /**
+     * One class for all the clauses of a FilterChain, clause(jsonValue, i) evaluates the i-th one.
+     */
+    public RuleCode convertClauses(String name, List<String> clauses) {
+        checkNotNull(name);
+        checkNotNull(clauses);
+        // one visitor: field pointers and bound functions used by several clauses are declared once
+        RuleFilterVisitorImpl ruleFilterVisitor = new RuleFilterVisitorImpl();
+        List<String> predicates = new ArrayList<>(clauses.size());
+        for (String clause : clauses) {
+            ruleFilterVisitor.visit(parser(clause).parse());
+            predicates.add(nullSafePredicate(ruleFilterVisitor.getFilter()));
+        }
+        try {
+            return clausesTemplating(name, clauses, predicates, ruleFilterVisitor);
+        } catch (Exception e) {
+            throw new TemplatingException(e);
+        }
+    }
+
+    public static String ruleClassName(String name) {
+        return PACKAGE_NAME + "." + simpleClassName(name);
+    }
+
+    public static String clausesClassName(String name) {
+        return PACKAGE_NAME + "." + simpleClausesClassName(name);
+    }
+
+    private static String simpleClassName(String name) {
         String camelCaseName = RuleToJava.toCamelCase(name);
-        String ruleClassName = StringUtils.replace(camelCaseName, "\"", "") + "Filter";
-        String packageName = "io.skalogs.skaetl.rules.generated";
+        return StringUtils.replace(camelCaseName, "\"", "") + "Filter";
+    }
+
+    private static String simpleClausesClassName(String name) {
+        return simpleClassName(name) + "Clauses";
+    }
+
+    private RuleCode templating(String name, String dsl, RuleFilterVisitorImpl ruleFilterVisitor) {
+        String ruleClassName = simpleClassName(name);
+        String packageName = PACKAGE_NAME;
         String javaCode = "package " + packageName + ";\n" +
                 "\n" +
                 "import java.util.concurrent.*;\n" +
@@ -50,6 +93,8 @@ public class RuleFilterToJava {
                 "*/\n" +
                 "@Generated(\"etlFilter\")\n" +
                 "public class " + ruleClassName + " extends GenericFilter {\n" +
+                fieldPointerFields(ruleFilterVisitor.getFieldPointers()) +
+                boundFunctionFields(ruleFilterVisitor.getBoundFunctions()) +
                 "    @Override\n" +
                 "    protected boolean doFilter(JsonNode jsonValue) {\n" +
                 "        return " + nullSafePredicate(ruleFilterVisitor.getFilter()) + ";\n" +
@@ -59,6 +104,49 @@ public class RuleFilterToJava {
         return new RuleCode(ruleClassName, dsl, packageName + "." + ruleClassName, javaCode);
     }
 
+    private RuleCode clausesTemplating(String name, List<String> clauses, List<String> predicates, RuleFilterVisitorImpl ruleFilterVisitor) {
+        String ruleClassName = simpleClausesClassName(name);
+        String packageName = PACKAGE_NAME;
+        String cases = "";
+        for (int i = 0; i < predicates.size(); i++) {
+            cases += "            case " + i + ":\n" +
+                    "                return " + predicates.get(i) + ";\n";
+        }
+        String dsl = String.join("\n", clauses);
+        String javaCode = "package " + packageName + ";\n" +
+                "\n" +
+                "import java.util.concurrent.*;\n" +
+                "import static java.util.concurrent.TimeUnit.*;\n" +
+                "\n" +
+                "import static io.skalogs.skaetl.rules.UtilsValidator.*;\n" +
+                "import javax.annotation.Generated;\n" +
+                "import com.fasterxml.jackson.databind.JsonNode;\n" +
+                "import io.skalogs.skaetl.rules.filters.GenericFilterClauses;\n" +
+                "\n" +
+                "/*\n" +
+                dsl + "\n" +
+                "*/\n" +
+                "@Generated(\"etlFilter\")\n" +
+                "public class " + ruleClassName + " extends GenericFilterClauses {\n" +
+                fieldPointerFields(ruleFilterVisitor.getFieldPointers()) +
+                boundFunctionFields(ruleFilterVisitor.getBoundFunctions()) +
+                "    public " + ruleClassName + "() {\n" +
+                "        super(" + predicates.size() + ");\n" +
+                "    }\n" +
+                "\n" +
+                "    @Override\n" +
+                "    protected boolean clause(JsonNode jsonValue, int index) {\n" +
+                "        switch (index) {\n" +
+                cases +
+                "            default:\n" +
+                "                throw new IndexOutOfBoundsException(\"No clause \" + index);\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        return new RuleCode(ruleClassName, dsl, packageName + "." + ruleClassName, javaCode);
+    }
+
     public static RuleFilterParser parser(String dsl) {
         SyntaxErrorListener syntaxErrorListener = new SyntaxErrorListener(dsl);
 
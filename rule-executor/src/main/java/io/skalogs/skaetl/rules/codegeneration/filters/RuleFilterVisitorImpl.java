@@ -7,6 +7,7 @@ import lombok.Getter;
 import org.antlr.v4.runtime.tree.RuleNode;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static io.skalogs.skaetl.rules.codegeneration.RuleToJava.*;
@@ -15,6 +16,8 @@ import static io.skalogs.skaetl.rules.codegeneration.RuleToJava.*;
 public class RuleFilterVisitorImpl extends RuleFilterBaseVisitor<String> {
 
     private String filter;
+    private final List<String> boundFunctions = new ArrayList<>();
+    private final List<String> fieldPointers = new ArrayList<>();
 
     @Override
     public String visitParse(RuleFilterParser.ParseContext ctx) {
@@ -43,7 +46,16 @@ public class RuleFilterVisitorImpl extends RuleFilterBaseVisitor<String> {
 
     @Override
     public String visitFieldname(RuleFilterParser.FieldnameContext ctx) {
-        return "get(jsonValue,\"" + ctx.getText() + "\")";
+        return "get(jsonValue," + fieldReference(ctx) + ")";
+    }
+
+    private String fieldNode(RuleFilterParser.FieldnameContext ctx) {
+        return "field(jsonValue," + fieldReference(ctx) + ")";
+    }
+
+    private String fieldReference(RuleFilterParser.FieldnameContext ctx) {
+        String fieldName = ctx.getText();
+        return fieldName.indexOf('.') < 0 ? "\"" + fieldName + "\"" : fieldPointer(fieldPointers, fieldName);
     }
 
     protected String text(RuleNode node) {
@@ -79,7 +91,31 @@ public class RuleFilterVisitorImpl extends RuleFilterBaseVisitor<String> {
 
     @Override
     public String visitComparisonExpr(RuleFilterParser.ComparisonExprContext ctx) {
-        return comparisonMethod(ctx.COMPARISON_OPERATION().getText(), visit(ctx.expr(0)), visit(ctx.expr(1)));
+        String operation = ctx.COMPARISON_OPERATION().getText();
+        String fieldComparison = null;
+        if (ctx.expr(0) instanceof RuleFilterParser.FieldNameExprContext && ctx.expr(1) instanceof RuleFilterParser.AtomExprContext) {
+            fieldComparison = fieldComparison(operation, ((RuleFilterParser.FieldNameExprContext) ctx.expr(0)).fieldname(), ((RuleFilterParser.AtomExprContext) ctx.expr(1)).atom());
+        } else if (ctx.expr(0) instanceof RuleFilterParser.AtomExprContext && ctx.expr(1) instanceof RuleFilterParser.FieldNameExprContext) {
+            fieldComparison = fieldComparison(mirrorComparisonOperation(operation), ((RuleFilterParser.FieldNameExprContext) ctx.expr(1)).fieldname(), ((RuleFilterParser.AtomExprContext) ctx.expr(0)).atom());
+        }
+        if (fieldComparison != null) {
+            return fieldComparison;
+        }
+        return comparisonMethod(operation, visit(ctx.expr(0)), visit(ctx.expr(1)));
+    }
+
+    // the literal gives the type, the field is read as a primitive straight from its node
+    private String fieldComparison(String operation, RuleFilterParser.FieldnameContext fieldname, RuleFilterParser.AtomContext atom) {
+        if (atom instanceof RuleFilterParser.IntAtomContext) {
+            return fieldComparisonMethod(operation, fieldNode(fieldname), atom.getText() + "L");
+        }
+        if (atom instanceof RuleFilterParser.FloatAtomContext) {
+            return fieldComparisonMethod(operation, fieldNode(fieldname), atom.getText() + "d");
+        }
+        if ((atom instanceof RuleFilterParser.StringAtomContext || atom instanceof RuleFilterParser.BooleanAtomContext) && isEqualityOperation(operation)) {
+            return fieldComparisonMethod(operation, fieldNode(fieldname), atom.getText());
+        }
+        return null;
     }
 
 
@@ -111,7 +147,7 @@ public class RuleFilterVisitorImpl extends RuleFilterBaseVisitor<String> {
     @Override
     public String visitOneArgCondition(RuleFilterParser.OneArgConditionContext ctx) {
         String functionName = visit(ctx.functionname());
-        return oneArgCondition(functionName, visit(ctx.fieldname()));
+        return oneArgCondition(boundFunctions, functionName, visit(ctx.fieldname()));
     }
 
     @Override
@@ -121,7 +157,8 @@ public class RuleFilterVisitorImpl extends RuleFilterBaseVisitor<String> {
 
         String fieldValue = visit(ctx.fieldname());
         String args = visit(ctx.expr(), ",", "", "");
-        return notOperation + varArgCondition(functionName, fieldValue, args);
+        boolean constantArgs = ctx.expr().stream().allMatch(expr -> expr instanceof RuleFilterParser.AtomExprContext);
+        return notOperation + varArgCondition(boundFunctions, functionName, fieldValue, args, constantArgs);
     }
 
     protected String visit(List<RuleFilterParser.ExprContext> exprs, String visitSeparators, String appendToVisitResultBegin, String appendToVisitResultEnd) {
@@ -16,11 +16,14 @@ import java.util.Arrays;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static io.skalogs.skaetl.rules.codegeneration.RuleToJava.boundFunctionFields;
 import static io.skalogs.skaetl.rules.codegeneration.RuleToJava.nullSafePredicate;
 
 @Component
 public class RuleMetricToJava {
 
+    private static final String PACKAGE_NAME = "io.skalogs.skaetl.metrics.generated";
+
     public RuleCode convert(String name, String dsl) {
         checkNotNull(name);
         checkNotNull(dsl);
@@ -33,10 +36,38 @@ public class RuleMetricToJava {
         }
     }
 
-    private RuleCode templating(String name, String dsl, RuleMetricVisitorImpl ruleMetricVisitor) {
+    public static String ruleClassName(String name) {
+        return PACKAGE_NAME + "." + simpleClassName(name);
+    }
+
+    private static String simpleClassName(String name) {
         String camelCaseName = RuleToJava.toCamelCase(name);
-        String ruleClassName = StringUtils.replace(camelCaseName, "\"", "");
-        String packageName = "io.skalogs.skaetl.metrics.generated";
+        return StringUtils.replace(camelCaseName, "\"", "");
+    }
+
+    // ranking functions count the values as text, the others aggregate numbers
+    private static String aggregateMethod(RuleMetricVisitorImpl ruleMetricVisitor) {
+        return RuleMetricVisitorImpl.isTextAggFunction(ruleMetricVisitor.getAggFunction()) ? "aggregateText(KGroupedStream<Keys, String>" : "aggregate(KGroupedStream<Keys, Double>";
+    }
+
+    private static String mapValuesMethod(RuleMetricVisitorImpl ruleMetricVisitor) {
+        return RuleMetricVisitorImpl.isTextAggFunction(ruleMetricVisitor.getAggFunction()) ? "String mapText" : "Double mapValues";
+    }
+
+    // functions without a field, like count(), do not read the value
+    private static String mapValuesCode(RuleMetricVisitorImpl ruleMetricVisitor) {
+        return StringUtils.isNotBlank(ruleMetricVisitor.getAggFunctionField()) ? ruleMetricVisitor.getAggFunctionValue() : "0d";
+    }
+
+    private static String aggFunctionParameters(RuleMetricVisitorImpl ruleMetricVisitor) {
+        return ruleMetricVisitor.getAggFunctionParameters().stream()
+                .map(parameter -> ", " + parameter)
+                .collect(Collectors.joining());
+    }
+
+    private RuleCode templating(String name, String dsl, RuleMetricVisitorImpl ruleMetricVisitor) {
+        String ruleClassName = simpleClassName(name);
+        String packageName = PACKAGE_NAME;
         String javaCode = "package " + packageName + ";\n" +
                 "\n" +
                 "import com.fasterxml.jackson.databind.JsonNode;\n" +
@@ -58,6 +89,7 @@ public class RuleMetricToJava {
                 "*/\n" +
                 "@Generated(\"etlMetric\")\n" +
                 "public class " + ruleClassName + " extends GenericMetricProcessor {\n" +
+                boundFunctionFields(ruleMetricVisitor.getBoundFunctions()) +
                 "    public " + ruleClassName + "(ProcessMetric processMetric) {\n";
         if (StringUtils.isBlank(ruleMetricVisitor.getJoinFrom())) {
             javaCode+="        super(processMetric, \"" + ruleMetricVisitor.getFrom() + "\");\n";
@@ -69,20 +101,18 @@ public class RuleMetricToJava {
                 "    \n" +
                 "    @Override\n" +
                 "    protected AggregateFunction aggInitializer() {\n" +
-                "        return aggFunction(\"" + ruleMetricVisitor.getAggFunction() + "\");\n" +
+                "        return aggFunction(\"" + ruleMetricVisitor.getAggFunction() + "\"" + aggFunctionParameters(ruleMetricVisitor) + ");\n" +
                 "    }\n" +
                 "    \n" +
                 "    @Override\n" +
-                "    protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
+                "    protected KTable<Windowed<Keys>, AggregateFunction> " + aggregateMethod(ruleMetricVisitor) + " kGroupedStream) {\n" +
                 "        return " + ruleMetricVisitor.getWindow() + ";\n" +
+                "    }\n" +
+                "    \n" +
+                "    @Override\n" +
+                "    protected " + mapValuesMethod(ruleMetricVisitor) + "(JsonNode value) {\n" +
+                "        return " + mapValuesCode(ruleMetricVisitor) + ";\n" +
                 "    }\n";
-        if (StringUtils.isNotBlank(ruleMetricVisitor.getAggFunctionField())) {
-            javaCode += "    \n" +
-                    "    @Override\n" +
-                    "    protected Double mapValues(JsonNode value) {\n" +
-                    "        return value.path(\"" + ruleMetricVisitor.getAggFunctionField() + "\").asDouble();\n" +
-                    "    }\n";
-        }
         if (StringUtils.isNotBlank(ruleMetricVisitor.getWhere())) {
             javaCode += "    \n" +
                     "    @Override\n" +
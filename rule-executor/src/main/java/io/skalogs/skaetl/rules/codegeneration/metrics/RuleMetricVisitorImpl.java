@@ -7,6 +7,7 @@ import lombok.Getter;
 import org.antlr.v4.runtime.tree.RuleNode;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static io.skalogs.skaetl.rules.codegeneration.RuleToJava.*;
@@ -21,6 +22,8 @@ public class RuleMetricVisitorImpl extends RuleMetricBaseVisitor<String> {
     private String having;
     private String aggFunction;
     private String aggFunctionField;
+    private String aggFunctionValue;
+    private final List<String> aggFunctionParameters = new ArrayList<>();
 
     private String joinFrom;
     private String joinKeyFromA;
@@ -28,6 +31,8 @@ public class RuleMetricVisitorImpl extends RuleMetricBaseVisitor<String> {
     private String joinWhere;
     private String joinWindow;
 
+    private final List<String> boundFunctions = new ArrayList<>();
+
     @Override
     public String visitParse(RuleMetricParser.ParseContext ctx) {
         try {
@@ -104,10 +109,30 @@ public class RuleMetricVisitorImpl extends RuleMetricBaseVisitor<String> {
         aggFunction = visit(ctx.function_name());
         if (ctx.target() != null) {
             aggFunctionField = visit(ctx.target());
+            aggFunctionValue = aggFunctionValue(aggFunction, "value.path(\"" + aggFunctionField + "\")");
+        }
+        for (RuleMetricParser.AggparameterContext aggparameter : ctx.aggparameter()) {
+            aggFunctionParameters.add(aggparameter.getText() + "d");
         }
         return aggFunction;
     }
 
+    // distinct values of any type, the other functions work on numbers
+    private static String aggFunctionValue(String aggFunction, String field) {
+        if ("count_distinct".equalsIgnoreCase(aggFunction)) {
+            return "distinctValue(" + field + ")";
+        }
+        if (isTextAggFunction(aggFunction)) {
+            return field + ".asText()";
+        }
+        return field + ".asDouble()";
+    }
+
+    // ranks the values themselves, see GenericMetricProcessor.mapText
+    public static boolean isTextAggFunction(String aggFunction) {
+        return "topk".equalsIgnoreCase(aggFunction);
+    }
+
     @Override
     public String visitTimeunit(RuleMetricParser.TimeunitContext ctx) {
         switch (ctx.getText()) {
@@ -210,7 +235,7 @@ public class RuleMetricVisitorImpl extends RuleMetricBaseVisitor<String> {
     @Override
     public String visitOneArgCondition(RuleMetricParser.OneArgConditionContext ctx) {
         String functionName = visit(ctx.functionname());
-        return oneArgCondition(functionName, visit(ctx.fieldvalue()));
+        return oneArgCondition(boundFunctions, functionName, visit(ctx.fieldvalue()));
     }
 
     @Override
@@ -219,7 +244,8 @@ public class RuleMetricVisitorImpl extends RuleMetricBaseVisitor<String> {
         String notOperation = ctx.NOT_OPERATION() != null ? "!" : "";
         String fieldValue = visit(ctx.fieldvalue());
         String args = visit(ctx.expr(), ",", "", "");
-        return notOperation + varArgCondition(functionName, fieldValue, args);
+        boolean constantArgs = ctx.expr().stream().allMatch(expr -> expr instanceof RuleMetricParser.AtomExprContext);
+        return notOperation + varArgCondition(boundFunctions, functionName, fieldValue, args, constantArgs);
     }
 
 
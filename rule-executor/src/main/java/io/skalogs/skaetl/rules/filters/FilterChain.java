@@ -0,0 +1,205 @@
+package io.skalogs.skaetl.rules.filters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.prometheus.client.Counter;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * All the filters of a process as one conjunction: every top level AND clause of every filter is a clause of the chain,
+ * a clause shared by several filters is evaluated once, and all of them are generated in a single GenericFilterClauses.
+ * Clauses are reordered from statistics sampled at runtime so the ones rejecting the most for the least time run first,
+ * and each one counts what it rejects so operators can see which filter drops what. A clause failing on an event rejects
+ * it: once reordered, it may run before the clause that guarded it, like x = 1 in is_number(x) AND x = 1.
+ */
+@Slf4j
+public class FilterChain {
+
+    // published at each reorder rather than per event, labelled by clause index to stay bounded, once per filter using the clause
+    private static final Counter clauseRejectedCount = Counter.build()
+            .name("nb_filter_clause_rejected_count")
+            .help("nb events rejected by a filter clause")
+            .labelNames("processConsumerName", "filterName", "clauseIndex")
+            .register();
+
+    // one event out of 256 is timed, the order is computed again every 64 timed events or at most a minute apart
+    private static final int SAMPLING_MASK = 0xFF;
+    private static final int REORDER_EVERY_SAMPLES = 64;
+    private static final long REORDER_MAX_DELAY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final GenericFilterClauses genericFilterClauses;
+    private final int samplingMask;
+    private final AtomicLong sampledEvents = new AtomicLong();
+    private final AtomicBoolean reordering = new AtomicBoolean();
+    private volatile long lastReorderNanos = System.nanoTime();
+    private volatile Clause[] clauses;
+
+    FilterChain(String processName, GenericFilterClauses genericFilterClauses, List<Clause> clauses) {
+        this(processName, genericFilterClauses, clauses, SAMPLING_MASK);
+    }
+
+    FilterChain(String processName, GenericFilterClauses genericFilterClauses, List<Clause> clauses, int samplingMask) {
+        this.genericFilterClauses = genericFilterClauses;
+        this.samplingMask = samplingMask;
+        for (Clause clause : clauses) {
+            clause.bindCounter(processName);
+        }
+        this.clauses = clauses.toArray(new Clause[0]);
+    }
+
+    public boolean filter(JsonNode jsonValue) {
+        if (jsonValue == null) {
+            return false;
+        }
+        Clause[] current = clauses;
+        boolean sampled = (ThreadLocalRandom.current().nextInt() & samplingMask) == 0;
+        boolean result = sampled ? timedFilter(current, jsonValue) : untimedFilter(current, jsonValue);
+        if ((sampled && sampledEvents.incrementAndGet() % REORDER_EVERY_SAMPLES == 0) || System.nanoTime() - lastReorderNanos > REORDER_MAX_DELAY_NANOS) {
+            reorder();
+        }
+        return result;
+    }
+
+    private boolean untimedFilter(Clause[] current, JsonNode jsonValue) {
+        for (Clause clause : current) {
+            if (!evaluate(clause, jsonValue)) {
+                clause.rejected.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean timedFilter(Clause[] current, JsonNode jsonValue) {
+        for (Clause clause : current) {
+            long start = System.nanoTime();
+            boolean result = evaluate(clause, jsonValue);
+            clause.sampled(System.nanoTime() - start, result);
+            if (!result) {
+                clause.rejected.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean evaluate(Clause clause, JsonNode jsonValue) {
+        try {
+            return genericFilterClauses.clause(jsonValue, clause.position);
+        } catch (RuntimeException e) {
+            log.debug("filter clause {} rejects {}: {}", clause, jsonValue, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * For independent clauses, the cheapest conjunction evaluates them by increasing cost / rejection probability.
+     * The probabilities are measured where each clause stands in the chain, good enough to converge in a few rounds.
+     */
+    void reorder() {
+        if (!reordering.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lastReorderNanos = System.nanoTime();
+            Clause[] reordered = clauses.clone();
+            for (Clause clause : reordered) {
+                clause.computeRank();
+            }
+            Arrays.sort(reordered, Comparator.comparingDouble(Clause::getRank).thenComparingInt(Clause::getPosition));
+            if (!Arrays.equals(reordered, clauses)) {
+                log.debug("filter clauses reordered {}", Arrays.toString(reordered));
+                clauses = reordered;
+            }
+        } finally {
+            reordering.set(false);
+        }
+    }
+
+    public List<Clause> getClauses() {
+        return Arrays.asList(clauses);
+    }
+
+    @Getter
+    public static class Clause {
+        // every filter using the clause, in declaration order
+        private final List<String> filterNames = new ArrayList<>();
+        private final String dsl;
+        // index of the clause in the generated GenericFilterClauses
+        private final int position;
+        // every rejection, evaluations and costs are only measured on sampled events
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder sampledEvaluated = new LongAdder();
+        private final LongAdder sampledRejected = new LongAdder();
+        private final LongAdder sampledNanos = new LongAdder();
+        private final List<Counter.Child> rejectedCounters = new ArrayList<>();
+        // statistics at the previous reorder, only touched while reordering
+        private long previousRejected;
+        private long previousSampledEvaluated;
+        private long previousSampledRejected;
+        private double rank;
+
+        Clause(String filterName, String dsl, int position) {
+            this.filterNames.add(filterName);
+            this.dsl = dsl;
+            this.position = position;
+        }
+
+        void addFilterName(String filterName) {
+            if (!filterNames.contains(filterName)) {
+                filterNames.add(filterName);
+            }
+        }
+
+        private void bindCounter(String processName) {
+            for (String filterName : filterNames) {
+                rejectedCounters.add(clauseRejectedCount.labels(processName, filterName, String.valueOf(position)));
+            }
+        }
+
+        private void sampled(long nanos, boolean accepted) {
+            sampledNanos.add(nanos);
+            sampledEvaluated.increment();
+            if (!accepted) {
+                sampledRejected.increment();
+            }
+        }
+
+        private void computeRank() {
+            long rejectedCount = rejected.sum();
+            for (Counter.Child rejectedCounter : rejectedCounters) {
+                rejectedCounter.inc(rejectedCount - previousRejected);
+            }
+            previousRejected = rejectedCount;
+
+            long evaluatedCount = sampledEvaluated.sum();
+            long sampledRejectedCount = sampledRejected.sum();
+            long newlyEvaluated = evaluatedCount - previousSampledEvaluated;
+            long newlyRejected = sampledRejectedCount - previousSampledRejected;
+            previousSampledEvaluated = evaluatedCount;
+            previousSampledRejected = sampledRejectedCount;
+            if (newlyEvaluated == 0) {
+                // not reached since the last reorder: what it was worth then still holds, never measured ranks first
+                return;
+            }
+            double cost = Math.max(1, (double) sampledNanos.sum() / evaluatedCount);
+            rank = newlyRejected == 0 ? Double.MAX_VALUE : cost / ((double) newlyRejected / newlyEvaluated);
+        }
+
+        @Override
+        public String toString() {
+            return StringUtils.join(filterNames, ", ") + ": " + dsl;
+        }
+    }
+}
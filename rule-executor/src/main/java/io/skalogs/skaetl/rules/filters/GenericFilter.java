@@ -1,6 +1,7 @@
 package io.skalogs.skaetl.rules.filters;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import io.skalogs.skaetl.rules.functions.BoundFilter;
 import io.skalogs.skaetl.rules.functions.FunctionRegistry;
 
 public abstract class GenericFilter {
@@ -18,4 +19,8 @@ public abstract class GenericFilter {
         return FunctionRegistry.getInstance().evaluate(functionName, args);
     }
 
+    protected BoundFilter bind(String functionName, Object... constantArgs) {
+        return FunctionRegistry.getInstance().bind(functionName, constantArgs);
+    }
+
 }
@@ -0,0 +1,34 @@
+package io.skalogs.skaetl.rules.filters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * All the clauses of a FilterChain generated as one class: a single compilation per process, and the field pointers
+ * and bound functions shared by several clauses are set up once.
+ */
+public abstract class GenericFilterClauses extends GenericFilter {
+
+    private final int clauseCount;
+
+    protected GenericFilterClauses(int clauseCount) {
+        this.clauseCount = clauseCount;
+    }
+
+    public int getClauseCount() {
+        return clauseCount;
+    }
+
+    // the conjunction in declaration order, FilterChain evaluates the clauses in its own order
+    @Override
+    protected final boolean doFilter(JsonNode jsonValue) {
+        for (int index = 0; index < clauseCount; index++) {
+            if (!clause(jsonValue, index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected abstract boolean clause(JsonNode jsonValue, int index);
+
+}
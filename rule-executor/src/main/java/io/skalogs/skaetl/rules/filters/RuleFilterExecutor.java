@@ -1,33 +1,131 @@
 package io.skalogs.skaetl.rules.filters;
 
 
-import io.skalogs.skaetl.rules.codegeneration.domain.RuleCode;
+import io.skalogs.skaetl.compiler.DynamicCompilerException;
+import io.skalogs.skaetl.config.RuleCompilerConfiguration;
+import io.skalogs.skaetl.rules.RuleFilterParser;
+import io.skalogs.skaetl.rules.codegeneration.CompiledClassCache;
+import io.skalogs.skaetl.rules.codegeneration.RuleCompiler;
+import io.skalogs.skaetl.rules.codegeneration.RuleToJava;
+import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterToBytecode;
 import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterToJava;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.antlr.v4.runtime.misc.Interval;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-@AllArgsConstructor
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @Slf4j
 public class RuleFilterExecutor {
 
     private final RuleFilterToJava ruleFilterToJava;
+    private final RuleFilterToBytecode ruleFilterToBytecode;
+    private final CompiledClassCache compiledClassCache;
+    private final RuleCompiler ruleCompiler;
+
+    public RuleFilterExecutor(RuleFilterToJava ruleFilterToJava) {
+        this(ruleFilterToJava, new RuleFilterToBytecode(), new CompiledClassCache(), RuleCompiler.JAVAC);
+    }
+
+    @Autowired
+    public RuleFilterExecutor(RuleFilterToJava ruleFilterToJava, RuleFilterToBytecode ruleFilterToBytecode, CompiledClassCache compiledClassCache, RuleCompilerConfiguration ruleCompilerConfiguration) {
+        this(ruleFilterToJava, ruleFilterToBytecode, compiledClassCache, ruleCompilerConfiguration.getCompiler());
+    }
+
+    public RuleFilterExecutor(RuleFilterToJava ruleFilterToJava, RuleFilterToBytecode ruleFilterToBytecode, CompiledClassCache compiledClassCache, RuleCompiler ruleCompiler) {
+        this.ruleFilterToJava = ruleFilterToJava;
+        this.ruleFilterToBytecode = ruleFilterToBytecode;
+        this.compiledClassCache = compiledClassCache;
+        this.ruleCompiler = ruleCompiler;
+    }
 
     public GenericFilter instanciate(String name, String dsl) {
-        return instanciate(ruleFilterToJava.convert(name, dsl));
+        String key = CompiledClassCache.key(RuleToJava.GENERATOR_VERSION, ruleCompiler.name(), "filter", name, dsl);
+        Class aClass;
+        try {
+            aClass = compiledClassCache.get(key, RuleFilterToJava.ruleClassName(name), () -> compile(name, dsl));
+        } catch (DynamicCompilerException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return instanciate(aClass);
     }
 
-    private GenericFilter instanciate(RuleCode ruleCode) {
+    /**
+     * One chain for all the filters of a process, criteria by filter name in their declaration order.
+     */
+    public FilterChain instanciate(String processName, Map<String, String> criteriaByFilterName) {
+        Map<String, FilterChain.Clause> clauses = new LinkedHashMap<>();
+        for (Map.Entry<String, String> criteria : criteriaByFilterName.entrySet()) {
+            for (String clause : conjunctions(criteria.getValue())) {
+                if (clauses.containsKey(clause)) {
+                    clauses.get(clause).addFilterName(criteria.getKey());
+                } else {
+                    clauses.put(clause, new FilterChain.Clause(criteria.getKey(), clause, clauses.size()));
+                }
+            }
+        }
+        List<String> dsls = new ArrayList<>(clauses.keySet());
+        List<String> keyParts = new ArrayList<>(Arrays.asList(RuleToJava.GENERATOR_VERSION, ruleCompiler.name(), "clauses", processName));
+        keyParts.addAll(dsls);
+        Class aClass;
         try {
-            return instanciate(ruleCode.compile());
-        } catch (Exception e) {
+            aClass = compiledClassCache.get(CompiledClassCache.key(keyParts.toArray(new String[0])), RuleFilterToJava.clausesClassName(processName), () -> compileClauses(processName, dsls));
+        } catch (DynamicCompilerException e) {
             throw new IllegalArgumentException(e);
         }
+        return new FilterChain(processName, (GenericFilterClauses) instanciate(aClass), new ArrayList<>(clauses.values()));
+    }
+
+    // a AND (b AND c) OR d is a and (b AND c) OR d, clauses keep the text they were written with
+    static List<String> conjunctions(String dsl) {
+        List<String> clauses = new ArrayList<>();
+        conjunctions(RuleFilterToJava.parser(dsl).parse().filter().expr(), clauses);
+        return clauses;
     }
 
-    private GenericFilter instanciate(Class aClass) throws Exception {
-        return (GenericFilter) aClass.newInstance();
+    private static void conjunctions(RuleFilterParser.ExprContext expr, List<String> clauses) {
+        if (expr instanceof RuleFilterParser.AndConditionContext) {
+            conjunctions(((RuleFilterParser.AndConditionContext) expr).expr(0), clauses);
+            conjunctions(((RuleFilterParser.AndConditionContext) expr).expr(1), clauses);
+        } else if (expr instanceof RuleFilterParser.SubExprContext && ((RuleFilterParser.SubExprContext) expr).expr() instanceof RuleFilterParser.AndConditionContext) {
+            conjunctions(((RuleFilterParser.SubExprContext) expr).expr(), clauses);
+        } else {
+            clauses.add(expr.start.getInputStream().getText(Interval.of(expr.start.getStartIndex(), expr.stop.getStopIndex())));
+        }
+    }
+
+    private Map<String, byte[]> compile(String name, String dsl) {
+        switch (ruleCompiler) {
+            case BYTECODE:
+                return ruleFilterToBytecode.convert(name, dsl);
+            case JAVAC:
+            default:
+                return CompiledClassCache.javac(RuleFilterToJava.ruleClassName(name), ruleFilterToJava.convert(name, dsl).getJava());
+        }
+    }
+
+    private Map<String, byte[]> compileClauses(String processName, List<String> clauses) {
+        switch (ruleCompiler) {
+            case BYTECODE:
+                return ruleFilterToBytecode.convertClauses(processName, clauses);
+            case JAVAC:
+            default:
+                return CompiledClassCache.javac(RuleFilterToJava.clausesClassName(processName), ruleFilterToJava.convertClauses(processName, clauses).getJava());
+        }
+    }
+
+    private GenericFilter instanciate(Class aClass) {
+        try {
+            return (GenericFilter) aClass.newInstance();
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
     }
 
 }
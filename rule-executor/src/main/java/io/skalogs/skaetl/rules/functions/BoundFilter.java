@@ -0,0 +1,9 @@
+package io.skalogs.skaetl.rules.functions;
+
+/**
+ * A filter function whose constant arguments were prepared once, only the field value changes from one event to the next.
+ */
+@FunctionalInterface
+public interface BoundFilter {
+    boolean test(Object fieldValue);
+}
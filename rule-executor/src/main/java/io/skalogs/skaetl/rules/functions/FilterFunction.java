@@ -1,4 +1,16 @@
 package io.skalogs.skaetl.rules.functions;
 
 public abstract class FilterFunction<InputType> extends RuleFunction<InputType, Boolean> {
+
+    /**
+     * Called once when the generated filter is instantiated. Overrides precompile what they can out of the constant arguments.
+     */
+    public BoundFilter bind(Object... constantArgs) {
+        return fieldValue -> {
+            Object[] args = new Object[constantArgs.length + 1];
+            args[0] = fieldValue;
+            System.arraycopy(constantArgs, 0, args, 1, constantArgs.length);
+            return evaluate(args);
+        };
+    }
 }
@@ -38,6 +38,14 @@ public class FunctionRegistry {
         return (T) getRuleFunction(functionName).evaluate(args);
     }
 
+    public BoundFilter bind(String functionName, Object... constantArgs) {
+        RuleFunction ruleFunction = getRuleFunction(functionName);
+        if (!(ruleFunction instanceof FilterFunction)) {
+            throw new IllegalArgumentException("Unknown filter function " + functionName);
+        }
+        return ((FilterFunction) ruleFunction).bind(constantArgs);
+    }
+
     public RuleFunction getRuleFunction(String functionName) {
         return registry.get(functionName.toUpperCase());
     }
@@ -1,6 +1,8 @@
 package io.skalogs.skaetl.rules.functions;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class InFunction<InputType> extends VarArgFilterFunction<InputType> {
     @Override
@@ -15,4 +17,10 @@ public class InFunction<InputType> extends VarArgFilterFunction<InputType> {
         }
         return false;
     }
+
+    @Override
+    protected BoundFilter bindVarArgs(List<InputType> values) {
+        Set<InputType> set = new HashSet<>(values);
+        return fieldValue -> fieldValue != null && set.contains(fieldValue);
+    }
 }
@@ -9,5 +9,11 @@ public abstract class OneArgFilterFunction<InputType> extends FilterFunction<Inp
         return evaluateOneArg((InputType) args[0]);
     }
 
+    @Override
+    public BoundFilter bind(Object... constantArgs) {
+        Preconditions.checkArgument(constantArgs.length == 0);
+        return fieldValue -> evaluateOneArg((InputType) fieldValue);
+    }
+
     public abstract Boolean evaluateOneArg(InputType arg);
 }
@@ -2,6 +2,8 @@ package io.skalogs.skaetl.rules.functions;
 
 import com.google.common.base.Preconditions;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -14,5 +16,15 @@ public abstract class VarArgFilterFunction<InputType> extends FilterFunction<Inp
         return evaluateVarArgs((InputType) args[0], realArgs);
     }
 
+    @Override
+    public BoundFilter bind(Object... constantArgs) {
+        Preconditions.checkArgument(constantArgs.length >= 1);
+        return bindVarArgs(Collections.unmodifiableList(Arrays.asList((InputType[]) constantArgs.clone())));
+    }
+
+    protected BoundFilter bindVarArgs(List<InputType> values) {
+        return fieldValue -> evaluateVarArgs((InputType) fieldValue, values);
+    }
+
     public abstract Boolean evaluateVarArgs(InputType fieldValue, List<InputType> values);
 }
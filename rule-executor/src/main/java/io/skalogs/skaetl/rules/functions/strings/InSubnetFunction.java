@@ -1,7 +1,9 @@
 package io.skalogs.skaetl.rules.functions.strings;
 
+import io.skalogs.skaetl.rules.functions.BoundFilter;
 import io.skalogs.skaetl.rules.functions.VarArgFilterFunction;
 import io.skalogs.skaetl.utils.IPUtils;
+import io.skalogs.skaetl.utils.SubnetMatcher;
 
 import java.util.List;
 
@@ -19,4 +21,10 @@ public class InSubnetFunction extends VarArgFilterFunction<String> {
 
         return false;
     }
+
+    @Override
+    protected BoundFilter bindVarArgs(List<String> subnets) {
+        SubnetMatcher subnetMatcher = new SubnetMatcher(subnets);
+        return ip -> ip != null && subnetMatcher.matches(ip.toString());
+    }
 }
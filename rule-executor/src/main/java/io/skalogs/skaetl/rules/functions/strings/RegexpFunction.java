@@ -1,12 +1,31 @@
 package io.skalogs.skaetl.rules.functions.strings;
 
+import io.skalogs.skaetl.rules.functions.BoundFilter;
 import io.skalogs.skaetl.rules.functions.VarArgFilterFunction;
 
 import java.util.List;
+import java.util.regex.Pattern;
 
 public class RegexpFunction extends VarArgFilterFunction<String> {
     @Override
     public Boolean evaluateVarArgs(String fieldValue, List<String> regexps) {
         return regexps.stream().filter(regexp -> fieldValue.matches(regexp)).findFirst().isPresent();
     }
+
+    @Override
+    protected BoundFilter bindVarArgs(List<String> regexps) {
+        Pattern[] patterns = regexps.stream().map(Pattern::compile).toArray(Pattern[]::new);
+        return fieldValue -> {
+            if (fieldValue == null) {
+                return false;
+            }
+            String value = fieldValue.toString();
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(value).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
 }
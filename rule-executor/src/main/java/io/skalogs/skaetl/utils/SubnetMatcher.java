@@ -0,0 +1,164 @@
+package io.skalogs.skaetl.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Matches IPv4 addresses against a fixed set of subnets, given as CIDR (10.12.1.0/23), single address or wildcard (10.*.1.*).
+ * CIDRs and wildcards on the last octets go into a binary prefix trie, a lookup costs at most 32 steps whatever the number of subnets.
+ */
+public class SubnetMatcher {
+
+    private final Node root = new Node();
+    // wildcards in the middle of the address (10.*.1.*) are not prefixes, they are checked as mask/value pairs
+    private final List<int[]> maskedSubnets = new ArrayList<>();
+
+    public SubnetMatcher(Collection<String> subnets) {
+        subnets.forEach(this::add);
+    }
+
+    public boolean matches(String ip) {
+        long address = parseIPv4(ip);
+        if (address < 0) {
+            return false;
+        }
+        Node node = root;
+        for (int i = 0; node != null; i++) {
+            if (node.terminal) {
+                return true;
+            }
+            if (i == 32) {
+                break;
+            }
+            node = ((address >>> (31 - i)) & 1) == 0 ? node.zero : node.one;
+        }
+        for (int[] maskedSubnet : maskedSubnets) {
+            if (((int) address & maskedSubnet[0]) == maskedSubnet[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(String subnet) {
+        String value = subnet.trim();
+        if (value.contains("*")) {
+            addWildcard(subnet, value);
+            return;
+        }
+        int slash = value.indexOf('/');
+        long address = parseIPv4(slash < 0 ? value : value.substring(0, slash));
+        int prefixLength = slash < 0 ? 32 : parsePrefixLength(value.substring(slash + 1));
+        if (address < 0 || prefixLength < 0) {
+            throw new IllegalArgumentException("Invalid subnet " + subnet);
+        }
+        insert(address, prefixLength);
+    }
+
+    private void addWildcard(String subnet, String value) {
+        String[] groups = value.split("\\.", -1);
+        if (groups.length > 4) {
+            throw new IllegalArgumentException("Invalid subnet " + subnet);
+        }
+        int mask = 0;
+        int address = 0;
+        int prefixLength = 0;
+        boolean prefix = true;
+        // missing trailing groups are wildcards
+        for (int i = 0; i < 4; i++) {
+            String group = i < groups.length ? groups[i] : "*";
+            if ("*".equals(group)) {
+                prefix = false;
+                continue;
+            }
+            int octet = parseOctet(group, 0, group.length());
+            if (octet < 0) {
+                throw new IllegalArgumentException("Invalid subnet " + subnet);
+            }
+            mask |= 0xFF << (24 - 8 * i);
+            address |= octet << (24 - 8 * i);
+            if (prefix) {
+                prefixLength += 8;
+            }
+        }
+        if (Integer.bitCount(mask) == prefixLength) {
+            insert(address & 0xFFFFFFFFL, prefixLength);
+        } else {
+            maskedSubnets.add(new int[]{mask, address});
+        }
+    }
+
+    private void insert(long address, int prefixLength) {
+        Node node = root;
+        for (int i = 0; i < prefixLength; i++) {
+            if (node.terminal) {
+                // a shorter subnet already covers this one
+                return;
+            }
+            if (((address >>> (31 - i)) & 1) == 0) {
+                node = node.zero == null ? (node.zero = new Node()) : node.zero;
+            } else {
+                node = node.one == null ? (node.one = new Node()) : node.one;
+            }
+        }
+        node.terminal = true;
+    }
+
+    private static int parsePrefixLength(String value) {
+        if (value.isEmpty() || value.length() > 2) {
+            return -1;
+        }
+        int prefixLength = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            prefixLength = prefixLength * 10 + (c - '0');
+        }
+        return prefixLength <= 32 ? prefixLength : -1;
+    }
+
+    /**
+     * Dotted quad as an unsigned 32 bits value, -1 when the value is not an IPv4 address.
+     */
+    public static long parseIPv4(String ip) {
+        long address = 0;
+        int start = 0;
+        for (int group = 0; group < 4; group++) {
+            int end = group == 3 ? ip.length() : ip.indexOf('.', start);
+            if (end < 0) {
+                return -1;
+            }
+            int octet = parseOctet(ip, start, end);
+            if (octet < 0) {
+                return -1;
+            }
+            address = (address << 8) | octet;
+            start = end + 1;
+        }
+        return address;
+    }
+
+    private static int parseOctet(String value, int start, int end) {
+        if (end <= start || end - start > 3) {
+            return -1;
+        }
+        int octet = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            octet = octet * 10 + (c - '0');
+        }
+        return octet <= 255 ? octet : -1;
+    }
+
+    private static class Node {
+        private Node zero;
+        private Node one;
+        private boolean terminal;
+    }
+}
@@ -0,0 +1,68 @@
+package io.skalogs.skaetl.rules.codegeneration;
+
+import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterToJava;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompiledClassCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final RuleFilterToJava ruleFilterToJava = new RuleFilterToJava();
+
+    @Test
+    public void sameKeyCompilesOnce() {
+        CompiledClassCache compiledClassCache = new CompiledClassCache();
+        AtomicInteger generated = new AtomicInteger();
+        String key = CompiledClassCache.key("filter", "cachedFilter", "key1 >= 3");
+
+        Class<?> first = compiledClassCache.get(key, RuleFilterToJava.ruleClassName("cachedFilter"), source(generated, "cachedFilter", "key1 >= 3"));
+        Class<?> second = compiledClassCache.get(key, RuleFilterToJava.ruleClassName("cachedFilter"), source(generated, "cachedFilter", "key1 >= 3"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(generated.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void keyDependsOnEveryPart() {
+        assertThat(CompiledClassCache.key("filter", "a", "key1 >= 3")).isEqualTo(CompiledClassCache.key("filter", "a", "key1 >= 3"));
+        assertThat(CompiledClassCache.key("filter", "a", "key1 >= 3")).isNotEqualTo(CompiledClassCache.key("filter", "a", "key1 >= 4"));
+        assertThat(CompiledClassCache.key("filter", "ab", "c")).isNotEqualTo(CompiledClassCache.key("filter", "a", "bc"));
+    }
+
+    @Test
+    public void fingerprintOfByteCode() {
+        assertThat(CompiledClassCache.fingerprint(RuleToJava.class)).isEqualTo(CompiledClassCache.fingerprint(RuleToJava.class));
+        assertThat(CompiledClassCache.fingerprint(RuleToJava.class)).isNotEqualTo(CompiledClassCache.fingerprint(RuleFilterToJava.class));
+        assertThat(RuleToJava.GENERATOR_VERSION).hasSize(64);
+    }
+
+    @Test
+    public void reloadedFromDirectory() throws Exception {
+        AtomicInteger generated = new AtomicInteger();
+        String key = CompiledClassCache.key("filter", "storedFilter", "key1 >= 3");
+        String className = RuleFilterToJava.ruleClassName("storedFilter");
+
+        new CompiledClassCache(temporaryFolder.getRoot(), 10).get(key, className, source(generated, "storedFilter", "key1 >= 3"));
+        Class<?> reloaded = new CompiledClassCache(temporaryFolder.getRoot(), 10).get(key, className, source(generated, "storedFilter", "key1 >= 3"));
+
+        assertThat(generated.get()).isEqualTo(1);
+        assertThat(reloaded.getName()).isEqualTo(className);
+        assertThat(reloaded.newInstance()).isNotNull();
+    }
+
+    private Supplier<Map<String, byte[]>> source(AtomicInteger generated, String name, String dsl) {
+        return () -> {
+            generated.incrementAndGet();
+            return CompiledClassCache.javac(RuleFilterToJava.ruleClassName(name), ruleFilterToJava.convert(name, dsl).getJava());
+        };
+    }
+}
@@ -22,4 +22,13 @@ public class RuleExecutorTest {
         assertThat(myCompileFilter.filter(jsonObject)).isTrue();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldCompileFunctions() {
+        GenericFilter myCompileFilter = ruleExecutor.instanciate("myFunctionFilter", "ip IN_SUBNET(\"10.12.0.0/23\") AND code IN(\"A\",\"B\") AND name REGEXP(\"[a-z]+\") AND IS_NOT_BLANK(name)");
+        assertThat(myCompileFilter.filter(createJsonNode("{\"ip\": \"10.12.1.3\", \"code\": \"B\", \"name\": \"toto\"}"))).isTrue();
+        assertThat(myCompileFilter.filter(createJsonNode("{\"ip\": \"10.12.2.3\", \"code\": \"B\", \"name\": \"toto\"}"))).isFalse();
+        assertThat(myCompileFilter.filter(createJsonNode("{\"ip\": \"10.12.1.3\", \"code\": \"C\", \"name\": \"toto\"}"))).isFalse();
+        assertThat(myCompileFilter.filter(createJsonNode("{\"ip\": \"10.12.1.3\", \"code\": \"B\", \"name\": \"Toto\"}"))).isFalse();
+    }
+
+}
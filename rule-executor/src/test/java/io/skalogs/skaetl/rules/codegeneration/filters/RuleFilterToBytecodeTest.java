@@ -0,0 +1,117 @@
+package io.skalogs.skaetl.rules.codegeneration.filters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.skalogs.skaetl.rules.codegeneration.CompiledClassCache;
+import io.skalogs.skaetl.rules.codegeneration.RuleCompiler;
+import io.skalogs.skaetl.rules.codegeneration.exceptions.RuleVisitorException;
+import io.skalogs.skaetl.rules.filters.FilterChain;
+import io.skalogs.skaetl.rules.filters.GenericFilter;
+import io.skalogs.skaetl.rules.filters.RuleFilterExecutor;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.skalogs.skaetl.rules.JSONUtils.createJsonNode;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RuleFilterToBytecodeTest {
+
+    private final RuleFilterExecutor javac = new RuleFilterExecutor(new RuleFilterToJava(), new RuleFilterToBytecode(), new CompiledClassCache(), RuleCompiler.JAVAC);
+    private final RuleFilterExecutor bytecode = new RuleFilterExecutor(new RuleFilterToJava(), new RuleFilterToBytecode(), new CompiledClassCache(), RuleCompiler.BYTECODE);
+
+    private static final List<String> EVENTS = Arrays.asList(
+            "{\"code\": 200, \"bytes\": 2326, \"duration\": 0.25, \"type\": \"apache\", \"active\": true, \"ip\": \"10.12.1.3\", \"user\": {\"country\": \"FR\", \"age\": 34}}",
+            "{\"code\": 503, \"bytes\": 12, \"duration\": 3.5, \"type\": \"nginx\", \"active\": false, \"ip\": \"192.168.1.1\", \"user\": {\"country\": \"US\", \"age\": 17}}",
+            "{\"code\": \"200\", \"type\": \"say \\\"hello\\\"\", \"user\": \"nobody\"}",
+            "{}"
+    );
+
+    @Test
+    public void sameResultsAsJavac() {
+        List<String> dsls = Arrays.asList(
+                "code >= 200 AND code < 400",
+                "200 <= code",
+                "duration <= 2.5 OR bytes > 1000",
+                "type = \"apache\"",
+                "type != \"apache\"",
+                "type = \"say \\\"hello\\\"\"",
+                "active = true",
+                "active != false",
+                "user.country = \"FR\" AND user.age >= 18",
+                "NOT(code = 200)",
+                "(code = 200 OR code = 503) AND type = \"nginx\"",
+                "IF(code = 200, bytes > 1000, duration > 1.)",
+                "ip IN_SUBNET(\"10.12.0.0/23\")",
+                "type IN(\"apache\", \"iis\") AND ip IN_SUBNET(\"10.0.0.0/8\")",
+                "type NOT IN(\"apache\", \"iis\")",
+                "type REGEXP(\"[a-z]+\")",
+                "IS_NOT_BLANK(type) AND IS_BLANK(ip)",
+                "type IN(\"apache\") OR user.country IN(\"US\") OR type IN(\"apache\")",
+                "type IN(user.country, \"nginx\")"
+        );
+        for (String dsl : dsls) {
+            GenericFilter expected = javac.instanciate("parity", dsl);
+            GenericFilter actual = bytecode.instanciate("parity", dsl);
+            for (String event : EVENTS) {
+                JsonNode jsonValue = createJsonNode(event);
+                assertThat(actual.filter(jsonValue)).as(dsl + " on " + event).isEqualTo(expected.filter(jsonValue));
+            }
+        }
+    }
+
+    @Test
+    public void clausesSameResultsAsJavac() {
+        Map<String, String> criteria = new LinkedHashMap<>();
+        criteria.put("adults", "user.age >= 18 OR type IN(\"nginx\")");
+        criteria.put("french", "code >= 200 AND user.country = \"FR\"");
+        criteria.put("local", "ip IN_SUBNET(\"10.12.0.0/23\") OR user.country IN(\"US\")");
+        FilterChain expected = javac.instanciate("clausesParity", criteria);
+        FilterChain actual = bytecode.instanciate("clausesParity", criteria);
+        assertThat(actual.getClauses()).hasSize(4);
+        for (String event : EVENTS) {
+            JsonNode jsonValue = createJsonNode(event);
+            assertThat(actual.filter(jsonValue)).as("all clauses on " + event).isEqualTo(expected.filter(jsonValue));
+        }
+        for (Map.Entry<String, String> criterion : criteria.entrySet()) {
+            Map<String, String> alone = Collections.singletonMap(criterion.getKey(), criterion.getValue());
+            FilterChain expectedAlone = javac.instanciate("clausesParity " + criterion.getKey(), alone);
+            FilterChain actualAlone = bytecode.instanciate("clausesParity " + criterion.getKey(), alone);
+            for (String event : EVENTS) {
+                JsonNode jsonValue = createJsonNode(event);
+                assertThat(actualAlone.filter(jsonValue)).as(criterion.getValue() + " on " + event).isEqualTo(expectedAlone.filter(jsonValue));
+            }
+        }
+    }
+
+    @Test
+    public void className() {
+        Map<String, byte[]> byteCodes = new RuleFilterToBytecode().convert("my simple rule", "myfield >= 3");
+        assertThat(byteCodes).containsOnlyKeys("io.skalogs.skaetl.rules.generated.MySimpleRuleFilter");
+        assertThat(bytecode.instanciate("my simple rule", "myfield >= 3").getClass().getName()).isEqualTo("io.skalogs.skaetl.rules.generated.MySimpleRuleFilter");
+    }
+
+    @Test
+    public void fieldAlone() {
+        GenericFilter filter = bytecode.instanciate("fieldAlone", "active");
+        assertThat(filter.filter(createJsonNode("{\"active\": true}"))).isTrue();
+        assertThat(filter.filter(createJsonNode("{\"active\": false}"))).isFalse();
+        assertThat(filter.filter(createJsonNode("{}"))).isFalse();
+    }
+
+    @Test
+    public void unknownFunction() {
+        assertThatThrownBy(() -> new RuleFilterToBytecode().convert("unknown", "IS_UNKNOWN(type)"))
+                .isInstanceOf(RuleVisitorException.class);
+    }
+
+    @Test
+    public void arithmeticNotSupported() {
+        assertThatThrownBy(() -> new RuleFilterToBytecode().convert("arithmetic", "code + 1 > 3"))
+                .isInstanceOf(RuleVisitorException.class);
+    }
+}
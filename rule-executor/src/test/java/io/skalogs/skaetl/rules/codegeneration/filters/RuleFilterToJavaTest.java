@@ -47,7 +47,7 @@ public class RuleFilterToJavaTest {
                                 "public class SimpleFilter extends GenericFilter {\n" +
                                 "    @Override\n" +
                                 "    protected boolean doFilter(JsonNode jsonValue) {\n" +
-                                "        return isGreaterThanOrEqual(get(jsonValue,\"myfield\"),3);\n" +
+                                "        return fieldIsGreaterThanOrEqual(field(jsonValue,\"myfield\"),3L);\n" +
                                 "    }\n" +
                                 "}"));
         rule.compile();
@@ -79,12 +79,28 @@ public class RuleFilterToJavaTest {
                                 "public class MultipleConditionsFilter extends GenericFilter {\n" +
                                 "    @Override\n" +
                                 "    protected boolean doFilter(JsonNode jsonValue) {\n" +
-                                "        return isGreaterThanOrEqual(get(jsonValue,\"myfield\"),3) && isEqualTo(get(jsonValue,\"toto\"),\"something\");\n" +
+                                "        return fieldIsGreaterThanOrEqual(field(jsonValue,\"myfield\"),3L) && fieldIsEqualTo(field(jsonValue,\"toto\"),\"something\");\n" +
                                 "    }\n" +
                                 "}"));
         rule.compile();
     }
 
+    @Test
+    public void nestedFields() {
+        RuleFilterToJava ruleToJava = new RuleFilterToJava();
+        String dsl = "user.country = \"FR\" AND user.age > 17 AND IS_NOT_BLANK(user.country)";
+        RuleCode rule = ruleToJava.convert("Nested", dsl);
+        assertThat(rule.getJava())
+                .contains("public class NestedFilter extends GenericFilter {\n" +
+                        "    private static final com.fasterxml.jackson.core.JsonPointer pointer0 = com.fasterxml.jackson.core.JsonPointer.compile(\"/user/country\");\n" +
+                        "    private static final com.fasterxml.jackson.core.JsonPointer pointer1 = com.fasterxml.jackson.core.JsonPointer.compile(\"/user/age\");\n" +
+                        "    \n" +
+                        "    private final io.skalogs.skaetl.rules.functions.BoundFilter function0 = bind(\"IS_NOT_BLANK\");\n" +
+                        "    \n")
+                .contains("return fieldIsEqualTo(field(jsonValue,pointer0),\"FR\") && fieldIsGreaterThan(field(jsonValue,pointer1),17L) && function0.test(get(jsonValue,pointer0));");
+        rule.compile();
+    }
+
     @Test(expected = SyntaxErrorListener.SyntaxException.class)
     public void wrongSyntax() {
         RuleFilterToJava ruleToJava = new RuleFilterToJava();
@@ -70,6 +70,25 @@ public class RuleFilterVisitorImplTest {
         assertThat(expr("1>(2)")).isEqualTo("isGreaterThan(1,(2))");
     }
 
+    @Test
+    public void expr_field_comparison_expr() {
+        assertThat(expr("a>2")).isEqualTo("fieldIsGreaterThan(field(jsonValue,\"a\"),2L)");
+        assertThat(expr("a<=-2.5")).isEqualTo("fieldIsLowerThanOrEqual(field(jsonValue,\"a\"),-2.5d)");
+        assertThat(expr("2<a")).isEqualTo("fieldIsGreaterThan(field(jsonValue,\"a\"),2L)");
+        assertThat(expr("a=\"b\"")).isEqualTo("fieldIsEqualTo(field(jsonValue,\"a\"),\"b\")");
+        assertThat(expr("a!=true")).isEqualTo("fieldIsDifferentFrom(field(jsonValue,\"a\"),true)");
+        assertThat(expr("a>\"b\"")).isEqualTo("isGreaterThan(get(jsonValue,\"a\"),\"b\")");
+        assertThat(expr("a=b")).isEqualTo("isEqualTo(get(jsonValue,\"a\"),get(jsonValue,\"b\"))");
+    }
+
+    @Test
+    public void expr_nested_field() {
+        assertThat(expr("user.name")).isEqualTo("get(jsonValue,pointer0)");
+        assertThat(expr("user.age>=18")).isEqualTo("fieldIsGreaterThanOrEqual(field(jsonValue,pointer1),18L)");
+        assertThat(expr("user.name=\"jdoe\"")).isEqualTo("fieldIsEqualTo(field(jsonValue,pointer0),\"jdoe\")");
+        assertThat(generator.getFieldPointers()).containsExactly("/user/name", "/user/age");
+    }
+
     @Test
     public void expr_and_condition() {
         assertThat(expr("1 && 2")).isEqualTo("1 && 2");
@@ -90,47 +109,61 @@ public class RuleFilterVisitorImplTest {
 
     @Test
     public void expr_is_blank_condition() {
-        assertThat(expr("IS_BLANK(a)")).isEqualTo("evaluate(IS_BLANK,get(jsonValue,\"a\"))");
+        assertThat(expr("IS_BLANK(a)")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"IS_BLANK\")");
     }
 
     @Test
     public void expr_is_not_blank_condition() {
-        assertThat(expr("IS_NOT_BLANK(a)")).isEqualTo("evaluate(IS_NOT_BLANK,get(jsonValue,\"a\"))");
+        assertThat(expr("IS_NOT_BLANK(a)")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"IS_NOT_BLANK\")");
     }
 
     @Test
     public void expr_is_number_condition() {
-        assertThat(expr("IS_NUMBER(a)")).isEqualTo("evaluate(IS_NUMBER,get(jsonValue,\"a\"))");
+        assertThat(expr("IS_NUMBER(a)")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"IS_NUMBER\")");
     }
 
     @Test
     public void expr_contains_condition() {
-        assertThat(expr("a CONTAINS(2)")).isEqualTo("evaluate(CONTAINS,get(jsonValue,\"a\"),2)");
-        assertThat(expr("a CONTAINS(2,3)")).isEqualTo("evaluate(CONTAINS,get(jsonValue,\"a\"),2,3)");
+        assertThat(expr("a CONTAINS(2)")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(expr("a CONTAINS(2,3)")).isEqualTo("function1.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"CONTAINS\",2)", "bind(\"CONTAINS\",2,3)");
     }
 
     @Test
     public void expr_regexp_condition() {
-        assertThat(expr("a REGEXP(\"\\d+\")")).isEqualTo("evaluate(REGEXP,get(jsonValue,\"a\"),\"\\d+\")");
-        assertThat(expr("a REGEXP(\"[A-Z]*\", \"[0-1]*\")")).isEqualTo("evaluate(REGEXP,get(jsonValue,\"a\"),\"[A-Z]*\",\"[0-1]*\")");
+        assertThat(expr("a REGEXP(\"\\d+\")")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(expr("a REGEXP(\"[A-Z]*\", \"[0-1]*\")")).isEqualTo("function1.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"REGEXP\",\"\\d+\")", "bind(\"REGEXP\",\"[A-Z]*\",\"[0-1]*\")");
     }
 
 
     @Test
     public void expr_in_condition() {
-        assertThat(expr("a IN(2)")).isEqualTo("evaluate(IN,get(jsonValue,\"a\"),2)");
-        assertThat(expr("a IN(2,3)")).isEqualTo("evaluate(IN,get(jsonValue,\"a\"),2,3)");
+        assertThat(expr("a IN(2)")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(expr("a IN(2,3)")).isEqualTo("function1.test(get(jsonValue,\"a\"))");
+        assertThat(expr("b IN(2)")).isEqualTo("function0.test(get(jsonValue,\"b\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"IN\",2)", "bind(\"IN\",2,3)");
+    }
+
+    @Test
+    public void expr_in_not_constant_condition() {
+        assertThat(expr("a IN(2,b)")).isEqualTo("evaluate(\"IN\",get(jsonValue,\"a\"),2,get(jsonValue,\"b\"))");
+        assertThat(generator.getBoundFunctions()).isEmpty();
     }
 
     @Test
     public void expr_in_subnet_condition() {
-        assertThat(expr("a IN_SUBNET(\"10.12.1.0/23\")")).isEqualTo("evaluate(IN_SUBNET,get(jsonValue,\"a\"),\"10.12.1.0/23\")");
+        assertThat(expr("a IN_SUBNET(\"10.12.1.0/23\")")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"IN_SUBNET\",\"10.12.1.0/23\")");
     }
 
     @Test
     public void expr_not_in_subnet_condition() {
-        assertThat(expr("NOT(a IN_SUBNET(\"10.12.1.0/23\"))")).isEqualTo("!evaluate(IN_SUBNET,get(jsonValue,\"a\"),\"10.12.1.0/23\")");
-        assertThat(expr("a NOT IN_SUBNET(\"10.12.1.0/23\")")).isEqualTo("!evaluate(IN_SUBNET,get(jsonValue,\"a\"),\"10.12.1.0/23\")");
+        assertThat(expr("NOT(a IN_SUBNET(\"10.12.1.0/23\"))")).isEqualTo("!function0.test(get(jsonValue,\"a\"))");
+        assertThat(expr("a NOT IN_SUBNET(\"10.12.1.0/23\")")).isEqualTo("!function0.test(get(jsonValue,\"a\"))");
     }
 
     @Test
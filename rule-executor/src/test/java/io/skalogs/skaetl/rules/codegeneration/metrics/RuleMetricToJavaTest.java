@@ -58,12 +58,32 @@ public class RuleMetricToJavaTest {
                                 "    }\n" +
                                 "    \n" +
                                 "    @Override\n" +
-                                "    protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
+                                "    protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
                                 "        return aggregateTumblingWindow(kGroupedStream,5,MINUTES);\n" +
                                 "    }\n" +
+                                "    \n" +
+                                "    @Override\n" +
+                                "    protected Double mapValues(JsonNode value) {\n" +
+                                "        return 0d;\n" +
+                                "    }\n" +
                                 "}"));
     }
 
+    @Test
+    public void topk() {
+        RuleMetricToJava ruleToJava = new RuleMetricToJava();
+        String dsl = "SELECT topk(ip, 10) FROM mytopic WINDOW TUMBLING(5 MINUTES) TO KAFKA targettopic";
+        RuleCode rule = ruleToJava.convert("My_Topk_Rule", dsl);
+        assertThat(rule.getJava())
+                .contains("    protected KTable<Windowed<Keys>, AggregateFunction> aggregateText(KGroupedStream<Keys, String> kGroupedStream) {\n" +
+                        "        return aggregateTumblingWindow(kGroupedStream,5,MINUTES);\n" +
+                        "    }\n")
+                .contains("    protected String mapText(JsonNode value) {\n" +
+                        "        return value.path(\"ip\").asText();\n" +
+                        "    }\n")
+                .doesNotContain("mapValues");
+    }
+
     @Test
     public void min() {
         RuleMetricToJava ruleToJava = new RuleMetricToJava();
@@ -104,7 +124,7 @@ public class RuleMetricToJavaTest {
                                 "    }\n" +
                                 "    \n" +
                                 "    @Override\n" +
-                                "    protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
+                                "    protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
                                 "        return aggregateTumblingWindow(kGroupedStream,5,MINUTES);\n" +
                                 "    }\n" +
                                 "    \n" +
@@ -157,7 +177,7 @@ public class RuleMetricToJavaTest {
                                 "    }\n" +
                                 "    \n" +
                                 "    @Override\n" +
-                                "    protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
+                                "    protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
                                 "        return aggregateTumblingWindow(kGroupedStream,5,MINUTES);\n" +
                                 "    }\n" +
                                 "    \n" +
@@ -214,7 +234,7 @@ public class RuleMetricToJavaTest {
                                 "    }\n" +
                                 "    \n" +
                                 "    @Override\n" +
-                                "    protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
+                                "    protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
                                 "        return aggregateTumblingWindow(kGroupedStream,5,MINUTES);\n" +
                                 "    }\n" +
                                 "    \n" +
@@ -277,7 +297,7 @@ public class RuleMetricToJavaTest {
                                 "    }\n" +
                                 "    \n" +
                                 "    @Override\n" +
-                                "    protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
+                                "    protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
                                 "        return aggregateTumblingWindow(kGroupedStream,5,MINUTES);\n" +
                                 "    }\n" +
                                 "    \n" +
@@ -334,7 +354,7 @@ public class RuleMetricToJavaTest {
                                 "    }\n" +
                                 "    \n" +
                                 "    @Override\n" +
-                                "    protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
+                                "    protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
                                 "        return aggregateTumblingWindow(kGroupedStream,5,MINUTES);\n" +
                                 "    }\n" +
                                 "    \n" +
@@ -404,7 +424,7 @@ public class RuleMetricToJavaTest {
                                 "    }\n" +
                                 "    \n" +
                                 "    @Override\n" +
-                                "    protected KTable<Windowed<Keys>, Double> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
+                                "    protected KTable<Windowed<Keys>, AggregateFunction> aggregate(KGroupedStream<Keys, Double> kGroupedStream) {\n" +
                                 "        return aggregateTumblingWindow(kGroupedStream,5,MINUTES);\n" +
                                 "    }\n" +
                                 "    \n" +
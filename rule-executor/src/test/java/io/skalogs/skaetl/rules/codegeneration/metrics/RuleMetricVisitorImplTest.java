@@ -90,47 +90,61 @@ public class RuleMetricVisitorImplTest {
 
     @Test
     public void expr_is_blank_condition() {
-        assertThat(expr("IS_BLANK(a)")).isEqualTo("evaluate(IS_BLANK,get(jsonValue,\"a\"))");
+        assertThat(expr("IS_BLANK(a)")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"IS_BLANK\")");
     }
 
     @Test
     public void expr_is_not_blank_condition() {
-        assertThat(expr("IS_NOT_BLANK(a)")).isEqualTo("evaluate(IS_NOT_BLANK,get(jsonValue,\"a\"))");
+        assertThat(expr("IS_NOT_BLANK(a)")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"IS_NOT_BLANK\")");
     }
 
     @Test
     public void expr_is_number_condition() {
-        assertThat(expr("IS_NUMBER(a)")).isEqualTo("evaluate(IS_NUMBER,get(jsonValue,\"a\"))");
+        assertThat(expr("IS_NUMBER(a)")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"IS_NUMBER\")");
     }
 
     @Test
     public void expr_contains_condition() {
-        assertThat(expr("a CONTAINS(2)")).isEqualTo("evaluate(CONTAINS,get(jsonValue,\"a\"),2)");
-        assertThat(expr("a CONTAINS(2,3)")).isEqualTo("evaluate(CONTAINS,get(jsonValue,\"a\"),2,3)");
+        assertThat(expr("a CONTAINS(2)")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(expr("a CONTAINS(2,3)")).isEqualTo("function1.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"CONTAINS\",2)", "bind(\"CONTAINS\",2,3)");
     }
 
     @Test
     public void expr_regexp_condition() {
-        assertThat(expr("a REGEXP(\"\\d+\")")).isEqualTo("evaluate(REGEXP,get(jsonValue,\"a\"),\"\\d+\")");
-        assertThat(expr("a REGEXP(\"[A-Z]*\", \"[0-1]*\")")).isEqualTo("evaluate(REGEXP,get(jsonValue,\"a\"),\"[A-Z]*\",\"[0-1]*\")");
+        assertThat(expr("a REGEXP(\"\\d+\")")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(expr("a REGEXP(\"[A-Z]*\", \"[0-1]*\")")).isEqualTo("function1.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"REGEXP\",\"\\d+\")", "bind(\"REGEXP\",\"[A-Z]*\",\"[0-1]*\")");
     }
 
 
     @Test
     public void expr_in_condition() {
-        assertThat(expr("a IN(2)")).isEqualTo("evaluate(IN,get(jsonValue,\"a\"),2)");
-        assertThat(expr("a IN(2,3)")).isEqualTo("evaluate(IN,get(jsonValue,\"a\"),2,3)");
+        assertThat(expr("a IN(2)")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(expr("a IN(2,3)")).isEqualTo("function1.test(get(jsonValue,\"a\"))");
+        assertThat(expr("b IN(2)")).isEqualTo("function0.test(get(jsonValue,\"b\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"IN\",2)", "bind(\"IN\",2,3)");
+    }
+
+    @Test
+    public void expr_in_not_constant_condition() {
+        assertThat(expr("a IN(2,b)")).isEqualTo("evaluate(\"IN\",get(jsonValue,\"a\"),2,get(jsonValue,\"b\"))");
+        assertThat(generator.getBoundFunctions()).isEmpty();
     }
 
     @Test
     public void expr_in_subnet_condition() {
-        assertThat(expr("a IN_SUBNET(\"10.12.1.0/23\")")).isEqualTo("evaluate(IN_SUBNET,get(jsonValue,\"a\"),\"10.12.1.0/23\")");
+        assertThat(expr("a IN_SUBNET(\"10.12.1.0/23\")")).isEqualTo("function0.test(get(jsonValue,\"a\"))");
+        assertThat(generator.getBoundFunctions()).containsExactly("bind(\"IN_SUBNET\",\"10.12.1.0/23\")");
     }
 
     @Test
     public void expr_not_in_subnet_condition() {
-        assertThat(expr("NOT(a IN_SUBNET(\"10.12.1.0/23\"))")).isEqualTo("!evaluate(IN_SUBNET,get(jsonValue,\"a\"),\"10.12.1.0/23\")");
-        assertThat(expr("a NOT IN_SUBNET(\"10.12.1.0/23\")")).isEqualTo("!evaluate(IN_SUBNET,get(jsonValue,\"a\"),\"10.12.1.0/23\")");
+        assertThat(expr("NOT(a IN_SUBNET(\"10.12.1.0/23\"))")).isEqualTo("!function0.test(get(jsonValue,\"a\"))");
+        assertThat(expr("a NOT IN_SUBNET(\"10.12.1.0/23\")")).isEqualTo("!function0.test(get(jsonValue,\"a\"))");
     }
 
     @Test
@@ -222,6 +236,26 @@ public class RuleMetricVisitorImplTest {
         assertThat(convert.getJoinWhere()).isEqualTo("isGreaterThan(get(jsonValue,\"ageCapitaine\"),42)");
     }
 
+    @Test
+    public void aggFunctionParameters() {
+        RuleMetricVisitorImpl convert = convert("SELECT percentile(duration, 99.9) FROM mytopic WINDOW TUMBLING(5 MINUTES)");
+        assertThat(convert.getAggFunction()).isEqualTo("percentile");
+        assertThat(convert.getAggFunctionField()).isEqualTo("duration");
+        assertThat(convert.getAggFunctionParameters()).containsExactly("99.9d");
+
+        assertThat(convert("SELECT p95(duration) FROM mytopic WINDOW TUMBLING(5 MINUTES)").getAggFunctionParameters()).isEmpty();
+    }
+
+    @Test
+    public void countDistinct() {
+        RuleMetricVisitorImpl convert = convert("SELECT count_distinct(ip, 16) FROM mytopic WINDOW TUMBLING(5 MINUTES)");
+        assertThat(convert.getAggFunctionValue()).isEqualTo("distinctValue(value.path(\"ip\"))");
+        assertThat(convert.getAggFunctionParameters()).containsExactly("16d");
+
+        assertThat(convert("SELECT MIN(duration) FROM mytopic WINDOW TUMBLING(5 MINUTES)").getAggFunctionValue())
+                .isEqualTo("value.path(\"duration\").asDouble()");
+    }
+
     public RuleMetricVisitorImpl convert(String dsl) {
         RuleMetricVisitorImpl ruleVisitor = new RuleMetricVisitorImpl();
         ruleVisitor.visit(RuleMetricToJava.parser(dsl).parse());
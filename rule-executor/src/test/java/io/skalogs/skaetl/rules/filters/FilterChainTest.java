@@ -0,0 +1,132 @@
+package io.skalogs.skaetl.rules.filters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterToJava;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.skalogs.skaetl.rules.JSONUtils.createJsonNode;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FilterChainTest {
+
+    private final RuleFilterExecutor ruleFilterExecutor = new RuleFilterExecutor(new RuleFilterToJava());
+
+    @Test
+    public void conjunctions() {
+        assertThat(RuleFilterExecutor.conjunctions("code = 1 AND (status = 2 AND host IN(\"x\", \"y\")) AND (level = 1 OR env = 2)"))
+                .containsExactly("code = 1", "status = 2", "host IN(\"x\", \"y\")", "(level = 1 OR env = 2)");
+        assertThat(RuleFilterExecutor.conjunctions("code = 1 AND status = 2 OR host = 3"))
+                .containsExactly("code = 1 AND status = 2 OR host = 3");
+        assertThat(RuleFilterExecutor.conjunctions("type NOT IN(\"apache\") AND NOT(status = 2)"))
+                .containsExactly("type NOT IN(\"apache\")", "NOT(status = 2)");
+    }
+
+    @Test
+    public void sharedClausesEvaluatedOnce() {
+        Map<String, String> criteria = new LinkedHashMap<>();
+        criteria.put("only apache", "type = \"apache\" AND code >= 200");
+        criteria.put("no errors", "code < 400 AND type = \"apache\"");
+        FilterChain filterChain = ruleFilterExecutor.instanciate("sharedClausesEvaluatedOnce", criteria);
+
+        assertThat(filterChain.getClauses().stream().map(FilterChain.Clause::getDsl).collect(Collectors.toList()))
+                .containsExactly("type = \"apache\"", "code >= 200", "code < 400");
+        assertThat(filterChain.getClauses().get(0).getFilterNames()).containsExactly("only apache", "no errors");
+        assertThat(filterChain.getClauses().get(1).getFilterNames()).containsExactly("only apache");
+        assertThat(filterChain.filter(createJsonNode("{\"type\": \"apache\", \"code\": 200}"))).isTrue();
+        assertThat(filterChain.filter(createJsonNode("{\"type\": \"apache\", \"code\": 503}"))).isFalse();
+        assertThat(filterChain.filter(createJsonNode("{\"type\": \"nginx\", \"code\": 200}"))).isFalse();
+    }
+
+    @Test
+    public void countsWhatEachClauseRejects() {
+        Map<String, String> criteria = new LinkedHashMap<>();
+        criteria.put("apache", "type = \"apache\"");
+        criteria.put("success", "code < 400");
+        FilterChain filterChain = ruleFilterExecutor.instanciate("countsWhatEachClauseRejects", criteria);
+
+        filterChain.filter(createJsonNode("{\"type\": \"nginx\", \"code\": 200}"));
+        filterChain.filter(createJsonNode("{\"type\": \"apache\", \"code\": 503}"));
+        filterChain.filter(createJsonNode("{\"type\": \"apache\", \"code\": 200}"));
+
+        FilterChain.Clause apache = filterChain.getClauses().get(0);
+        FilterChain.Clause success = filterChain.getClauses().get(1);
+        assertThat(apache.getRejected().sum()).isEqualTo(1);
+        assertThat(success.getRejected().sum()).isEqualTo(1);
+    }
+
+    @Test
+    public void oneClassForAllClauses() {
+        Map<String, String> criteria = new LinkedHashMap<>();
+        criteria.put("apache", "type = \"apache\" AND user.country = \"FR\"");
+        criteria.put("french adults", "user.country = \"FR\" AND user.age >= 18");
+        FilterChain filterChain = ruleFilterExecutor.instanciate("oneClassForAllClauses", criteria);
+
+        assertThat(filterChain.getClauses()).hasSize(3);
+        assertThat(filterChain.filter(createJsonNode("{\"type\": \"apache\", \"user\": {\"country\": \"FR\", \"age\": 34}}"))).isTrue();
+        assertThat(filterChain.filter(createJsonNode("{\"type\": \"apache\", \"user\": {\"country\": \"FR\", \"age\": 17}}"))).isFalse();
+        assertThat(filterChain.filter(createJsonNode("{\"type\": \"apache\", \"user\": {\"country\": \"US\", \"age\": 34}}"))).isFalse();
+        assertThat(filterChain.filter(null)).isFalse();
+    }
+
+    @Test
+    public void mostSelectiveClauseFirst() {
+        GenericFilterClauses genericFilterClauses = new GenericFilterClauses(2) {
+            @Override
+            protected boolean clause(JsonNode jsonValue, int index) {
+                return index == 0 ? jsonValue.path("code").asInt() < 500 : "apache".equals(jsonValue.path("type").asText());
+            }
+        };
+        // every event timed so the costs are not left to chance
+        FilterChain filterChain = new FilterChain("mostSelectiveClauseFirst", genericFilterClauses, Arrays.asList(
+                new FilterChain.Clause("rarely rejects", "code < 500", 0),
+                new FilterChain.Clause("mostly rejects", "type = \"apache\"", 1)
+        ), 0);
+
+        for (int i = 0; i < 1000; i++) {
+            String type = i % 10 == 0 ? "apache" : "nginx";
+            int code = i % 10 == 1 ? 503 : 200;
+            filterChain.filter(createJsonNode("{\"type\": \"" + type + "\", \"code\": " + code + "}"));
+        }
+        filterChain.reorder();
+
+        assertThat(filterChain.getClauses().get(0).getFilterNames()).containsExactly("mostly rejects");
+        assertThat(filterChain.filter(createJsonNode("{\"type\": \"apache\", \"code\": 200}"))).isTrue();
+        assertThat(filterChain.filter(createJsonNode("{\"type\": \"apache\", \"code\": 503}"))).isFalse();
+    }
+
+    @Test
+    public void failingClauseRejectsOnceReordered() {
+        // the second clause fails on objects, the first one guarded it
+        GenericFilterClauses genericFilterClauses = new GenericFilterClauses(2) {
+            @Override
+            protected boolean clause(JsonNode jsonValue, int index) {
+                if (index == 0) {
+                    return !jsonValue.path("value").isObject();
+                }
+                if (jsonValue.path("value").isObject()) {
+                    throw new IllegalArgumentException("OBJECT type is not yet supported");
+                }
+                return jsonValue.path("value").asInt() == 1;
+            }
+        };
+        FilterChain filterChain = new FilterChain("failingClauseRejectsOnceReordered", genericFilterClauses, Arrays.asList(
+                new FilterChain.Clause("guard", "is_object(value) = false", 0),
+                new FilterChain.Clause("value", "value = 1", 1)
+        ), 0);
+
+        for (int i = 0; i < 1000; i++) {
+            filterChain.filter(createJsonNode("{\"value\": " + (i % 10 == 0 ? 1 : 2) + "}"));
+        }
+        filterChain.reorder();
+
+        assertThat(filterChain.getClauses().get(0).getFilterNames()).containsExactly("value");
+        assertThat(filterChain.filter(createJsonNode("{\"value\": {\"nested\": 1}}"))).isFalse();
+        assertThat(filterChain.filter(createJsonNode("{\"value\": 1}"))).isTrue();
+        assertThat(filterChain.filter(createJsonNode("{\"value\": 2}"))).isFalse();
+    }
+}
@@ -0,0 +1,106 @@
+package io.skalogs.skaetl.rules.filters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.skalogs.skaetl.rules.codegeneration.CompiledClassCache;
+import io.skalogs.skaetl.rules.codegeneration.RuleCompiler;
+import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterToBytecode;
+import io.skalogs.skaetl.rules.codegeneration.filters.RuleFilterToJava;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.skalogs.skaetl.rules.JSONUtils.createJsonNode;
+import static io.skalogs.skaetl.rules.UtilsValidator.*;
+
+/**
+ * Per-event cost of a 10 clauses generated filter, compared with the code the generator used to emit (boxed values
+ * through get, Number comparisons, varargs evaluate for every function call), and what it costs to get the class from
+ * javac or from the byte code generator.
+ * Not part of the test suite, run the main method from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleFilterBenchmark {
+
+    private static final String DSL = "response_code >= 200 AND response_code < 400 AND bytes > 100 AND duration <= 2.5 " +
+            "AND project = \"skalogs\" AND type != \"nginx\" AND user.country = \"FR\" AND user.age >= 18 " +
+            "AND remote_ip IN_SUBNET(\"10.0.0.0/8\", \"192.168.0.0/16\") AND method IN(\"GET\", \"POST\")";
+
+    private static final String EVENT = "{\"project\":\"skalogs\",\"type\":\"apache\",\"@timestamp\":\"2018-03-12T10:15:30.000Z\"," +
+            "\"remote_ip\":\"10.10.13.1\",\"method\":\"GET\",\"request\":\"/index.html\",\"response_code\":200,\"bytes\":2326," +
+            "\"duration\":0.25,\"user\":{\"name\":\"jdoe\",\"country\":\"FR\",\"age\":34},\"agent\":\"Mozilla/5.0 (X11; Linux x86_64)\"}";
+
+    private final RuleFilterToJava ruleFilterToJava = new RuleFilterToJava();
+    private final RuleFilterToBytecode ruleFilterToBytecode = new RuleFilterToBytecode();
+    private GenericFilter generatedFilter;
+    private GenericFilter bytecodeFilter;
+    private GenericFilter legacyFilter;
+    private JsonNode event;
+
+    @Setup
+    public void setup() {
+        generatedFilter = new RuleFilterExecutor(ruleFilterToJava).instanciate("benchmark", DSL);
+        bytecodeFilter = new RuleFilterExecutor(ruleFilterToJava, ruleFilterToBytecode, new CompiledClassCache(), RuleCompiler.BYTECODE).instanciate("benchmark", DSL);
+        legacyFilter = new LegacyFilter();
+        event = createJsonNode(EVENT);
+        if (!generatedFilter.filter(event) || !bytecodeFilter.filter(event) || !legacyFilter.filter(event)) {
+            throw new IllegalStateException("Every clause must be evaluated");
+        }
+    }
+
+    @Benchmark
+    public boolean generated() {
+        return generatedFilter.filter(event);
+    }
+
+    @Benchmark
+    public boolean bytecode() {
+        return bytecodeFilter.filter(event);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        return legacyFilter.filter(event);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<String, byte[]> compileWithJavac() {
+        return CompiledClassCache.javac(RuleFilterToJava.ruleClassName("benchmark"), ruleFilterToJava.convert("benchmark", DSL).getJava());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<String, byte[]> compileToBytecode() {
+        return ruleFilterToBytecode.convert("benchmark", DSL);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RuleFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    // what the generator produced for DSL before typed access, nested fields written by hand
+    public static class LegacyFilter extends GenericFilter {
+        @Override
+        protected boolean doFilter(JsonNode jsonValue) {
+            return isGreaterThanOrEqual(get(jsonValue, "response_code"), 200) &&
+                    isLowerThan(get(jsonValue, "response_code"), 400) &&
+                    isGreaterThan(get(jsonValue, "bytes"), 100) &&
+                    isLowerThanOrEqual(get(jsonValue, "duration"), 2.5f) &&
+                    isEqualTo(get(jsonValue, "project"), "skalogs") &&
+                    isDifferentFrom(get(jsonValue, "type"), "nginx") &&
+                    isEqualTo(get(jsonValue.path("user"), "country"), "FR") &&
+                    isGreaterThanOrEqual(get(jsonValue.path("user"), "age"), 18) &&
+                    evaluate("IN_SUBNET", get(jsonValue, "remote_ip"), "10.0.0.0/8", "192.168.0.0/16") &&
+                    evaluate("IN", get(jsonValue, "method"), "GET", "POST");
+        }
+    }
+}
@@ -71,9 +71,44 @@ public class FunctionRegistryTest {
         assertThat(evaluate("IS_NOT_BLANK", (Object) UtilsValidator.get(jsonNode, "missingkey"))).isFalse();
     }
 
+    @Test
+    public void bound_in() {
+        BoundFilter in = FunctionRegistry.getInstance().bind("IN", "titi", "toto", "tata");
+        assertThat(in.test("toto")).isTrue();
+        assertThat(in.test("tutu")).isFalse();
+        assertThat(in.test(null)).isFalse();
+    }
+
+    @Test
+    public void bound_regexp() {
+        BoundFilter regexp = FunctionRegistry.getInstance().bind("REGEXP", "[A-Z]+", "[0-9]+");
+        assertThat(regexp.test("ABC")).isTrue();
+        assertThat(regexp.test("123")).isTrue();
+        assertThat(regexp.test("abc")).isFalse();
+        assertThat(regexp.test(null)).isFalse();
+    }
+
+    @Test
+    public void bound_inSubnet() {
+        BoundFilter inSubnet = FunctionRegistry.getInstance().bind("IN_SUBNET", "10.12.0.0/23", "192.168.*.*", "172.16.*.1");
+        assertThat(inSubnet.test("10.12.1.254")).isTrue();
+        assertThat(inSubnet.test("10.12.2.1")).isFalse();
+        assertThat(inSubnet.test("192.168.42.3")).isTrue();
+        assertThat(inSubnet.test("172.16.200.1")).isTrue();
+        assertThat(inSubnet.test("172.16.200.2")).isFalse();
+        assertThat(inSubnet.test("not an ip")).isFalse();
+        assertThat(inSubnet.test(null)).isFalse();
+    }
+
+    @Test
+    public void bound_oneArg() {
+        BoundFilter isBlank = FunctionRegistry.getInstance().bind("IS_BLANK");
+        assertThat(isBlank.test("")).isTrue();
+        assertThat(isBlank.test("titi")).isFalse();
+    }
+
     private boolean evaluate(String functionName, Object... args) {
         return FunctionRegistry.getInstance().evaluate(functionName, args);
     }
 
-
-}
\ No newline at end of file
+}
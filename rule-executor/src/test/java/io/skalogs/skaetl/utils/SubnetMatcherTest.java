@@ -0,0 +1,52 @@
+package io.skalogs.skaetl.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SubnetMatcherTest {
+
+    @Test
+    public void cidr() {
+        SubnetMatcher subnetMatcher = new SubnetMatcher(Arrays.asList("10.12.0.0/23", "192.168.1.17/32", "172.16.0.0/12"));
+        assertThat(subnetMatcher.matches("10.12.0.0")).isTrue();
+        assertThat(subnetMatcher.matches("10.12.1.255")).isTrue();
+        assertThat(subnetMatcher.matches("10.12.2.0")).isFalse();
+        assertThat(subnetMatcher.matches("192.168.1.17")).isTrue();
+        assertThat(subnetMatcher.matches("192.168.1.18")).isFalse();
+        assertThat(subnetMatcher.matches("172.31.255.1")).isTrue();
+        assertThat(subnetMatcher.matches("172.32.0.1")).isFalse();
+    }
+
+    @Test
+    public void singleAddressAndAll() {
+        assertThat(new SubnetMatcher(Collections.singletonList("8.8.8.8")).matches("8.8.8.8")).isTrue();
+        assertThat(new SubnetMatcher(Collections.singletonList("8.8.8.8")).matches("8.8.8.9")).isFalse();
+        assertThat(new SubnetMatcher(Collections.singletonList("0.0.0.0/0")).matches("255.255.255.255")).isTrue();
+    }
+
+    @Test
+    public void wildcard() {
+        SubnetMatcher subnetMatcher = new SubnetMatcher(Arrays.asList("10.1.*.*", "10.*.3.4"));
+        assertThat(subnetMatcher.matches("10.1.200.3")).isTrue();
+        assertThat(subnetMatcher.matches("10.99.3.4")).isTrue();
+        assertThat(subnetMatcher.matches("10.99.3.5")).isFalse();
+    }
+
+    @Test
+    public void invalidAddress() {
+        SubnetMatcher subnetMatcher = new SubnetMatcher(Collections.singletonList("0.0.0.0/0"));
+        assertThat(subnetMatcher.matches("10.1.2")).isFalse();
+        assertThat(subnetMatcher.matches("10.1.2.256")).isFalse();
+        assertThat(subnetMatcher.matches("10.1.2.3.4")).isFalse();
+        assertThat(subnetMatcher.matches("fe80::1")).isFalse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSubnet() {
+        new SubnetMatcher(Collections.singletonList("10.12.0.0/33"));
+    }
+}